@@ -0,0 +1 @@
+// This file extends the OCSF framework supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.bench;import java.io.*;import java.util.*;import ocsf.common.*;/*** Measures what <code> PayloadCompressor </code> gains on lists of rows of* different sizes, to choose a compression threshold. For every list size* and deflate level it prints the serialized and compressed sizes, the* time spent compressing and decompressing, and the time saved on the* wire at a few link speeds, compression and decompression included.* Compression pays off from the first size where the saving is* positive on the slowest link the application must serve.<p>** Usage: <code>java ocsf.bench.CompressionBenchmark [iterations]</code>* (default: 2000).<p>** Project Name: OCSF (Object Client-Server Framework)<p>*/public class CompressionBenchmark{  /**   * Number of rows in the lists measured.   */  private static final int[] ROWS = {1, 5, 10, 25, 50, 100, 500, 2000};  /**   * Link speeds in megabits per second.   */  private static final double[] LINKS_MBPS = {2, 10, 100};  /**   * A row of a list, similar to the rows of the Bistro tables.   */  private static class Row implements Serializable  {    private static final long serialVersionUID = 1L;    final long code;    final int guests;    final String date;    final String status;    final String name;    Row(long code, int guests, String date, String status, String name)    {      this.code = code;      this.guests = guests;      this.date = date;      this.status = status;      this.name = name;    }  }  public static void main(String[] args) throws Exception  {    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;    String[] statuses = {"ACTIVE", "ARRIVED", "CANCELLED", "NOSHOW"};    Random random = new Random(42);    System.out.print("rows  level   bytes  compressed  deflate-us  inflate-us");    for (double mbps : LINKS_MBPS)      System.out.printf("  saved-us@%sM", (int)mbps);    System.out.println();    for (int rows : ROWS)    {      ArrayList<Row> list = new ArrayList<Row>(rows);      for (int r = 0; r < rows; r++)        list.add(new Row(100000 + random.nextInt(900000), 1 + random.nextInt(8),          "2026-03-" + (10 + random.nextInt(18)) + " 19:30:00",          statuses[random.nextInt(statuses.length)],          "Guest " + random.nextInt(5000)));      byte[] payload = FrameCodec.encodePayload(list, null);      for (int level : new int[] {1, 6})      {        byte[] compressed = null;        long start = System.nanoTime();        for (int i = 0; i < iterations; i++)          compressed = FrameCodec.compress(payload, level);        double deflateUs = (System.nanoTime() - start) / 1000.0 / iterations;        int sent = compressed == null ? payload.length : compressed.length;        double inflateUs = 0;        if (compressed != null)        {          start = System.nanoTime();          for (int i = 0; i < iterations; i++)            FrameCodec.decode(compressed, null);          long decoding = System.nanoTime() - start;          start = System.nanoTime();          for (int i = 0; i < iterations; i++)            FrameCodec.decode(payload, null);          // Deserialization happens either way: only count the inflating          inflateUs = Math.max(0,            (decoding - (System.nanoTime() - start)) / 1000.0 / iterations);        }        System.out.printf("%4d  %5d  %6d  %10d  %10.1f  %10.1f", rows, level,          payload.length, sent, deflateUs, inflateUs);        for (double mbps : LINKS_MBPS)        {          double wireUs = (payload.length - sent) * 8 / mbps;          System.out.printf("  %12.0f", wireUs - deflateUs - inflateUs);        }        System.out.println();      }    }  }}// End of CompressionBenchmark class
\ No newline at end of file
@@ -0,0 +1 @@
+// This file extends the OCSF framework supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.bench;import java.lang.management.*;import java.util.*;import java.util.concurrent.*;import java.util.concurrent.atomic.*;import ocsf.server.*;/*** Compares the ways a server can run handlers that block on the* database, with many clients connected at once: each client's own* thread running the handler, the <code> RequestDispatcher </code> with* a fixed pool of platform threads, and the dispatcher running each* message on a virtual thread.<p>** Every simulated client sends a request, waits for its answer, pauses* for a think time and sends the next one. The clients' first requests* are spread over one think time, so that the run measures a steady* load rather than all clients connecting at the same instant. The handler borrows one of a* few database connections, like the connection pool of the Bistro* server, and holds it for the duration of a query, simulated by a* sleep so that no MySQL server is needed. The dispatcher modes run at* most as many handlers at once as there are connections.<p>** For each mode the peak number of live platform threads and the latency* percentiles, from sending a request to the end of its handler, are* printed in milliseconds.<p>** Usage: <code>java ocsf.bench.DispatcherBenchmark [clients* [requests [queryMillis [thinkMillis]]]]</code> (default: 1000* clients sending 10 requests each, 2 ms queries, 500 ms think time,* 8 connections).<p>** Project Name: OCSF (Object Client-Server Framework)<p>*/public class DispatcherBenchmark{  /**   * Number of simulated database connections.   */  private static final int CONNECTIONS = 8;  /**   * Maximum number of messages waiting in a dispatcher.   */  private static final int MAX_PENDING = 256;  public static void main(String[] args) throws Exception  {    int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;    int requests = args.length > 1 ? Integer.parseInt(args[1]) : 10;    int queryMillis = args.length > 2 ? Integer.parseInt(args[2]) : 2;    int thinkMillis = args.length > 3 ? Integer.parseInt(args[3]) : 500;    System.out.println(clients + " clients x " + requests + " requests, "      + queryMillis + " ms queries on " + CONNECTIONS + " connections, "      + thinkMillis + " ms think time");    System.out.println("mode                     threads  p50-ms  p90-ms  "      + "p99-ms  max-ms");    // Warm-up, not printed    runDispatched(RequestDispatcher.ofVirtualThreads(CONNECTIONS,      MAX_PENDING), 100, requests, queryMillis, 10);    runDispatched(new RequestDispatcher(CONNECTIONS, MAX_PENDING), 100,      requests, queryMillis, 10);    print("thread per client", runThreadPerClient(clients, requests,      queryMillis, thinkMillis));    print("platform pool", runDispatched(new RequestDispatcher(      CONNECTIONS, MAX_PENDING), clients, requests, queryMillis,      thinkMillis));    print("virtual threads", runDispatched(      RequestDispatcher.ofVirtualThreads(CONNECTIONS, MAX_PENDING),      clients, requests, queryMillis, thinkMillis));    System.exit(0);  }  /**   * Runs the handlers on the clients' own threads, as a server does   * that has no dispatcher.   */  private static Result runThreadPerClient(int clients,    final int requests, final int queryMillis, final int thinkMillis)    throws Exception  {    final Semaphore connections = new Semaphore(CONNECTIONS, true);    final Result result = new Result(clients * requests);    List<Thread> threads = new ArrayList<Thread>();    ThreadMXBean mx = ManagementFactory.getThreadMXBean();    mx.resetPeakThreadCount();    for (int i = 0; i < clients; i++)    {      final long startDelay = (long)i * thinkMillis / clients;      Thread t = new Thread(new Runnable()      {        public void run()        {          try          {            Thread.sleep(startDelay);            for (int r = 0; r < requests; r++)            {              long sent = System.nanoTime();              query(connections, queryMillis);              result.record(System.nanoTime() - sent);              Thread.sleep(thinkMillis);            }          }          catch (InterruptedException ex) {}        }      });      t.setDaemon(true);      threads.add(t);      t.start();    }    for (Thread t : threads)      t.join();    result.peakThreads = mx.getPeakThreadCount();    return result;  }  /**   * Runs the handlers through a dispatcher. The clients are driven by a   * single timer thread, like connections served by a selector: a   * client's next request is sent a think time after the answer to its   * previous one.   */  private static Result runDispatched(final RequestDispatcher dispatcher,    final int clients, final int requests, final int queryMillis,    final int thinkMillis) throws Exception  {    final Semaphore connections = new Semaphore(CONNECTIONS, true);    final Result result = new Result(clients * requests);    final ScheduledExecutorService timer =      Executors.newSingleThreadScheduledExecutor();    ThreadMXBean mx = ManagementFactory.getThreadMXBean();    mx.resetPeakThreadCount();    for (int i = 0; i < clients; i++)    {      final Integer client = i;      final AtomicInteger sentCount = new AtomicInteger();      timer.schedule(new Runnable()      {        public void run()        {          final Runnable next = this;          final long sent = System.nanoTime();          try          {            dispatcher.dispatch(client, "QUERY", new Runnable()            {              public void run()              {                try                {                  query(connections, queryMillis);                }                catch (InterruptedException ex)                {                  return;                }                result.record(System.nanoTime() - sent);                if (sentCount.incrementAndGet() < requests)                  timer.schedule(next, thinkMillis, TimeUnit.MILLISECONDS);              }            });          }          catch (InterruptedException ex) {}        }      }, (long)i * thinkMillis / clients, TimeUnit.MILLISECONDS);    }    result.done.await();    result.peakThreads = mx.getPeakThreadCount();    timer.shutdownNow();    dispatcher.shutdown();    return result;  }  /**   * Holds one of the connections for the duration of a query.   */  private static void query(Semaphore connections, int queryMillis)    throws InterruptedException  {    connections.acquire();    try    {      Thread.sleep(queryMillis);    }    finally    {      connections.release();    }  }  /**   * Prints the thread count and latency percentiles of a run.   */  private static void print(String mode, Result result)  {    long[] latencies = result.sorted();    System.out.println(String.format("%-24s %8d %7.1f %7.1f %7.1f %7.1f",      mode, result.peakThreads, percentile(latencies, 50),      percentile(latencies, 90), percentile(latencies, 99),      latencies[latencies.length - 1] / 1000000.0));  }  /**   * Returns a percentile of sorted latencies, in milliseconds.   */  private static double percentile(long[] sorted, int percent)  {    int index = Math.min(sorted.length - 1, sorted.length * percent / 100);    return sorted[index] / 1000000.0;  }  /**   * The latencies recorded during a run.   */  private static class Result  {    final long[] latencies;    final AtomicInteger count = new AtomicInteger();    final CountDownLatch done;    int peakThreads;    Result(int total)    {      latencies = new long[total];      done = new CountDownLatch(total);    }    void record(long nanos)    {      latencies[count.getAndIncrement()] = nanos;      done.countDown();    }    long[] sorted()    {      long[] copy = Arrays.copyOf(latencies, count.get());      Arrays.sort(copy);      return copy;    }  }}// End of DispatcherBenchmark class
\ No newline at end of file
@@ -0,0 +1 @@
+// This file extends the OCSF framework supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.bench;import java.net.*;import java.nio.file.*;import java.util.*;import java.util.concurrent.*;import ocsf.client.*;import ocsf.server.*;/*** Compares the round trip latency of a client on the same host connected* through loopback TCP, with each server transport, and through the* local Unix-domain socket of the server, which is served the same way* with either transport.<p>** The request has the shape of a terminal arrival in the Bistro* application: a list holding the command name and a confirmation code,* answered by a short status. One client sends a request, waits for the* answer and sends the next one; the latency percentiles are printed in* microseconds after a warm-up. The selector transport hands the request* to a dispatcher of one worker, which it requires.<p>** Usage: <code>java ocsf.bench.LocalSocketBenchmark [requests]</code>* (default: 20000).<p>** Project Name: OCSF (Object Client-Server Framework)<p>*/public class LocalSocketBenchmark{  /**   * Port used by the server under test.   */  private static final int PORT = 5603;  /**   * A server answering every arrival with a status.   */  private static class ArrivalServer extends AbstractServer  {    ArrivalServer(int port)    {      super(port);    }    protected void handleMessageFromClient(Object msg,      ConnectionToClient client)    {      try      {        client.sendToClient("TABLE_READY");      }      catch (Exception ex) {}    }  }  /**   * A client handing every answer to the thread waiting for it.   */  private static class TerminalClient extends AbstractClient  {    final SynchronousQueue<Object> answers = new SynchronousQueue<Object>();    TerminalClient(int port)    {      super("localhost", port);    }    protected void handleMessageFromServer(Object msg)    {      try      {        answers.put(msg);      }      catch (InterruptedException ex) {}    }  }  public static void main(String[] args) throws Exception  {    int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20000;    Path socketPath = Files.createTempDirectory("ocsf-bench").resolve("sock");    System.out.println("transport                  p50-us  p90-us  p99-us  "      + "mean-us");    run("loopback TCP, classic", false, null, requests);    run("loopback TCP, selector", true, null, requests);    run("unix socket", false, UnixDomainSocketAddress.of(socketPath),      requests);    run("unix socket, selector", true, UnixDomainSocketAddress.of(socketPath),      requests);    Files.deleteIfExists(socketPath.getParent());    System.exit(0);  }  /**   * Measures the round trips of one configuration.   */  private static void run(String name, boolean selector,    UnixDomainSocketAddress local, int requests) throws Exception  {    ArrivalServer server = new ArrivalServer(PORT);    server.setSelectorTransport(selector);    if (selector)      server.setDispatcher(new RequestDispatcher(1, 64));    server.setLocalAddress(local);    server.getTransportOptions().setTcpNoDelay(true);    server.listen();    TerminalClient client = new TerminalClient(PORT);    client.setFramedTransport(selector);    client.setLocalAddress(local);    client.getTransportOptions().setTcpNoDelay(true);    client.openConnection();    try    {      long[] latencies = new long[requests];      int warmup = Math.min(5000, requests);      for (int i = -warmup; i < requests; i++)      {        ArrayList<Object> arrival = new ArrayList<Object>(2);        arrival.add("PROCESS_TERMINAL_ARRIVAL");        arrival.add(Long.valueOf(100000 + (i & 0xffff)));        long start = System.nanoTime();        client.sendToServer(arrival);        if (client.answers.poll(5, TimeUnit.SECONDS) == null)          throw new IllegalStateException("no answer");        if (i >= 0)          latencies[i] = System.nanoTime() - start;      }      Arrays.sort(latencies);      long total = 0;      for (long latency : latencies)        total += latency;      System.out.printf("%-25s  %6.1f  %6.1f  %6.1f  %7.1f%n", name,        percentile(latencies, 50), percentile(latencies, 90),        percentile(latencies, 99), total / 1000.0 / requests);    }    finally    {      client.closeConnection();      server.close();      Thread.sleep(300);    }  }  /**   * Returns a percentile of sorted latencies, in microseconds.   */  private static double percentile(long[] sorted, int percent)  {    int index = Math.min(sorted.length - 1, sorted.length * percent / 100);    return sorted[index] / 1000.0;  }}// End of LocalSocketBenchmark class
\ No newline at end of file
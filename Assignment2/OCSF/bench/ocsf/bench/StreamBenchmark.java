@@ -0,0 +1 @@
+// This file extends the OCSF framework supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.bench;import java.io.*;import java.lang.management.*;import java.util.*;import java.util.concurrent.*;import ocsf.client.*;import ocsf.common.*;import ocsf.server.*;/*** Measures the classic object stream transport with different* <code> TransportOptions</code>: how fast the server can push lists to* its clients, and how much heap each connection keeps once the lists* have been delivered.<p>** Every run opens a few clients and has the server send each of them* the same number of lists of small rows, all distinct objects. The* throughput counts messages received by the clients. The retained heap* is measured after a garbage collection, with the connections still* open: a stream that is never reset keeps every row it has sent.<p>** Usage: <code>java ocsf.bench.StreamBenchmark [messages [clients]]</code>* (default: 5000 messages to each of 4 clients).<p>** Project Name: OCSF (Object Client-Server Framework)<p>*/public class StreamBenchmark{  /**   * Port used by the server under test.   */  private static final int PORT = 5602;  /**   * Number of rows in each list sent.   */  private static final int ROWS_PER_MESSAGE = 20;  /**   * A row of a list, similar to the rows of the Bistro tables.   */  private static class Row implements Serializable  {    private static final long serialVersionUID = 1L;    final long code;    final int guests;    final String time;    Row(long code, int guests, String time)    {      this.code = code;      this.guests = guests;      this.time = time;    }  }  /**   * A server that ignores every message.   */  private static class PushServer extends AbstractServer  {    PushServer(int port)    {      super(port);    }    protected void handleMessageFromClient(Object msg,      ConnectionToClient client) {}  }  /**   * A client counting the lists it receives.   */  private static class CountingClient extends AbstractClient  {    final CountDownLatch remaining;    CountingClient(int port, CountDownLatch remaining)    {      super("localhost", port);      this.remaining = remaining;    }    protected void handleMessageFromServer(Object msg)    {      remaining.countDown();    }  }  public static void main(String[] args) throws Exception  {    int messages = args.length > 0 ? Integer.parseInt(args[0]) : 5000;    int clients = args.length > 1 ? Integer.parseInt(args[1]) : 4;    System.out.println("configuration                 msgs/s  "      + "retainedKB/conn");    // The original server streams: unbuffered and never reset    run("unbuffered, never reset", options(0, 0, false), false,      messages, clients);    run("unbuffered, reset 1", options(0, 1, false), false, messages, clients);    run("buffered, reset 1", options(8192, 1, false), false, messages, clients);    run("buffered, reset 64", options(8192, 64, false), false,      messages, clients);    run("buffered, reset 1, nodelay", options(8192, 1, true), false,      messages, clients);    run("+ writer queue (coalesced)", options(8192, 1, true), true,      messages, clients);    System.exit(0);  }  /**   * Builds the options of one configuration.   */  private static TransportOptions options(int buffer, int reset,    boolean noDelay)  {    TransportOptions options = new TransportOptions();    options.setStreamBufferSize(buffer);    options.setResetInterval(reset);    options.setTcpNoDelay(noDelay);    return options;  }  /**   * Pushes <code>messages</code> lists to each of <code>clients</code>   * clients and prints the throughput and retained heap. With a writer   * queue, the queue holds every message so that none is dropped.   */  private static void run(String name, TransportOptions options,    boolean queued, int messages, int clients) throws Exception  {    PushServer server = new PushServer(PORT);    server.setTransportOptions(options);    server.setOutboundQueue(queued ? messages : 0,      AbstractServer.SlowClientPolicy.DISCONNECT);    server.listen();    CountDownLatch remaining = new CountDownLatch(messages * clients);    List<CountingClient> connected = new ArrayList<CountingClient>();    try    {      long before = usedHeap();      for (int i = 0; i < clients; i++)      {        CountingClient client = new CountingClient(PORT, remaining);        client.openConnection();        connected.add(client);      }      while (server.getNumberOfClients() < clients)        Thread.sleep(10);      long start = System.nanoTime();      List<Thread> senders = new ArrayList<Thread>();      for (Thread thread : server.getClientConnections())      {        final ConnectionToClient connection = (ConnectionToClient)thread;        Thread sender = new Thread()        {          public void run()          {            send(connection, messages);          }        };        sender.start();        senders.add(sender);      }      for (Thread sender : senders)        sender.join();      remaining.await();      long elapsed = System.nanoTime() - start;      long retained = usedHeap() - before;      System.out.printf("%-27s  %8.0f  %15d%n", name,        messages * (double)clients * 1e9 / elapsed,        Math.max(0, retained) / 1024 / clients);    }    finally    {      for (CountingClient client : connected)        client.closeConnection();      server.close();      Thread.sleep(300);    }  }  /**   * Sends distinct lists of rows to one client.   */  private static void send(ConnectionToClient connection, int messages)  {    try    {      for (int m = 0; m < messages; m++)      {        ArrayList<Row> rows = new ArrayList<Row>(ROWS_PER_MESSAGE);        for (int r = 0; r < ROWS_PER_MESSAGE; r++)          rows.add(new Row(1736954123456L + m * ROWS_PER_MESSAGE + r,            1 + r % 8, "2026-03-14 19:30:00"));        connection.sendToClient(rows);      }    }    catch (IOException ex)    {      throw new UncheckedIOException(ex);    }  }  /**   * Returns the heap in use after a garbage collection.   */  private static long usedHeap() throws InterruptedException  {    for (int i = 0; i < 3; i++)    {      System.gc();      Thread.sleep(100);    }    return ManagementFactory.getMemoryMXBean()      .getHeapMemoryUsage().getUsed();  }}// End of StreamBenchmark class
\ No newline at end of file
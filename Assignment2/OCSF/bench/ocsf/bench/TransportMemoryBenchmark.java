@@ -0,0 +1 @@
+// This file extends the OCSF framework supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.bench;import java.io.*;import java.lang.management.*;import java.net.*;import java.nio.file.*;import java.util.*;import ocsf.server.*;/*** Measures what idle connections cost the server with the classic* thread-per-client transport and with the selector transport.<p>** For each transport the benchmark starts a server, opens the requested* numbers of idle client sockets and reports the number of live threads,* the heap in use after a garbage collection and the resident set size of* the process (Linux only). Thread stacks are not part of the heap, so the* resident set size is the figure to compare.<p>** Usage: <code>java ocsf.bench.TransportMemoryBenchmark [n1 n2 ...]</code>* (default: 100 500 1000 connections).<p>** Project Name: OCSF (Object Client-Server Framework)<p>*/public class TransportMemoryBenchmark{  /**   * Port used by the server under test.   */  private static final int PORT = 5601;  /**   * A server that ignores every message.   */  private static class IdleServer extends AbstractServer  {    IdleServer(int port)    {      super(port);    }    protected void handleMessageFromClient(Object msg,      ConnectionToClient client) {}  }  public static void main(String[] args) throws Exception  {    int[] counts = {100, 500, 1000};    if (args.length > 0)    {      counts = new int[args.length];      for (int i = 0; i < args.length; i++)        counts[i] = Integer.parseInt(args[i]);    }    System.out.println(      "transport  clients  threads  heapKB  rssKB  rssPerClientKB");    for (int count : counts)    {      run(false, count);      run(true, count);    }  }  /**   * Opens <code>count</code> idle clients against one transport and   * prints the resources used.   */  private static void run(boolean selector, int count) throws Exception  {    IdleServer server = new IdleServer(PORT);    server.setSelectorTransport(selector);    if (selector) // required; its workers start with the first message      server.setDispatcher(new RequestDispatcher(1, 64));    server.setBacklog(count); // avoid SYN retries skewing the run    server.listen();    Snapshot before = Snapshot.take();    List<Socket> clients = new ArrayList<Socket>();    try    {      for (int i = 0; i < count; i++)      {        Socket socket = new Socket("localhost", PORT);        if (!selector)        {          // The classic server waits for the object stream header          new ObjectOutputStream(socket.getOutputStream()).flush();        }        clients.add(socket);      }      while (server.getNumberOfClients() < count)        Thread.sleep(10);      Snapshot after = Snapshot.take();      System.out.printf("%-9s  %7d  %7d  %6d  %5d  %14.1f%n",        selector ? "selector" : "classic", count,        after.threads - before.threads,        (after.heap - before.heap) / 1024,        (after.rss - before.rss) / 1024,        (after.rss - before.rss) / 1024.0 / count);    }    finally    {      for (Socket socket : clients)        socket.close();      server.close();      Thread.sleep(500);    }  }  /**   * The resources used by the process at one moment.   */  private static class Snapshot  {    int threads;    long heap;    long rss;    static Snapshot take() throws InterruptedException    {      System.gc();      Thread.sleep(200);      Snapshot s = new Snapshot();      s.threads = ManagementFactory.getThreadMXBean().getThreadCount();      s.heap = ManagementFactory.getMemoryMXBean()        .getHeapMemoryUsage().getUsed();      s.rss = readRss();      return s;    }    /**     * Reads the resident set size from /proc, or 0 when unavailable.     */    private static long readRss()    {      try      {        for (String line :          Files.readAllLines(Paths.get("/proc/self/status")))        {          if (line.startsWith("VmRSS:"))            return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;        }      }      catch (IOException ex) {}      return 0;    }  }}// End of TransportMemoryBenchmark class
\ No newline at end of file
@@ -1 +1 @@
-// This file contains material supporting section 3.7 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.com package ocsf.client;import java.io.*;import java.net.*;import java.util.*;/*** The <code> AbstractClient </code> contains all the* methods necessary to set up the client side of a client-server* architecture.  When a client is thus connected to the* server, the two programs can then exchange <code> Object </code>* instances.<p>** Method <code> handleMessageFromServer </code> must be defined by* a concrete subclass. Several other hook methods may also be* overriden.<p>** Several public service methods are provided to* application that use this framework.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @author Dr. Robert Lagani&egrave;re* @author Dr. Timothy C. Lethbridge* @author Fran&ccedil;ois  B&eacutel;langer* @author Paul Holden* @version February 2001 (2.12)*/public abstract class AbstractClient implements Runnable{// INSTANCE VARIABLES ***********************************************  /**  * Sockets are used in the operating system as channels  * of communication between two processes.  * @see java.net.Socket  */  private Socket clientSocket;  /**  * The stream to handle data going to the server.  */  private ObjectOutputStream output;  /**  * The stream to handle data from the server.  */  private ObjectInputStream input;  /**  * The thread created to read data from the server.  */  private Thread clientReader;  /**  * Indicates if the thread is ready to stop.  * Needed so that the loop in the run method knows when to stop  * waiting for incoming messages.  */  private boolean readyToStop= false;  /**  * The server's host name.  */  private String host;  /**  * The port number.  */  private int port;// CONSTRUCTORS *****************************************************  /**   * Constructs the client.   *   * @param  host  the server's host name.   * @param  port  the port number.   */  public AbstractClient(String host, int port)  {    // Initialize variables    this.host = host;    this.port = port;  }// INSTANCE METHODS *************************************************  /**   * Opens the connection with the server.   * If the connection is already opened, this call has no effect.   *   * @exception IOException if an I/O error occurs when opening.   */  final public void openConnection() throws IOException  {    // Do not do anything if the connection is already open    if(isConnected())      return;    //Create the sockets and the data streams    try    {      clientSocket= new Socket(host, port);      output = new ObjectOutputStream(clientSocket.getOutputStream());      input = new ObjectInputStream(clientSocket.getInputStream());    }    catch (IOException ex)    // All three of the above must be closed when there is a failure    // to create any of them    {      try      {        closeAll();      }      catch (Exception exc) { }      throw ex; // Rethrow the exception.    }    clientReader = new Thread(this);  //Create the data reader thread    readyToStop = false;    clientReader.start();  //Start the thread  }  /**   * Sends an object to the server. This is the only way that   * methods should communicate with the server.   *   * @param msg   The message to be sent.   * @exception IOException if an I/O error occurs when sending   */  final public void sendToServer(Object msg) throws IOException  {    if (clientSocket == null || output == null)      throw new SocketException("socket does not exist");    output.writeObject(msg);    output.reset();  }  /**   * Closes the connection to the server.   *   * @exception IOException if an I/O error occurs when closing.   */  final public void closeConnection() throws IOException  {    // Prevent the thread from looping any more    readyToStop= true;    try    {      closeAll();    }    finally    {      // Call the hook method      connectionClosed();    }  }// ACCESSING METHODS ------------------------------------------------  /**   * @return true if the client is connnected.   */  final public boolean isConnected()  {    return clientReader!=null && clientReader.isAlive();  }  /**   * @return the port number.   */  final public int getPort()  {    return port;  }  /**   * Sets the server port number for the next connection.   * The change in port only takes effect at the time of the   * next call to openConnection().   *   * @param port the port number.   */  final public void setPort(int port)  {    this.port = port;  }  /**   * @return the host name.   */  final public String getHost()  {    return host;  }  /**   * Sets the server host for the next connection.   * The change in host only takes effect at the time of the   * next call to openConnection().   *   * @param host the host name.   */  final public void setHost(String host)  {    this.host = host;  }  /**   * returns the client's description.   *   * @return the client's Inet address.   */  final public InetAddress getInetAddress()  {    return clientSocket.getInetAddress();  }// RUN METHOD -------------------------------------------------------  /**   * Waits for messages from the server. When each arrives,   * a call is made to <code>handleMessageFromServer()</code>.   * Not to be explicitly called.   */  final public void run()  {    connectionEstablished();    // The message from the server    Object msg;    // Loop waiting for data    try    {      while(!readyToStop)      {        // Get data from Server and send it to the handler        // The thread waits indefinitely at the following        // statement until something is received from the server        msg = input.readObject();        // Concrete subclasses do what they want with the        // msg by implementing the following method        handleMessageFromServer(msg);      }    }    catch (Exception exception)    {      if(!readyToStop)      {        try        {          closeAll();        }        catch (Exception ex) { }        connectionException(exception);      }    }    finally    {      clientReader = null;    }  }// METHODS DESIGNED TO BE OVERRIDDEN BY CONCRETE SUBCLASSES ---------  /**   * Hook method called after the connection has been closed.   * The default implementation does nothing. The method   * may be overriden by subclasses to perform special processing   * such as cleaning up and terminating, or attempting to   * reconnect.   */  protected void connectionClosed() {}  /**   * Hook method called each time an exception is thrown by the   * client's thread that is waiting for messages from the server.   * The method may be overridden by subclasses.   *   * @param exception the exception raised.   */  protected void connectionException(Exception exception) {}  /**   * Hook method called after a connection has been established.   * The default implementation does nothing.   * It may be overridden by subclasses to do anything they wish.   */  protected void connectionEstablished() {}  /**   * Handles a message sent from the server to this client.   * This MUST be implemented by subclasses, who should respond to   * messages.   *   * @param msg   the message sent.   */  protected abstract void handleMessageFromServer(Object msg);// METHODS TO BE USED FROM WITHIN THE FRAMEWORK ONLY ----------------  /**   * Closes all aspects of the connection to the server.   *   * @exception IOException if an I/O error occurs when closing.   */  private void closeAll() throws IOException  {    try    {      //Close the socket      if (clientSocket != null)        clientSocket.close();      //Close the output stream      if (output != null)        output.close();      //Close the input stream      if (input != null)        input.close();    }    finally    {      // Set the streams and the sockets to NULL no matter what      // Doing so allows, but does not require, any finalizers      // of these objects to reclaim system resources if and      // when they are garbage collected.      output = null;      input = null;      clientSocket = null;    }  }}// end of AbstractClient class
\ No newline at end of file
+// This file contains material supporting section 3.7 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.com package ocsf.client;import java.io.*;import java.net.*;import java.nio.*;import java.nio.channels.*;import java.util.*;import ocsf.common.*;/*** The <code> AbstractClient </code> contains all the* methods necessary to set up the client side of a client-server* architecture.  When a client is thus connected to the* server, the two programs can then exchange <code> Object </code>* instances.<p>** Method <code> handleMessageFromServer </code> must be defined by* a concrete subclass. Several other hook methods may also be* overriden.<p>** Several public service methods are provided to* application that use this framework.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @author Dr. Robert Lagani&egrave;re* @author Dr. Timothy C. Lethbridge* @author Fran&ccedil;ois  B&eacutel;langer* @author Paul Holden* @version February 2001 (2.12)*/public abstract class AbstractClient implements Runnable{// INSTANCE VARIABLES ***********************************************  /**  * Sockets are used in the operating system as channels  * of communication between two processes.  * @see java.net.Socket  */  private Socket clientSocket;  /**   * The channel used instead of the socket by a local connection.   */  private SocketChannel localChannel;  /**  * The stream to handle data going to the server.  */  private MessageWriter output;  /**  * The stream to handle data from the server.  */  private ObjectInputStream input;  /**  * The streams used instead of the object streams by the framed  * transport.  */  private DataOutputStream frameOutput;  private DataInputStream frameInput;  /**  * Indicates if the next connection exchanges length-prefixed frames,  * as expected by a server using the selector transport.  * Set to false by default.  */  private boolean framedTransport = false;  /**   * The Unix-domain socket of the server used by the next connection   * instead of the host and port, or null to connect through TCP.   */  private UnixDomainSocketAddress localAddress = null;  /**  * The codec offered to the server when the connection is opened.  */  private MessageCodec messageCodec = null;  /**  * The codec accepted by the server, or null while every message is  * serialized.  */  private volatile MessageCodec negotiatedCodec = null;  /**   * The compressor offered to the server when the connection is   * opened, or null to never compress.   */  private PayloadCompressor compressor = null;  /**   * Indicates if the server accepted compression on this connection.   */  private volatile boolean compressing = false;  /**  * The socket and stream options of the next connection.  */  private TransportOptions transportOptions = new TransportOptions();  /**  * The thread created to read data from the server.  */  private Thread clientReader;  /**  * Indicates if the thread is ready to stop.  * Needed so that the loop in the run method knows when to stop  * waiting for incoming messages.  */  private boolean readyToStop= false;  /**  * The server's host name.  */  private String host;  /**  * The port number.  */  private int port;// CONSTRUCTORS *****************************************************  /**   * Constructs the client.   *   * @param  host  the server's host name.   * @param  port  the port number.   */  public AbstractClient(String host, int port)  {    // Initialize variables    this.host = host;    this.port = port;  }// INSTANCE METHODS *************************************************  /**   * Opens the connection with the server.   * If the connection is already opened, this call has no effect.   *   * @exception IOException if an I/O error occurs when opening.   */  final public void openConnection() throws IOException  {    // Do not do anything if the connection is already open    if(isConnected())      return;    //Create the sockets and the data streams    try    {      // Options are set before connecting so that the buffer sizes      // are taken into account when the connection is negotiated      TransportOptions options = transportOptions;      InputStream in;      OutputStream out;      if (localAddress != null)      {        // A local connection has no socket and no TCP options        localChannel = SocketChannel.open(StandardProtocolFamily.UNIX);        options.applyTo(localChannel);        localChannel.connect(localAddress);        in = Channels.newInputStream(localChannel);        out = Channels.newOutputStream(localChannel);      }      else      {        clientSocket= new Socket();        options.applyTo(clientSocket);        clientSocket.connect(new InetSocketAddress(host, port));        in = clientSocket.getInputStream();        out = clientSocket.getOutputStream();      }      // The server serves its local clients on object streams      if (framedTransport && localChannel == null)      {        frameOutput = new DataOutputStream(options.buffer(out));        frameInput = new DataInputStream(options.buffer(in));      }      else      {        output = new MessageWriter(out, options);        input = new ObjectInputStream(options.buffer(in));      }      // Offer the codec and compression; messages are serialized and      // uncompressed until the server accepts      negotiatedCodec = null;      compressing = false;      if (messageCodec != null || compressor != null)        sendToServer(new CodecOffer(          messageCodec == null ? null : messageCodec.getName(),          compressor != null));    }    catch (IOException ex)    // All three of the above must be closed when there is a failure    // to create any of them    {      try      {        closeAll();      }      catch (Exception exc) { }      throw ex; // Rethrow the exception.    }    clientReader = new Thread(this);  //Create the data reader thread    readyToStop = false;    clientReader.start();  //Start the thread  }  /**   * Sends an object to the server. This is the only way that   * methods should communicate with the server. The method is   * synchronized so that messages sent by different threads are never   * interleaved on the stream.   *   * @param msg   The message to be sent.   * @exception IOException if an I/O error occurs when sending   */  final synchronized public void sendToServer(Object msg) throws IOException  {    if ((clientSocket == null && localChannel == null)      || (output == null && frameOutput == null))      throw new SocketException("socket does not exist");    // Messages are counted under their class: the framework does not    // know the commands of the application    PayloadCompressor active = compressing ? compressor : null;    byte[] payload = (active == null) ? null :      active.encode(msg, negotiatedCodec,        msg == null ? "null" : msg.getClass().getSimpleName());    if (frameOutput != null)    {      if (payload != null)      {        ByteBuffer frame = FrameCodec.frame(payload);        frameOutput.write(frame.array(), 0, frame.remaining());        frameOutput.flush();      }      else        FrameCodec.writeFrame(frameOutput, msg, negotiatedCodec);      return;    }    if (payload != null)      output.writePayload(payload);    else      output.write(msg, negotiatedCodec);    output.flush();  }  /**   * Closes the connection to the server.   *   * @exception IOException if an I/O error occurs when closing.   */  final public void closeConnection() throws IOException  {    // Prevent the thread from looping any more    readyToStop= true;    try    {      closeAll();    }    finally    {      // Call the hook method      connectionClosed();    }  }// ACCESSING METHODS ------------------------------------------------  /**   * @return true if the client is connnected.   */  final public boolean isConnected()  {    return clientReader!=null && clientReader.isAlive();  }  /**   * @return the port number.   */  final public int getPort()  {    return port;  }  /**   * Sets the server port number for the next connection.   * The change in port only takes effect at the time of the   * next call to openConnection().   *   * @param port the port number.   */  final public void setPort(int port)  {    this.port = port;  }  /**   * Selects the transport used by the next connection.   * A framed client can only talk to a server using the selector   * transport, and a classic client only to a classic server.   * The change only takes effect at the time of the next call to   * openConnection().   *   * @param framedTransport true to exchange length-prefixed frames.   */  final public void setFramedTransport(boolean framedTransport)  {    this.framedTransport = framedTransport;  }  /**   * Makes the next connection use the Unix-domain socket of a server   * running on the same host instead of its host and port, which skips   * the TCP stack. A local connection has no TCP options and always   * uses object streams, since the server serves each local client with   * its own thread. The change only takes effect at the time of the next   * call to openConnection().   *   * @param localAddress the socket path set on the server with   *        <code>AbstractServer.setLocalAddress</code>, or null to   *        connect through TCP.   */  final public void setLocalAddress(UnixDomainSocketAddress localAddress)  {    this.localAddress = localAddress;  }  /**   * @return the Unix-domain socket used by the next connection, or null   *         if it goes through TCP.   */  final public UnixDomainSocketAddress getLocalAddress()  {    return localAddress;  }  /**   * Sets the codec offered to the server by the next connection.   * The codec is only used once the server has accepted it; a server   * without the same codec keeps receiving serialized messages.   * The change only takes effect at the time of the next call to   * openConnection().   *   * @param messageCodec the codec, or null to always serialize.   */  final public void setMessageCodec(MessageCodec messageCodec)  {    this.messageCodec = messageCodec;  }  /**   * Sets the socket and stream options of the next connection.   * The change only takes effect at the time of the next call to   * openConnection().   *   * @param transportOptions the options.   */  final public void setTransportOptions(TransportOptions transportOptions)  {    if (transportOptions == null)      throw new IllegalArgumentException("options must not be null");    this.transportOptions = transportOptions;  }  /**   * @return the socket and stream options of the next connection.   */  final public TransportOptions getTransportOptions()  {    return transportOptions;  }  /**   * Offers compression to the server on the next connection. Once the   * server accepts, messages are deflated when their encoded size   * reaches the threshold, and sent compressed only if that makes them   * smaller. Messages from the server are decompressed whether or not   * this client compresses. The change only takes effect at the time of   * the next call to openConnection().   *   * @param threshold the smallest message compressed, in bytes, or 0   *        to not offer compression.   * @param level     the deflate level, from 1 (fastest) to 9   *        (smallest).   */  final public void setCompression(int threshold, int level)  {    this.compressor = (threshold > 0) ?      new PayloadCompressor(threshold, level) : null;  }  /**   * Returns the compressor offered to the server, which holds the   * statistics of the messages sent.   *   * @return the compressor, or null if compression is not offered.   */  final public PayloadCompressor getCompressor()  {    return compressor;  }  /**   * @return true if the server accepted compression.   */  final public boolean isCompressionNegotiated()  {    return compressing;  }  /**   * @return true if the server accepted the offered codec.   */  final public boolean isCodecNegotiated()  {    return negotiatedCodec != null;  }  /**   * @return the host name.   */  final public String getHost()  {    return host;  }  /**   * Sets the server host for the next connection.   * The change in host only takes effect at the time of the   * next call to openConnection().   *   * @param host the host name.   */  final public void setHost(String host)  {    this.host = host;  }  /**   * returns the client's description.   *   * @return the client's Inet address.   */  final public InetAddress getInetAddress()  {    if (localChannel != null)      return InetAddress.getLoopbackAddress();    return clientSocket.getInetAddress();  }// RUN METHOD -------------------------------------------------------  /**   * Waits for messages from the server. When each arrives,   * a call is made to <code>handleMessageFromServer()</code>.   * Not to be explicitly called.   */  final public void run()  {    connectionEstablished();    // The message from the server    Object msg;    // Loop waiting for data    try    {      while(!readyToStop)      {        // Get data from Server and send it to the handler        // The thread waits indefinitely at the following        // statement until something is received from the server        msg = (frameInput != null) ?          FrameCodec.readFrame(frameInput, messageCodec) :          FrameCodec.readMessage(input, messageCodec);        // The answer to the codec offer is not an application message        if (msg instanceof CodecOffer)        {          String accepted = ((CodecOffer)msg).getCodecName();          negotiatedCodec = (messageCodec != null            && messageCodec.getName().equals(accepted)) ? messageCodec : null;          compressing = ((CodecOffer)msg).isCompression()            && compressor != null;          continue;        }        // Concrete subclasses do what they want with the        // msg by implementing the following method        handleMessageFromServer(msg);      }    }    catch (Exception exception)    {      if(!readyToStop)      {        try        {          closeAll();        }        catch (Exception ex) { }        connectionException(exception);      }    }    finally    {      clientReader = null;    }  }// METHODS DESIGNED TO BE OVERRIDDEN BY CONCRETE SUBCLASSES ---------  /**   * Hook method called after the connection has been closed.   * The default implementation does nothing. The method   * may be overriden by subclasses to perform special processing   * such as cleaning up and terminating, or attempting to   * reconnect.   */  protected void connectionClosed() {}  /**   * Hook method called each time an exception is thrown by the   * client's thread that is waiting for messages from the server.   * The method may be overridden by subclasses.   *   * @param exception the exception raised.   */  protected void connectionException(Exception exception) {}  /**   * Hook method called after a connection has been established.   * The default implementation does nothing.   * It may be overridden by subclasses to do anything they wish.   */  protected void connectionEstablished() {}  /**   * Handles a message sent from the server to this client.   * This MUST be implemented by subclasses, who should respond to   * messages.   *   * @param msg   the message sent.   */  protected abstract void handleMessageFromServer(Object msg);// METHODS TO BE USED FROM WITHIN THE FRAMEWORK ONLY ----------------  /**   * Closes all aspects of the connection to the server.   *   * @exception IOException if an I/O error occurs when closing.   */  private void closeAll() throws IOException  {    try    {      //Close the socket      if (clientSocket != null)        clientSocket.close();      if (localChannel != null)        localChannel.close();      //Close the output stream      if (output != null)        output.close();      //Close the input stream      if (input != null)        input.close();      //Close the frame streams      if (frameOutput != null)        frameOutput.close();      if (frameInput != null)        frameInput.close();    }    finally    {      // Set the streams and the sockets to NULL no matter what      // Doing so allows, but does not require, any finalizers      // of these objects to reclaim system resources if and      // when they are garbage collected.      output = null;      input = null;      frameOutput = null;      frameInput = null;      clientSocket = null;      localChannel = null;    }  }}// end of AbstractClient class
\ No newline at end of file
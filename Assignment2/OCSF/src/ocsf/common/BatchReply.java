@@ -0,0 +1 @@
+// This file extends the OCSF framework supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.common;import java.io.*;import java.util.*;/*** A <code> BatchReply </code> carries the answers to a batch of messages* sent by a client in a single frame. It holds, for every message of the* batch and in the same order, the list of the messages the server sent* back while handling it.<p>** The reply is sent once every message of the batch has been handled,* whatever the order in which the handlers finished. A message whose* handler failed or sent nothing has an empty list.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @see ocsf.server.AbstractServer#getBatchMessages(Object)*/public final class BatchReply implements Serializable{  private static final long serialVersionUID = 1L;  /**   * The answers of every message of the batch.   */  private final ArrayList<ArrayList<Object>> replies;  /**   * Constructs a reply.   *   * @param replies the answers of every message, in batch order.   */  public BatchReply(List<? extends List<Object>> replies)  {    this.replies = new ArrayList<ArrayList<Object>>(replies.size());    for (List<Object> answers : replies)      this.replies.add(new ArrayList<Object>(answers));  }  /**   * @return the number of messages in the batch.   */  public int size()  {    return replies.size();  }  /**   * Returns every answer sent while handling one message of the batch.   *   * @param index the position of the message in the batch.   * @return the answers, possibly empty.   */  public List<Object> getReplies(int index)  {    return Collections.unmodifiableList(replies.get(index));  }  /**   * Returns the first answer to one message of the batch, which is the   * only one for request/response commands.   *   * @param index the position of the message in the batch.   * @return the answer, or null if the handler sent nothing.   */  public Object getReply(int index)  {    ArrayList<Object> answers = replies.get(index);    return answers.isEmpty() ? null : answers.get(0);  }  /**   * @return a description of the reply.   */  public String toString()  {    return "BatchReply" + replies;  }}// End of BatchReply class
\ No newline at end of file
@@ -0,0 +1 @@
+// This file extends the OCSF framework supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.common;import java.io.*;/*** The <code> CodecOffer </code> is the handshake message used to agree on* a <code> MessageCodec </code> and on compression. The client sends it,* always serialized, right after opening the connection. The server* answers with an offer carrying the same name when it accepts the* codec, or no name when it refuses, and with compression set when both* sides will compress their large messages. Offers are consumed by the* framework and never reach the <code> handleMessage </code> hooks.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @see ocsf.common.MessageCodec* @see ocsf.common.PayloadCompressor*/public final class CodecOffer implements Serializable{  private static final long serialVersionUID = 1L;  /**   * The offered or accepted codec name, null when refused.   */  private final String codecName;  /**   * Indicates if compression is offered or accepted. Offers sent before   * compression existed read as false.   */  private final boolean compression;  /**   * Constructs an offer without compression.   *   * @param codecName the codec name, or null to refuse an offer.   */  public CodecOffer(String codecName)  {    this(codecName, false);  }  /**   * Constructs an offer.   *   * @param codecName   the codec name, or null to refuse an offer.   * @param compression true to offer or accept compression.   */  public CodecOffer(String codecName, boolean compression)  {    this.codecName = codecName;    this.compression = compression;  }  /**   * @return the codec name, or null when the offer was refused.   */  public String getCodecName()  {    return codecName;  }  /**   * @return true if compression is offered or accepted.   */  public boolean isCompression()  {    return compression;  }}// End of CodecOffer class
\ No newline at end of file
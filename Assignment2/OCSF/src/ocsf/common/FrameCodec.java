@@ -0,0 +1 @@
+// This file extends the OCSF framework supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.common;import java.io.*;import java.nio.*;import java.util.zip.*;/*** The <code> FrameCodec </code> class converts messages to and from the* length-prefixed frames used by the framed transports of the framework.* A frame is a four byte big-endian payload length followed by the* payload, which is the message written with its own* <code> ObjectOutputStream</code>. Every frame is therefore* self-contained and can be decoded without any stream state, which is* what a non-blocking server needs.<p>** When a <code> MessageCodec </code> has been negotiated, the payload may* instead be a <code> BINARY_MARKER </code> byte followed by the bytes of* the codec. Serialized payloads always start with the serialization* magic number, so the two forms cannot be confused. Once compression* has been negotiated, a payload may also be a* <code> COMPRESSED_MARKER </code> byte, the length of the original* payload and that payload deflated.<p>** The class also provides the equivalent helpers for the classic object* stream transport, where encoded messages and complete payloads are* written as primitive data between serialized objects.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @see ocsf.server.AbstractServer#setSelectorTransport(boolean)* @see ocsf.client.AbstractClient#setFramedTransport(boolean)*/public final class FrameCodec{  // CONSTANTS *******************************************************  /**   * The number of bytes of the length prefix.   */  public static final int HEADER_LENGTH = 4;  /**   * The largest payload accepted. Protects the receiver from   * allocating huge buffers when the peer is not speaking frames.   */  public static final int MAX_PAYLOAD_LENGTH = 16 * 1024 * 1024;  /**   * First payload byte of a message encoded by a codec.   */  public static final byte BINARY_MARKER = 0x00;  /**   * First payload byte of a compressed payload.   */  public static final byte COMPRESSED_MARKER = 0x01;// CONSTRUCTORS *****************************************************  private FrameCodec() {}// CLASS METHODS ****************************************************  /**   * Serializes a message into a complete frame, length prefix included.   *   * @param msg the message to encode.   * @return a buffer positioned at the start of the frame.   * @exception IOException if the message cannot be serialized.   */  public static ByteBuffer encode(Object msg) throws IOException  {    return encode(msg, null);  }  /**   * Encodes a message into a complete frame, with the codec when it   * supports the message and with serialization otherwise.   *   * @param msg   the message to encode.   * @param codec the negotiated codec, or null.   * @return a buffer positioned at the start of the frame.   * @exception IOException if the message cannot be encoded.   */  public static ByteBuffer encode(Object msg, MessageCodec codec)    throws IOException  {    byte[] encoded = (codec == null) ? null : codec.encode(msg);    if (encoded != null)    {      ByteBuffer frame = ByteBuffer.allocate(        HEADER_LENGTH + 1 + encoded.length);      frame.putInt(1 + encoded.length).put(BINARY_MARKER).put(encoded);      frame.flip();      return frame;    }    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);    DataOutputStream data = new DataOutputStream(bytes);    data.writeInt(0); // placeholder for the length    ObjectOutputStream objects = new ObjectOutputStream(data);    objects.writeObject(msg);    objects.close();    ByteBuffer frame = ByteBuffer.wrap(bytes.toByteArray());    frame.putInt(0, frame.remaining() - HEADER_LENGTH);    return frame;  }  /**   * Encodes a message into the payload of a frame, without the length   * prefix.   *   * @param msg   the message to encode.   * @param codec the negotiated codec, or null.   * @return the payload.   * @exception IOException if the message cannot be encoded.   */  public static byte[] encodePayload(Object msg, MessageCodec codec)    throws IOException  {    ByteBuffer frame = encode(msg, codec);    byte[] payload = new byte[frame.remaining() - HEADER_LENGTH];    frame.position(HEADER_LENGTH);    frame.get(payload);    return payload;  }  /**   * Adds the length prefix to a payload.   *   * @param payload the payload.   * @return a buffer positioned at the start of the frame.   */  public static ByteBuffer frame(byte[] payload)  {    ByteBuffer frame = ByteBuffer.allocate(HEADER_LENGTH + payload.length);    frame.putInt(payload.length).put(payload);    frame.flip();    return frame;  }  /**   * Deflates a payload.   *   * @param payload the payload, serialized or encoded by a codec.   * @param level   the deflate level, from 1 (fastest) to 9 (smallest).   * @return the compressed payload, or null if it is not smaller than   *         the original.   */  public static byte[] compress(byte[] payload, int level)  {    Deflater deflater = new Deflater(level);    try    {      deflater.setInput(payload);      deflater.finish();      // Output beyond the original size is useless: stop there      byte[] out = new byte[payload.length];      if (out.length <= 5)        return null;      out[0] = COMPRESSED_MARKER;      ByteBuffer.wrap(out, 1, 4).putInt(payload.length);      int length = 5;      while (!deflater.finished() && length < out.length)        length += deflater.deflate(out, length, out.length - length);      if (!deflater.finished())        return null;      byte[] compressed = new byte[length];      System.arraycopy(out, 0, compressed, 0, length);      return compressed;    }    finally    {      deflater.end();    }  }  /**   * Deserializes the payload of a frame.   *   * @param payload the bytes following the length prefix.   * @return the decoded message.   * @exception IOException if the payload is not a valid message.   * @exception ClassNotFoundException if the class of the message   *        is unknown.   */  public static Object decode(byte[] payload)    throws IOException, ClassNotFoundException  {    return decode(payload, null);  }  /**   * Decodes the payload of a frame, serialized or encoded by a codec.   *   * @param payload the bytes following the length prefix.   * @param codec   the negotiated codec, or null.   * @return the decoded message.   * @exception IOException if the payload is not a valid message, or   *        is encoded while no codec was negotiated.   * @exception ClassNotFoundException if the class of the message   *        is unknown.   */  public static Object decode(byte[] payload, MessageCodec codec)    throws IOException, ClassNotFoundException  {    if (payload.length > 0 && payload[0] == COMPRESSED_MARKER)    {      payload = inflate(payload);      if (payload.length > 0 && payload[0] == COMPRESSED_MARKER)        throw new StreamCorruptedException("payload compressed twice");    }    if (payload.length > 0 && payload[0] == BINARY_MARKER)    {      if (codec == null)        throw new StreamCorruptedException("encoded frame without codec");      byte[] encoded = new byte[payload.length - 1];      System.arraycopy(payload, 1, encoded, 0, encoded.length);      return codec.decode(encoded);    }    ObjectInputStream objects =      new ObjectInputStream(new ByteArrayInputStream(payload));    try    {      return objects.readObject();    }    finally    {      objects.close();    }  }  /**   * Restores the payload compressed by <code> compress</code>.   *   * @param compressed the compressed payload.   * @return the original payload.   * @exception IOException if the data is not a valid compressed   *        payload.   */  private static byte[] inflate(byte[] compressed) throws IOException  {    if (compressed.length < 5)      throw new StreamCorruptedException("truncated compressed payload");    byte[] payload =      new byte[checkLength(ByteBuffer.wrap(compressed, 1, 4).getInt())];    Inflater inflater = new Inflater();    try    {      inflater.setInput(compressed, 5, compressed.length - 5);      int length = 0;      while (length < payload.length && !inflater.finished())      {        int n = inflater.inflate(payload, length, payload.length - length);        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))          break;        length += n;      }      if (length != payload.length || !inflater.finished())        throw new StreamCorruptedException("bad compressed payload");      return payload;    }    catch (DataFormatException ex)    {      throw new StreamCorruptedException("bad compressed payload: "        + ex.getMessage());    }    finally    {      inflater.end();    }  }  /**   * Checks a length prefix read from the wire.   *   * @param length the announced payload length.   * @return the length.   * @exception IOException if the length is out of bounds.   */  public static int checkLength(int length) throws IOException  {    if (length < 0 || length > MAX_PAYLOAD_LENGTH)      throw new StreamCorruptedException("invalid frame length " + length);    return length;  }  /**   * Writes a message as one frame on a blocking stream. The stream   * is flushed.   *   * @param out   the stream to write to.   * @param msg   the message.   * @param codec the negotiated codec, or null.   * @exception IOException if an I/O error occurs.   */  public static void writeFrame(OutputStream out, Object msg,    MessageCodec codec) throws IOException  {    ByteBuffer frame = encode(msg, codec);    out.write(frame.array(), frame.arrayOffset(), frame.remaining());    out.flush();  }  /**   * Reads one frame from a blocking stream and decodes it.   *   * @param in    the stream to read from.   * @param codec the negotiated codec, or null.   * @return the decoded message.   * @exception IOException if an I/O error occurs or the stream ends.   * @exception ClassNotFoundException if the class of the message   *        is unknown.   */  public static Object readFrame(DataInputStream in, MessageCodec codec)    throws IOException, ClassNotFoundException  {    byte[] payload = new byte[checkLength(in.readInt())];    in.readFully(payload);    return decode(payload, codec);  }  /**   * Writes a message on an object stream, as primitive data when the   * codec supports it and as a serialized object otherwise. The stream   * is not flushed, so that several messages can be sent at once.   *   * @param out   the object stream.   * @param msg   the message.   * @param codec the negotiated codec, or null.   * @exception IOException if an I/O error occurs.   */  public static void writeMessage(ObjectOutputStream out, Object msg,    MessageCodec codec) throws IOException  {    byte[] encoded = (codec == null) ? null : codec.encode(msg);    if (encoded == null)    {      out.writeObject(msg);      return;    }    out.writeInt(encoded.length);    out.write(encoded);  }  /**   * Writes a complete payload on an object stream, as primitive data   * announced by its negated length. This is how messages already   * encoded, compressed or not, travel on the classic transport. The   * stream is not flushed.   *   * @param out     the object stream.   * @param payload the payload, as returned by <code> encodePayload</code>   *        or <code> compress</code>.   * @exception IOException if an I/O error occurs.   */  public static void writePayload(ObjectOutputStream out, byte[] payload)    throws IOException  {    out.writeInt(-payload.length);    out.write(payload);  }  /**   * Reads the next message of an object stream written by   * <code> writeMessage </code> or <code> writePayload</code>. A   * serialized object is returned as is; primitive data is read as one   * encoded message or one payload.   *   * @param in    the object stream.   * @param codec the negotiated codec, or null.   * @return the message.   * @exception IOException if an I/O error occurs.   * @exception ClassNotFoundException if the class of the message   *        is unknown.   */  public static Object readMessage(ObjectInputStream in, MessageCodec codec)    throws IOException, ClassNotFoundException  {    try    {      return in.readObject();    }    catch (OptionalDataException ex)    {      // Primitive data instead of an object: an encoded message or a      // payload      if (ex.eof)        throw ex;    }    int length = in.readInt();    if (length < 0)    {      byte[] payload = new byte[checkLength(-length)];      in.readFully(payload);      return decode(payload, codec);    }    if (codec == null)      throw new StreamCorruptedException("encoded message without codec");    byte[] encoded = new byte[checkLength(length)];    in.readFully(encoded);    return codec.decode(encoded);  }}// End of FrameCodec class
\ No newline at end of file
@@ -0,0 +1 @@
+// This file extends the OCSF framework supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.common;import java.io.*;/*** A <code> MessageCodec </code> encodes some application messages in a* compact binary form instead of Java serialization. A codec does not* have to support every message: <code> encode </code> returns null for* the messages it leaves to serialization.<p>** Client and server agree on a codec when the connection is opened: the* client sends a <code> CodecOffer </code> naming its codec and the server* answers with the same name if it has that codec, or with no name* otherwise. Until an offer has been accepted, and for clients that never* make one, every message is serialized. The name should therefore* include a version number, so that incompatible codecs never agree.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @see ocsf.common.CodecOffer* @see ocsf.server.AbstractServer#setMessageCodec(MessageCodec)* @see ocsf.client.AbstractClient#setMessageCodec(MessageCodec)*/public interface MessageCodec{  /**   * Returns the name and version of the codec, for example   * <code>"bistro-binary/1"</code>.   *   * @return the name exchanged during negotiation.   */  String getName();  /**   * Encodes a message.   *   * @param msg the message to encode.   * @return the encoded bytes, or null if the message must be   *         serialized instead.   * @exception IOException if the message cannot be encoded.   */  byte[] encode(Object msg) throws IOException;  /**   * Decodes bytes produced by <code> encode</code>.   *   * @param data the encoded bytes.   * @return the message.   * @exception IOException if the bytes are not a valid message.   */  Object decode(byte[] data) throws IOException;}// End of MessageCodec interface
\ No newline at end of file
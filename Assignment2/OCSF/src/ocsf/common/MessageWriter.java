@@ -0,0 +1 @@
+// This file extends the OCSF framework supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.common;import java.io.*;/*** The <code> MessageWriter </code> writes the messages of the classic* object stream transport. Its object stream is buffered, so that a* message reaches the socket in one write instead of many small ones, and* reset after a configurable number of messages, so that it does not keep* every message sent alive.<p>** Writing and flushing are separate: a sender with several messages* ready writes them all and flushes once. A writer is not thread-safe;* callers serialize their calls.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @see ocsf.common.TransportOptions*/public final class MessageWriter{// INSTANCE VARIABLES ***********************************************  /**   * The object stream, on top of the stream buffer.   */  private final ObjectOutputStream output;  /**   * The number of messages between two resets, or 0 for never.   */  private final int resetInterval;  /**   * The number of messages written since the last reset.   */  private int sinceReset = 0;// CONSTRUCTORS *****************************************************  /**   * Creates the object stream and sends its header at once, since the   * peer waits for it before going on.   *   * @param out     the socket stream.   * @param options the buffer size and reset interval to use.   * @exception IOException if the header cannot be written.   */  public MessageWriter(OutputStream out, TransportOptions options)    throws IOException  {    output = new ObjectOutputStream(options.buffer(out));    output.flush();    resetInterval = options.getResetInterval();  }// INSTANCE METHODS *************************************************  /**   * Writes a message into the buffer, encoded with the codec when it   * supports the message, and resets the stream when due. The message   * may stay in the buffer until <code>flush</code> is called.   *   * @param msg   the message.   * @param codec the negotiated codec, or null.   * @exception IOException if an I/O error occurs.   */  public void write(Object msg, MessageCodec codec) throws IOException  {    FrameCodec.writeMessage(output, msg, codec);    if (resetInterval > 0 && ++sinceReset >= resetInterval)    {      output.reset();      sinceReset = 0;    }  }  /**   * Writes a message already encoded by a <code> PayloadCompressor</code>   * into the buffer. A payload does not use the handle table of the   * stream, so it does not count towards the next reset.   *   * @param payload the payload.   * @exception IOException if an I/O error occurs.   */  public void writePayload(byte[] payload) throws IOException  {    FrameCodec.writePayload(output, payload);  }  /**   * Sends the buffered messages to the socket.   *   * @exception IOException if an I/O error occurs.   */  public void flush() throws IOException  {    output.flush();  }  /**   * Closes the stream and the socket stream under it.   *   * @exception IOException if an I/O error occurs.   */  public void close() throws IOException  {    output.close();  }}// End of MessageWriter class
\ No newline at end of file
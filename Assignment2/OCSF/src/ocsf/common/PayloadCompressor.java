@@ -0,0 +1 @@
+// This file extends the OCSF framework supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.common;import java.io.*;import java.util.*;import java.util.concurrent.*;import java.util.concurrent.atomic.*;import java.util.zip.*;/*** The <code> PayloadCompressor </code> encodes the messages sent on a* connection where compression was negotiated. A message whose payload* reaches the threshold is deflated, and sent compressed if that makes it* smaller; smaller messages are sent as they are, since compressing them* costs more time than it saves on the wire.<p>** For every command the compressor records how many bytes were saved and* how much time was spent compressing, so that the threshold can be tuned* for the links the application runs on. A compressor may be shared by* every connection of a server; it is thread-safe.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @see ocsf.common.CodecOffer* @see ocsf.server.AbstractServer#setCompression(int, int)* @see ocsf.client.AbstractClient#setCompression(int, int)*/public final class PayloadCompressor{  // CONSTANTS *******************************************************  /**   * The deflate level used by default. Serialized lists repeat the same   * class and field names on every row, so the fastest level already   * removes most of their size.   */  public static final int DEFAULT_LEVEL = Deflater.BEST_SPEED;// INSTANCE VARIABLES ***********************************************  /**   * The smallest payload, in bytes, that is compressed.   */  private final int threshold;  /**   * The deflate level.   */  private final int level;  /**   * Statistics kept for every command name.   */  private final ConcurrentHashMap<String, CommandStats> stats =    new ConcurrentHashMap<String, CommandStats>();// CONSTRUCTORS *****************************************************  /**   * Constructs a compressor.   *   * @param threshold the smallest payload compressed, in bytes.   * @param level     the deflate level, from 1 (fastest) to 9   *        (smallest).   */  public PayloadCompressor(int threshold, int level)  {    if (threshold < 1)      throw new IllegalArgumentException("threshold must be positive");    if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)      throw new IllegalArgumentException("invalid deflate level " + level);    this.threshold = threshold;    this.level = level;  }// INSTANCE METHODS *************************************************  /**   * Encodes a message into a payload, compressed when it reaches the   * threshold and compression makes it smaller.   *   * @param msg     the message.   * @param codec   the negotiated codec, or null.   * @param command the command name under which the message is counted.   * @return the payload, ready for <code> FrameCodec.frame </code> or   *         <code> FrameCodec.writePayload</code>.   * @exception IOException if the message cannot be encoded.   */  public byte[] encode(Object msg, MessageCodec codec, String command)    throws IOException  {    byte[] payload = FrameCodec.encodePayload(msg, codec);    if (payload.length < threshold)    {      statsFor(command).record(payload.length, payload.length, false, 0);      return payload;    }    long start = System.nanoTime();    byte[] compressed = FrameCodec.compress(payload, level);    long elapsed = System.nanoTime() - start;    byte[] sent = compressed != null ? compressed : payload;    statsFor(command).record(payload.length, sent.length,      compressed != null, elapsed);    return sent;  }// ACCESSING METHODS ------------------------------------------------  /**   * @return the smallest payload compressed, in bytes.   */  public int getThreshold()  {    return threshold;  }  /**   * @return the deflate level.   */  public int getLevel()  {    return level;  }  /**   * Returns the statistics of every command seen so far.   * The returned map is a snapshot ordered by command name.   *   * @return the statistics keyed by command name.   */  public Map<String, CommandStats> getCommandStats()  {    return new TreeMap<String, CommandStats>(stats);  }// METHODS TO BE USED FROM WITHIN THE FRAMEWORK ONLY ----------------  /**   * Returns the statistics holder of a command, creating it if needed.   */  private CommandStats statsFor(String command)  {    CommandStats s = stats.get(command);    if (s == null)    {      s = new CommandStats(command);      CommandStats existing = stats.putIfAbsent(command, s);      if (existing != null)        s = existing;    }    return s;  }// INNER CLASSES ----------------------------------------------------  /**   * Compression statistics of a single command. All counters are   * updated atomically and may be read from any thread.   */  public static class CommandStats  {    private final String command;    private final AtomicLong messages = new AtomicLong();    private final AtomicLong compressed = new AtomicLong();    private final AtomicLong originalBytes = new AtomicLong();    private final AtomicLong sentBytes = new AtomicLong();    private final AtomicLong compressNanos = new AtomicLong();    CommandStats(String command)    {      this.command = command;    }    /**     * Records one message sent.     */    void record(int original, int sent, boolean wasCompressed,      long nanos)    {      messages.incrementAndGet();      if (wasCompressed)        compressed.incrementAndGet();      originalBytes.addAndGet(original);      sentBytes.addAndGet(sent);      compressNanos.addAndGet(nanos);    }    /**     * @return the command name.     */    public String getCommand()    {      return command;    }    /**     * @return the number of messages sent.     */    public long getMessageCount()    {      return messages.get();    }    /**     * @return the number of messages sent compressed.     */    public long getCompressedCount()    {      return compressed.get();    }    /**     * @return the size of the payloads before compression, in bytes.     */    public long getOriginalBytes()    {      return originalBytes.get();    }    /**     * @return the size of the payloads sent, in bytes.     */    public long getSentBytes()    {      return sentBytes.get();    }    /**     * @return the bytes saved by compression.     */    public long getBytesSaved()    {      return originalBytes.get() - sentBytes.get();    }    /**     * Returns the time spent compressing, including the attempts that     * did not make the payload smaller.     *     * @return the compression time in milliseconds.     */    public double getCompressMillis()    {      return compressNanos.get() / 1000000.0;    }    /**     * Returns a one line summary of the statistics.     *     * @return the statistics description.     */    public String toString()    {      return String.format(        "%s: messages=%d compressed=%d bytes=%d sent=%d saved=%d cpu=%.2fms",        command, getMessageCount(), getCompressedCount(), getOriginalBytes(),        getSentBytes(), getBytesSaved(), getCompressMillis());    }  }}// End of PayloadCompressor class
\ No newline at end of file
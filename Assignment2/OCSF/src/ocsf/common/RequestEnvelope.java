@@ -0,0 +1 @@
+// This file extends the OCSF framework supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.common;import java.io.*;/*** A <code> RequestEnvelope </code> tags a message with a request id so that* a client can have several requests outstanding on one connection and* match every answer with its request, whatever the order of the answers.<p>** The server unwraps envelopes before calling* <code> handleMessageFromClient</code>. Every message the handler then* sends back to the same client is wrapped in an envelope carrying the* same id. Messages that are not sent while handling a request, such as* notifications, are never wrapped.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @see ocsf.server.ConnectionToClient#getRequestId()*/public final class RequestEnvelope implements Serializable{  private static final long serialVersionUID = 1L;  /**   * The id chosen by the client, never 0.   */  private final long requestId;  /**   * The wrapped message. It is typed as any message sent through OCSF;   * like those, it must be serializable when the envelope is, which the   * stream checks when the envelope is written.   */  @SuppressWarnings("serial")  private final Object payload;  /**   * Constructs an envelope.   *   * @param requestId the request id, which must not be 0.   * @param payload   the wrapped message.   */  public RequestEnvelope(long requestId, Object payload)  {    if (requestId == 0)      throw new IllegalArgumentException("request id 0 is reserved");    this.requestId = requestId;    this.payload = payload;  }  /**   * @return the request id.   */  public long getRequestId()  {    return requestId;  }  /**   * @return the wrapped message.   */  public Object getPayload()  {    return payload;  }  /**   * @return a description of the envelope and its message.   */  public String toString()  {    return "#" + requestId + " " + payload;  }}// End of RequestEnvelope class
\ No newline at end of file
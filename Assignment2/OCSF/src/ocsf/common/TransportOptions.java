@@ -0,0 +1 @@
+// This file extends the OCSF framework supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.common;import java.io.*;import java.net.*;import java.nio.channels.*;import java.util.*;/*** The <code> TransportOptions </code> tune the sockets and streams of the* connections of a server or a client: Nagle's algorithm, the socket* buffer sizes, the size of the buffer placed between the object streams* and the socket, and how often the object streams are reset.<p>** Options are read when a connection is opened; changing them afterwards* only affects the next connections. A value of 0 for a socket buffer* size keeps the operating system default.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @see ocsf.common.MessageWriter* @see ocsf.server.AbstractServer#setTransportOptions(TransportOptions)* @see ocsf.client.AbstractClient#setTransportOptions(TransportOptions)*/public final class TransportOptions{  // CONSTANTS *******************************************************  /**   * The default size of the stream buffers, in bytes.   */  public static final int DEFAULT_STREAM_BUFFER_SIZE = 8192;// INSTANCE VARIABLES ***********************************************  /**   * Indicates if small writes are sent at once instead of being   * delayed by Nagle's algorithm. Set to false by default.   */  private boolean tcpNoDelay = false;  /**   * The socket send buffer size, or 0 for the system default.   */  private int sendBufferSize = 0;  /**   * The socket receive buffer size, or 0 for the system default.   */  private int receiveBufferSize = 0;  /**   * The size of the buffers between the object streams and the   * socket, or 0 for unbuffered streams.   */  private int streamBufferSize = DEFAULT_STREAM_BUFFER_SIZE;  /**   * The number of messages written between two resets of an object   * output stream, or 0 to never reset. Set to 1 by default.   */  private int resetInterval = 1;// ACCESSING METHODS ------------------------------------------------  /**   * Enables or disables TCP_NODELAY. Enabling it lowers the latency of   * small messages; the framework already writes every message with a   * single flush, so it does not cause more packets.   *   * @param tcpNoDelay true to disable Nagle's algorithm.   */  public void setTcpNoDelay(boolean tcpNoDelay)  {    this.tcpNoDelay = tcpNoDelay;  }  /**   * @return true if Nagle's algorithm is disabled.   */  public boolean getTcpNoDelay()  {    return tcpNoDelay;  }  /**   * Sets the size of the socket send buffer.   *   * @param sendBufferSize the size in bytes, or 0 for the system default.   */  public void setSendBufferSize(int sendBufferSize)  {    this.sendBufferSize = checkSize(sendBufferSize);  }  /**   * @return the socket send buffer size, or 0 for the system default.   */  public int getSendBufferSize()  {    return sendBufferSize;  }  /**   * Sets the size of the socket receive buffer.   *   * @param receiveBufferSize the size in bytes, or 0 for the system   *        default.   */  public void setReceiveBufferSize(int receiveBufferSize)  {    this.receiveBufferSize = checkSize(receiveBufferSize);  }  /**   * @return the socket receive buffer size, or 0 for the system default.   */  public int getReceiveBufferSize()  {    return receiveBufferSize;  }  /**   * Sets the size of the buffers placed between the object streams and   * the socket. Buffering turns the many small writes of serialization   * into one write per message.   *   * @param streamBufferSize the size in bytes, or 0 for no buffering.   */  public void setStreamBufferSize(int streamBufferSize)  {    this.streamBufferSize = checkSize(streamBufferSize);  }  /**   * @return the size of the stream buffers, or 0 if unbuffered.   */  public int getStreamBufferSize()  {    return streamBufferSize;  }  /**   * Sets how many messages are written on an object output stream   * between two resets. An object stream remembers every object it has   * written, so that writing it again only sends a reference. Without   * resets, this table keeps every message ever sent alive for the   * lifetime of the connection, and an object modified after being sent   * reaches the peer unchanged when sent again. A reset clears the   * table, at the cost of sending the class descriptions again.<p>   *   * An interval above 1 is only safe when sent objects are never   * modified and sent again within the interval.   *   * @param resetInterval the number of messages between resets, or 0   *        to never reset.   */  public void setResetInterval(int resetInterval)  {    this.resetInterval = checkSize(resetInterval);  }  /**   * @return the number of messages between resets, or 0 for never.   */  public int getResetInterval()  {    return resetInterval;  }// INSTANCE METHODS *************************************************  /**   * Applies the socket options to a socket.   *   * @param socket the socket, connected or not.   * @exception SocketException if an option cannot be set.   */  public void applyTo(Socket socket) throws SocketException  {    socket.setTcpNoDelay(tcpNoDelay);    if (sendBufferSize > 0)      socket.setSendBufferSize(sendBufferSize);    if (receiveBufferSize > 0)      socket.setReceiveBufferSize(receiveBufferSize);  }  /**   * Applies the socket options to a channel. The options a channel does   * not support, such as TCP_NODELAY on a Unix-domain channel, are   * skipped.   *   * @param channel the channel.   * @exception IOException if an option cannot be set.   */  public void applyTo(SocketChannel channel) throws IOException  {    Set<SocketOption<?>> supported = channel.supportedOptions();    if (supported.contains(StandardSocketOptions.TCP_NODELAY))      channel.setOption(StandardSocketOptions.TCP_NODELAY, tcpNoDelay);    if (sendBufferSize > 0      && supported.contains(StandardSocketOptions.SO_SNDBUF))      channel.setOption(StandardSocketOptions.SO_SNDBUF, sendBufferSize);    if (receiveBufferSize > 0      && supported.contains(StandardSocketOptions.SO_RCVBUF))      channel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferSize);  }  /**   * Wraps a socket output stream in the configured buffer.   *   * @param out the socket stream.   * @return the buffered stream, or <code>out</code> if unbuffered.   */  public OutputStream buffer(OutputStream out)  {    return streamBufferSize > 0 ?      new BufferedOutputStream(out, streamBufferSize) : out;  }  /**   * Wraps a socket input stream in the configured buffer.   *   * @param in the socket stream.   * @return the buffered stream, or <code>in</code> if unbuffered.   */  public InputStream buffer(InputStream in)  {    return streamBufferSize > 0 ?      new BufferedInputStream(in, streamBufferSize) : in;  }  /**   * Returns a description of the options.   *   * @return the options as text.   */  public String toString()  {    return "tcpNoDelay=" + tcpNoDelay + " sndbuf=" + sendBufferSize      + " rcvbuf=" + receiveBufferSize + " streamBuffer=" + streamBufferSize      + " resetInterval=" + resetInterval;  }  /**   * Rejects negative sizes.   */  private static int checkSize(int size)  {    if (size < 0)      throw new IllegalArgumentException("negative size " + size);    return size;  }}// End of TransportOptions class
\ No newline at end of file
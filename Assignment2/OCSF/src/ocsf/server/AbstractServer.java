@@ -1 +1 @@
-// This file contains material supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.com package ocsf.server;import java.net.*;import java.util.*;import java.io.*;/*** The <code> AbstractServer </code> class maintains a thread that waits* for connection attempts from clients. When a connection attempt occurs* it creates a new <code> ConnectionToClient </code> instance which* runs as a thread. When a client is thus connected to the* server, the two programs can then exchange <code> Object </code>* instances.<p>** Method <code> handleMessageFromClient </code> must be defined by* a concrete subclass. Several other hook methods may also be* overriden.<p>** Several public service methods are provided to applications that use* this framework, and several hook methods are also available<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @author Dr Robert Lagani&egrave;re* @author Dr Timothy C. Lethbridge* @author Fran&ccedil;ois B&eacute;langer* @author Paul Holden* @version February 2001 (2.12)* @see ocsf.server.ConnectionToClient*/public abstract class AbstractServer implements Runnable{  // INSTANCE VARIABLES *********************************************  /**   * The server socket: listens for clients who want to connect.   */  private ServerSocket serverSocket = null;  /**   * The connection listener thread.   */  private Thread connectionListener;  /**   * The port number   */  private int port;  /**   * The server timeout while for accepting connections.   * After timing out, the server will check to see if a command to   * stop the server has been issued; it not it will resume accepting   * connections.   * Set to half a second by default.   */  private int timeout = 500;  /**   * The maximum queue length; i.e. the maximum number of clients that   * can be waiting to connect.   * Set to 10 by default.   */  private int backlog = 10;  /**   * The thread group associated with client threads. Each member of the   * thread group is a <code> ConnectionToClient </code>.   */  private ThreadGroup clientThreadGroup;  /**   * Indicates if the listening thread is ready to stop.  Set to   * false by default.   */  private boolean readyToStop = false;// CONSTRUCTOR ******************************************************  /**   * Constructs a new server.   *   * @param port the port number on which to listen.   */  public AbstractServer(int port)  {    this.port = port;    this.clientThreadGroup =      new ThreadGroup("ConnectionToClient threads")      {        // All uncaught exceptions in connection threads will        // be sent to the clientException callback method.        public void uncaughtException(          Thread thread, Throwable exception)        {          clientException((ConnectionToClient)thread, exception);        }      };  }// INSTANCE METHODS *************************************************  /**   * Begins the thread that waits for new clients.   * If the server is already in listening mode, this   * call has no effect.   *   * @exception IOException if an I/O error occurs   * when creating the server socket.   */  final public void listen() throws IOException  {    if (!isListening())    {      if (serverSocket == null)      {        serverSocket = new ServerSocket(getPort(), backlog);      }      serverSocket.setSoTimeout(timeout);      readyToStop = false;      connectionListener = new Thread(this);      connectionListener.start();    }  }  /**   * Causes the server to stop accepting new connections.   */  final public void stopListening()  {    readyToStop = true;  }  /**   * Closes the server socket and the connections with all clients.   * Any exception thrown while closing a client is ignored.   * If one wishes to catch these exceptions, then clients   * should be individually closed before calling this method.   * The method also stops listening if this thread is running.   * If the server is already closed, this   * call has no effect.   *   * @exception IOException if an I/O error occurs while   * closing the server socket.   */  final synchronized public void close() throws IOException  {    if (serverSocket == null)      return;      stopListening();    try    {      serverSocket.close();    }    finally    {      // Close the client sockets of the already connected clients      Thread[] clientThreadList = getClientConnections();      for (int i=0; i<clientThreadList.length; i++)      {         try         {           ((ConnectionToClient)clientThreadList[i]).close();         }         // Ignore all exceptions when closing clients.         catch(Exception ex) {}      }      serverSocket = null;      serverClosed();    }  }  /**   * Sends a message to every client connected to the server.   * This is merely a utility; a subclass may want to do some checks   * before actually sending messages to all clients.  This method   * can be overriden, but if so it should still perform the general   * function of sending to all clients, perhaps after some kind   * of filtering is done. Any exception thrown while   * sending the message to a particular client is ignored.   *   * @param msg   Object The message to be sent   */  public void sendToAllClients(Object msg)  {    Thread[] clientThreadList = getClientConnections();    for (int i=0; i<clientThreadList.length; i++)    {      try      {        ((ConnectionToClient)clientThreadList[i]).sendToClient(msg);      }      catch (Exception ex) {}    }  }// ACCESSING METHODS ------------------------------------------------  /**   * Returns true if the server is ready to accept new clients.   *   * @return true if the server is listening.   */  final public boolean isListening()  {    return (connectionListener != null);  }  /**   * Returns an array containing the existing   * client connections. This can be used by   * concrete subclasses to implement messages that do something with   * each connection (e.g. kill it, send a message to it etc.).   * Remember that after this array is obtained, some clients   * in this migth disconnect. New clients can also connect,   * these later will not appear in the array.   *   * @return an array of <code>Thread</code> containing   * <code>ConnectionToClient</code> instances.   */  synchronized final public Thread[] getClientConnections()  {    Thread[] clientThreadList = new      Thread[clientThreadGroup.activeCount()];    clientThreadGroup.enumerate(clientThreadList);    return clientThreadList;  }  /**   * Counts the number of clients currently connected.   *   * @return the number of clients currently connected.   */  final public int getNumberOfClients()  {    return clientThreadGroup.activeCount();  }  /**   * Returns the port number.   *   * @return the port number.   */  final public int getPort()  {    return port;  }  /**   * Sets the port number for the next connection.   * The server must be closed and restarted for the port   * change to be in effect.   *   * @param port the port number.   */  final public void setPort(int port)  {    this.port = port;  }  /**   * Sets the timeout time when accepting connections.   * The default is half a second. This means that stopping the   * server may take up to timeout duration to actually stop.   * The server must be stopped and restarted for the timeout   * change to be effective.   *   * @param timeout the timeout time in ms.   */  final public void setTimeout(int timeout)  {    this.timeout = timeout;  }  /**   * Sets the maximum number of waiting connections accepted by the   * operating system. The default is 20.   * The server must be closed and restarted for the backlog   * change to be in effect.   *   * @param backlog the maximum number of connections.   */  final public void setBacklog(int backlog)  {    this.backlog = backlog;  }// RUN METHOD -------------------------------------------------------  /**   * Runs the listening thread that allows clients to connect.   * Not to be called.   */  final public void run()  {    // call the hook method to notify that the server is starting    serverStarted();    try    {      // Repeatedly waits for a new client connection, accepts it, and      // starts a new thread to handle data exchange.      while(!readyToStop)      {        try        {          // Wait here for new connection attempts, or a timeout          Socket clientSocket = serverSocket.accept();          // When a client is accepted, create a thread to handle          // the data exchange, then add it to thread group          synchronized(this)          {            ConnectionToClient c = new ConnectionToClient(              this.clientThreadGroup, clientSocket, this);          }        }        catch (InterruptedIOException exception)        {          // This will be thrown when a timeout occurs.          // The server will continue to listen if not ready to stop.        }      }      // call the hook method to notify that the server has stopped      serverStopped();    }    catch (IOException exception)    {      if (!readyToStop)      {        // Closing the socket must have thrown a SocketException        listeningException(exception);      }      else      {        serverStopped();      }    }    finally    {      readyToStop = true;      connectionListener = null;    }  }// METHODS DESIGNED TO BE OVERRIDDEN BY CONCRETE SUBCLASSES ---------  /**   * Hook method called each time a new client connection is   * accepted. The default implementation does nothing.   * @param client the connection connected to the client.   */  protected void clientConnected(ConnectionToClient client) {}  /**   * Hook method called each time a client disconnects.   * The default implementation does nothing. The method   * may be overridden by subclasses but should remains synchronized.   *   * @param client the connection with the client.   */  synchronized protected void clientDisconnected(    ConnectionToClient client) {}  /**   * Hook method called each time an exception is thrown in a   * ConnectionToClient thread.   * The method may be overridden by subclasses but should remains   * synchronized.   *   * @param client the client that raised the exception.   * @param Throwable the exception thrown.   */  synchronized protected void clientException(    ConnectionToClient client, Throwable exception) {}  /**   * Hook method called when the server stops accepting   * connections because an exception has been raised.   * The default implementation does nothing.   * This method may be overriden by subclasses.   *   * @param exception the exception raised.   */  protected void listeningException(Throwable exception) {}  /**   * Hook method called when the server starts listening for   * connections.  The default implementation does nothing.   * The method may be overridden by subclasses.   */  protected void serverStarted() {}  /**   * Hook method called when the server stops accepting   * connections.  The default implementation   * does nothing. This method may be overriden by subclasses.   */  protected void serverStopped() {}  /**   * Hook method called when the server is clased.   * The default implementation does nothing. This method may be   * overriden by subclasses. When the server is closed while still   * listening, serverStopped() will also be called.   */  protected void serverClosed() {}  /**   * Handles a command sent from one client to the server.   * This MUST be implemented by subclasses, who should respond to   * messages.   * This method is called by a synchronized method so it is also   * implcitly synchronized.   *   * @param msg   the message sent.   * @param client the connection connected to the client that   *  sent the message.   */  protected abstract void handleMessageFromClient(    Object msg, ConnectionToClient client);// METHODS TO BE USED FROM WITHIN THE FRAMEWORK ONLY ----------------  /**   * Receives a command sent from the client to the server.   * Called by the run method of <code>ConnectionToClient</code>   * instances that are watching for messages coming from the server   * This method is synchronized to ensure that whatever effects it has   * do not conflict with work being done by other threads. The method   * simply calls the <code>handleMessageFromClient</code> slot method.   *   * @param msg   the message sent.   * @param client the connection connected to the client that   *  sent the message.   */  final synchronized void receiveMessageFromClient(    Object msg, ConnectionToClient client)  {    this.handleMessageFromClient(msg, client);  }}// End of AbstractServer Class
\ No newline at end of file
+// This file contains material supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.com package ocsf.server;import java.net.*;import java.util.*;import java.io.*;import java.nio.channels.*;import java.nio.file.*;import java.util.concurrent.atomic.*;import ocsf.common.MessageCodec;import ocsf.common.TransportOptions;import ocsf.common.RequestEnvelope;import ocsf.common.BatchReply;import ocsf.common.PayloadCompressor;/*** The <code> AbstractServer </code> class maintains a thread that waits* for connection attempts from clients. When a connection attempt occurs* it creates a new <code> ConnectionToClient </code> instance which* runs as a thread. When a client is thus connected to the* server, the two programs can then exchange <code> Object </code>* instances.<p>** Method <code> handleMessageFromClient </code> must be defined by* a concrete subclass. Several other hook methods may also be* overriden.<p>** Several public service methods are provided to applications that use* this framework, and several hook methods are also available<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @author Dr Robert Lagani&egrave;re* @author Dr Timothy C. Lethbridge* @author Fran&ccedil;ois B&eacute;langer* @author Paul Holden* @version February 2001 (2.12)* @see ocsf.server.ConnectionToClient*/public abstract class AbstractServer implements Runnable{  // INSTANCE VARIABLES *********************************************  /**   * The server socket: listens for clients who want to connect.   */  private ServerSocket serverSocket = null;  /**   * The connection listener thread.   */  private Thread connectionListener;  /**   * The port number   */  private int port;  /**   * The server timeout while for accepting connections.   * After timing out, the server will check to see if a command to   * stop the server has been issued; it not it will resume accepting   * connections.   * Set to half a second by default.   */  private int timeout = 500;  /**   * The maximum queue length; i.e. the maximum number of clients that   * can be waiting to connect.   * Set to 10 by default.   */  private int backlog = 10;  /**   * The thread group associated with client threads. Each member of the   * thread group is a <code> ConnectionToClient </code>.   */  private ThreadGroup clientThreadGroup;  /**   * Indicates if the listening thread is ready to stop.  Set to   * false by default. Also read by the thread accepting local clients.   */  private volatile boolean readyToStop = false;  /**   * The dispatcher that executes received messages on worker threads.   * When null, messages are handled one at a time on the connection   * thread that received them, as in the original framework.   */  private volatile RequestDispatcher dispatcher = null;  /**   * Indicates if the next call to listen uses the selector transport.   * Set to false by default.   */  private boolean selectorTransport = false;  /**   * The selector transport, while the server is open in selector mode.   */  private SelectorListener selectorListener = null;  /**   * The Unix-domain socket on which local clients are also accepted   * by the next call to listen, or null for TCP only.   */  private UnixDomainSocketAddress localAddress = null;  /**   * The channel on which local clients are accepted, while the server   * is open with a local address.   */  private ServerSocketChannel localChannel = null;  /**   * Selector used to wait for local clients with a timeout.   */  private Selector localSelector = null;  /**   * The thread accepting local clients.   */  private Thread localAcceptor = null;  /**   * The codec offered to clients that ask for one. When null, or when   * a client does not ask, every message is serialized.   */  private volatile MessageCodec messageCodec = null;  /**   * The compressor of the connections that accept compression, or null   * if the server never compresses.   */  private volatile PayloadCompressor compressor = null;  /**   * The maximum number of messages waiting to be written to each client.   * When 0, the classic transport writes every message on the calling   * thread and the selector transport queues without limit.   * Set to 0 by default.   */  private int outboundQueueCapacity = 0;  /**   * What a connection does when its outbound queue is full.   */  private SlowClientPolicy slowClientPolicy = SlowClientPolicy.DISCONNECT;  /**   * The socket and stream options of the connections.   */  private volatile TransportOptions transportOptions = new TransportOptions();// CONSTRUCTOR ******************************************************  /**   * Constructs a new server.   *   * @param port the port number on which to listen.   */  public AbstractServer(int port)  {    this.port = port;    this.clientThreadGroup =      new ThreadGroup("ConnectionToClient threads")      {        // All uncaught exceptions in connection threads will        // be sent to the clientException callback method.        public void uncaughtException(          Thread thread, Throwable exception)        {          clientException((ConnectionToClient)thread, exception);        }      };  }// INSTANCE METHODS *************************************************  /**   * Begins the thread that waits for new clients.   * If the server is already in listening mode, this   * call has no effect.   *   * @exception IOException if an I/O error occurs   * when creating the server socket.   * @exception IllegalStateException if the selector transport is   * selected and no dispatcher is installed.   */  final public void listen() throws IOException  {    if (!isListening())    {      if (selectorTransport)      {        if (dispatcher == null)          throw new IllegalStateException(            "the selector transport needs a dispatcher");        if (selectorListener == null)          selectorListener = new SelectorListener(            this, new InetSocketAddress(getPort()), backlog);      }      else      {        if (serverSocket == null)        {          // Accepted sockets inherit the receive buffer size, which          // must be known before connections are negotiated          serverSocket = new ServerSocket();          if (transportOptions.getReceiveBufferSize() > 0)            serverSocket.setReceiveBufferSize(              transportOptions.getReceiveBufferSize());          serverSocket.bind(new InetSocketAddress(getPort()), backlog);        }        serverSocket.setSoTimeout(timeout);      }      if (localAddress != null && localChannel == null)      {        // Remove the file left by a server that was not closed        Files.deleteIfExists(localAddress.getPath());        localChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);        try        {          localChannel.bind(localAddress, backlog);          localChannel.configureBlocking(false);          localSelector = Selector.open();          localChannel.register(localSelector, SelectionKey.OP_ACCEPT);        }        catch (IOException ex)        {          localChannel.close();          localChannel = null;          throw ex;        }      }      readyToStop = false;      connectionListener = new Thread(this);      connectionListener.start();      // An acceptor left by stopListening goes on with the new session      if (localChannel != null        && (localAcceptor == null || !localAcceptor.isAlive()))      {        localAcceptor = new Thread(new Runnable()        {          public void run()          {            acceptLocalClients();          }        }, "AbstractServer local listener");        localAcceptor.setDaemon(true);        localAcceptor.start();      }    }  }  /**   * Causes the server to stop accepting new connections.   */  final public void stopListening()  {    readyToStop = true;  }  /**   * Closes the server socket and the connections with all clients.   * Any exception thrown while closing a client is ignored.   * If one wishes to catch these exceptions, then clients   * should be individually closed before calling this method.   * The method also stops listening if this thread is running.   * If the server is already closed, this   * call has no effect.   *   * @exception IOException if an I/O error occurs while   * closing the server socket.   */  final synchronized public void close() throws IOException  {    if (serverSocket == null && selectorListener == null      && localChannel == null)      return;      stopListening();    try    {      if (selectorListener != null)        selectorListener.close();      else if (serverSocket != null)        serverSocket.close();    }    finally    {      if (localChannel != null)      {        try        {          localSelector.close();          localChannel.close();          Files.deleteIfExists(localAddress.getPath());        }        catch (IOException ex) {}        localChannel = null;        localSelector = null;      }      // Close the client sockets of the already connected clients      Thread[] clientThreadList = getClientConnections();      for (int i=0; i<clientThreadList.length; i++)      {         try         {           ((ConnectionToClient)clientThreadList[i]).close();         }         // Ignore all exceptions when closing clients.         catch(Exception ex) {}      }      serverSocket = null;      selectorListener = null;      if (dispatcher != null)        dispatcher.shutdown();      serverClosed();    }  }  /**   * Sends a message to every client connected to the server.   * This is merely a utility; a subclass may want to do some checks   * before actually sending messages to all clients.  This method   * can be overriden, but if so it should still perform the general   * function of sending to all clients, perhaps after some kind   * of filtering is done. Any exception thrown while   * sending the message to a particular client is ignored.   *   * @param msg   Object The message to be sent   */  public void sendToAllClients(Object msg)  {    Thread[] clientThreadList = getClientConnections();    for (int i=0; i<clientThreadList.length; i++)    {      try      {        ((ConnectionToClient)clientThreadList[i]).sendToClient(msg);      }      catch (Exception ex) {}    }  }// ACCESSING METHODS ------------------------------------------------  /**   * Returns true if the server is ready to accept new clients.   *   * @return true if the server is listening.   */  final public boolean isListening()  {    return (connectionListener != null);  }  /**   * Returns an array containing the existing   * client connections. This can be used by   * concrete subclasses to implement messages that do something with   * each connection (e.g. kill it, send a message to it etc.).   * Remember that after this array is obtained, some clients   * in this migth disconnect. New clients can also connect,   * these later will not appear in the array.   *   * @return an array of <code>Thread</code> containing   * <code>ConnectionToClient</code> instances.   */  synchronized final public Thread[] getClientConnections()  {    Thread[] clientThreadList = new      Thread[clientThreadGroup.activeCount()];    clientThreadGroup.enumerate(clientThreadList);    // Local clients have their own thread in either transport    if (selectorListener != null)    {      List<Thread> all =        new ArrayList<Thread>(selectorListener.getConnections());      for (Thread local : clientThreadList)        if (local != null)          all.add(local);      return all.toArray(new Thread[0]);    }    return clientThreadList;  }  /**   * Counts the number of clients currently connected.   *   * @return the number of clients currently connected.   */  final public int getNumberOfClients()  {    SelectorListener current = selectorListener;    if (current != null)      return current.getConnections().size()        + clientThreadGroup.activeCount();    return clientThreadGroup.activeCount();  }  /**   * Returns the port number.   *   * @return the port number.   */  final public int getPort()  {    return port;  }  /**   * Sets the port number for the next connection.   * The server must be closed and restarted for the port   * change to be in effect.   *   * @param port the port number.   */  final public void setPort(int port)  {    this.port = port;  }  /**   * Sets the timeout time when accepting connections.   * The default is half a second. This means that stopping the   * server may take up to timeout duration to actually stop.   * The server must be stopped and restarted for the timeout   * change to be effective.   *   * @param timeout the timeout time in ms.   */  final public void setTimeout(int timeout)  {    this.timeout = timeout;  }  /**   * Sets the maximum number of waiting connections accepted by the   * operating system. The default is 20.   * The server must be closed and restarted for the backlog   * change to be in effect.   *   * @param backlog the maximum number of connections.   */  final public void setBacklog(int backlog)  {    this.backlog = backlog;  }  /**   * Selects the transport used by the next call to listen.   * The classic transport runs one thread per client on object   * streams. The selector transport serves every client from a single   * I/O thread and exchanges length-prefixed frames, so clients must   * use <code>AbstractClient.setFramedTransport(true)</code>.   * The I/O thread never runs handlers nor waits for the dispatcher,   * so the selector transport requires a dispatcher (see   * <code>setDispatcher</code>). When the dispatcher is full, the   * connection whose message did not fit is not read any further until   * there is room for it; the other connections are still served.   * The server must be closed and restarted for the change to be   * in effect.   *   * @param selectorTransport true to use the selector transport.   */  final public void setSelectorTransport(boolean selectorTransport)  {    this.selectorTransport = selectorTransport;  }  /**   * Sets the Unix-domain socket on which the next call to listen also   * accepts clients, besides the TCP port. Clients running on the same   * host connect there to skip the TCP stack. Each of them is served by   * its own thread on object streams, whatever the transport of the TCP   * clients.   * A file left at that path by a server that was not closed is   * removed. The server must be closed and restarted for the change to   * be in effect.   *   * @param localAddress the socket path, or null to accept TCP clients   *        only.   */  final public void setLocalAddress(UnixDomainSocketAddress localAddress)  {    this.localAddress = localAddress;  }  /**   * Returns the Unix-domain socket on which local clients are accepted.   *   * @return the socket path, or null if there is none.   */  final public UnixDomainSocketAddress getLocalAddress()  {    return localAddress;  }  /**   * Sets the codec accepted when a client offers one with the same   * name. Clients that offer nothing, or another codec, keep using   * Java serialization. Only connections negotiating after this call   * are affected.   *   * @param messageCodec the codec, or null to refuse every offer.   */  final public void setMessageCodec(MessageCodec messageCodec)  {    this.messageCodec = messageCodec;  }  /**   * Returns the codec accepted from clients.   *   * @return the codec, or null.   */  final public MessageCodec getMessageCodec()  {    return messageCodec;  }  /**   * Compresses the large messages sent to the clients that offer   * compression when they connect. Messages are deflated once their   * encoded size reaches the threshold, and sent compressed only if   * that makes them smaller. The bytes saved and the time spent are   * recorded per command; an answer is counted under the command of the   * request being handled. Only connections opened after this call are   * affected.   *   * @param threshold the smallest message compressed, in bytes, or 0   *        to never compress.   * @param level     the deflate level, from 1 (fastest) to 9   *        (smallest).   */  final public void setCompression(int threshold, int level)  {    this.compressor = (threshold > 0) ?      new PayloadCompressor(threshold, level) : null;  }  /**   * Returns the compressor used by the connections that accepted   * compression, which holds the statistics of every command.   *   * @return the compressor, or null if the server never compresses.   */  final public PayloadCompressor getCompressor()  {    return compressor;  }  /**   * Bounds the messages waiting to be written to each client, so that   * sending never waits for the network. In the classic transport every   * connection then gets a writer thread draining its queue; the   * selector transport already writes from its I/O thread. When the   * queue of a client is full, the message is dropped or the client is   * disconnected, depending on the policy. Messages are encoded before   * they are queued, so the sender may change an object as soon as   * <code>sendToClient</code> returns. Only connections accepted after   * this call are affected.   *   * @param capacity the maximum number of queued messages per client,   *        or 0 to write on the calling thread.   * @param policy   what to do with a client whose queue is full.   */  final public void setOutboundQueue(int capacity, SlowClientPolicy policy)  {    if (capacity < 0 || policy == null)      throw new IllegalArgumentException("invalid outbound queue settings");    this.outboundQueueCapacity = capacity;    this.slowClientPolicy = policy;  }  /**   * Returns the capacity of the outbound queue of each client.   *   * @return the maximum number of queued messages, or 0 if unbounded.   */  final public int getOutboundQueueCapacity()  {    return outboundQueueCapacity;  }  /**   * Returns what a connection does when its outbound queue is full.   *   * @return the policy.   */  final public SlowClientPolicy getSlowClientPolicy()  {    return slowClientPolicy;  }  /**   * Sets the socket and stream options of the connections. Only   * connections accepted after this call are affected, and the receive   * buffer size only once the server has been closed and reopened.   *   * @param transportOptions the options.   */  final public void setTransportOptions(TransportOptions transportOptions)  {    if (transportOptions == null)      throw new IllegalArgumentException("options must not be null");    this.transportOptions = transportOptions;  }  /**   * Returns the socket and stream options of the connections.   *   * @return the options.   */  final public TransportOptions getTransportOptions()  {    return transportOptions;  }  /**   * Returns true if the server is open on the selector transport.   *   * @return true if connections are served by a selector.   */  final public boolean isSelectorTransport()  {    return selectorListener != null;  }  /**   * Sets the dispatcher used to execute received messages.   * With a dispatcher, messages are handled concurrently except for   * messages sharing the same ordering key, which keep their arrival   * order. Passing null restores serial handling under the server lock,   * which the selector transport does not support.   *   * @param dispatcher the dispatcher, or null.   * @exception IllegalStateException if dispatcher is null while the   * selector transport is open.   */  final public void setDispatcher(RequestDispatcher dispatcher)  {    if (dispatcher == null && selectorListener != null)      throw new IllegalStateException(        "the selector transport needs a dispatcher");    this.dispatcher = dispatcher;  }  /**   * Returns the dispatcher used to execute received messages.   *   * @return the dispatcher, or null if messages are handled serially.   */  final public RequestDispatcher getDispatcher()  {    return dispatcher;  }// RUN METHOD -------------------------------------------------------  /**   * Runs the listening thread that allows clients to connect.   * Not to be called.   */  final public void run()  {    // call the hook method to notify that the server is starting    serverStarted();    // The transport cannot change while listening, but close() may    // clear the field from another thread    SelectorListener selector = selectorListener;    try    {      // Repeatedly waits for a new client connection, accepts it, and      // starts a new thread to handle data exchange.      while(!readyToStop)      {        try        {          if (selector != null)          {            // Accept every pending connection, or time out            selector.acceptConnections(timeout);            continue;          }          // Wait here for new connection attempts, or a timeout          Socket clientSocket = serverSocket.accept();          // When a client is accepted, create a thread to handle          // the data exchange, then add it to thread group          synchronized(this)          {            ConnectionToClient c = new ConnectionToClient(              this.clientThreadGroup, clientSocket, this);          }        }        catch (InterruptedIOException exception)        {          // This will be thrown when a timeout occurs.          // The server will continue to listen if not ready to stop.        }      }      // call the hook method to notify that the server has stopped      serverStopped();    }    catch (IOException exception)    {      if (!readyToStop)      {        // Closing the socket must have thrown a SocketException        listeningException(exception);      }      else      {        serverStopped();      }    }    finally    {      readyToStop = true;      connectionListener = null;    }  }  /**   * Runs the thread accepting the clients of the local socket until the   * server stops listening. The listening thread keeps accepting the   * TCP clients and calling the start and stop hooks.   */  private void acceptLocalClients()  {    ServerSocketChannel channel;    Selector selector;    synchronized(this)    {      channel = localChannel;      selector = localSelector;    }    try    {      while (!readyToStop && channel != null)      {        if (selector.select(timeout) == 0)          continue;        selector.selectedKeys().clear();        SocketChannel clientChannel;        while ((clientChannel = channel.accept()) != null)        {          clientChannel.configureBlocking(true);          synchronized(this)          {            ConnectionToClient c = new ConnectionToClient(              this.clientThreadGroup, clientChannel, this);          }        }      }    }    catch (ClosedSelectorException exception)    {      // The server was closed while waiting    }    catch (IOException exception)    {      // Closing the server closes the channel under this thread      if (!readyToStop)        listeningException(exception);    }  }// METHODS DESIGNED TO BE OVERRIDDEN BY CONCRETE SUBCLASSES ---------  /**   * Hook method called each time a new client connection is   * accepted. The default implementation does nothing.   * @param client the connection connected to the client.   */  protected void clientConnected(ConnectionToClient client) {}  /**   * Hook method called each time a client disconnects.   * The default implementation does nothing. The method   * may be overridden by subclasses but should remains synchronized.   *   * @param client the connection with the client.   */  synchronized protected void clientDisconnected(    ConnectionToClient client) {}  /**   * Hook method called each time an exception is thrown in a   * ConnectionToClient thread.   * The method may be overridden by subclasses but should remains   * synchronized.   *   * @param client the client that raised the exception.   * @param Throwable the exception thrown.   */  synchronized protected void clientException(    ConnectionToClient client, Throwable exception) {}  /**   * Hook method called when the server stops accepting   * connections because an exception has been raised.   * The default implementation does nothing.   * This method may be overriden by subclasses.   *   * @param exception the exception raised.   */  protected void listeningException(Throwable exception) {}  /**   * Hook method called when the server starts listening for   * connections.  The default implementation does nothing.   * The method may be overridden by subclasses.   */  protected void serverStarted() {}  /**   * Hook method called when the server stops accepting   * connections.  The default implementation   * does nothing. This method may be overriden by subclasses.   */  protected void serverStopped() {}  /**   * Hook method called when the server is clased.   * The default implementation does nothing. This method may be   * overriden by subclasses. When the server is closed while still   * listening, serverStopped() will also be called.   */  protected void serverClosed() {}  /**   * Hook method returning the ordering key of a message when a   * dispatcher is installed. Messages with equal keys are handled one   * after the other in arrival order; others may run concurrently.   * The default implementation orders messages per client connection.   * This method may be overriden by subclasses.   *   * @param msg    the message sent.   * @param client the connection with the client that sent it.   * @return the ordering key, never null.   */  protected Object getOrderingKey(Object msg, ConnectionToClient client)  {    return client;  }  /**   * Hook method returning the name under which the dispatcher records   * queue statistics for a message. The default implementation uses   * the simple class name of the message.   * This method may be overriden by subclasses.   *   * @param msg the message sent.   * @return the command name.   */  protected String getCommandName(Object msg)  {    return msg == null ? "null" : msg.getClass().getSimpleName();  }  /**   * Hook method recognizing a batch: a message carrying several   * messages that the client wants handled together. Every message of   * a batch goes through <code>getOrderingKey</code> and   * <code>handleMessageFromClient</code> like a message of its own, so   * that those with different keys run concurrently; what the handlers   * send back is returned to the client in a single   * <code>BatchReply</code> once all of them are done.   * The default implementation recognizes no batch.   * This method may be overriden by subclasses.   *   * @param msg the message sent.   * @return the messages of the batch, or null if <code>msg</code>   *         is not a batch.   */  protected List<?> getBatchMessages(Object msg)  {    return null;  }  /**   * Handles a command sent from one client to the server.   * This MUST be implemented by subclasses, who should respond to   * messages.   * Without a dispatcher this method is called by a synchronized block   * so it is also implcitly synchronized. With a dispatcher it may run   * concurrently for messages that have different ordering keys.   *   * @param msg   the message sent.   * @param client the connection connected to the client that   *  sent the message.   */  protected abstract void handleMessageFromClient(    Object msg, ConnectionToClient client);// METHODS TO BE USED FROM WITHIN THE FRAMEWORK ONLY ----------------  /**   * Receives a command sent from the client to the server.   * Called by the run method of <code>ConnectionToClient</code>   * instances that are watching for messages coming from the server   * When a dispatcher is installed the message is queued under its   * ordering key, blocking the caller if the dispatcher is full.   * Otherwise the method synchronizes on the server to ensure that   * whatever effects it has do not conflict with work being done by   * other threads, and simply calls the   * <code>handleMessageFromClient</code> slot method.<p>   *   * A message wrapped in a <code>RequestEnvelope</code> is unwrapped   * first, and its request id is made available through   * <code>client.getRequestId()</code> to the ordering key hook and to   * the handler, so that the answers carry the same id.   *   * @param msg   the message sent.   * @param client the connection connected to the client that   *  sent the message.   */  final void receiveMessageFromClient(    Object msg, final ConnectionToClient client)  {    receiveMessageFromClient(msg, client, true);  }  /**   * Receives a command sent from the client to the server, as above.   * A caller that must not block, such as the I/O thread of the   * selector transport, passes false: the message is then only queued   * if the dispatcher has room for it at once, and the handler never   * runs on the calling thread.   *   * @param msg      the message sent.   * @param client   the connection connected to the client that   *        sent the message.   * @param mayBlock false if the caller must not block.   * @return true if the message was taken, false if the dispatcher was   *         full and the same message must be received again later.   * @exception IllegalStateException if the caller must not block and   *         no dispatcher is installed, or the message is a batch   *         larger than the dispatcher can ever hold.   */  final boolean receiveMessageFromClient(    Object msg, final ConnectionToClient client, boolean mayBlock)  {    long id = 0;    if (msg instanceof RequestEnvelope)    {      id = ((RequestEnvelope)msg).getRequestId();      msg = ((RequestEnvelope)msg).getPayload();    }    final long requestId = id;    final Object message = msg;    final String command = getCommandName(message);    List<?> batch = getBatchMessages(message);    if (batch != null)      return receiveBatch(batch, requestId, command, client, mayBlock);    RequestDispatcher current = dispatcher;    if (current == null && !mayBlock)      throw new IllegalStateException("no dispatcher installed");    if (current == null)    {      synchronized(this)      {        client.beginRequest(requestId, command);        try        {          this.handleMessageFromClient(message, client);        }        finally        {          client.endRequest();        }      }      return true;    }    Object key;    client.beginRequest(requestId, null);    try    {      key = getOrderingKey(message, client);    }    finally    {      client.endRequest();    }    Runnable task = new Runnable()    {      public void run()      {        client.beginRequest(requestId, command);        try        {          handleMessageFromClient(message, client);        }        catch (RuntimeException ex)        {          clientException(client, ex);        }        finally        {          client.endRequest();        }      }    };    if (!mayBlock)      return current.tryDispatch(key, command, task);    try    {      current.dispatch(key, command, task);    }    catch (InterruptedException ex)    {      Thread.currentThread().interrupt();    }    return true;  }  /**   * Handles the messages of a batch and answers them with one   * <code>BatchReply</code>. Messages are dispatched one by one from the   * receiving thread, so a full dispatcher pushes back on the client   * exactly as for separate messages. A caller that must not block   * reserves room for the whole batch first, or leaves it for later.   *   * @param messages  the messages of the batch.   * @param requestId the id of the batch, or 0 if none.   * @param command   the command of the batch.   * @param client    the connection with the client that sent it.   * @param mayBlock  false if the caller must not block.   * @return true if the batch was taken, false if the dispatcher did   *         not have room for it.   */  private boolean receiveBatch(List<?> messages, long requestId,    String command, final ConnectionToClient client, boolean mayBlock)  {    RequestDispatcher current = dispatcher;    boolean reserved = false;    if (!mayBlock && !messages.isEmpty())    {      if (current == null)        throw new IllegalStateException("no dispatcher installed");      if (messages.size() > current.getMaxPending())        throw new IllegalStateException("batch of " + messages.size()          + " messages exceeds the dispatcher's capacity");      if (!current.tryReserve(messages.size()))        return false;      reserved = true;    }    final Batch batch =      new Batch(messages.size(), requestId, command, client);    if (messages.isEmpty())    {      batch.send();      return true;    }    for (int i = 0; i < messages.size(); i++)    {      final int index = i;      final Object message = messages.get(i);      Runnable task = new Runnable()      {        public void run()        {          batch.complete(index, handleCaptured(message, batch));        }      };      if (current == null)      {        synchronized(this)        {          task.run();        }        continue;      }      Object key;      client.beginRequest(requestId, null);      try      {        key = getOrderingKey(message, client);      }      finally      {        client.endRequest();      }      if (reserved)      {        current.dispatchReserved(key, getCommandName(message), task);        continue;      }      try      {        current.dispatch(key, getCommandName(message), task);      }      catch (InterruptedException ex)      {        // The messages not dispatched are never answered        Thread.currentThread().interrupt();        return true;      }    }    return true;  }  /**   * Handles one message of a batch and returns what the handler sent   * to the client.   */  private List<Object> handleCaptured(Object message, Batch batch)  {    ConnectionToClient client = batch.client;    List<Object> answers;    client.beginRequest(batch.requestId, null);    client.beginCapture();    try    {      handleMessageFromClient(message, client);    }    catch (RuntimeException ex)    {      clientException(client, ex);    }    finally    {      client.endRequest();      answers = client.endCapture();    }    return answers;  }// INNER CLASSES ----------------------------------------------------  /**   * The answers of a batch being handled. The thread that completes   * the last message sends the reply.   */  private class Batch  {    final long requestId;    final String command;    final ConnectionToClient client;    final List<List<Object>> replies;    final AtomicInteger remaining;    Batch(int size, long requestId, String command,      ConnectionToClient client)    {      this.requestId = requestId;      this.command = command;      this.client = client;      this.replies = new ArrayList<List<Object>>(        Collections.nCopies(size, (List<Object>)null));      this.remaining = new AtomicInteger(size);    }    /**     * Records the answers of one message, and sends the reply if it     * was the last one.     */    void complete(int index, List<Object> answers)    {      synchronized(replies)      {        replies.set(index, answers);      }      if (remaining.decrementAndGet() == 0)        send();    }    /**     * Sends the reply, with the id of the batch.     */    void send()    {      BatchReply reply;      synchronized(replies)      {        reply = new BatchReply(replies);      }      client.beginRequest(requestId, command);      try      {        client.sendToClient(reply);      }      catch (IOException ex)      {        clientException(client, ex);      }      finally      {        client.endRequest();      }    }  }  /**   * What a connection does when a message is sent while its outbound   * queue is full, i.e. when the client reads slower than the server   * writes.   *   * @see AbstractServer#setOutboundQueue(int, SlowClientPolicy)   */  public static enum SlowClientPolicy  {    /**     * The message is discarded and counted; the client stays connected.     */    DROP_MESSAGE,    /**     * The client is disconnected and the sender gets an IOException.     */    DISCONNECT  }}// End of AbstractServer Class
\ No newline at end of file
@@ -1 +1 @@
-// This file contains material supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.server;import java.io.*;import java.net.*;import java.util.*;/*** An instance of this class is created by the server when a client* connects. It accepts messages coming from the client and is* responsible for sending data to the client since the socket is* private to this class. The AbstractServer contains a set of* instances of this class and is responsible for adding and deleting* them.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @author Dr Robert Lagani&egrave;re* @author Dr Timothy C. Lethbridge* @author Fran&ccedil;ois B&eacute;langer* @author Paul Holden* @version February 2001 (2.12)*/public class ConnectionToClient extends Thread{// INSTANCE VARIABLES ***********************************************  /**  * A reference to the Server that created this instance.  */  private AbstractServer server;  /**  * Sockets are used in the operating system as channels  * of communication between two processes.  * @see java.net.Socket  */  private Socket clientSocket;  /**  * Stream used to read from the client.  */  private ObjectInputStream input;  /**  * Stream used to write to the client.  */  private ObjectOutputStream output;  /**  * Indicates if the thread is ready to stop. Set to true when closing  * of the connection is initiated.  */  private boolean readyToStop;  /**   * Map to save information about the client such as its login ID.   * The initial size of the map is small since it is not expected   * that concrete servers will want to store many different types of   * information about each client. Used by the setInfo and getInfo   * methods.   */  private HashMap savedInfo = new HashMap(10);// CONSTRUCTORS *****************************************************  /**   * Constructs a new connection to a client.   *   * @param group the thread group that contains the connections.   * @param clientSocket contains the client's socket.   * @param server a reference to the server that created   *        this instance   * @exception IOException if an I/O error occur when creating   *        the connection.   */  ConnectionToClient(ThreadGroup group, Socket clientSocket,    AbstractServer server) throws IOException  {    super(group,(Runnable)null);    // Initialize variables    this.clientSocket = clientSocket;    this.server = server;    clientSocket.setSoTimeout(0); // make sure timeout is infinite    //Initialize the objects streams    try    {      input = new ObjectInputStream(clientSocket.getInputStream());      output = new ObjectOutputStream(clientSocket.getOutputStream());    }    catch (IOException ex)    {      try      {        closeAll();      }      catch (Exception exc) { }      throw ex;  // Rethrow the exception.    }    readyToStop = false;    start(); // Start the thread waits for data from the socket  }// INSTANCE METHODS *************************************************  /**   * Sends an object to the client.   *   * @param msg the message to be sent.   * @exception IOException if an I/O error occur when sending the   *    message.   */  final public void sendToClient(Object msg) throws IOException  {    if (clientSocket == null || output == null)      throw new SocketException("socket does not exist");    output.writeObject(msg);  }  /**   * Closes the client.   * If the connection is already closed, this   * call has no effect.   *   * @exception IOException if an error occurs when closing the socket.   */  final public void close() throws IOException  {    readyToStop = true; // Set the flag that tells the thread to stop    try    {      closeAll();    }    finally    {      server.clientDisconnected(this);    }  }// ACCESSING METHODS ------------------------------------------------  /**   * Returns the address of the client.   *   * @return the client's Internet address.   */  final public InetAddress getInetAddress()  {    return clientSocket == null ? null : clientSocket.getInetAddress();  }  /**   * Returns a string representation of the client.   *   * @return the client's description.   */  public String toString()  {    return clientSocket == null ? null :      clientSocket.getInetAddress().getHostName()        +" (" + clientSocket.getInetAddress().getHostAddress() + ")";  }  /**   * Saves arbitrary information about this client. Designed to be   * used by concrete subclasses of AbstractServer. Based on a hash map.   *   * @param infoType   identifies the type of information   * @param info       the information itself.   */  public void setInfo(String infoType, Object info)  {    savedInfo.put(infoType, info);  }  /**   * Returns information about the client saved using setInfo.   * Based on a hash map.   *   * @param infoType   identifies the type of information   */  public Object getInfo(String infoType)  {    return savedInfo.get(infoType);  }// RUN METHOD -------------------------------------------------------  /**   * Constantly reads the client's input stream.   * Sends all objects that are read to the server.   * Not to be called.   */  final public void run()  {    server.clientConnected(this);    // This loop reads the input stream and responds to messages    // from clients    try    {      // The message from the client      Object msg;      while (!readyToStop)      {        // This block waits until it reads a message from the client        // and then sends it for handling by the server        msg = input.readObject();        server.receiveMessageFromClient(msg, this);      }    }    catch (Exception exception)    {      if (!readyToStop)      {        try        {          closeAll();        }        catch (Exception ex) { }        server.clientException(this, exception);      }    }  }// METHODS TO BE USED FROM WITHIN THE FRAMEWORK ONLY ----------------  /**   * Closes all connection to the server.   *   * @exception IOException if an I/O error occur when closing the   *     connection.   */  private void closeAll() throws IOException  {    try    {      // Close the socket      if (clientSocket != null)        clientSocket.close();      // Close the output stream      if (output != null)        output.close();      // Close the input stream      if (input != null)        input.close();    }    finally    {      // Set the streams and the sockets to NULL no matter what      // Doing so allows, but does not require, any finalizers      // of these objects to reclaim system resources if and      // when they are garbage collected.      output = null;      input = null;      clientSocket = null;    }  }  /**   * This method is called by garbage collection.   */  protected void finalize()  {    try    {      closeAll();    }    catch(IOException e) {}  }}// End of ConnectionToClient class
\ No newline at end of file
+// This file contains material supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.server;import java.io.*;import java.net.*;import java.util.*;import java.util.concurrent.*;import java.nio.channels.*;import ocsf.common.*;/*** An instance of this class is created by the server when a client* connects. It accepts messages coming from the client and is* responsible for sending data to the client since the socket is* private to this class. The AbstractServer contains a set of* instances of this class and is responsible for adding and deleting* them.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @author Dr Robert Lagani&egrave;re* @author Dr Timothy C. Lethbridge* @author Fran&ccedil;ois B&eacute;langer* @author Paul Holden* @version February 2001 (2.12)*/public class ConnectionToClient extends Thread{// INSTANCE VARIABLES ***********************************************  /**  * A reference to the Server that created this instance.  */  private AbstractServer server;  /**  * Sockets are used in the operating system as channels  * of communication between two processes.  * @see java.net.Socket  */  private Socket clientSocket;  /**  * Stream used to read from the client.  */  private ObjectInputStream input;  /**  * Stream used to write to the client.  */  private MessageWriter output;  /**  * Indicates if the thread is ready to stop. Set to true when closing  * of the connection is initiated.  */  private boolean readyToStop;  /**   * Map to save information about the client such as its login ID.   * The initial size of the map is small since it is not expected   * that concrete servers will want to store many different types of   * information about each client. Used by the setInfo and getInfo   * methods. Synchronized since the server may handle several messages   * of the same client on different threads.   */  private final Map<String, Object> savedInfo =    Collections.synchronizedMap(new HashMap<String, Object>(10));  /**   * The selector transport serving this connection, or null when the   * connection runs its own thread on object streams.   */  private SelectorListener selectorListener;  /**   * The channel of this connection in the selector transport.   */  private SelectorListener.ChannelState channelState;  /**   * The Unix-domain channel of a client connected through the local   * socket of the server, which has no <code> Socket</code>.   */  private SocketChannel localChannel;  /**   * Indicates if the client is connected through the local socket of   * the server. Unlike the channel, it is kept once the connection is   * closed.   */  private boolean local = false;  /**   * The codec agreed on with the client, or null while every message   * is serialized.   */  private volatile MessageCodec codec;  /**   * The compressor of the server once the client has accepted   * compression, or null while messages are sent uncompressed.   */  private volatile PayloadCompressor compressor;  /**   * The id of the request being handled for this client by the current   * thread, if the client sent it in a <code>RequestEnvelope</code>.   */  private final ThreadLocal<Long> requestInProgress = new ThreadLocal<Long>();  /**   * The command of the message being handled for this client by the   * current thread, under which its answers are counted.   */  private final ThreadLocal<String> commandInProgress =    new ThreadLocal<String>();  /**   * The answers collected instead of being sent while the current   * thread handles a message that is part of a batch.   */  private final ThreadLocal<List<Object>> capturedReplies =    new ThreadLocal<List<Object>>();  /**   * The maximum number of messages waiting to be written, or 0 when   * the classic transport writes on the sending thread.   */  private final int outboundCapacity;  /**   * What to do when a message is sent while the queue is full.   */  private final AbstractServer.SlowClientPolicy slowClientPolicy;  /**   * Payloads waiting for the writer thread in the classic transport,   * or null when messages are written on the sending thread.   */  private BlockingQueue<byte[]> outbound;  /**   * The thread draining <code>outbound</code> to the client.   */  private Thread writer;  /**   * The largest number of messages that have been waiting to be   * written at once. Guarded by the instance's monitor.   */  private int peakOutboundDepth = 0;  /**   * The number of messages discarded because the queue was full.   */  private volatile long droppedMessages = 0;// CONSTRUCTORS *****************************************************  /**   * Constructs a new connection to a client.   *   * @param group the thread group that contains the connections.   * @param clientSocket contains the client's socket.   * @param server a reference to the server that created   *        this instance   * @exception IOException if an I/O error occur when creating   *        the connection.   */  ConnectionToClient(ThreadGroup group, Socket clientSocket,    AbstractServer server) throws IOException  {    super(group,(Runnable)null);    // Initialize variables    this.clientSocket = clientSocket;    this.server = server;    this.outboundCapacity = server.getOutboundQueueCapacity();    this.slowClientPolicy = server.getSlowClientPolicy();    clientSocket.setSoTimeout(0); // make sure timeout is infinite    //Initialize the objects streams    try    {      server.getTransportOptions().applyTo(clientSocket);      openStreams(clientSocket.getInputStream(),        clientSocket.getOutputStream());    }    catch (IOException ex)    {      try      {        closeAll();      }      catch (Exception exc) { }      throw ex;  // Rethrow the exception.    }    startThreads("ConnectionToClient writer "      + clientSocket.getRemoteSocketAddress());  }  /**   * Constructs a new connection to a client of the local socket of the   * server. Like a classic connection, it has its own thread reading   * object streams, whatever the transport of the TCP clients: local   * clients are few, and a dedicated thread answers them without going   * through a selector.   *   * @param group the thread group that contains the connections.   * @param localChannel the client's channel, in blocking mode.   * @param server a reference to the server that created   *        this instance   * @exception IOException if an I/O error occur when creating   *        the connection.   */  ConnectionToClient(ThreadGroup group, SocketChannel localChannel,    AbstractServer server) throws IOException  {    super(group,(Runnable)null);    this.localChannel = localChannel;    this.local = true;    this.server = server;    this.outboundCapacity = server.getOutboundQueueCapacity();    this.slowClientPolicy = server.getSlowClientPolicy();    try    {      server.getTransportOptions().applyTo(localChannel);      openStreams(Channels.newInputStream(localChannel),        Channels.newOutputStream(localChannel));    }    catch (IOException ex)    {      try      {        closeAll();      }      catch (Exception exc) { }      throw ex;  // Rethrow the exception.    }    startThreads("ConnectionToClient local writer");  }  /**   * Constructs a connection served by the selector transport.   * The thread of such a connection is never started: its channel is   * read and written by the I/O thread of the transport.   *   * @param channel the client's channel.   * @param selectorListener the transport serving the channel.   * @param channelState the transport state of the channel.   * @param server a reference to the server that created   *        this instance   */  ConnectionToClient(SocketChannel channel,    SelectorListener selectorListener,    SelectorListener.ChannelState channelState, AbstractServer server)  {    super("ConnectionToClient " + channel);    this.clientSocket = channel.socket();    this.selectorListener = selectorListener;    this.channelState = channelState;    this.server = server;    this.outboundCapacity = server.getOutboundQueueCapacity();    this.slowClientPolicy = server.getSlowClientPolicy();    readyToStop = false;  }// INSTANCE METHODS *************************************************  /**   * Sends an object to the client.   * The method is synchronized so that replies written by different   * threads are never interleaved on the stream. When called while a   * request of this client sent with an id is being handled, the object   * is wrapped in a <code>RequestEnvelope</code> carrying that id. When   * called while a message of a batch is being handled, the object is   * kept for the <code>BatchReply</code> instead of being sent.<p>   *   * When the server bounds the outbound queues, the message is only   * queued. If the queue is full, the message is dropped or the client   * disconnected, as set by the server's <code>SlowClientPolicy</code>.   *   * @param msg the message to be sent.   * @exception IOException if an I/O error occur when sending the   *    message, or if the client was disconnected for reading too slowly.   */  final synchronized public void sendToClient(Object msg) throws IOException  {    // Answers to a message of a batch go back in the batch reply    List<Object> captured = capturedReplies.get();    if (captured != null)    {      captured.add(msg);      return;    }    // Messages sent outside of a request are counted under their class    PayloadCompressor compressing = compressor;    String command = compressing == null ? null : commandInProgress.get();    if (compressing != null && command == null)      command = msg == null ? "null" : msg.getClass().getSimpleName();    long requestId = getRequestId();    if (requestId != 0)      msg = new RequestEnvelope(requestId, msg);    // Compression needs the encoded size, so the message is encoded    // here, on the sending thread, rather than by the writer.    byte[] payload = (compressing == null) ? null :      compressing.encode(msg, codec, command);    // A queued message is written later by another thread, while the    // sender may already be changing it: it is encoded now, with the    // codec in use, and only its bytes are queued.    if (payload == null && selectorListener == null && outbound != null)      payload = FrameCodec.encodePayload(msg, codec);    if (selectorListener != null)    {      int depth = selectorListener.send(channelState,        payload != null ? FrameCodec.frame(payload) :          FrameCodec.encode(msg, codec),        outboundCapacity);      if (depth < 0)        queueFull();      else        peakOutboundDepth = Math.max(peakOutboundDepth, depth);      return;    }    if ((clientSocket == null && localChannel == null) || output == null)      throw new SocketException("socket does not exist");    if (outbound == null)    {      if (payload != null)        output.writePayload(payload);      else        output.write(msg, codec);      output.flush();      return;    }    if (!outbound.offer(payload))      queueFull();    else      peakOutboundDepth = Math.max(peakOutboundDepth, outbound.size());  }  /**   * Closes the client.   * If the connection is already closed, this   * call has no effect.   *   * @exception IOException if an error occurs when closing the socket.   */  final public void close() throws IOException  {    readyToStop = true; // Set the flag that tells the thread to stop    try    {      if (selectorListener != null)        selectorListener.closeChannel(channelState);      else        closeAll();    }    finally    {      server.clientDisconnected(this);    }  }// ACCESSING METHODS ------------------------------------------------  /**   * Returns the address of the client. A client connected through   * the local socket of the server is on the loopback address.   *   * @return the client's Internet address.   */  final public InetAddress getInetAddress()  {    if (local)      return InetAddress.getLoopbackAddress();    return clientSocket == null ? null : clientSocket.getInetAddress();  }  /**   * Returns a string representation of the client.   *   * @return the client's description.   */  public String toString()  {    if (local)      return "local client " + Integer.toHexString(hashCode());    return clientSocket == null ? null :      clientSocket.getInetAddress().getHostName()        +" (" + clientSocket.getInetAddress().getHostAddress() + ")";  }  /**   * Returns the number of messages waiting to be written to the client.   *   * @return the current depth of the outbound queue.   */  public int getOutboundQueueDepth()  {    if (selectorListener != null)      return selectorListener.getQueueDepth(channelState);    BlockingQueue<byte[]> queue = outbound;    return queue == null ? 0 : queue.size();  }  /**   * Returns the largest number of messages that have been waiting to   * be written to the client at once.   *   * @return the peak depth of the outbound queue.   */  synchronized public int getPeakOutboundQueueDepth()  {    return peakOutboundDepth;  }  /**   * Returns the number of messages discarded because the outbound queue   * was full.   *   * @return the number of dropped messages.   */  public long getDroppedMessageCount()  {    return droppedMessages;  }  /**   * Returns the id of the request of this client that the current   * thread is handling. Answers sent meanwhile carry the same id.   *   * @return the request id, or 0 if the client sent no id or the   *         thread is not handling a request of this client.   */  public long getRequestId()  {    Long id = requestInProgress.get();    return id == null ? 0 : id.longValue();  }  /**   * Saves arbitrary information about this client. Designed to be   * used by concrete subclasses of AbstractServer. Based on a hash map.   *   * @param infoType   identifies the type of information   * @param info       the information itself.   */  public void setInfo(String infoType, Object info)  {    savedInfo.put(infoType, info);  }  /**   * Returns information about the client saved using setInfo.   * Based on a hash map.   *   * @param infoType   identifies the type of information   */  public Object getInfo(String infoType)  {    return savedInfo.get(infoType);  }// RUN METHOD -------------------------------------------------------  /**   * Constantly reads the client's input stream.   * Sends all objects that are read to the server.   * Not to be called.   */  final public void run()  {    server.clientConnected(this);    // This loop reads the input stream and responds to messages    // from clients    try    {      // The message from the client      Object msg;      while (!readyToStop)      {        // This block waits until it reads a message from the client        // and then sends it for handling by the server        msg = FrameCodec.readMessage(input, codec);        if (!negotiateCodec(msg))          server.receiveMessageFromClient(msg, this);      }    }    catch (Exception exception)    {      if (!readyToStop)      {        try        {          closeAll();        }        catch (Exception ex) { }        server.clientException(this, exception);      }    }  }// METHODS TO BE USED FROM WITHIN THE FRAMEWORK ONLY ----------------  /**   * Marks the current thread as handling a request of this client.   *   * @param requestId the id sent by the client, or 0 if none.   * @param command   the command of the request, or null if unknown.   */  void beginRequest(long requestId, String command)  {    if (requestId != 0)      requestInProgress.set(requestId);    if (command != null)      commandInProgress.set(command);  }  /**   * Marks the end of the request handled by the current thread.   */  void endRequest()  {    requestInProgress.remove();    commandInProgress.remove();  }  /**   * Makes the current thread collect the messages sent to this client   * instead of sending them, until <code>endCapture</code> is called.   */  void beginCapture()  {    capturedReplies.set(new ArrayList<Object>());  }  /**   * Stops collecting the messages sent by the current thread.   *   * @return the messages collected since <code>beginCapture</code>.   */  List<Object> endCapture()  {    List<Object> captured = capturedReplies.get();    capturedReplies.remove();    return captured == null ? new ArrayList<Object>() : captured;  }  /**   * Returns the codec agreed on with the client.   *   * @return the codec, or null if messages are serialized.   */  MessageCodec getCodec()  {    return codec;  }  /**   * Answers a codec offer of the client. The codec is accepted when the   * server has a codec of the same name, and compression when the client   * offers it and the server compresses. The answer itself is always   * serialized and uncompressed; what was agreed on is used from the   * next message on.   *   * @param msg the message received from the client.   * @return true if the message was an offer and has been consumed.   * @exception IOException if the answer cannot be sent.   */  boolean negotiateCodec(Object msg) throws IOException  {    if (!(msg instanceof CodecOffer))      return false;    String offered = ((CodecOffer)msg).getCodecName();    MessageCodec serverCodec = server.getMessageCodec();    boolean accepted = offered != null && serverCodec != null      && offered.equals(serverCodec.getName());    PayloadCompressor serverCompressor = server.getCompressor();    boolean compress = ((CodecOffer)msg).isCompression()      && serverCompressor != null;    synchronized(this)    {      codec = null;      compressor = null;      sendToClient(new CodecOffer(accepted ? offered : null, compress));      codec = accepted ? serverCodec : null;      compressor = compress ? serverCompressor : null;    }    return true;  }  /**   * Applies the slow client policy to a message that found the outbound   * queue full. Called with the instance's monitor held.   *   * @exception IOException if the client has been disconnected.   */  private void queueFull() throws IOException  {    droppedMessages++;    if (slowClientPolicy == AbstractServer.SlowClientPolicy.DISCONNECT)    {      try      {        close();      }      catch (IOException ex) { } // The client is gone either way      throw new IOException("Outbound queue full: client disconnected");    }  }  /**   * Creates the object streams of a connection with its own thread.   *   * @param in  the stream from the client.   * @param out the stream to the client.   * @exception IOException if the streams cannot be created.   */  private void openStreams(InputStream in, OutputStream out)    throws IOException  {    TransportOptions options = server.getTransportOptions();    input = new ObjectInputStream(options.buffer(in));    output = new MessageWriter(out, options);  }  /**   * Starts the thread reading the client and, when the server bounds   * the outbound queues, the thread writing to it.   *   * @param writerName the name of the writer thread.   */  private void startThreads(String writerName)  {    readyToStop = false;    if (outboundCapacity > 0)    {      outbound = new ArrayBlockingQueue<byte[]>(outboundCapacity);      // Created by the listening thread, so the writer is not counted      // in the thread group of the client connections.      writer = new Thread(new Runnable()      {        public void run()        {          writeOutbound();        }      }, writerName);      writer.setDaemon(true);      writer.start();    }    start(); // Start the thread waits for data from the socket  }  /**   * Runs the writer thread of the classic transport: writes the queued   * payloads in order until the connection is closed. Payloads queued   * while the writer was busy are written together and flushed once.   * A failed write closes the socket, so that the reading thread   * reports the error.   */  private void writeOutbound()  {    try    {      while (!readyToStop)      {        byte[] next = outbound.take();        MessageWriter out = output;        if (out == null)          return;        do        {          out.writePayload(next);        }        while ((next = outbound.poll()) != null);        out.flush();      }    }    catch (InterruptedException ex)    {      // The connection was closed while waiting    }    catch (Exception exception)    {      try      {        closeAll();      }      catch (Exception ex) { }    }  }  /**   * Closes all connection to the server.   *   * @exception IOException if an I/O error occur when closing the   *     connection.   */  private void closeAll() throws IOException  {    // Stop the writer; messages not yet written are discarded    if (writer != null && writer != Thread.currentThread())      writer.interrupt();    try    {      // Close the socket      if (clientSocket != null)        clientSocket.close();      if (localChannel != null)        localChannel.close();      // Close the output stream      if (output != null)        output.close();      // Close the input stream      if (input != null)        input.close();    }    finally    {      // Set the streams and the sockets to NULL no matter what      // Doing so allows, but does not require, any finalizers      // of these objects to reclaim system resources if and      // when they are garbage collected.      output = null;      input = null;      clientSocket = null;      localChannel = null;    }  }  /**   * This method is called by garbage collection.   */  protected void finalize()  {    try    {      closeAll();    }    catch(IOException e) {}  }}// End of ConnectionToClient class
\ No newline at end of file
@@ -0,0 +1 @@
+// This file extends the OCSF framework supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.server;import java.util.*;import java.util.concurrent.*;import java.util.concurrent.atomic.*;/*** The <code> RequestDispatcher </code> runs the messages received by an* <code> AbstractServer </code> on a bounded pool of worker threads* instead of under the server's global lock.<p>** Every message is associated with an ordering key (see* <code> AbstractServer.getOrderingKey </code>). Messages sharing a key* are executed one at a time, in the order in which they were received;* messages with different keys run concurrently on the pool. At most* <code> maxPending </code> messages may be waiting at any time: once* that limit is reached the connection thread that received the* message blocks, which pushes back on the client's socket. A thread* that must not block, such as the I/O thread of the selector* transport, uses <code> tryDispatch </code> instead and is refused.<p>** For every command name the dispatcher records the current queue depth,* the number of messages executed and the time they spent waiting in the* queue before a worker picked them up.<p>** A dispatcher created with <code> ofVirtualThreads </code> runs every* message on a new virtual thread instead of on a fixed pool. At most* <code> maxRunning </code> of them execute at once, so the handlers* still never need more database connections than that; the others* wait for their turn without holding a platform thread. A handler* blocked on a socket read, a lock or a sleep frees its carrier thread* for other work. Blocking inside a <code> synchronized </code> block* does not: the virtual thread keeps its carrier until it leaves the* block. Virtual threads are looked up when the dispatcher is created,* so the framework still builds and runs on Java 17: there, such a* dispatcher falls back to a fixed pool of <code> maxRunning </code>* platform threads.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @see ocsf.server.AbstractServer*/public class RequestDispatcher{  // INSTANCE VARIABLES *********************************************  /**   * The worker threads that execute the handlers.   */  private final ExecutorService workers;  /**   * Limits the number of handlers running at once on virtual threads;   * null for a fixed pool, whose size is the limit.   */  private final Semaphore runningPermits;  /**   * The pending messages of every key that currently has work.   * A key is removed as soon as its last message has been executed.   */  private final Map<Object, KeyQueue> queues =    new HashMap<Object, KeyQueue>();  /**   * Bounds the number of messages waiting for execution.   */  private final Semaphore pendingPermits;  /**   * The maximum number of messages waiting for execution.   */  private final int maxPending;  /**   * Statistics kept for every command name.   */  private final ConcurrentHashMap<String, CommandStats> stats =    new ConcurrentHashMap<String, CommandStats>();// CONSTRUCTORS *****************************************************  /**   * Constructs a new dispatcher.   *   * @param poolSize   the number of worker threads.   * @param maxPending the maximum number of messages that may wait   *        for a worker before receiving threads are blocked.   */  public RequestDispatcher(int poolSize, int maxPending)  {    if (poolSize < 1 || maxPending < 1)      throw new IllegalArgumentException(        "poolSize and maxPending must be positive");    // Workers must not join the thread group of the connection that    // happens to submit first: the server lists its clients by group.    final ThreadGroup group = Thread.currentThread().getThreadGroup();    this.pendingPermits = new Semaphore(maxPending);    this.maxPending = maxPending;    this.runningPermits = null;    this.workers = new ThreadPoolExecutor(poolSize, poolSize,      60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),      new ThreadFactory()      {        private final AtomicInteger count = new AtomicInteger();        public Thread newThread(Runnable r)        {          Thread t = new Thread(group, r,            "RequestDispatcher-" + count.incrementAndGet());          t.setDaemon(true);          return t;        }      });  }  /**   * Constructs a dispatcher running its handlers on virtual threads.   */  private RequestDispatcher(ExecutorService workers, int maxRunning,    int maxPending)  {    this.pendingPermits = new Semaphore(maxPending);    this.maxPending = maxPending;    this.runningPermits = new Semaphore(maxRunning, true);    this.workers = workers;  }  /**   * Creates a dispatcher that runs every message on its own virtual   * thread. On a Java runtime without virtual threads, before Java 21,   * the dispatcher runs the messages on a fixed pool of   * <code> maxRunning </code> platform threads instead; see   * <code> isVirtualThreads</code>.   *   * @param maxRunning the maximum number of handlers running at once,   *        usually the size of the database connection pool.   * @param maxPending the maximum number of messages that may wait   *        before receiving threads are blocked.   * @return the new dispatcher.   */  public static RequestDispatcher ofVirtualThreads(int maxRunning,    int maxPending)  {    if (maxRunning < 1 || maxPending < 1)      throw new IllegalArgumentException(        "maxRunning and maxPending must be positive");    ExecutorService workers = newVirtualThreadExecutor();    if (workers == null)      return new RequestDispatcher(maxRunning, maxPending);    return new RequestDispatcher(workers, maxRunning, maxPending);  }// INSTANCE METHODS *************************************************  /**   * Queues a message for execution. Blocks while the dispatcher   * already holds <code> maxPending </code> messages.   *   * @param key     the ordering key of the message.   * @param command the command name used for statistics.   * @param task    the work to execute.   * @exception InterruptedException if the calling thread is   *        interrupted while waiting for room in the queue.   */  public void dispatch(Object key, String command, Runnable task)    throws InterruptedException  {    pendingPermits.acquire();    enqueue(key, command, task);  }  /**   * Queues a message for execution if the dispatcher has room for it,   * without ever blocking.   *   * @param key     the ordering key of the message.   * @param command the command name used for statistics.   * @param task    the work to execute.   * @return true if the message was queued, false if the dispatcher   *         already holds <code> maxPending </code> messages.   */  public boolean tryDispatch(Object key, String command, Runnable task)  {    if (!pendingPermits.tryAcquire())      return false;    enqueue(key, command, task);    return true;  }  /**   * Stops the worker threads. Messages already queued are still   * executed but no new message is accepted.   */  public void shutdown()  {    workers.shutdown();  }// ACCESSING METHODS ------------------------------------------------  /**   * @return true if the handlers run on virtual threads.   */  public boolean isVirtualThreads()  {    return runningPermits != null;  }  /**   * @return the maximum number of messages that may wait for execution.   */  public int getMaxPending()  {    return maxPending;  }  /**   * Returns the number of messages waiting for a worker, over all   * commands.   *   * @return the total queue depth.   */  public int getQueueDepth()  {    int depth = 0;    for (CommandStats s : stats.values())      depth += s.getQueueDepth();    return depth;  }  /**   * Returns the statistics of every command seen so far.   * The returned map is a snapshot ordered by command name.   *   * @return the statistics keyed by command name.   */  public Map<String, CommandStats> getCommandStats()  {    return new TreeMap<String, CommandStats>(stats);  }// METHODS TO BE USED FROM WITHIN THE FRAMEWORK ONLY ----------------  /**   * Reserves room for several messages at once, without blocking, so   * that a batch is either queued whole or not at all. Each reserved   * message must then be queued with <code> dispatchReserved</code>.   *   * @param count the number of messages.   * @return true if the room was reserved, false if the dispatcher   *         does not have that much room now.   */  boolean tryReserve(int count)  {    return pendingPermits.tryAcquire(count);  }  /**   * Queues a message for which room was reserved with   * <code> tryReserve</code>.   *   * @param key     the ordering key of the message.   * @param command the command name used for statistics.   * @param task    the work to execute.   */  void dispatchReserved(Object key, String command, Runnable task)  {    enqueue(key, command, task);  }  /**   * Queues a message whose room was already taken from   * <code> pendingPermits</code>.   */  private void enqueue(Object key, String command, Runnable task)  {    CommandStats commandStats = statsFor(command);    commandStats.queued.incrementAndGet();    Job job = new Job(task, commandStats);    boolean mustSchedule;    KeyQueue queue;    synchronized(queues)    {      queue = queues.get(key);      mustSchedule = (queue == null);      if (mustSchedule)      {        queue = new KeyQueue(key);        queues.put(key, queue);      }      queue.jobs.add(job);    }    if (mustSchedule)      schedule(queue);  }  /**   * Creates an executor starting a virtual thread per task, through   * reflection so that this class compiles on Java 17.   *   * @return the executor, or null if the runtime has no virtual threads.   */  private static ExecutorService newVirtualThreadExecutor()  {    try    {      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);      builder = builderClass.getMethod("name", String.class, long.class)        .invoke(builder, "RequestDispatcher-v", 1L);      ThreadFactory factory =        (ThreadFactory)builderClass.getMethod("factory").invoke(builder);      return (ExecutorService)Executors.class        .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)        .invoke(null, factory);    }    catch (ReflectiveOperationException ex)    {      // Before Java 21, or a preview feature not enabled on Java 19-20      return null;    }  }  /**   * Returns the statistics holder of a command, creating it if needed.   */  private CommandStats statsFor(String command)  {    CommandStats s = stats.get(command);    if (s == null)    {      s = new CommandStats(command);      CommandStats existing = stats.putIfAbsent(command, s);      if (existing != null)        s = existing;    }    return s;  }  /**   * Hands the next message of a key to the worker pool.   */  private void schedule(final KeyQueue queue)  {    try    {      workers.execute(new Runnable()      {        public void run()        {          if (runningPermits == null)          {            runNext(queue);            return;          }          runningPermits.acquireUninterruptibly();          try          {            runNext(queue);          }          finally          {            runningPermits.release();          }        }      });    }    catch (RejectedExecutionException ex)    {      // The dispatcher was shut down: drop what is left for this key.      synchronized(queues)      {        pendingPermits.release(queue.jobs.size());        queue.jobs.clear();        queues.remove(queue.key);      }    }  }  /**   * Executes the oldest message of a key, then reschedules the key   * if more messages arrived in the meantime. Rescheduling instead of   * looping lets other keys make progress on a busy pool.   */  private void runNext(KeyQueue queue)  {    Job job;    synchronized(queues)    {      job = queue.jobs.peek();    }    pendingPermits.release();    job.stats.started(System.nanoTime() - job.enqueuedAt);    try    {      job.task.run();    }    finally    {      boolean more;      synchronized(queues)      {        queue.jobs.poll();        more = !queue.jobs.isEmpty();        if (!more)          queues.remove(queue.key);      }      if (more)        schedule(queue);    }  }// INNER CLASSES ----------------------------------------------------  /**   * The pending messages of a single ordering key. The message at   * the head of the queue is the one being executed.   */  private static class KeyQueue  {    final Object key;    final ArrayDeque<Job> jobs = new ArrayDeque<Job>();    KeyQueue(Object key)    {      this.key = key;    }  }  /**   * A message waiting for execution.   */  private static class Job  {    final Runnable task;    final CommandStats stats;    final long enqueuedAt = System.nanoTime();    Job(Runnable task, CommandStats stats)    {      this.task = task;      this.stats = stats;    }  }  /**   * Queue statistics of a single command. All counters are updated   * atomically and may be read from any thread.   */  public static class CommandStats  {    private final String command;    private final AtomicInteger queued = new AtomicInteger();    private final AtomicLong executed = new AtomicLong();    private final AtomicLong totalWaitNanos = new AtomicLong();    private final AtomicLong maxWaitNanos = new AtomicLong();    CommandStats(String command)    {      this.command = command;    }    /**     * Records that a message of this command left the queue.     */    void started(long waitNanos)    {      queued.decrementAndGet();      executed.incrementAndGet();      totalWaitNanos.addAndGet(waitNanos);      long max;      do      {        max = maxWaitNanos.get();      }      while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos));    }    /**     * @return the command name.     */    public String getCommand()    {      return command;    }    /**     * @return the number of messages currently waiting for a worker.     */    public int getQueueDepth()    {      return queued.get();    }    /**     * @return the number of messages handed to a worker so far.     */    public long getExecutedCount()    {      return executed.get();    }    /**     * @return the average queue wait in milliseconds.     */    public double getAverageWaitMillis()    {      long n = executed.get();      return n == 0 ? 0.0 : totalWaitNanos.get() / (n * 1000000.0);    }    /**     * @return the longest queue wait observed in milliseconds.     */    public double getMaxWaitMillis()    {      return maxWaitNanos.get() / 1000000.0;    }    /**     * Returns a one line summary of the statistics.     *     * @return the statistics description.     */    public String toString()    {      return String.format("%s: depth=%d executed=%d avgWait=%.2fms maxWait=%.2fms",        command, getQueueDepth(), getExecutedCount(),        getAverageWaitMillis(), getMaxWaitMillis());    }  }}// End of RequestDispatcher class
\ No newline at end of file
@@ -0,0 +1 @@
+// This file extends the OCSF framework supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.server;import java.io.*;import java.net.*;import java.nio.*;import java.nio.channels.*;import java.util.*;import java.util.concurrent.*;import ocsf.common.FrameCodec;import ocsf.common.TransportOptions;/*** The <code> SelectorListener </code> is the non-blocking transport used by* an <code> AbstractServer </code> in selector mode. Instead of one thread* per client, all connections are served by a single I/O thread waiting on* a <code> java.nio.channels.Selector</code>. Messages are exchanged as* length-prefixed frames (see <code> FrameCodec</code>).<p>** New connections are accepted by the server's listening thread, which* therefore keeps its usual meaning: stopping to listen stops accepting* clients but the connected clients are still served until the server is* closed. Each accepted channel is represented by a* <code> ConnectionToClient </code> that is never started as a thread, so* the hook methods of the server are called with the same arguments as in* the classic transport.<p>** The I/O thread never runs a handler nor blocks on the dispatcher of the* server, which is therefore required. A message the dispatcher has no* room for is kept by its connection, which is no longer read, and handed* over again every few milliseconds until the dispatcher takes it: the* client is pushed back through its socket, as in the classic transport,* while the other connections are still served.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @see ocsf.server.AbstractServer#setSelectorTransport(boolean)* @see ocsf.common.FrameCodec*/class SelectorListener implements Runnable{  // CONSTANTS *******************************************************  /**   * The largest number of queued frames handed to the channel in one   * gathering write.   */  private static final int MAX_GATHERED_FRAMES = 64;  /**   * The time in ms between two attempts to hand the deferred messages   * over to a full dispatcher.   */  private static final int DEFERRED_RETRY_MILLIS = 5;  // INSTANCE VARIABLES *********************************************  /**   * The server the connections belong to.   */  private final AbstractServer server;  /**   * The channel on which connections are accepted.   */  private final ServerSocketChannel serverChannel;  /**   * Selector used by the listening thread to wait for connections   * with a timeout.   */  private final Selector acceptSelector;  /**   * Selector used by the I/O thread to serve all connections.   */  private final Selector ioSelector;  /**   * The thread reading and writing every connection.   */  private final Thread ioThread;  /**   * Accepted channels waiting to be registered by the I/O thread.   */  private final Queue<ChannelState> pendingRegistrations =    new ConcurrentLinkedQueue<ChannelState>();  /**   * The channels holding a message the dispatcher had no room for, in   * the order in which they were deferred. Used by the I/O thread only.   */  private final List<ChannelState> deferredChannels =    new ArrayList<ChannelState>();  /**   * The connections currently open.   */  private final Set<ConnectionToClient> connections =    ConcurrentHashMap.newKeySet();  /**   * Set once the transport has been closed.   */  private volatile boolean closed = false;// CONSTRUCTORS *****************************************************  /**   * Binds the server channel and starts the I/O thread.   *   * @param server  the server owning the connections.   * @param address the address to bind.   * @param backlog the maximum number of pending connections.   * @exception IOException if the channel cannot be bound.   */  SelectorListener(AbstractServer server, SocketAddress address,    int backlog) throws IOException  {    this.server = server;    this.serverChannel = ServerSocketChannel.open();    try    {      // Accepted channels inherit the receive buffer size      int receiveBufferSize =        server.getTransportOptions().getReceiveBufferSize();      if (receiveBufferSize > 0)        serverChannel.setOption(StandardSocketOptions.SO_RCVBUF,          receiveBufferSize);      serverChannel.bind(address, backlog);      serverChannel.configureBlocking(false);      acceptSelector = Selector.open();      serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);      ioSelector = Selector.open();    }    catch (IOException ex)    {      serverChannel.close();      throw ex;    }    ioThread = new Thread(this, "SelectorListener I/O");    ioThread.start();  }// INSTANCE METHODS *************************************************  /**   * Waits at most <code> timeout </code> milliseconds for connection   * attempts and accepts all of them. Called repeatedly by the   * listening thread of the server.   *   * @param timeout the maximum time to wait in ms.   * @exception IOException if the server channel fails.   */  void acceptConnections(int timeout) throws IOException  {    try    {      if (acceptSelector.select(timeout) == 0)        return;    }    catch (ClosedSelectorException ex)    {      // The server was closed while waiting      throw new ClosedChannelException();    }    acceptSelector.selectedKeys().clear();    TransportOptions options = server.getTransportOptions();    SocketChannel channel;    while ((channel = serverChannel.accept()) != null)    {      channel.configureBlocking(false);      options.applyTo(channel);      ChannelState state = new ChannelState(channel);      state.connection = new ConnectionToClient(channel, this, state, server);      connections.add(state.connection);      server.clientConnected(state.connection);      pendingRegistrations.add(state);      ioSelector.wakeup();    }  }  /**   * Queues a frame for sending on a connection. The frame is written   * by the I/O thread, so this method never blocks on the network.   *   * @param state    the channel of the connection.   * @param frame    the encoded message, length prefix included.   * @param capacity the maximum number of queued frames, or 0 for no   *        limit.   * @return the number of queued frames including this one, or -1 if   *         the queue was full and the message was not queued.   * @exception IOException if the connection is closed.   */  int send(ChannelState state, ByteBuffer frame, int capacity)    throws IOException  {    int depth;    synchronized(state)    {      if (state.closed)        throw new SocketException("socket does not exist");      if (capacity > 0 && state.outbound.size() >= capacity)        return -1;      state.outbound.add(frame);      depth = state.outbound.size();      if (state.key != null && state.key.isValid())        state.key.interestOps(readInterest(state) | SelectionKey.OP_WRITE);    }    ioSelector.wakeup();    return depth;  }  /**   * Returns the number of frames waiting to be written on a connection.   * A frame partially written counts as waiting.   *   * @param state the channel of the connection.   * @return the depth of the outbound queue.   */  int getQueueDepth(ChannelState state)  {    synchronized(state)    {      return state.outbound.size();    }  }  /**   * Closes the channel of a connection. Messages not yet written are   * discarded. If the channel is already closed, this call has no effect.   *   * @param state the channel of the connection.   * @exception IOException if an error occurs when closing the channel.   */  void closeChannel(ChannelState state) throws IOException  {    synchronized(state)    {      if (state.closed)        return;      state.closed = true;      state.outbound.clear();      if (state.key != null)        state.key.cancel();    }    connections.remove(state.connection);    state.channel.close();  }  /**   * Closes the server channel and every connection, then stops the I/O   * thread. Exceptions thrown while closing clients are ignored.   *   * @exception IOException if the server channel cannot be closed.   */  void close() throws IOException  {    closed = true;    try    {      acceptSelector.close();      serverChannel.close();    }    finally    {      for (ConnectionToClient connection : connections)      {        try        {          connection.close();        }        // Ignore all exceptions when closing clients.        catch (Exception ex) {}      }      ioSelector.wakeup();    }  }// ACCESSING METHODS ------------------------------------------------  /**   * Returns the connections currently open.   *   * @return a snapshot of the connections.   */  Collection<ConnectionToClient> getConnections()  {    return new ArrayList<ConnectionToClient>(connections);  }// RUN METHOD -------------------------------------------------------  /**   * Runs the I/O thread. Not to be called.   */  public void run()  {    try    {      while (!closed)      {        ioSelector.select(          deferredChannels.isEmpty() ? 0 : DEFERRED_RETRY_MILLIS);        registerPending();        // Deferred messages go first, ahead of the new ones        retryDeferred();        Iterator<SelectionKey> keys = ioSelector.selectedKeys().iterator();        while (keys.hasNext())        {          SelectionKey key = keys.next();          keys.remove();          ChannelState state = (ChannelState)key.attachment();          try          {            if (key.isValid() && key.isReadable())              read(state);            if (key.isValid() && key.isWritable())              write(state);          }          catch (Exception exception)          {            fail(state, exception);          }        }      }    }    catch (IOException exception)    {      // The selector failed: nothing can be served any more.    }    finally    {      try      {        ioSelector.close();      }      catch (IOException ex) { }    }  }// METHODS TO BE USED FROM WITHIN THE FRAMEWORK ONLY ----------------  /**   * Registers the channels accepted since the last selection.   */  private void registerPending() throws IOException  {    ChannelState state;    while ((state = pendingRegistrations.poll()) != null)    {      synchronized(state)      {        if (state.closed)          continue;        int ops = SelectionKey.OP_READ;        if (!state.outbound.isEmpty())          ops |= SelectionKey.OP_WRITE;        state.key = state.channel.register(ioSelector, ops, state);      }    }  }  /**   * Hands the deferred messages over to the dispatcher again. A   * connection whose message is taken is read again.   */  private void retryDeferred()  {    Iterator<ChannelState> deferred = deferredChannels.iterator();    while (deferred.hasNext())    {      ChannelState state = deferred.next();      try      {        if (state.closed || server.receiveMessageFromClient(          state.deferred, state.connection, false))        {          deferred.remove();          synchronized(state)          {            state.deferred = null;            if (state.key != null && state.key.isValid())              state.key.interestOps(                state.key.interestOps() | SelectionKey.OP_READ);          }        }      }      catch (Exception exception)      {        deferred.remove();        fail(state, exception);      }    }  }  /**   * Closes a channel that failed and reports the exception to the   * server, unless the channel was already closed.   */  private void fail(ChannelState state, Exception exception)  {    if (!state.closed)    {      try      {        closeChannel(state);      }      catch (Exception ex) { }      server.clientException(state.connection, exception);    }  }  /**   * Returns the read interest of a channel: none while it holds a   * deferred message. Called with the channel's monitor held.   */  private static int readInterest(ChannelState state)  {    return state.deferred == null ? SelectionKey.OP_READ : 0;  }  /**   * Reads every complete frame available on a channel and hands the   * decoded messages to the server. Stops at the first message the   * dispatcher has no room for, which the channel keeps until   * <code>retryDeferred</code> hands it over.   */  private void read(ChannelState state)    throws IOException, ClassNotFoundException  {    while (!state.closed)    {      if (state.payload == null)      {        if (state.channel.read(state.header) < 0)          throw new EOFException();        if (state.header.hasRemaining())          return;        state.header.flip();        int length = FrameCodec.checkLength(state.header.getInt());        state.header.clear();        state.payload = ByteBuffer.allocate(length);      }      if (state.payload.hasRemaining()        && state.channel.read(state.payload) < 0)        throw new EOFException();      if (state.payload.hasRemaining())        return;      Object msg = FrameCodec.decode(state.payload.array(),        state.connection.getCodec());      state.payload = null;      if (!state.connection.negotiateCodec(msg)        && !server.receiveMessageFromClient(msg, state.connection, false))      {        synchronized(state)        {          state.deferred = msg;          state.key.interestOps(            state.key.interestOps() & ~SelectionKey.OP_READ);        }        deferredChannels.add(state);        return;      }    }  }  /**   * Writes as many queued frames as the channel accepts. The frames are   * handed over together in gathering writes, so that a burst of small   * replies costs one system call instead of one per frame. Stops   * watching for writability once the queue is empty.   */  private void write(ChannelState state) throws IOException  {    synchronized(state)    {      while (!state.outbound.isEmpty())      {        int count = Math.min(state.outbound.size(), MAX_GATHERED_FRAMES);        ByteBuffer[] frames = new ByteBuffer[count];        long length = 0;        Iterator<ByteBuffer> queued = state.outbound.iterator();        for (int i = 0; i < count; i++)        {          frames[i] = queued.next();          length += frames[i].remaining();        }        long written = state.channel.write(frames);        while (!state.outbound.isEmpty()          && !state.outbound.peek().hasRemaining())          state.outbound.poll();        if (written < length)          return; // The socket buffer is full      }      state.key.interestOps(readInterest(state));    }  }// INNER CLASSES ----------------------------------------------------  /**   * The transport state of one connection. Fields touched by sending   * threads are guarded by the instance's monitor.   */  static class ChannelState  {    final SocketChannel channel;    final ByteBuffer header = ByteBuffer.allocate(FrameCodec.HEADER_LENGTH);    final ArrayDeque<ByteBuffer> outbound = new ArrayDeque<ByteBuffer>();    ConnectionToClient connection;    SelectionKey key;    ByteBuffer payload;    Object deferred;    volatile boolean closed;    ChannelState(SocketChannel channel)    {      this.channel = channel;    }  }}// End of SelectorListener class
\ No newline at end of file
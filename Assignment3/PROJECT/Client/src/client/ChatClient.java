@@ -1,8 +1,22 @@
 package client;
 
 import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import common.BistroBinaryCodec;
 import common.ChatIF;
 import ocsf.client.AbstractClient;
+import ocsf.common.BatchReply;
+import ocsf.common.PayloadCompressor;
+import ocsf.common.RequestEnvelope;
+import ocsf.common.TransportOptions;
 
 /**
  * The ChatClient class serves as the core communication bridge on the client side,
@@ -19,6 +33,15 @@ public class ChatClient extends AbstractClient {
      */
     private ChatIF clientUI;
 
+    /** Seconds after which an unanswered {@link #request(Object)} fails. */
+    private static final long REQUEST_TIMEOUT_SECONDS = 30;
+
+    /** Source of request ids; 0 is reserved for messages sent without an id. */
+    private final AtomicLong nextRequestId = new AtomicLong();
+
+    /** Requests sent with {@link #request(Object)} that are still waiting for their answer. */
+    private final Map<Long, CompletableFuture<Object>> pendingRequests = new ConcurrentHashMap<>();
+
     /**
      * Constructs a new ChatClient and attempts to establish a connection to the host.
      * * @param host     The server's IP address or hostname.
@@ -29,6 +52,19 @@ public class ChatClient extends AbstractClient {
     public ChatClient(String host, int port, ChatIF clientUI) throws IOException {
         super(host, port);  
         this.clientUI = clientUI;
+        // Must match the server: -Dbistro.transport=selector switches both sides to framed messages
+        setFramedTransport("selector".equalsIgnoreCase(System.getProperty("bistro.transport")));
+        setMessageCodec(new BistroBinaryCodec()); // hot commands go binary once the server agrees
+        TransportOptions transport = new TransportOptions();
+        transport.setTcpNoDelay(true); // requests are small and flushed whole
+        setTransportOptions(transport);
+        // Lets the server compress bulk lists; -Dbistro.compressionThreshold=0 declines it
+        setCompression(Integer.getInteger("bistro.compressionThreshold", 1024),
+                PayloadCompressor.DEFAULT_LEVEL);
+        // Kiosks on the server host skip TCP: same -Dbistro.localSocket path as the server
+        String localSocket = System.getProperty("bistro.localSocket");
+        if (localSocket != null && !localSocket.isEmpty())
+            setLocalAddress(UnixDomainSocketAddress.of(localSocket));
         openConnection();   
     }
     
@@ -46,9 +82,102 @@ public class ChatClient extends AbstractClient {
      */
     @Override
     public void handleMessageFromServer(Object msg) {
+        if (msg instanceof RequestEnvelope) {
+            RequestEnvelope envelope = (RequestEnvelope) msg;
+            CompletableFuture<Object> pending = pendingRequests.remove(envelope.getRequestId());
+            if (pending != null) {
+                pending.complete(envelope.getPayload());
+                return;
+            }
+            msg = envelope.getPayload(); // extra or late answer: show it like any other message
+        }
         clientUI.display(msg);  
     }
 
+    /**
+     * Sends a request tagged with a fresh id and returns a future completed with its answer.
+     * <p>
+     * Several requests may be outstanding at once over the same connection; the server may
+     * answer them in any order and each answer completes only its own future, regardless of
+     * which controller is currently registered with {@link #setUI(ChatIF)}. The future fails
+     * if the message cannot be sent, the connection is lost, or no answer arrives within
+     * {@value #REQUEST_TIMEOUT_SECONDS} seconds.
+     * </p>
+     * <p>
+     * Futures complete on the network thread: JavaFX callers must use {@code Platform.runLater}
+     * before touching the scene graph.
+     * </p>
+     *
+     * @param message The protocol message (typically an ArrayList with the command first).
+     * @return A future completed with the server's answer.
+     */
+    public CompletableFuture<Object> request(Object message) {
+        long requestId = nextRequestId.incrementAndGet();
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        pendingRequests.put(requestId, future);
+        future.whenComplete((answer, error) -> pendingRequests.remove(requestId));
+
+        try {
+            sendToServer(new RequestEnvelope(requestId, message));
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+        }
+        return future.orTimeout(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Sends several commands in one {@code BATCH} request and returns a future completed with
+     * all of their answers.
+     * <p>
+     * The server runs the read-only commands of a batch concurrently and answers once, so a
+     * screen that needs several lists pays one round trip instead of one per list. Answer
+     * {@code i} of the {@link BatchReply} belongs to command {@code i}; commands of the same
+     * batch that write to the database still run one after the other.
+     * </p>
+     *
+     * @param commands The protocol messages, each an ArrayList with the command first.
+     * @return A future completed with the answers, in the order of the commands.
+     */
+    public CompletableFuture<BatchReply> requestBatch(List<ArrayList<Object>> commands) {
+        ArrayList<Object> message = new ArrayList<>();
+        message.add("BATCH");
+        message.add(new ArrayList<>(commands));
+        return request(message).thenApply(answer -> {
+            if (answer instanceof BatchReply) {
+                return (BatchReply) answer;
+            }
+            throw new IllegalStateException("Unexpected answer to BATCH: " + answer);
+        });
+    }
+
+    /**
+     * Fails every outstanding request when the connection breaks.
+     * * @param exception The exception raised by the network thread.
+     */
+    @Override
+    protected void connectionException(Exception exception) {
+        failPendingRequests(exception);
+    }
+
+    /**
+     * Fails every outstanding request when the connection is closed.
+     */
+    @Override
+    protected void connectionClosed() {
+        failPendingRequests(new IOException("Connection closed"));
+    }
+
+    /**
+     * Completes all outstanding request futures with the given error.
+     * * @param cause The reason the answers will never arrive.
+     */
+    private void failPendingRequests(Exception cause) {
+        for (CompletableFuture<Object> pending : pendingRequests.values()) {
+            pending.completeExceptionally(cause);
+        }
+        pendingRequests.clear();
+    }
+
     /**
      * Acts as the outbound gateway for sending data from the UI to the Server.
      * * @param message The data object to be transmitted (typically an ArrayList).
@@ -0,0 +1,101 @@
+package common.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import common.BistroBinaryCodec;
+import common.Reservation;
+
+/**
+ * Compares Java serialization with {@link BistroBinaryCodec} for the hot protocol requests.
+ * <p>
+ * For every command it prints the bytes put on the wire per request and the average
+ * encode and decode time. Serialization is measured the way the client sends messages:
+ * one object per stream, so class descriptors are written every time.
+ * </p>
+ * Usage: {@code java common.bench.CodecBenchmark [iterations]} (default 200000).
+ */
+public class CodecBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        BistroBinaryCodec codec = new BistroBinaryCodec();
+
+        Map<String, ArrayList<Object>> samples = new LinkedHashMap<>();
+        samples.put("PROCESS_TERMINAL_ARRIVAL", message("PROCESS_TERMINAL_ARRIVAL", 1736954123456L));
+        samples.put("CHECK_STATUS_UPDATE", message("CHECK_STATUS_UPDATE", 1736954123456L));
+        samples.put("GET_VISIT_BY_CODE", message("GET_VISIT_BY_CODE", 1736954123456L));
+        samples.put("CREATE_RESERVATION", message("CREATE_RESERVATION", new Reservation(1042, "2026-03-14 19:30:00", 4)));
+
+        System.out.println("command                    serBytes  binBytes  serEnc(us)  binEnc(us)  serDec(us)  binDec(us)");
+        for (Map.Entry<String, ArrayList<Object>> sample : samples.entrySet()) {
+            ArrayList<Object> msg = sample.getValue();
+            byte[] serialized = serialize(msg);
+            byte[] encoded = codec.encode(msg);
+
+            Object decoded = codec.decode(encoded);
+            if (!String.valueOf(decoded).equals(String.valueOf(deserialize(serialized)))
+                    && !(msg.get(1) instanceof Reservation)) {
+                throw new IllegalStateException("Round trip mismatch for " + sample.getKey());
+            }
+
+            // Warm up both paths before timing
+            time(() -> serialize(msg), iterations);
+            time(() -> codec.encode(msg), iterations);
+
+            double serEncode = time(() -> serialize(msg), iterations);
+            double binEncode = time(() -> codec.encode(msg), iterations);
+            double serDecode = time(() -> deserialize(serialized), iterations);
+            double binDecode = time(() -> codec.decode(encoded), iterations);
+
+            System.out.printf("%-25s  %8d  %8d  %10.3f  %10.3f  %10.3f  %10.3f%n", sample.getKey(),
+                    serialized.length, encoded.length + 1, serEncode, binEncode, serDecode, binDecode);
+        }
+        System.out.println("(binBytes includes the one byte marker; both forms add the same 4 byte frame length)");
+    }
+
+    private static ArrayList<Object> message(String command, Object payload) {
+        ArrayList<Object> msg = new ArrayList<>();
+        msg.add(command);
+        msg.add(payload);
+        return msg;
+    }
+
+    private static byte[] serialize(Object msg) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(msg);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] data) throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return in.readObject();
+        }
+    }
+
+    /** A unit of work that may throw, for timing. */
+    private interface Task {
+        Object run() throws Exception;
+    }
+
+    /** Returns the average duration of one run in microseconds. */
+    private static double time(Task task, int iterations) throws Exception {
+        Object sink = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = task.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == null) {
+            throw new IllegalStateException("Benchmark produced no result");
+        }
+        return elapsed / 1000.0 / iterations;
+    }
+}
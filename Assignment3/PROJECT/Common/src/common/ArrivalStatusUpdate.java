@@ -0,0 +1,58 @@
+package common; // Define the package where the class belongs
+
+import java.io.Serializable; // Import the Serializable interface for network transmission
+
+/**
+ * ArrivalStatusUpdate is pushed by the Server to a terminal that waits for a table.
+ * <p>
+ * When a party arrives and its table is not ready, the terminal is subscribed to the
+ * party's confirmation code. The Server then sends this message on every status
+ * transition of that code (e.g. {@code NOTIFIED} when a table is freed for the party,
+ * {@code ARRIVED} once it is seated), instead of the terminal polling for the status.
+ * </p>
+ */
+public class ArrivalStatusUpdate implements Serializable {
+
+    /** Serial version UID for serialization compatibility. */
+    private static final long serialVersionUID = 1L;
+
+    /** The confirmation code whose status changed. */
+    private final long confirmationCode;
+
+    /** The new status of the reservation or waiting list entry. */
+    private final String status;
+
+    /**
+     * Constructs a new status update.
+     * @param confirmationCode The confirmation code whose status changed.
+     * @param status           The new status value.
+     */
+    public ArrivalStatusUpdate(long confirmationCode, String status) {
+        this.confirmationCode = confirmationCode;
+        this.status = status;
+    }
+
+    /**
+     * @return The confirmation code whose status changed.
+     */
+    public long getConfirmationCode() {
+        return confirmationCode;
+    }
+
+    /**
+     * @return The new status value.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Provides a human-readable string summary of the update.
+     * @return A string representation of the code and status.
+     */
+    @Override
+    public String toString() {
+        return "ArrivalStatusUpdate [Code=" + confirmationCode + ", Status=" + status + "]";
+    }
+
+} // End of ArrivalStatusUpdate class
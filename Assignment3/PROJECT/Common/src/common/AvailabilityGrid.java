@@ -0,0 +1,123 @@
+package common; // Define the package where the class belongs
+
+import java.io.Serializable; // Import the Serializable interface for network transmission
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+/**
+ * AvailabilityGrid tells the reservation screen which half-hour slots can be booked for one
+ * party size, sent by the Server in reply to GET_AVAILABILITY_GRID.
+ * <p>
+ * The slots run from midnight of {@link #getFirstDay()} for {@link #getDays()} days, 48 per
+ * day, and slot {@code i} is bit {@code i} of a bitmap: a month fits in a few hundred bytes.
+ * A set bit means that a table fitting the party was free for the whole meal, the restaurant
+ * was open, and the time was within the booking window when the grid was computed. It is a
+ * hint for greying out the date picker and the time list; CREATE_RESERVATION still makes
+ * the final check.
+ * </p>
+ */
+public class AvailabilityGrid implements Serializable {
+
+    /** Serial version UID for serialization compatibility. */
+    private static final long serialVersionUID = 1L;
+
+    /** The length of a slot. */
+    public static final int SLOT_MINUTES = 30;
+
+    /** The number of slots in a day. */
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    /** The day of the first slot. */
+    private final LocalDate firstDay;
+
+    /** The number of days covered. */
+    private final int days;
+
+    /** The party size the grid was computed for. */
+    private final int guests;
+
+    /** The bookable slots, as returned by {@link BitSet#toLongArray()}. */
+    private final long[] bookable;
+
+    /**
+     * Constructs a grid.
+     * @param firstDay The day of the first slot.
+     * @param days     The number of days covered.
+     * @param guests   The party size.
+     * @param bookable Bit {@code i} set if the {@code i}-th slot from midnight of {@code firstDay} can be booked.
+     */
+    public AvailabilityGrid(LocalDate firstDay, int days, int guests, BitSet bookable) {
+        this.firstDay = firstDay;
+        this.days = days;
+        this.guests = guests;
+        this.bookable = bookable.toLongArray();
+    }
+
+    /**
+     * @return The day of the first slot.
+     */
+    public LocalDate getFirstDay() {
+        return firstDay;
+    }
+
+    /**
+     * @return The number of days covered.
+     */
+    public int getDays() {
+        return days;
+    }
+
+    /**
+     * @return The party size the grid was computed for.
+     */
+    public int getGuests() {
+        return guests;
+    }
+
+    /**
+     * @param date The day.
+     * @return {@code true} if the grid has the slots of that day.
+     */
+    public boolean covers(LocalDate date) {
+        long day = ChronoUnit.DAYS.between(firstDay, date);
+        return day >= 0 && day < days;
+    }
+
+    /**
+     * @param date The day.
+     * @param time The start time; it should fall on a half hour.
+     * @return {@code true} if the slot that starts at that time can be booked; {@code false}
+     *         if it is full, closed, outside the booking window, or not covered by the grid.
+     */
+    public boolean isBookable(LocalDate date, LocalTime time) {
+        int minute = time.getHour() * 60 + time.getMinute();
+        if (minute % SLOT_MINUTES != 0) {
+            return false;
+        }
+        return covers(date) && isSet((int) ChronoUnit.DAYS.between(firstDay, date) * SLOTS_PER_DAY + minute / SLOT_MINUTES);
+    }
+
+    /**
+     * @param date The day.
+     * @return {@code true} if at least one slot of that day can be booked.
+     */
+    public boolean hasBookableSlot(LocalDate date) {
+        if (!covers(date)) {
+            return false;
+        }
+        long day = ChronoUnit.DAYS.between(firstDay, date);
+        for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+            if (isSet((int) day * SLOTS_PER_DAY + slot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSet(int index) {
+        int word = index >>> 6;
+        return word < bookable.length && (bookable[word] & (1L << index)) != 0;
+    }
+}
@@ -0,0 +1,199 @@
+package common; // Define the package where the class belongs
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import ocsf.common.MessageCodec;
+import ocsf.common.RequestEnvelope;
+
+/**
+ * Compact binary encoding of the hottest Bistro protocol requests.
+ * <p>
+ * The regular protocol sends an {@code ArrayList<Object>} through Java serialization, which
+ * ships class descriptors and boxed numbers on every call. This codec replaces that, for the
+ * commands below, with a version byte, a command id and fixed-size fields:
+ * </p>
+ * <ul>
+ * <li><b>1 PROCESS_TERMINAL_ARRIVAL, 2 CHECK_STATUS_UPDATE, 3 GET_VISIT_BY_CODE:</b>
+ * {@code long} confirmation code.</li>
+ * <li><b>4 CREATE_RESERVATION:</b> {@code int} user id, {@code long} date-time (epoch seconds),
+ * {@code int} guests, {@code long} confirmation code, {@code byte} status.</li>
+ * </ul>
+ * <p>
+ * A request sent through {@code ChatClient.request} is wrapped in a {@code RequestEnvelope};
+ * the codec then sets the high bit of the command id and writes the {@code long} request id
+ * right after it.
+ * </p>
+ * <p>
+ * Decoding rebuilds exactly the {@code ArrayList} the handlers already expect. Any other
+ * message, or a request whose fields do not fit the layout, is left to serialization.
+ * The codec is negotiated per connection, so clients without it keep working unchanged.
+ * </p>
+ */
+public class BistroBinaryCodec implements MessageCodec {
+
+    /** Name exchanged during negotiation; bump the version on any layout change. */
+    public static final String NAME = "bistro-binary/2";
+
+    /** Layout version written as the first byte of every message. */
+    private static final byte VERSION = 2;
+
+    /** Flag set on the command id when a request id follows it. */
+    private static final int ENVELOPE_FLAG = 0x80;
+
+    /** Command ids, indexed by their position in this list plus one. */
+    private static final List<String> COMMANDS = List.of(
+            "PROCESS_TERMINAL_ARRIVAL", "CHECK_STATUS_UPDATE", "GET_VISIT_BY_CODE", "CREATE_RESERVATION");
+
+    private static final byte CREATE_RESERVATION = 4;
+
+    /** Format of {@code Reservation.getReservationDateTime()}. */
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Encodes one of the supported requests.
+     *
+     * @param msg The outgoing message.
+     * @return The encoded bytes, or {@code null} if the message must be serialized.
+     * @throws IOException Never thrown in practice (in-memory stream).
+     */
+    @Override
+    public byte[] encode(Object msg) throws IOException {
+        long requestId = 0;
+        if (msg instanceof RequestEnvelope) {
+            requestId = ((RequestEnvelope) msg).getRequestId();
+            msg = ((RequestEnvelope) msg).getPayload();
+        }
+        if (!(msg instanceof ArrayList)) {
+            return null;
+        }
+        ArrayList<?> list = (ArrayList<?>) msg;
+        if (list.size() != 2) {
+            return null;
+        }
+        int commandId = COMMANDS.indexOf(list.get(0)) + 1;
+        if (commandId == 0) {
+            return null;
+        }
+        Object payload = list.get(1);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(VERSION);
+        if (requestId != 0) {
+            out.writeByte(commandId | ENVELOPE_FLAG);
+            out.writeLong(requestId);
+        } else {
+            out.writeByte(commandId);
+        }
+
+        if (commandId == CREATE_RESERVATION) {
+            if (!(payload instanceof Reservation) || !writeReservation(out, (Reservation) payload)) {
+                return null;
+            }
+        } else {
+            if (!(payload instanceof Long)) {
+                return null;
+            }
+            out.writeLong((Long) payload);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes bytes produced by {@link #encode(Object)} back into the protocol list.
+     *
+     * @param data The encoded bytes.
+     * @return The {@code ArrayList<Object>} of the original request, in its envelope if it had one.
+     * @throws IOException If the bytes do not follow a known layout.
+     */
+    @Override
+    public Object decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readByte() != VERSION) {
+            throw new StreamCorruptedException("Unsupported codec version");
+        }
+        int commandId = in.readUnsignedByte();
+        long requestId = 0;
+        if ((commandId & ENVELOPE_FLAG) != 0) {
+            commandId &= ~ENVELOPE_FLAG;
+            requestId = in.readLong();
+        }
+        if (commandId < 1 || commandId > COMMANDS.size()) {
+            throw new StreamCorruptedException("Unknown command id " + commandId);
+        }
+
+        ArrayList<Object> message = new ArrayList<>(2);
+        message.add(COMMANDS.get(commandId - 1));
+        message.add(commandId == CREATE_RESERVATION ? readReservation(in) : (Object) in.readLong());
+        return requestId != 0 ? new RequestEnvelope(requestId, message) : message;
+    }
+
+    /**
+     * Writes the fixed fields of a reservation.
+     *
+     * @return {@code false} if the reservation cannot be represented exactly.
+     */
+    private static boolean writeReservation(DataOutputStream out, Reservation reservation) throws IOException {
+        String dateTime = reservation.getReservationDateTime();
+        LocalDateTime parsed;
+        try {
+            parsed = LocalDateTime.parse(dateTime, DATE_TIME);
+        } catch (DateTimeParseException | NullPointerException e) {
+            return false;
+        }
+        if (!DATE_TIME.format(parsed).equals(dateTime)) {
+            return false; // e.g. a non-canonical string would not survive the round trip
+        }
+
+        Reservation.ReservationStatus status;
+        try {
+            status = Reservation.ReservationStatus.valueOf(reservation.getStatusString());
+        } catch (NullPointerException e) {
+            return false;
+        }
+
+        out.writeInt(reservation.getUserId());
+        out.writeLong(parsed.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(reservation.getNumberOfGuests());
+        out.writeLong(reservation.getConfirmationCode());
+        out.writeByte(status.ordinal());
+        return true;
+    }
+
+    /**
+     * Reads the fixed fields written by {@link #writeReservation}.
+     */
+    private static Reservation readReservation(DataInputStream in) throws IOException {
+        int userId = in.readInt();
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+        int guests = in.readInt();
+        long code = in.readLong();
+        int statusIndex = in.readByte();
+
+        Reservation.ReservationStatus[] statuses = Reservation.ReservationStatus.values();
+        if (statusIndex < 0 || statusIndex >= statuses.length) {
+            throw new StreamCorruptedException("Unknown reservation status " + statusIndex);
+        }
+
+        Reservation reservation = new Reservation(userId, DATE_TIME.format(dateTime), guests);
+        reservation.setConfirmationCode(code);
+        reservation.setStatus(statuses[statusIndex]);
+        return reservation;
+    }
+}
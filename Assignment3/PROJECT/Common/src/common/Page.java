@@ -0,0 +1,69 @@
+package common; // Define the package where the class belongs
+
+import java.io.Serializable; // Import the Serializable interface for network transmission
+import java.util.ArrayList;
+
+/**
+ * Page is one slice of a long list sent by the Server (history, subscribers, staff lists).
+ * <p>
+ * Lists are read with keyset pagination: the rows come in a fixed order, and
+ * {@link #getNextCursor()} holds the sort key of the last row sent. The client asks for
+ * the next page by sending that cursor back with the same command; the Server then reads
+ * on from that key instead of skipping rows with an offset. A {@code null} cursor means
+ * the list is complete. The cursor is opaque to the client.
+ * </p>
+ *
+ * @param <T> The type of the rows.
+ */
+public class Page<T> implements Serializable {
+
+    /** Serial version UID for serialization compatibility. */
+    private static final long serialVersionUID = 1L;
+
+    /** The rows of this page, in list order. */
+    private final ArrayList<T> items;
+
+    /** The cursor of the next page, or {@code null} on the last page. */
+    private final String nextCursor;
+
+    /**
+     * Constructs a page.
+     * @param items      The rows of this page.
+     * @param nextCursor The cursor of the next page, or {@code null} on the last page.
+     */
+    public Page(ArrayList<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return The rows of this page.
+     */
+    public ArrayList<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return The cursor to send for the next page, or {@code null} on the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return {@code true} if more rows follow this page.
+     */
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Provides a human-readable string summary of the page.
+     * @return A string representation of the row count and cursor.
+     */
+    @Override
+    public String toString() {
+        return "Page [Items=" + items.size() + ", NextCursor=" + nextCursor + "]";
+    }
+
+} // End of Page class
@@ -15,7 +15,7 @@ public class Subscriber implements Serializable {
     private int userId;
     
     /** The specific subscription identifier. */
-    private int subscriberId;
+    private long subscriberId;
     
     /** The username of the subscriber. */
     private String username;
@@ -30,7 +30,7 @@ public class Subscriber implements Serializable {
      * @param username     The username of the subscriber.
      * @param qrCode       The digital QR code string assigned to the subscriber.
      */
-    public Subscriber(int userId, int subscriberId, String username, String qrCode) {
+    public Subscriber(int userId, long subscriberId, String username, String qrCode) {
         this.userId = userId;
         this.subscriberId = subscriberId;
         this.username = username;
@@ -47,9 +47,9 @@ public class Subscriber implements Serializable {
 
     /**
      * Retrieves the specific subscription identifier.
-     * * @return The subscriber ID as an integer.
+     * * @return The subscriber ID as a long.
      */
-    public int getSubscriberId() { return subscriberId; }
+    public long getSubscriberId() { return subscriberId; }
 
     /**
      * Retrieves the username of the subscriber.
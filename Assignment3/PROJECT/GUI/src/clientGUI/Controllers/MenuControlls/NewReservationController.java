@@ -5,8 +5,11 @@ import java.time.LocalDate; // Import for handling dates without time
 import java.time.LocalDateTime; // Import for handling both date and time
 import java.time.LocalTime; // Import for handling time components
 import java.util.ArrayList; // Import for dynamic array list structures
+import java.util.List; // Import for generic list types
+import java.util.Optional; // Import for optional dialog results
 import java.util.ResourceBundle; // Import for localization resources
 import client.ChatClient; // Import the main client communication class
+import common.AvailabilityGrid; // Import the bookable slots sent by the server
 import common.ChatIF; // Import the communication interface
 import common.Reservation; // Import the Reservation Data Transfer Object
 import common.Restaurant; // Import the Restaurant entity class
@@ -24,10 +27,11 @@ import javafx.scene.Scene; // Import for stage scene management
 import javafx.scene.control.Alert; // Import for alert dialog boxes
 import javafx.scene.control.Alert.AlertType; // Import for alert types (Info, Error, etc.)
 import javafx.scene.control.Button; // Import for button components
-import javafx.scene.control.ButtonType; // Import for alert button types
+import javafx.scene.control.ChoiceDialog; // Import for pick-one dialog boxes
 import javafx.scene.control.ComboBox; // Import for dropdown selection components
 import javafx.scene.control.DateCell; // Import for customizing individual date cells
 import javafx.scene.control.DatePicker; // Import for date selection components
+import javafx.scene.control.ListCell; // Import for customizing individual list cells
 import javafx.scene.control.TextArea; // Import for multi-line text display
 import javafx.scene.control.TextField; // Import for single-line text input
 import javafx.stage.Stage; // Import for the primary window container
@@ -49,6 +53,9 @@ public class NewReservationController extends BaseMenuController implements Chat
     /** Internal cache for restaurant operational data. */
     private Restaurant currentRestaurant; 
     
+    /** The bookable slots for the current party size, or null until the server sends them. */
+    private AvailabilityGrid availabilityGrid; 
+    
     /**
      * Triggered when the client is ready. Requests restaurant operating hours from the server.
      * @return None.
@@ -71,17 +78,7 @@ public class NewReservationController extends BaseMenuController implements Chat
     @Override 
     public void initialize(URL location, ResourceBundle resources) { 
         dpDate.setEditable(false); 
-
-        dpDate.setDayCellFactory(picker -> new DateCell() { 
-            @Override 
-            public void updateItem(LocalDate date, boolean empty) { 
-                super.updateItem(date, empty); 
-                if (date.isBefore(LocalDate.now())) { 
-                    setDisable(true); 
-                    setStyle("-fx-background-color: #ffc0cb;"); 
-                } 
-            } 
-        }); 
+        applyAvailability(); 
 
         ObservableList<String> hours = FXCollections.observableArrayList(); 
         LocalTime time = LocalTime.MIDNIGHT; 
@@ -94,6 +91,9 @@ public class NewReservationController extends BaseMenuController implements Chat
         comboTime.setItems(hours); 
         dpDate.setValue(LocalDate.now()); 
         
+        txtGuests.textProperty().addListener((obs, oldValue, newValue) -> requestAvailabilityGrid()); 
+        dpDate.valueProperty().addListener((obs, oldValue, newValue) -> applyAvailability()); 
+        
         appendLog("Ready to take your reservation."); 
     } 
 
@@ -214,6 +214,20 @@ public class NewReservationController extends BaseMenuController implements Chat
     @Override 
     public void display(Object message) { 
         
+        if (message instanceof AvailabilityGrid) { 
+            AvailabilityGrid grid = (AvailabilityGrid) message; 
+            
+            Platform.runLater(() -> { 
+                String guestsInput = txtGuests.getText().trim(); 
+                
+                if (guestsInput.matches("\\d{1,3}") && Integer.parseInt(guestsInput) == grid.getGuests()) { 
+                    this.availabilityGrid = grid; 
+                    applyAvailability(); 
+                } 
+            }); 
+            return; 
+        } 
+
         if (message instanceof Restaurant) { 
             this.currentRestaurant = (Restaurant) message; 
 
@@ -232,10 +246,11 @@ public class NewReservationController extends BaseMenuController implements Chat
                     case RESERVATION_SUCCESS: 
                         showPopup(AlertType.INFORMATION, "Success", "Reservation confirmed! Code: " + sr.getData()); 
                         appendLog("Reservation secured with code: " + sr.getData()); 
+                        requestAvailabilityGrid(); 
                         break; 
                         
                     case RESERVATION_SUGGESTION: 
-                        handleSuggestion(sr.getData().toString()); 
+                        handleSuggestion(sr.getData()); 
                         break; 
                         
                     case RESERVATION_FULL: 
@@ -261,19 +276,95 @@ public class NewReservationController extends BaseMenuController implements Chat
     } 
 
     /**
-     * Handles the alternative time suggestion flow by prompting the user with a confirmation dialog.
-     * @param suggested The recommended time slot string provided by the server.
+     * Asks the server which slots can be booked for the party size typed in the guests field.
+     * The grid is dropped while the field does not hold a valid number.
      * @return None.
      */
-    private void handleSuggestion(String suggested) { 
-        Alert suggestionAlert = new Alert(Alert.AlertType.CONFIRMATION, 
-            "Requested time is full. Would you like to reserve for " + suggested + " instead?", 
-            ButtonType.OK, ButtonType.CANCEL); 
-            
-        suggestionAlert.setTitle("Alternative Slot Found"); 
-        suggestionAlert.setHeaderText("No availability for requested time."); 
+    private void requestAvailabilityGrid() { 
+        String guestsInput = txtGuests.getText().trim(); 
+        
+        if (!guestsInput.matches("\\d{1,3}") || Integer.parseInt(guestsInput) <= 0) { 
+            availabilityGrid = null; 
+            applyAvailability(); 
+            return; 
+        } 
+
+        ArrayList<Object> msg = new ArrayList<>(); 
+        msg.add("GET_AVAILABILITY_GRID"); 
+        msg.add(Integer.parseInt(guestsInput)); 
+        
+        if (client != null) { 
+            client.setUI(this); 
+            client.handleMessageFromClientUI(msg); 
+        } 
+    } 
+
+    /**
+     * Greys out past days, and the days and times that the availability grid shows as full.
+     * The cell factories are set again so that the visible cells pick up the new grid.
+     * @return None.
+     */
+    private void applyAvailability() { 
+        dpDate.setDayCellFactory(picker -> new DateCell() { 
+            @Override 
+            public void updateItem(LocalDate date, boolean empty) { 
+                super.updateItem(date, empty); 
+                if (date.isBefore(LocalDate.now())) { 
+                    setDisable(true); 
+                    setStyle("-fx-background-color: #ffc0cb;"); 
+                } else if (availabilityGrid != null && availabilityGrid.covers(date) && !availabilityGrid.hasBookableSlot(date)) { 
+                    setDisable(true); 
+                    setStyle("-fx-background-color: #d3d3d3;"); 
+                } 
+            } 
+        }); 
+
+        comboTime.setCellFactory(list -> new ListCell<String>() { 
+            @Override 
+            public void updateItem(String time, boolean empty) { 
+                super.updateItem(time, empty); 
+                setText(empty ? null : time); 
+                
+                LocalDate date = dpDate.getValue(); 
+                boolean full = !empty && availabilityGrid != null && date != null && availabilityGrid.covers(date) 
+                        && !availabilityGrid.isBookable(date, LocalTime.parse(time)); 
+                setDisable(full); 
+                setStyle(full ? "-fx-text-fill: #a9a9a9;" : ""); 
+            } 
+        }); 
+    } 
+
+    /**
+     * Handles the alternative time suggestion flow by letting the user pick one of the
+     * suggested slots, closest to the requested time first.
+     * @param data The suggested time slots ("yyyy-MM-dd HH:mm") provided by the server, as a list or a single string.
+     * @return None.
+     */
+    private void handleSuggestion(Object data) { 
+        List<String> slots = new ArrayList<>(); 
+        
+        if (data instanceof List) { 
+            for (Object slot : (List<?>) data) { 
+                slots.add(slot.toString()); 
+            } 
+        } else { 
+            slots.add(data.toString()); 
+        } 
+        
+        if (slots.isEmpty()) { 
+            return; 
+        } 
+
+        ChoiceDialog<String> suggestionDialog = new ChoiceDialog<>(slots.get(0), slots); 
+        suggestionDialog.setTitle("Alternative Slots Found"); 
+        suggestionDialog.setHeaderText("No availability for requested time."); 
+        suggestionDialog.setContentText("Reserve instead for:"); 
         
-        if (suggestionAlert.showAndWait().get() == ButtonType.OK) { 
+        Optional<String> choice = suggestionDialog.showAndWait(); 
+        
+        if (choice.isPresent()) { 
+            String suggested = choice.get(); 
+            
             try { 
                 int guests = Integer.parseInt(txtGuests.getText()); 
                 Reservation res = new Reservation(userId, suggested + ":00", guests); 
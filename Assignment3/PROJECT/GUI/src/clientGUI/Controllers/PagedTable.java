@@ -0,0 +1,125 @@
+package clientGUI.Controllers;
+
+import java.util.function.Consumer;
+
+import common.Page;
+import javafx.application.Platform;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+/**
+ * Fills a {@link TableView} one {@link Page} at a time, loading the next page when the
+ * user scrolls to the bottom of the table.
+ * <p>
+ * The owner supplies the request: {@code fetchPage} is called with the cursor of the page
+ * to load ({@code null} for the first one) and must send the list command with it. When the
+ * answer arrives, the owner hands it to {@link #showPage(Page)} on the JavaFX thread. Only
+ * one page is requested at a time, and nothing more is requested once a page comes back
+ * without a cursor. If a page does not fill the table, the next one is requested at once.
+ * </p>
+ *
+ * @param <T> The type of the table rows.
+ */
+public class PagedTable<T> {
+
+    /** How close to the bottom, as a fraction of the scroll range, the next page is loaded. */
+    private static final double LOAD_MARGIN = 0.05;
+
+    private final TableView<T> table;
+    private final Consumer<String> fetchPage;
+
+    /** The cursor of the next page; {@code null} once the last page is shown. */
+    private String nextCursor;
+
+    /** Whether a page has been requested and not shown yet. */
+    private boolean loading;
+
+    /** The vertical scroll bar of the table, once its skin exists. */
+    private ScrollBar scrollBar;
+
+    /**
+     * @param table     The table to fill; its rows are appended to {@code table.getItems()}.
+     * @param fetchPage Sends the request for the page after the given cursor ({@code null}
+     *                  for the first page).
+     */
+    public PagedTable(TableView<T> table, Consumer<String> fetchPage) {
+        this.table = table;
+        this.fetchPage = fetchPage;
+        table.skinProperty().addListener((obs, oldSkin, newSkin) -> Platform.runLater(this::loadMoreIfAtEnd));
+    }
+
+    /**
+     * Clears the table and requests the first page.
+     * @return None.
+     */
+    public void loadFirstPage() {
+        table.getItems().clear();
+        nextCursor = null;
+        loading = true;
+        fetchPage.accept(null);
+    }
+
+    /**
+     * Appends a page received from the server. Must be called on the JavaFX thread.
+     * @param page The page that was requested last.
+     * @return None.
+     */
+    public void showPage(Page<T> page) {
+        table.getItems().addAll(page.getItems());
+        nextCursor = page.getNextCursor();
+        loading = false;
+        // After the new rows are laid out: request more if they do not fill the table
+        Platform.runLater(this::loadMoreIfAtEnd);
+    }
+
+    /**
+     * Allows a new request after the last one failed.
+     * @return None.
+     */
+    public void pageFailed() {
+        loading = false;
+    }
+
+    /**
+     * @return {@code true} if no row has been shown yet.
+     */
+    public boolean isEmpty() {
+        return table.getItems().isEmpty();
+    }
+
+    /**
+     * Requests the next page when the table is scrolled to its end, or cannot scroll at all.
+     */
+    private void loadMoreIfAtEnd() {
+        if (loading || nextCursor == null || !hookScrollBar()) {
+            return;
+        }
+        double range = scrollBar.getMax() - scrollBar.getMin();
+        boolean atEnd = !scrollBar.isVisible() || scrollBar.getValue() >= scrollBar.getMax() - range * LOAD_MARGIN;
+        if (atEnd) {
+            loading = true;
+            fetchPage.accept(nextCursor);
+        }
+    }
+
+    /**
+     * Finds the vertical scroll bar of the table and listens to it.
+     * @return {@code true} if the table has a vertical scroll bar.
+     */
+    private boolean hookScrollBar() {
+        if (scrollBar != null) {
+            return true;
+        }
+        for (Node node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                scrollBar = (ScrollBar) node;
+                scrollBar.valueProperty().addListener((obs, oldValue, newValue) -> loadMoreIfAtEnd());
+                scrollBar.visibleProperty().addListener((obs, oldValue, newValue) -> loadMoreIfAtEnd());
+                return true;
+            }
+        }
+        return false;
+    }
+}
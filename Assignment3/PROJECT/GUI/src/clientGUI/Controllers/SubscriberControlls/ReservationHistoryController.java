@@ -1,7 +1,9 @@
 package clientGUI.Controllers.SubscriberControlls; // Defining the package for subscriber-related controllers
 
 import java.util.ArrayList; // Importing ArrayList for data list management
+import common.Page; // Importing the page of a long list
 import common.Reservation; // Importing the Reservation entity class
+import clientGUI.Controllers.PagedTable; // Importing the page-by-page table loader
 import client.ChatClient; // Importing the main client communication class
 import common.ChatIF; // Importing the communication interface for server responses
 import javafx.application.Platform; // Importing Platform for UI thread safety
@@ -43,6 +45,12 @@ public class ReservationHistoryController implements ChatIF {
 	@FXML private TableColumn<Reservation, Integer> guestCol; 
 	@FXML private TableColumn<Reservation, String> statusCol; 
 	
+	/** Loads the history page by page as the table is scrolled. */
+	private PagedTable<Reservation> pages; 
+	
+	/** The subscriber whose history is shown. */
+	private int userId; 
+	
     /**
      * Initializes the TableView columns by mapping them to Reservation properties.
      * Called automatically by JavaFX.
@@ -55,6 +63,7 @@ public class ReservationHistoryController implements ChatIF {
 	    timeCol.setCellValueFactory(new PropertyValueFactory<>("reservationTime")); 
 	    guestCol.setCellValueFactory(new PropertyValueFactory<>("numberOfGuests")); 
 	    statusCol.setCellValueFactory(new PropertyValueFactory<>("statusString")); 
+	    pages = new PagedTable<>(reservationsTable, this::requestPage); 
 	} 
 
 	/**
@@ -69,7 +78,8 @@ public class ReservationHistoryController implements ChatIF {
 	} 
 	
     /**
-     * Sends a request to the server to fetch history for a specific subscriber.
+     * Sends a request to the server to fetch the first page of history for a specific subscriber.
+     * Further pages are requested as the table is scrolled.
      * @param userId The unique identification of the subscriber.
      * @return None.
      */
@@ -79,16 +89,27 @@ public class ReservationHistoryController implements ChatIF {
 	        return; 
 	    } 
 
+	    this.userId = userId; 
+	    pages.loadFirstPage(); 
+	} 
+
+    /**
+     * Requests one page of the history; the server decides the page size.
+     * @param cursor The cursor of the page, or null for the first page.
+     * @return None.
+     */
+	private void requestPage(String cursor) { 
 	    ArrayList<Object> msg = new ArrayList<>(); 
 	    msg.add("GET_RESERVATIONS_HISTORY"); 
 	    msg.add(userId); 
+	    msg.add(cursor); 
 
 	    client.handleMessageFromClientUI(msg); 
 	} 
 
     /**
-     * Processes server responses and populates the TableView on the UI thread.
-     * @param message The server response containing a list of reservations or an error.
+     * Processes server responses and appends the received page to the TableView on the UI thread.
+     * @param message The server response containing a page of reservations or an error.
      * @return None.
      */
 	@Override 
@@ -100,15 +121,14 @@ public class ReservationHistoryController implements ChatIF {
             switch (command) { 
                 case "RESERVATION_HISTORY": 
                     @SuppressWarnings("unchecked")
-                    ArrayList<Reservation> reservations = (ArrayList<Reservation>) data.get(1); 
+                    Page<Reservation> page = (Page<Reservation>) data.get(1); 
 
                     Platform.runLater(() -> { 
-                        if (reservations == null || reservations.isEmpty()) { 
+                        if (pages.isEmpty() && page.getItems().isEmpty()) { 
                             showNoReservationsAndClose(); 
                             return; 
                         } 
-                        reservationsTable.getItems().clear(); 
-                        reservationsTable.getItems().addAll(reservations); 
+                        pages.showPage(page); 
                     }); 
                     break; 
 
@@ -1,7 +1,9 @@
 package clientGUI.Controllers.SubscriberControlls;
 
 import java.util.ArrayList;
+import common.Page;
 import common.Visit;
+import clientGUI.Controllers.PagedTable;
 import client.ChatClient;
 import common.ChatIF;
 import javafx.application.Platform;
@@ -30,6 +32,12 @@ public class VisitHistoryController implements ChatIF {
 
     private ChatClient client;
 
+    /** Loads the history page by page as the table is scrolled. */
+    private PagedTable<Visit> pages;
+
+    /** The subscriber whose history is shown. */
+    private int userId;
+
     /**
      * Initializes the controller class. This method is automatically called
      * after the fxml file has been loaded. It sets up the table columns.
@@ -42,6 +50,7 @@ public class VisitHistoryController implements ChatIF {
         billCol.setCellValueFactory(new PropertyValueFactory<>("billId"));
         timeCol.setCellValueFactory(new PropertyValueFactory<>("startTime"));
         statusCol.setCellValueFactory(new PropertyValueFactory<>("status"));
+        pages = new PagedTable<>(visitsTable, this::requestPage);
     }
 
     /**
@@ -66,19 +75,31 @@ public class VisitHistoryController implements ChatIF {
     }
 
     /**
-     * Requests the visit history for a specific subscriber from the server.
+     * Requests the first page of the visit history for a specific subscriber from the server.
+     * Further pages are requested as the table is scrolled.
      * @param userId The unique ID of the subscriber.
      * @return None.
      */
     public void loadVisitsForUser(int userId) {
+        this.userId = userId;
+        pages.loadFirstPage();
+    }
+
+    /**
+     * Requests one page of the visit history; the server decides the page size.
+     * @param cursor The cursor of the page, or null for the first page.
+     * @return None.
+     */
+    private void requestPage(String cursor) {
         ArrayList<Object> msg = new ArrayList<>();
         msg.add("GET_VISITS_HISTORY");
         msg.add(userId);
+        msg.add(cursor);
         client.handleMessageFromClientUI(msg);
     }
 
     /**
-     * Processes messages received from the server. Updates the TableView with visit data.
+     * Processes messages received from the server. Appends the received page of visits to the TableView.
      * @param message The response message from the server (expected ArrayList).
      * @return None.
      */
@@ -87,14 +108,14 @@ public class VisitHistoryController implements ChatIF {
         if (message instanceof ArrayList) {
             ArrayList<?> data = (ArrayList<?>) message;
             if ("VISIT_HISTORY".equals(data.get(0))) {
-                ArrayList<Visit> visits = (ArrayList<Visit>) data.get(1);
+                @SuppressWarnings("unchecked")
+                Page<Visit> page = (Page<Visit>) data.get(1);
                 Platform.runLater(() -> {
-                    if (visits == null || visits.isEmpty()) {
+                    if (pages.isEmpty() && page.getItems().isEmpty()) {
                         showNoHistoryAlert();
                         return;
                     }
-                    visitsTable.getItems().clear();
-                    visitsTable.getItems().addAll(visits);
+                    pages.showPage(page);
                 });
             }
         }
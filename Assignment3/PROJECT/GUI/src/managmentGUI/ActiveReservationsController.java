@@ -1,11 +1,12 @@
 package managmentGUI;
 
-import javafx.collections.FXCollections;
+import clientGUI.Controllers.PagedTable;
+import common.Page;
 import javafx.fxml.FXML;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.beans.property.SimpleObjectProperty;
-import java.util.ArrayList;
+import java.util.function.Consumer;
 
 /**
  * Controller class for the Active Reservations management view.
@@ -20,6 +21,9 @@ public class ActiveReservationsController {
     /** Individual columns for reservation attributes. */
     @FXML private TableColumn<Object[], Object> colCode, colDate, colGuests, colPhone, colStatus;
 
+    /** Loads the reservations page by page as the table is scrolled. */
+    private PagedTable<Object[]> pages;
+
     /**
      * Initializes the TableView columns by mapping specific array indices to table cells.
      * The mapping follows the SQL query results order:
@@ -35,11 +39,29 @@ public class ActiveReservationsController {
     }
 
     /**
-     * Updates the TableView content with provided reservation data.
-     * @param data An ArrayList of Object arrays representing reservation records from the DB.
+     * Starts loading the reservations, first page first.
+     * @param fetchPage Sends the request for the page after the given cursor (null for the first page).
+     * @return None.
+     */
+    public void loadPages(Consumer<String> fetchPage) {
+        pages = new PagedTable<>(activeReservationsTable, fetchPage);
+        pages.loadFirstPage();
+    }
+
+    /**
+     * Appends a page of reservation data to the TableView.
+     * @param page A page of Object arrays representing reservation records from the DB.
+     * @return None.
+     */
+    public void showPage(Page<Object[]> page) {
+        pages.showPage(page);
+    }
+
+    /**
+     * Allows the next page to be requested again after a failed request.
      * @return None.
      */
-    public void setTableData(ArrayList<Object[]> data) {
-        activeReservationsTable.setItems(FXCollections.observableArrayList(data));
+    public void pageFailed() {
+        pages.pageFailed();
     }
 }
\ No newline at end of file
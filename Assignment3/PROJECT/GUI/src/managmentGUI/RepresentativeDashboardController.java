@@ -3,10 +3,14 @@ package managmentGUI; // Defining the package for management-related controllers
 import java.io.IOException; // Importing for handling input/output exceptions during FXML loading
 import java.time.LocalDate; // Importing for date handling
 import java.util.ArrayList; // Importing for dynamic list structures
+import java.util.Arrays; // Importing for building the dashboard batch
 import java.util.HashMap; // Importing for key-value pair storage
+import java.util.List; // Importing for list interface
 import java.util.Map; // Importing for map interface
+import java.util.function.Consumer; // Importing for answer callbacks
 
 import clientGUI.Controllers.MenuControlls.BaseMenuController; // Importing the base menu controller for session data
+import common.Page; // Importing the page of a long list
 import common.TimeRange; // Importing the TimeRange domain entity
 import common.Visit;
 import common.Restaurant;
@@ -53,6 +57,15 @@ public class RepresentativeDashboardController extends BaseMenuController {
 
     private ObservableList<DayScheduleRow> scheduleData = FXCollections.observableArrayList(); 
 
+    /** How long a list loaded with the dashboard may be shown instead of fetching it again. */
+    private static final long PRELOAD_MAX_AGE_MS = 30_000;
+
+    /** Lists and first pages loaded with the dashboard, by command, until a screen first shows them. */
+    private final Map<String, Object> preloadedLists = new HashMap<>();
+
+    /** When {@code preloadedLists} was filled. */
+    private long preloadedAt;
+
     // --- 2. Initialization and Infrastructure ---
 
     /**
@@ -66,8 +79,47 @@ public class RepresentativeDashboardController extends BaseMenuController {
             client.setUI(this); 
             appendLog("Representative Dashboard Loaded. System ID: " + userId); 
             showRegularHoursScreen(null); 
+            preloadDashboard(); 
         } 
     } 
+
+    /**
+     * Loads the data of the dashboard screens in a single {@code BATCH} request.
+     * <p>
+     * The operating hours are logged at once; the active reservations, diners and waiting
+     * list are kept so that the first opening of their screens needs no round trip. The
+     * server runs these read-only commands concurrently and answers them together.
+     * </p>
+     * @return None.
+     */
+    private void preloadDashboard() { 
+        List<String> commands = Arrays.asList("GET_RESTAURANT_WORKTIMES",
+                "GET_ALL_ACTIVE_RESERVATIONS_STAFF", "GET_ACTIVE_DINERS_LIST", "GET_WAITING_LIST");
+        List<ArrayList<Object>> batch = new ArrayList<>();
+        for (String command : commands) {
+            ArrayList<Object> message = new ArrayList<>();
+            message.add(command);
+            batch.add(message);
+        }
+        client.requestBatch(batch).whenComplete((reply, error) -> {
+            if (error != null) {
+                appendLog("Error: Dashboard preload failed: " + error.getMessage());
+                return;
+            }
+            Platform.runLater(() -> {
+                preloadedLists.clear();
+                preloadedAt = System.currentTimeMillis();
+                for (int i = 0; i < commands.size(); i++) {
+                    Object answer = reply.getReply(i);
+                    if (answer instanceof ArrayList || answer instanceof Page) {
+                        preloadedLists.put(commands.get(i), answer);
+                    } else if (answer != null) {
+                        display(answer); // hours, or an error response
+                    }
+                }
+            });
+        });
+    }
     
     /**
      * Fetches current restaurant operating hours from the server.
@@ -336,36 +388,37 @@ public class RepresentativeDashboardController extends BaseMenuController {
     } 
 
     /**
-     * Fetches all registered subscribers and displays the list.
+     * Fetches the registered subscribers and displays the list, one page at a time as it is scrolled.
      * @param event The ActionEvent from the UI.
      * @return None.
      */
     @FXML 
+    @SuppressWarnings("unchecked")
     void viewSubscribersList(ActionEvent event) { 
         loadSubScreen("/managmentGUI/ActionsFXML/SubscribersList.fxml"); 
-        ArrayList<Object> message = new ArrayList<>();
-        message.add("GET_ALL_SUBSCRIBERS");
+        SubscribersListController target = (SubscribersListController) currentSubController;
         appendLog("System: Requesting subscriber list from server...");
-        client.handleMessageFromClientUI(message);
+        target.loadPages(cursor -> requestPage("GET_ALL_SUBSCRIBERS", cursor, page -> {
+            appendLog("System: Received " + page.getItems().size() + " subscribers.");
+            target.showPage((Page<common.Subscriber>) page);
+        }, target::pageFailed));
     }
     
     /**
-     * Fetches all currently active reservations for staff review.
+     * Fetches the currently active reservations for staff review, one page at a time as the table is scrolled.
      * @param event The ActionEvent from the UI.
      * @return None.
      */
     @FXML 
+    @SuppressWarnings("unchecked")
     void viewActiveReservations(ActionEvent event) { 
         loadSubScreen("/managmentGUI/ActionsFXML/ActiveReservations.fxml"); 
-        try {
-            appendLog("System: Fetching all active reservations for staff view...");
-            ArrayList<Object> message = new ArrayList<>();
-            message.add("GET_ALL_ACTIVE_RESERVATIONS_STAFF"); 
-            client.sendToServer(message); 
-        } catch (IOException e) {
-            appendLog("Error: Failed to send request to server.");
-            e.printStackTrace();
-        }
+        ActiveReservationsController target = (ActiveReservationsController) currentSubController;
+        appendLog("System: Fetching all active reservations for staff view...");
+        target.loadPages(cursor -> requestPage("GET_ALL_ACTIVE_RESERVATIONS_STAFF", cursor, page -> {
+            appendLog("SERVER DATA: Received " + page.getItems().size() + " active reservations."); 
+            target.showPage((Page<Object[]>) page);
+        }, target::pageFailed));
     }
 
     /**
@@ -374,17 +427,17 @@ public class RepresentativeDashboardController extends BaseMenuController {
      * @return None.
      */
     @FXML 
+    @SuppressWarnings("unchecked")
     void viewCurrentDiners(ActionEvent event) { 
         loadSubScreen("/managmentGUI/ActionsFXML/CurrentDiners.fxml"); 
-        try {
-            appendLog("System: Fetching active diners list...");
-            ArrayList<Object> message = new ArrayList<>();
-            message.add("GET_ACTIVE_DINERS_LIST"); 
-            if (client != null) client.handleMessageFromClientUI(message); 
-        } catch (Exception e) {
-            appendLog("Error: Failed to send request.");
-            e.printStackTrace();
-        }
+        CurrentDinersController target = (CurrentDinersController) currentSubController;
+        appendLog("System: Fetching active diners list...");
+        ArrayList<Object> message = new ArrayList<>();
+        message.add("GET_ACTIVE_DINERS_LIST"); 
+        requestTableData(message, list -> {
+            appendLog("System: Displaying currently active diner groups.");
+            target.setTableData((ArrayList<Visit>) list);
+        });
     }
 
     /**
@@ -393,17 +446,87 @@ public class RepresentativeDashboardController extends BaseMenuController {
      * @return None.
      */
     @FXML 
+    @SuppressWarnings("unchecked")
     void viewWaitingList(ActionEvent event) { 
         loadSubScreen("/managmentGUI/ActionsFXML/WaitingList.fxml"); 
-        try {
-            appendLog("System: Requesting current waiting list from server...");
-            ArrayList<Object> message = new ArrayList<>();
-            message.add("GET_WAITING_LIST"); 
-            if (client != null) client.handleMessageFromClientUI(message); 
-        } catch (Exception e) {
-            appendLog("Error: Failed to send request for waiting list.");
-            e.printStackTrace();
+        WaitingListController target = (WaitingListController) currentSubController;
+        appendLog("System: Requesting current waiting list from server...");
+        ArrayList<Object> message = new ArrayList<>();
+        message.add("GET_WAITING_LIST"); 
+        requestTableData(message, list -> {
+            appendLog("System: Displaying the active waiting list.");
+            target.setTableData((ArrayList<common.WaitingListEntry>) list);
+        });
+    }
+
+    /**
+     * Sends a list request with its own request id and hands the answer to the given callback.
+     * <p>
+     * Unlike {@code display()}, which guesses the destination from the type of the first row,
+     * the answer is bound to the sub-controller that asked for it: several lists can be in flight
+     * at once, replies may arrive in any order, and an empty list still clears its table.
+     * Any other answer (e.g. an error {@code ServiceResponse}) goes through {@code display()}.
+     * A fresh list loaded with the dashboard is used once instead of sending the request.
+     * </p>
+     * @param message The request to send.
+     * @param onList  Callback run on the JavaFX thread with the received list.
+     * @return None.
+     */
+    private void requestTableData(ArrayList<Object> message, Consumer<ArrayList<?>> onList) {
+        requestAnswer(message, ArrayList.class, answer -> onList.accept((ArrayList<?>) answer), null);
+    }
+
+    /**
+     * Requests one page of a paged list and hands it to the given callback, like
+     * {@link #requestTableData(ArrayList, Consumer)}. Only the first page may come from the
+     * dashboard preload; the server decides the page size.
+     * @param command   The list command.
+     * @param cursor    The cursor of the page, or null for the first page.
+     * @param onPage    Callback run on the JavaFX thread with the received page.
+     * @param onFailure Callback run on the JavaFX thread when no page arrives.
+     * @return None.
+     */
+    private void requestPage(String command, String cursor, Consumer<Page<?>> onPage, Runnable onFailure) {
+        ArrayList<Object> message = new ArrayList<>();
+        message.add(command);
+        message.add(cursor);
+        requestAnswer(message, Page.class, answer -> onPage.accept((Page<?>) answer), onFailure);
+    }
+
+    /**
+     * Sends a request, or takes its fresh preloaded answer, and hands an answer of the expected
+     * type to the callback on the JavaFX thread; other answers go through {@code display()}.
+     * @param message   The request to send.
+     * @param type      The expected type of the answer.
+     * @param onAnswer  Callback run on the JavaFX thread with the answer.
+     * @param onFailure Callback run on the JavaFX thread when no answer of that type arrives; may be null.
+     * @return None.
+     */
+    private void requestAnswer(ArrayList<Object> message, Class<?> type, Consumer<Object> onAnswer, Runnable onFailure) {
+        boolean firstPage = message.size() < 2 || message.get(1) == null;
+        Object preloaded = firstPage ? preloadedLists.remove(message.get(0)) : null;
+        if (type.isInstance(preloaded) && System.currentTimeMillis() - preloadedAt <= PRELOAD_MAX_AGE_MS) {
+            onAnswer.accept(preloaded);
+            return;
         }
+        if (client == null) {
+            appendLog("Error: Client connection is not initialized.");
+            return;
+        }
+        client.request(message).whenComplete((answer, error) -> {
+            if (type.isInstance(answer)) {
+                Platform.runLater(() -> onAnswer.accept(answer));
+                return;
+            }
+            if (error != null) {
+                appendLog("Error: " + message.get(0) + " failed: " + error.getMessage());
+            } else {
+                display(answer);
+            }
+            if (onFailure != null) {
+                Platform.runLater(onFailure);
+            }
+        });
     }
 
     /**
@@ -498,15 +621,7 @@ public class RepresentativeDashboardController extends BaseMenuController {
             }
             Object firstItem = genericList.get(0);
             Platform.runLater(() -> { 
-                if (firstItem instanceof Object[]) {
-                    @SuppressWarnings("unchecked")
-                    ArrayList<Object[]> resList = (ArrayList<Object[]>) genericList; 
-                    appendLog("SERVER DATA: Received " + resList.size() + " active reservations."); 
-                    if (currentSubController instanceof ActiveReservationsController) {
-                        ((ActiveReservationsController) currentSubController).setTableData(resList);
-                    }
-                } 
-                else if (firstItem instanceof common.Visit) {
+                if (firstItem instanceof common.Visit) {
                     @SuppressWarnings("unchecked")
                     ArrayList<common.Visit> visitsList = (ArrayList<common.Visit>) genericList;
                     appendLog("System: Displaying currently active diner groups.");
@@ -522,14 +637,6 @@ public class RepresentativeDashboardController extends BaseMenuController {
                         ((WaitingListController) currentSubController).setTableData(waitingList);
                     }
                 }
-                else if (firstItem instanceof common.Subscriber) {
-                    @SuppressWarnings("unchecked")
-                    ArrayList<common.Subscriber> subList = (ArrayList<common.Subscriber>) genericList;
-                    appendLog("System: Received subscriber data.");
-                    if (currentSubController instanceof SubscribersListController) {
-                        ((SubscribersListController) currentSubController).setTableData(subList);
-                    }
-                }
             }); 
         }
     } 
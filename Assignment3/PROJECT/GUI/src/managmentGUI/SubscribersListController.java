@@ -1,8 +1,10 @@
 package managmentGUI;
 
-import java.util.ArrayList;
+import java.util.function.Consumer;
+
+import clientGUI.Controllers.PagedTable;
+import common.Page;
 import common.Subscriber;
-import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
@@ -22,7 +24,7 @@ public class SubscribersListController {
     @FXML private TableColumn<Subscriber, Integer> colUserId;
 
     /** Column for the unique subscriber identifier. */
-    @FXML private TableColumn<Subscriber, Integer> colSubId;
+    @FXML private TableColumn<Subscriber, Long> colSubId;
 
     /** Column for the subscriber's username. */
     @FXML private TableColumn<Subscriber, String> colUsername;
@@ -30,6 +32,9 @@ public class SubscribersListController {
     /** Column for the subscriber's personalized QR code identifier. */
     @FXML private TableColumn<Subscriber, String> colQrCode;
 
+    /** Loads the subscribers page by page as the table is scrolled. */
+    private PagedTable<Subscriber> pages;
+
     /**
      * Initializes the table columns by mapping UI columns to the properties 
      * defined in the Subscriber entity class.
@@ -46,12 +51,29 @@ public class SubscribersListController {
     }
 
     /**
-     * Populates the TableView with data received from the server.
-     * Converts the standard ArrayList into an ObservableList for JavaFX rendering.
-     * @param list An ArrayList containing Subscriber objects to be displayed.
+     * Starts loading the subscribers, first page first.
+     * @param fetchPage Sends the request for the page after the given cursor (null for the first page).
+     * @return None.
+     */
+    public void loadPages(Consumer<String> fetchPage) {
+        pages = new PagedTable<>(tableSubscribers, fetchPage);
+        pages.loadFirstPage();
+    }
+
+    /**
+     * Appends a page of subscribers received from the server to the TableView.
+     * @param page The page of Subscriber objects to be displayed.
+     * @return None.
+     */
+    public void showPage(Page<Subscriber> page) {
+        pages.showPage(page);
+    }
+
+    /**
+     * Allows the next page to be requested again after a failed request.
      * @return None.
      */
-    public void setTableData(ArrayList<Subscriber> list) {
-        tableSubscribers.setItems(FXCollections.observableArrayList(list));
+    public void pageFailed() {
+        pages.pageFailed();
     }
 }
\ No newline at end of file
@@ -3,9 +3,8 @@ package terminalGUI.Controllers.TerminalControllers;
 import java.util.ArrayList;
 
 import client.ChatClient;
+import common.ArrivalStatusUpdate;
 import common.ChatIF;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -18,21 +17,18 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
 /**
  * Controller class for the Arrival Terminal interface.
  * This class facilitates the check-in process for customers upon arrival, 
  * validating confirmation codes and providing real-time status updates regarding 
- * table availability through active server polling.
+ * table availability. A party that has to wait is subscribed by the server, which 
+ * pushes an {@link ArrivalStatusUpdate} once a table is freed for it.
  */
 public class VisitUIController implements ChatIF {
 	
     /** Persistent network client used for server communication. */
     private ChatClient client;
-    
-    /** Timer used to poll the server for status updates when a table is not immediately ready. */
-    private Timeline statusTimer;
 
     // FXML injected UI components
     @FXML private TextField txtCode; 
@@ -100,8 +96,8 @@ public class VisitUIController implements ChatIF {
             showAlert("Too Early", "You arrived more than 15 minutes early. Please come back later.", AlertType.INFORMATION);
         } 
         else if (response.equals("TABLE_NOT_READY_WAIT")) {
+            // The server keeps this terminal subscribed to the code until the party is seated
             showAlert("Welcome", "Your table is not ready yet. Please wait, we will notify you via SMS.", AlertType.INFORMATION);
-            startPollingForStatus(Long.parseLong(txtCode.getText().trim()));
         } 
         else if (response.startsWith("SUCCESS_TABLE_")) {
             String tableId = response.split("_")[2]; // Extract table number from the string
@@ -112,66 +108,37 @@ public class VisitUIController implements ChatIF {
         }
     }
     
-    /**
-     * Initiates a background Timeline that polls the server every 5 seconds 
-     * to check if the assigned table has become available.
-     * @param code The reservation confirmation code to poll for.
-     * @return None.
-     */
-    private void startPollingForStatus(long code) {
-        if (statusTimer != null) statusTimer.stop();
-
-        statusTimer = new Timeline(new KeyFrame(Duration.seconds(5), event -> {
-            // Prepare request to check status
-            ArrayList<Object> message = new ArrayList<>();
-            message.add("CHECK_STATUS_UPDATE");
-            message.add(code);
-            
-            // Send to server (the response will be handled in the display() method)
-            client.handleMessageFromClientUI(message);
-        }));
-        
-        statusTimer.setCycleCount(Timeline.INDEFINITE);
-        statusTimer.play();
-    }
-    
     /**
      * Handles server messages on the UI thread. 
-     * Specifically manages polling updates and notifies the user when the status changes to "NOTIFIED".
+     * Arrival responses are shown to the user, and a pushed status update 
+     * notifies the waiting party when its status changes to "NOTIFIED".
      * 
      * @param message The message object received from the server.
      * @return None.
      */
     @Override
     public void display(Object message) {
-        if (message instanceof String) {
+        if (message instanceof ArrivalStatusUpdate) {
+            ArrivalStatusUpdate update = (ArrivalStatusUpdate) message;
+            if (update.getStatus().equals("NOTIFIED")) {
+                Platform.runLater(() -> showTableReadyPopup(update.getConfirmationCode()));
+            }
+        }
+        else if (message instanceof String) {
             String response = (String) message;
-            
-            Platform.runLater(() -> {
-                if (response.equals("NOTIFIED")) {
-                    if (statusTimer != null) statusTimer.stop();
-                    showTableReadyPopup();
-                } 
-                else if (response.equals("WAITING_AT_RESTAURANT") || response.equals("WAITING")) {
-                    // Silence polling updates that maintain current state
-                }
-                else {
-                    handleServerResponse(response);
-                }
-            });
+            Platform.runLater(() -> handleServerResponse(response));
         }
     }
 
     /**
-     * Displays a success popup when a table is ready and stops the active polling timer.
+     * Displays a success popup when the table of a waiting party is ready.
+     * @param code The confirmation code of the notified party.
      * @return None.
      */
-    private void showTableReadyPopup() {
-        if (statusTimer != null) statusTimer.stop();
-
+    private void showTableReadyPopup(long code) {
         Alert alert = new Alert(AlertType.INFORMATION);
         alert.setTitle("Table Ready!");
-        alert.setHeaderText("Good news!");
+        alert.setHeaderText("Good news for code " + code + "!");
         alert.setContentText("Your table is now ready! Please enter your code again to get your table number.");
         alert.showAndWait();
     }
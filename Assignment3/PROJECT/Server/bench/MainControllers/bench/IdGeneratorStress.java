@@ -0,0 +1,88 @@
+package MainControllers.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import MainControllers.IdGenerator;
+
+/**
+ * Checks that {@link IdGenerator} never repeats an ID under contention.
+ * <p>
+ * Several threads draw IDs from one generator as fast as they can. Each thread
+ * checks that its own IDs increase, then all IDs are sorted and scanned for
+ * duplicates. A second generator with another node id is run at the same time,
+ * and its IDs are checked against the first one's, as two servers sharing one
+ * database would be. The output is the throughput and the number of duplicates,
+ * which must be 0.
+ * </p>
+ * Usage: {@code java MainControllers.bench.IdGeneratorStress [threads] [idsPerThread]}
+ * (default 8 threads, 1000000 IDs each).
+ */
+public class IdGeneratorStress {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        IdGenerator nodeA = new IdGenerator(1, 0, IdGenerator.NODE_BITS, 10);
+        IdGenerator nodeB = new IdGenerator(1, 1, IdGenerator.NODE_BITS, 10);
+
+        long[][] drawn = new long[threads][];
+        boolean[] increasing = new boolean[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            IdGenerator generator = t % 2 == 0 ? nodeA : nodeB;
+            workers[t] = new Thread(() -> {
+                long[] ids = new long[perThread];
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = generator.next();
+                }
+                boolean ok = true;
+                for (int i = 1; i < perThread; i++) {
+                    ok &= ids[i] > ids[i - 1];
+                }
+                drawn[index] = ids;
+                increasing[index] = ok;
+            });
+            workers[t].start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        long[] all = new long[threads * perThread];
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(drawn[t], 0, all, t * perThread, perThread);
+        }
+        Arrays.sort(all);
+        long duplicates = 0;
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) {
+                duplicates++;
+            }
+        }
+        boolean allIncreasing = true;
+        for (boolean ok : increasing) {
+            allIncreasing &= ok;
+        }
+
+        System.out.printf("threads=%d ids=%d time=%.1f ms rate=%.2f M ids/s%n",
+                threads, all.length, elapsed / 1e6, all.length / (elapsed / 1e3));
+        System.out.printf("duplicates=%d perThreadIncreasing=%b min=%d max=%d%n",
+                duplicates, allIncreasing, all[0], all[all.length - 1]);
+        if (duplicates != 0 || !allIncreasing) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package serverLogic.serverRestaurant.bench;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import common.Restaurant;
+import serverLogic.serverRestaurant.OpeningHours;
+
+/**
+ * Compares {@link Restaurant#isOpen(LocalDate, String)} with the compiled {@link OpeningHours}.
+ * <p>
+ * The restaurant has a closed day, a day open past midnight, hours with seconds as MySQL returns
+ * them, and special dates. First, every minute of 90 days is checked both ways; the answers must
+ * be the same. Then both are timed on the check a reservation makes: open at the start and at the
+ * end of a two-hour meal, on random half-hour times. The string path formats the two times as the
+ * reservation code did. Each path is warmed up, then timed over several rounds, and the best round
+ * is reported. The output is the time per meal check and the number of mismatches, which must be 0.
+ * </p>
+ * Usage: {@code java serverLogic.serverRestaurant.bench.OpeningHoursBenchmark [checks] [rounds]}
+ * (default 1000000 checks, 5 rounds).
+ */
+public class OpeningHoursBenchmark {
+
+    private static final DateTimeFormatter HOURS_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    /** Receives the result of each timed loop, so that the loop cannot be optimized away. */
+    private static volatile int sink;
+
+    public static void main(String[] args) {
+        int checks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Restaurant restaurant = new Restaurant(1, "Bench");
+        restaurant.setRegularHours("Sunday", "12:00:00", "23:00:00");
+        restaurant.setRegularHours("Monday", "00:00:00", "00:00:00");
+        restaurant.setRegularHours("Tuesday", "12:00:00", "22:30:00");
+        restaurant.setRegularHours("Wednesday", "12:00:00", "22:30:00");
+        restaurant.setRegularHours("Thursday", "12:00:00", "23:00:00");
+        restaurant.setRegularHours("Friday", "18:00:00", "02:00:00");
+        LocalDate firstDay = LocalDate.of(2026, 3, 1);
+        restaurant.setSpecialHours(firstDay.plusDays(3), "10:00:00", "14:00:00");
+        restaurant.setSpecialHours(firstDay.plusDays(17), "00:00:00", "00:00:00");
+        restaurant.setSpecialHours(firstDay.plusDays(40), "11:15:30", "20:45:30");
+        restaurant.setSpecialHours(firstDay.plusDays(60), "20:00", "03:00");
+        OpeningHours hours = OpeningHours.compile(restaurant);
+
+        long mismatches = 0;
+        for (int day = 0; day < 90; day++) {
+            LocalDate date = firstDay.plusDays(day);
+            for (int minute = 0; minute < 24 * 60; minute++) {
+                String time = String.format("%02d:%02d", minute / 60, minute % 60);
+                if (restaurant.isOpen(date, time) != hours.isOpen(date, minute)) {
+                    mismatches++;
+                }
+            }
+        }
+
+        Random random = new Random(42);
+        LocalDateTime[] starts = new LocalDateTime[4096];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = firstDay.plusDays(random.nextInt(90)).atStartOfDay().plusMinutes(30L * random.nextInt(48));
+        }
+
+        // Warm up both paths before timing
+        timeStrings(restaurant, starts, checks);
+        timeBits(hours, starts, checks);
+
+        long stringBest = Long.MAX_VALUE;
+        long bitBest = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            stringBest = Math.min(stringBest, timeStrings(restaurant, starts, checks));
+            bitBest = Math.min(bitBest, timeBits(hours, starts, checks));
+        }
+
+        System.out.printf("checks=%d rounds=%d strings=%.1f ns/check bitmap=%.1f ns/check speedup=%.0fx%n",
+                checks, rounds, (double) stringBest / checks, (double) bitBest / checks,
+                (double) stringBest / bitBest);
+        System.out.printf("mismatches=%d%n", mismatches);
+        if (mismatches != 0) {
+            System.exit(1);
+        }
+    }
+
+    /** @return The time of {@code checks} meal checks through {@link Restaurant#isOpen}, in nanoseconds. */
+    private static long timeStrings(Restaurant restaurant, LocalDateTime[] starts, int checks) {
+        int open = 0;
+        long begin = System.nanoTime();
+        for (int i = 0; i < checks; i++) {
+            LocalDateTime start = starts[i & (starts.length - 1)];
+            String startTime = start.toLocalTime().format(HOURS_FORMATTER);
+            String endTime = start.toLocalTime().plusHours(2).format(HOURS_FORMATTER);
+            if (restaurant.isOpen(start.toLocalDate(), startTime) && restaurant.isOpen(start.toLocalDate(), endTime)) {
+                open++;
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+        sink = open;
+        return elapsed;
+    }
+
+    /** @return The time of {@code checks} meal checks through {@link OpeningHours}, in nanoseconds. */
+    private static long timeBits(OpeningHours hours, LocalDateTime[] starts, int checks) {
+        int open = 0;
+        long begin = System.nanoTime();
+        for (int i = 0; i < checks; i++) {
+            LocalDateTime start = starts[i & (starts.length - 1)];
+            int minute = start.getHour() * 60 + start.getMinute();
+            if (hours.isOpen(start.toLocalDate(), minute) && hours.isOpen(start.toLocalDate(), (minute + 120) % (24 * 60))) {
+                open++;
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+        sink = open;
+        return elapsed;
+    }
+}
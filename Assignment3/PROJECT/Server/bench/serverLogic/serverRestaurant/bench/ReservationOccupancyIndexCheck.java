@@ -0,0 +1,183 @@
+package serverLogic.serverRestaurant.bench;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import common.Reservation;
+import dbLogic.repository.Repositories;
+import dbLogic.repository.ReservationRepository;
+import dbLogic.repository.memory.MemoryStorage;
+import serverLogic.serverRestaurant.ReservationOccupancyIndex;
+
+/**
+ * Checks {@link ReservationOccupancyIndex} against a brute-force count over the stored
+ * reservations, and measures its lookups.
+ * <p>
+ * A pre-filled in-memory storage is installed, the index is loaded, and reservations are then
+ * created and cancelled through the index as the server does. The index is moved on by a day
+ * with more changes after that. After each phase, random lookups across the horizon are compared
+ * with the most overlapping holds counted from the storage, slot by slot, and the free starts
+ * of the whole horizon are compared with single lookups. The output is the lookup time and the
+ * number of mismatches, which must be 0.
+ * </p>
+ * Usage: {@code java serverLogic.serverRestaurant.bench.ReservationOccupancyIndexCheck [reservations] [lookups]}
+ * (default 20000 reservations, 200000 lookups).
+ */
+public class ReservationOccupancyIndexCheck {
+
+    private static final DateTimeFormatter SQL_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:00");
+    private static final int[] SIZES = { 2, 4, 6, 8 };
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        MemoryStorage storage = new MemoryStorage();
+        Repositories.use(storage);
+        ReservationRepository reservations = storage.reservations();
+        Random random = new Random(42);
+        LocalDate today = LocalDate.of(2026, 3, 1);
+
+        List<Long> codes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            codes.add(reservations.insert(randomReservation(random, today), size(random)));
+        }
+        for (int i = 0; i < count / 10; i++) {
+            reservations.updateStatus(codes.get(random.nextInt(codes.size())), "CANCELLED");
+        }
+
+        ReservationOccupancyIndex index = new ReservationOccupancyIndex();
+        index.load(today);
+        writeThrough(index, reservations, random, today, count / 4);
+        long mismatches = compare(index, reservations, random, today, lookups / 2);
+
+        LocalDate tomorrow = today.plusDays(1);
+        index.advanceTo(tomorrow);
+        writeThrough(index, reservations, random, tomorrow, count / 4);
+        mismatches += compare(index, reservations, random, tomorrow, lookups / 2);
+        mismatches += compareFreeStarts(index, tomorrow);
+
+        long begin = System.nanoTime();
+        long sink = 0;
+        for (int i = 0; i < lookups; i++) {
+            sink += index.maxBooked(size(random), randomTime(random, tomorrow));
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        System.out.printf("reservations=%d lookups=%d time=%.1f ms perLookup=%.0f ns (sink %d)%n",
+                count + count / 2, lookups, elapsed / 1e6, (double) elapsed / lookups, sink);
+        System.out.printf("mismatches=%d%n", mismatches);
+        if (mismatches != 0) {
+            System.exit(1);
+        }
+    }
+
+    /** Creates and cancels reservations the way the server does, index and storage together. */
+    private static void writeThrough(ReservationOccupancyIndex index, ReservationRepository reservations,
+            Random random, LocalDate today, int changes) throws Exception {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < changes; i++) {
+            Reservation res = randomReservation(random, today);
+            int size = size(random);
+            created.add(index.update(() -> {
+                long code = reservations.insert(res, size);
+                index.add(code, size, LocalDateTime.parse(res.getReservationDateTime(), SQL_FORMATTER));
+                return code;
+            }));
+        }
+        for (int i = 0; i < changes / 5; i++) {
+            long code = created.get(random.nextInt(created.size()));
+            index.update(() -> {
+                if (reservations.updateStatusIf(code, "ACTIVE", "CANCELLED")) {
+                    index.release(code);
+                }
+                return null;
+            });
+        }
+    }
+
+    /** @return The number of lookups that differ from the brute-force count. */
+    private static long compare(ReservationOccupancyIndex index, ReservationRepository reservations,
+            Random random, LocalDate today, int lookups) throws Exception {
+        Map<Integer, List<Long>> startsBySize = new HashMap<>();
+        for (Reservation res : reservations.findHolding(today.atStartOfDay().minusDays(1),
+                today.plusDays(ReservationOccupancyIndex.HORIZON_DAYS + 1).atStartOfDay())) {
+            startsBySize.computeIfAbsent(res.getNumberOfGuests(), size -> new ArrayList<>())
+                    .add(minuteOf(LocalDateTime.parse(res.getReservationDateTime().replace(' ', 'T'))));
+        }
+        long mismatches = 0;
+        for (int i = 0; i < lookups; i++) {
+            int size = size(random);
+            LocalDateTime at = randomTime(random, today);
+            int indexed = index.maxBooked(size, at);
+            if (indexed != -1 && indexed != bruteForce(startsBySize.getOrDefault(size, List.of()), minuteOf(at))) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    /** @return The number of free starts that differ from {@link ReservationOccupancyIndex#maxBooked}. */
+    private static long compareFreeStarts(ReservationOccupancyIndex index, LocalDate today) {
+        Map<Integer, Integer> inventory = Map.of(2, 40, 4, 30, 6, 12, 8, 6);
+        int days = ReservationOccupancyIndex.HORIZON_DAYS;
+        int slotsPerDay = 24 * 60 / ReservationOccupancyIndex.SLOT_MINUTES;
+        long mismatches = 0;
+        for (int guests = 1; guests <= 8; guests++) {
+            BitSet free = index.freeStarts(inventory, guests, today, days);
+            for (int slot = 0; slot < days * slotsPerDay; slot++) {
+                LocalDateTime at = today.atStartOfDay().plusMinutes((long) slot * ReservationOccupancyIndex.SLOT_MINUTES);
+                boolean expected = false;
+                for (Map.Entry<Integer, Integer> size : inventory.entrySet()) {
+                    int booked = index.maxBooked(size.getKey(), at);
+                    expected |= size.getKey() >= guests && booked != -1 && booked < size.getValue();
+                }
+                if (free.get(slot) != expected) {
+                    mismatches++;
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    /** The most meals, given by their start minute, in any 15-minute slot of the meal starting at {@code at}. */
+    private static int bruteForce(List<Long> starts, long at) {
+        int max = 0;
+        for (long slot = at; slot < at + 120; slot += 15) {
+            int booked = 0;
+            for (long start : starts) {
+                if (start <= slot && start + 120 > slot) {
+                    booked++;
+                }
+            }
+            max = Math.max(max, booked);
+        }
+        return max;
+    }
+
+    private static long minuteOf(LocalDateTime at) {
+        return at.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static Reservation randomReservation(Random random, LocalDate today) {
+        LocalDateTime at = randomTime(random, today.minusDays(1)).plusDays(random.nextInt(3) == 0 ? 1 : 0);
+        return new Reservation(1 + random.nextInt(500), at.format(SQL_FORMATTER), 2);
+    }
+
+    /** A quarter-hour between 12:00 and 22:00 on one of the next 38 days. */
+    private static LocalDateTime randomTime(Random random, LocalDate today) {
+        return today.plusDays(random.nextInt(38)).atTime(12, 0).plusMinutes(15L * random.nextInt(41));
+    }
+
+    private static int size(Random random) {
+        return SIZES[random.nextInt(SIZES.length)];
+    }
+}
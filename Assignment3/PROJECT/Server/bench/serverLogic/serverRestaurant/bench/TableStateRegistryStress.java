@@ -0,0 +1,107 @@
+package serverLogic.serverRestaurant.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import common.Table;
+import serverLogic.serverRestaurant.TableStateRegistry;
+
+/**
+ * Checks that {@link TableStateRegistry} never gives one table to two parties.
+ * <p>
+ * Several threads seat random parties with {@link TableStateRegistry#claimBestFit(int)}
+ * and free the tables again, while one more thread keeps resizing tables as a manager
+ * would. Every seated table is marked in a shared array; finding the mark already set
+ * means a table was handed out twice. At the end every table is free, so the occupied
+ * capacity must be 0 and the free list must hold every table with its final capacity.
+ * The output is the seating rate and the number of errors, which must be 0.
+ * </p>
+ * Usage: {@code java serverLogic.serverRestaurant.bench.TableStateRegistryStress [threads] [seatingsPerThread] [tables]}
+ * (default 8 threads, 500000 seatings each, 40 tables).
+ */
+public class TableStateRegistryStress {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        int tableCount = args.length > 2 ? Integer.parseInt(args[2]) : 40;
+
+        TableStateRegistry registry = new TableStateRegistry();
+        List<Table> tables = new ArrayList<>();
+        for (int id = 1; id <= tableCount; id++) {
+            tables.add(new Table(id, 2 + 2 * (id % 4), true));
+        }
+        registry.load(tables);
+
+        AtomicIntegerArray seated = new AtomicIntegerArray(tableCount + 1);
+        AtomicLong errors = new AtomicLong();
+        AtomicLong seatings = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    int guests = 1 + random.nextInt(8);
+                    int tableId = registry.claimBestFit(guests);
+                    if (tableId == -1) {
+                        continue;
+                    }
+                    seatings.incrementAndGet();
+                    if (!seated.compareAndSet(tableId, 0, 1)) {
+                        errors.incrementAndGet();
+                    }
+                    seated.set(tableId, 0);
+                    registry.release(tableId);
+                }
+            });
+            workers[t].start();
+        }
+        Thread manager = new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (!Thread.currentThread().isInterrupted()) {
+                registry.updateCapacity(1 + random.nextInt(tableCount), 2 + 2 * random.nextInt(4));
+                Thread.onSpinWait();
+            }
+        });
+
+        long begin = System.nanoTime();
+        start.countDown();
+        manager.start();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        manager.interrupt();
+        manager.join();
+
+        int expectedTotal = 0;
+        for (int id = 1; id <= tableCount; id++) {
+            expectedTotal += registry.capacityOf(id);
+        }
+        List<Integer> free = registry.freeCapacities();
+        int freeTotal = 0;
+        for (int capacity : free) {
+            freeTotal += capacity;
+        }
+        boolean consistent = registry.occupiedCapacity() == 0 && registry.totalCapacity() == expectedTotal
+                && free.size() == tableCount && freeTotal == expectedTotal;
+
+        System.out.printf("threads=%d tables=%d seatings=%d time=%.1f ms rate=%.2f M seatings/s%n",
+                threads, tableCount, seatings.get(), elapsed / 1e6, seatings.get() / (elapsed / 1e3));
+        System.out.printf("doubleSeatings=%d consistent=%b total=%d occupied=%d freeTables=%d%n",
+                errors.get(), consistent, registry.totalCapacity(), registry.occupiedCapacity(), free.size());
+        if (errors.get() != 0 || !consistent) {
+            System.exit(1);
+        }
+    }
+}
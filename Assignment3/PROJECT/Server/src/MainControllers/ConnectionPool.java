@@ -0,0 +1,393 @@
+package MainControllers;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.Consumer;
+
+/**
+ * A bounded pool of JDBC connections to the Bistro database.
+ * <p>
+ * At most {@code maxSize} physical connections are open at once. They are created on demand,
+ * and a borrower that finds all of them in use waits up to {@code borrowTimeoutMillis} for one
+ * to be returned before failing with a {@link SQLTimeoutException}. Returned connections are
+ * reused most-recently-returned first, so a quiet server keeps using a few warm sessions.
+ * </p>
+ * <p>
+ * <b>Validation:</b> a connection that has been idle longer than
+ * {@link #VALIDATION_BYPASS_MILLIS} is checked with {@link Connection#isValid(int)} when it is
+ * borrowed; a dead one (for example after MySQL's {@code wait_timeout}) is closed and another is
+ * used or created in its place. Connections returned moments ago are handed out without the
+ * extra round trip.
+ * </p>
+ * <p>
+ * <b>Leak detection:</b> every lease remembers the borrowing thread. A background check
+ * reports, once, each lease held longer than {@code leakThresholdMillis}, and reports it again
+ * if it is eventually returned. Capturing the call site costs a stack walk on every borrow, so
+ * it is only recorded when the server runs with {@code -Dbistro.pool.leakTracking=true}.
+ * </p>
+ * <p>
+ * <b>Returning:</b> a connection left in manual-commit mode is rolled back and put back in
+ * auto-commit mode, so an unfinished transaction never leaks into the next borrower's work.
+ * </p>
+ */
+public class ConnectionPool {
+
+    /** Idle time, in milliseconds, below which a connection is reused without validation. */
+    public static final long VALIDATION_BYPASS_MILLIS = 1000;
+
+    /** Time allowed to {@link Connection#isValid(int)}, in seconds. */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    /** Number of call-site frames printed in a leak report. */
+    private static final int LEAK_REPORT_FRAMES = 6;
+
+    /** Whether each lease records the borrower's call site for the leak reports. */
+    private static final boolean LEAK_TRACKING = Boolean.getBoolean("bistro.pool.leakTracking");
+
+    /**
+     * Opens a new physical connection for the pool.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        /**
+         * @return a new open connection.
+         * @throws SQLException if the database cannot be reached.
+         */
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final Consumer<String> reporter;
+
+    /** One permit per connection that may still be handed out. */
+    private final Semaphore permits;
+
+    /** Connections waiting to be borrowed, most recently returned first. */
+    private final LinkedBlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+
+    /** Connections currently borrowed, with their lease. */
+    private final Map<Connection, Lease> leases = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService leakChecker;
+    private volatile boolean closed = false;
+
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leaksReported = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates an empty pool; connections are opened by the first borrowers.
+     *
+     * @param factory             opens the physical connections.
+     * @param maxSize             the maximum number of open connections.
+     * @param borrowTimeoutMillis how long a borrower waits when every connection is in use.
+     * @param leakThresholdMillis how long a connection may be held before it is reported.
+     * @param reporter            receives the leak reports.
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long borrowTimeoutMillis,
+            long leakThresholdMillis, Consumer<String> reporter) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.reporter = reporter;
+        this.permits = new Semaphore(maxSize, true);
+
+        leakChecker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "ConnectionPool leak checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, leakThresholdMillis / 2);
+        leakChecker.scheduleWithFixedDelay(this::checkLeaks, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting if all of them are in use.
+     * The connection must be handed back with {@link #release(Connection)}.
+     *
+     * @return a valid connection in auto-commit mode.
+     * @throws SQLTimeoutException if none became available in time.
+     * @throws SQLException        if the pool is closed or a connection cannot be opened.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulate(waited);
+
+        if (!acquired) {
+            timeouts.incrementAndGet();
+            throw new SQLTimeoutException("No database connection available after "
+                    + borrowTimeoutMillis + " ms (" + leases.size() + " of " + maxSize + " in use)");
+        }
+
+        try {
+            Connection conn = takeValidIdle();
+            if (conn == null) {
+                conn = factory.create();
+                created.incrementAndGet();
+            }
+            leases.put(conn, new Lease());
+            borrows.incrementAndGet();
+            return conn;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool. Uncommitted work is rolled back.
+     * Connections that are broken, or returned after the pool was closed, are closed instead.
+     * Returning a connection that is not borrowed has no effect.
+     *
+     * @param conn the connection obtained from {@link #borrow()}.
+     */
+    public void release(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        Lease lease = leases.remove(conn);
+        if (lease == null) {
+            return;
+        }
+
+        try {
+            if (lease.leakReported) {
+                reporter.accept("[DB POOL] Leaked connection returned by " + lease.thread
+                        + " after " + (System.currentTimeMillis() - lease.borrowedAt) + " ms");
+            }
+            if (closed || conn.isClosed()) {
+                closeQuietly(conn);
+                return;
+            }
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+            idle.offerFirst(new IdleConnection(conn));
+        } catch (SQLException e) {
+            closeQuietly(conn);
+        } finally {
+            permits.release();
+        }
+        // close() may have drained the idle connections meanwhile
+        if (closed) {
+            closeIdle();
+        }
+    }
+
+    /**
+     * Closes the idle connections and stops the leak check. Connections still borrowed are
+     * closed when they are returned.
+     */
+    public void close() {
+        closed = true;
+        leakChecker.shutdownNow();
+        closeIdle();
+    }
+
+    /**
+     * @return a snapshot of the pool's metrics.
+     */
+    public Stats getStats() {
+        long borrowCount = borrows.get() + timeouts.get();
+        return new Stats(maxSize, leases.size(), idle.size(), borrows.get(), timeouts.get(),
+                created.get(), validationFailures.get(), leaksReported.get(),
+                borrowCount == 0 ? 0 : totalWaitNanos.get() / 1000.0 / borrowCount,
+                maxWaitNanos.get() / 1000.0);
+    }
+
+    /**
+     * Takes the most recently returned idle connection that is still usable, closing the
+     * dead ones found on the way.
+     */
+    private Connection takeValidIdle() {
+        IdleConnection candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            if (System.currentTimeMillis() - candidate.returnedAt < VALIDATION_BYPASS_MILLIS) {
+                return candidate.connection;
+            }
+            try {
+                if (candidate.connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    return candidate.connection;
+                }
+            } catch (SQLException e) {
+                // Treated as invalid below
+            }
+            validationFailures.incrementAndGet();
+            closeQuietly(candidate.connection);
+        }
+        return null;
+    }
+
+    /**
+     * Reports, once per lease, the connections held longer than the leak threshold.
+     */
+    private void checkLeaks() {
+        long now = System.currentTimeMillis();
+        for (Lease lease : leases.values()) {
+            if (!lease.leakReported && now - lease.borrowedAt > leakThresholdMillis) {
+                lease.leakReported = true;
+                leaksReported.incrementAndGet();
+                reporter.accept("[DB POOL] Possible connection leak: held by " + lease.thread
+                        + " for " + (now - lease.borrowedAt) + " ms, borrowed at"
+                        + lease.callSite());
+            }
+        }
+    }
+
+    private void closeIdle() {
+        IdleConnection candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            closeQuietly(candidate.connection);
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            // The connection is discarded either way
+        }
+    }
+
+    /** A connection waiting in the pool, with the time it was returned. */
+    private static class IdleConnection {
+        final Connection connection;
+        final long returnedAt = System.currentTimeMillis();
+
+        IdleConnection(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    /** Who borrowed a connection, when, and from where. */
+    private static class Lease {
+        final String thread = Thread.currentThread().getName();
+        final long borrowedAt = System.currentTimeMillis();
+        final Throwable site = LEAK_TRACKING ? new Throwable() : null;
+        volatile boolean leakReported = false;
+
+        /** @return the first frames of the borrower's stack outside of the pool. */
+        String callSite() {
+            if (site == null) {
+                return " an unknown site (run with -Dbistro.pool.leakTracking=true to record it)";
+            }
+            StringBuilder sb = new StringBuilder();
+            int printed = 0;
+            for (StackTraceElement frame : site.getStackTrace()) {
+                String cls = frame.getClassName();
+                if (cls.startsWith(ConnectionPool.class.getName())
+                        || cls.equals(DBController.class.getName())) {
+                    continue;
+                }
+                sb.append("\n    at ").append(frame);
+                if (++printed == LEAK_REPORT_FRAMES) {
+                    break;
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * A snapshot of the pool's metrics.
+     */
+    public static class Stats {
+        private final int maxSize;
+        private final int active;
+        private final int idle;
+        private final long borrows;
+        private final long timeouts;
+        private final long created;
+        private final long validationFailures;
+        private final long leaks;
+        private final double averageWaitMicros;
+        private final double maxWaitMicros;
+
+        Stats(int maxSize, int active, int idle, long borrows, long timeouts, long created,
+                long validationFailures, long leaks, double averageWaitMicros, double maxWaitMicros) {
+            this.maxSize = maxSize;
+            this.active = active;
+            this.idle = idle;
+            this.borrows = borrows;
+            this.timeouts = timeouts;
+            this.created = created;
+            this.validationFailures = validationFailures;
+            this.leaks = leaks;
+            this.averageWaitMicros = averageWaitMicros;
+            this.maxWaitMicros = maxWaitMicros;
+        }
+
+        /** @return the maximum number of open connections. */
+        public int getMaxSize() { return maxSize; }
+
+        /** @return the number of connections currently borrowed. */
+        public int getActive() { return active; }
+
+        /** @return the number of open connections waiting to be borrowed. */
+        public int getIdle() { return idle; }
+
+        /** @return the number of successful borrows. */
+        public long getBorrows() { return borrows; }
+
+        /** @return the number of borrows that gave up waiting. */
+        public long getTimeouts() { return timeouts; }
+
+        /** @return the number of physical connections opened. */
+        public long getCreated() { return created; }
+
+        /** @return the number of idle connections found dead and closed. */
+        public long getValidationFailures() { return validationFailures; }
+
+        /** @return the number of leases reported as possible leaks. */
+        public long getLeaks() { return leaks; }
+
+        /** @return the average time spent waiting for a connection, in microseconds. */
+        public double getAverageWaitMicros() { return averageWaitMicros; }
+
+        /** @return the longest time spent waiting for a connection, in microseconds. */
+        public double getMaxWaitMicros() { return maxWaitMicros; }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d idle=%d max=%d borrows=%d timeouts=%d created=%d "
+                    + "invalid=%d leaks=%d wait-avg=%.1fus wait-max=%.1fus", active, idle, maxSize,
+                    borrows, timeouts, created, validationFailures, leaks, averageWaitMicros,
+                    maxWaitMicros);
+        }
+    }
+}
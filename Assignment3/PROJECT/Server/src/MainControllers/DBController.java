@@ -3,14 +3,23 @@ package MainControllers;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * The DBController class serves as the central database manager for the server-side application.
  * It encapsulates the JDBC connection logic and provides a unified gateway to the 
  * MySQL database.
  * * <p>Design Pattern: <b>Singleton</b>.
- * This ensures that only one database connection instance exists across the entire 
- * server application, preventing resource exhaustion and maintaining data consistency.</p>
+ * This ensures that a single, bounded {@link ConnectionPool} serves the entire server
+ * application, preventing resource exhaustion.</p>
+ * <p><b>Thread-bound connections:</b> {@link #getConnection()} lends each thread its own pooled
+ * connection and keeps returning that same connection until the thread calls
+ * {@link #releaseConnection()}. Concurrent requests therefore run on separate MySQL sessions,
+ * while the DAO methods called by one request still share one session, as they did when the
+ * server had a single connection. Every thread that touches the database (request workers,
+ * the automation thread, the schedulers) releases its connection when its unit of work ends.</p>
  * * @author Software Engineering Student
  * @version 1.0
  */
@@ -20,9 +29,64 @@ public class DBController {
      */
     private static DBController instance;
     
-    /** * The persistent JDBC {@link Connection} object used for all SQL operations.
+    /**
+     * Default number of pooled connections: one per request worker of {@code ServerController},
+     * plus the automation thread and the two no-show schedulers.
+     * Overridden with {@code -Dbistro.dbPoolSize}.
+     */
+    private static final int DEFAULT_POOL_SIZE = 11;
+
+    /** How long a thread waits for a free connection before its request fails, in milliseconds. */
+    private static final long BORROW_TIMEOUT_MILLIS = 5000;
+
+    /** How long a connection may stay borrowed before it is reported as a leak, in milliseconds. */
+    private static final long LEAK_THRESHOLD_MILLIS = 30000;
+
+    /**
+     * Default number of prepared statements kept open per pooled connection. The server uses
+     * about 90 distinct statements, of which the request paths repeat a few dozen.
+     * Overridden with {@code -Dbistro.statementCacheSize}, where 0 disables the cache.
+     */
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    /** Caches the prepared statements of every pooled connection. */
+    private volatile StatementCache statementCache;
+
+    /** * The pool providing the JDBC {@link Connection} objects used for all SQL operations.
      */
-    private Connection conn;
+    private volatile ConnectionPool pool;
+
+    /** The connection lent to each thread, until it calls {@link #releaseConnection()}. */
+    private final ThreadLocal<Connection> boundConnection = new ThreadLocal<>();
+
+    /** How many times a unit of work runs before a deadlock is reported to the caller. */
+    private static final int MAX_TRANSACTION_ATTEMPTS = 3;
+
+    /** Base pause before running a unit of work again after a deadlock, in milliseconds. */
+    private static final long DEADLOCK_BACKOFF_MILLIS = 20;
+
+    /** MySQL error code of a lock wait that exceeded {@code innodb_lock_wait_timeout}. */
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+
+    /** MySQL error code of a deadlock detected by InnoDB. */
+    private static final int MYSQL_DEADLOCK = 1213;
+
+    /**
+     * A unit of work executed by {@link #inTransaction(TransactionWork)}.
+     *
+     * @param <T> The type of the work's result.
+     */
+    @FunctionalInterface
+    public interface TransactionWork<T> {
+        /**
+         * Runs the statements of the unit of work.
+         *
+         * @param conn The connection of the transaction; do not commit, roll back or close it.
+         * @return The result handed back to the caller of {@code inTransaction}.
+         * @throws SQLException To roll the whole unit of work back.
+         */
+        T run(Connection conn) throws SQLException;
+    }
     
     /**
      * Returns the single, shared instance of the {@code DBController}.
@@ -34,7 +98,7 @@ public class DBController {
      *
      * @return The singleton instance of {@code DBController}.
      */
-    public static DBController getInstance() {
+    public static synchronized DBController getInstance() {
         if (instance == null) {
             instance = new DBController();
         }
@@ -53,9 +117,9 @@ public class DBController {
      * </p>
      * * @throws SQLException if the connection attempt fails or the driver is not found.
      */
-    public void connectToDB() throws SQLException {
-        // Prevent re-connecting if an active connection already exists
-        if (conn != null) {
+    public synchronized void connectToDB() throws SQLException {
+        // Prevent re-connecting if an active pool already exists
+        if (pool != null) {
             return; 
         }
 
@@ -71,6 +135,8 @@ public class DBController {
          * <li><b>Timezone:</b> Set to {@code Asia/Jerusalem} to ensure consistency between 
          * application logic and stored timestamps.</li>
          * <li><b>Local Infile:</b> Enabled to allow bulk data loading.</li>
+         * <li><b>Server-side prepares:</b> Enabled, so that a statement kept in the
+         * {@link StatementCache} is parsed by MySQL once per connection.</li>
          * <li><b>Security:</b> SSL is disabled for the local environment, and public key 
          * retrieval is permitted.</li>
          * </ul>
@@ -78,45 +144,205 @@ public class DBController {
          * @throws SQLException If the connection fails due to invalid credentials, 
          * network issues, or database unavailability.
          */
-        conn = DriverManager.getConnection(
-            "jdbc:mysql://localhost:3306/prototypedb?allowLoadLocalInfile=true&serverTimezone=Asia/Jerusalem&useSSL=false&allowPublicKeyRetrieval=true",
+        StatementCache newCache = new StatementCache(
+                Integer.getInteger("bistro.statementCacheSize", DEFAULT_STATEMENT_CACHE_SIZE));
+        ConnectionPool newPool = new ConnectionPool(() -> newCache.wrap(DriverManager.getConnection(
+            "jdbc:mysql://localhost:3306/prototypedb?allowLoadLocalInfile=true&serverTimezone=Asia/Jerusalem&useSSL=false&allowPublicKeyRetrieval=true&useServerPrepStmts=true",
             "root",
             "Eden2701@"
 
-        );}
+        )), Integer.getInteger("bistro.dbPoolSize", DEFAULT_POOL_SIZE),
+            BORROW_TIMEOUT_MILLIS, LEAK_THRESHOLD_MILLIS, ServerController::log);
+
+        // Open the first connection now, so that a database failure is reported at startup
+        try {
+            newPool.release(newPool.borrow());
+        } catch (SQLException e) {
+            newPool.close();
+            throw e;
+        }
+        statementCache = newCache;
+        pool = newPool;
+    }
 
     
     /**
-     * Provides access to the current database connection object.
+     * Provides access to the database connection of the calling thread.
      * <p>
-     * This method returns the active {@code Connection} instance managed by the 
-     * {@code DBController}. It is essential for creating {@code PreparedStatement} 
-     * or {@code Statement} objects in other parts of the application.
+     * This method returns the pooled {@code Connection} lent to the current thread, borrowing
+     * one on the first call. It is essential for creating {@code PreparedStatement} 
+     * or {@code Statement} objects in other parts of the application. Callers must not close
+     * it: the thread's unit of work returns it with {@link #releaseConnection()}.
      * </p>
      *
-     * @return The current {@link Connection} instance; may be {@code null} if 
-     * {@link #connectToDB()} has not been successfully called yet.
+     * @return The thread's {@link Connection} instance; {@code null} if 
+     * {@link #connectToDB()} has not been successfully called yet, or if no connection
+     * became available in time (the reason is logged).
      */
     public Connection getConnection() {
+        Connection conn = boundConnection.get();
+        if (conn != null) {
+            return conn;
+        }
+        ConnectionPool current = pool;
+        if (current == null) {
+            return null;
+        }
+        try {
+            conn = current.borrow();
+        } catch (SQLTimeoutException e) {
+            ServerController.log("[DB POOL] " + e.getMessage() + " - " + current.getStats());
+            return null;
+        } catch (SQLException e) {
+            ServerController.log("[DB POOL] Could not obtain a connection: " + e.getMessage());
+            return null;
+        }
+        boundConnection.set(conn);
         return conn;
     }
+
+    /**
+     * Returns the connection lent to the calling thread to the pool.
+     * <p>
+     * Called when a unit of work ends: after each client request, automation cycle and
+     * scheduled task. Work that was not committed is rolled back. If the thread holds no
+     * connection, this call has no effect.
+     * </p>
+     */
+    public void releaseConnection() {
+        Connection conn = boundConnection.get();
+        if (conn == null) {
+            return;
+        }
+        boundConnection.remove();
+        ConnectionPool current = pool;
+        if (current != null) {
+            current.release(conn);
+        } else {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                // The pool is gone; the connection is discarded either way
+            }
+        }
+    }
+
+    /**
+     * Runs a unit of work as one database transaction.
+     * <p>
+     * The work runs on the calling thread's own pooled connection (see
+     * {@link #getConnection()}), so DAO methods it calls join the same transaction, and no
+     * other thread's statements can join or break it. It is committed when the work returns
+     * and rolled back when it throws. Calling {@code inTransaction} from inside a transaction
+     * simply joins the outer one.
+     * </p>
+     * <p>
+     * When InnoDB aborts the transaction because of a deadlock or a lock wait timeout, the
+     * work is rolled back and run again, up to {@value #MAX_TRANSACTION_ATTEMPTS} times in
+     * all, after a short randomized pause. The work may therefore run more than once: it must
+     * only change the database, and leave notifications and cache refreshes to its caller,
+     * after {@code inTransaction} has returned.
+     * </p>
+     *
+     * @param <T>  The type of the work's result.
+     * @param work The statements to run atomically.
+     * @return The value returned by the committed run of the work.
+     * @throws SQLException If the work failed, or deadlocked on every attempt; the changes
+     *                      were rolled back.
+     */
+    public <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        Connection conn = getConnection();
+        if (conn == null) {
+            throw new SQLException("No database connection available");
+        }
+        if (!conn.getAutoCommit()) {
+            return work.run(conn); // nested: the outer transaction commits
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            conn.setAutoCommit(false);
+            try {
+                T result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException e) {
+                conn.rollback();
+                if (!isDeadlock(e) || attempt == MAX_TRANSACTION_ATTEMPTS) {
+                    throw e;
+                }
+                ServerController.log("[DB] " + e.getMessage() + " - retrying transaction (attempt "
+                        + (attempt + 1) + " of " + MAX_TRANSACTION_ATTEMPTS + ")");
+            } catch (RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            try {
+                // Randomized so that the two victims of a deadlock do not collide again
+                Thread.sleep(DEADLOCK_BACKOFF_MILLIS * attempt
+                        + ThreadLocalRandom.current().nextLong(DEADLOCK_BACKOFF_MILLIS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted before retrying a transaction", e);
+            }
+        }
+    }
+
+    /**
+     * Tells whether a failure aborted the transaction because of lock contention, in which
+     * case running it again is expected to succeed.
+     *
+     * @param e The failure.
+     * @return {@code true} for deadlocks and lock wait timeouts.
+     */
+    private static boolean isDeadlock(SQLException e) {
+        return e instanceof SQLTransactionRollbackException
+                || "40001".equals(e.getSQLState())
+                || e.getErrorCode() == MYSQL_DEADLOCK
+                || e.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT;
+    }
+
+    /**
+     * Returns the metrics of the connection pool.
+     *
+     * @return a snapshot of the pool metrics, or {@code null} if not connected.
+     */
+    public ConnectionPool.Stats getPoolStats() {
+        ConnectionPool current = pool;
+        return current == null ? null : current.getStats();
+    }
+
+    /**
+     * Returns the metrics of the prepared statement cache, summed over all pooled connections.
+     *
+     * @return a snapshot of the cache metrics, or {@code null} if not connected.
+     */
+    public StatementCache.Stats getStatementCacheStats() {
+        StatementCache current = statementCache;
+        return current == null ? null : current.getStats();
+    }
     
     /**
-     * Gracefully terminates the active database connection and releases associated resources.
+     * Gracefully terminates the database connections and releases associated resources.
      * <p>
-     * This method performs a safety check to ensure that the connection instance 
-     * is not {@code null} and has not been closed already. If the connection is active, 
-     * it is closed to free up memory and database-side resources (such as active locks).
+     * This method performs a safety check to ensure that the pool exists. If it does, its idle
+     * connections are closed to free up memory and database-side resources (such as active
+     * locks); connections still in use are closed as soon as they are released.
+     * A later {@link #connectToDB()} opens a new pool.
      * </p>
      *
      * @throws SQLException If a database access error occurs while attempting to close 
      * the connection.
      */
-    public void closeConnection() throws SQLException {
-        // Verify that the connection exists and is still open before attempting to close
-        if (conn != null && !conn.isClosed()) {
-            conn.close();
-            System.out.println("SQL connection closed successfully.");
+    public synchronized void closeConnection() throws SQLException {
+        // Verify that the pool exists before attempting to close
+        if (pool != null) {
+            releaseConnection();
+            pool.close();
+            pool = null;
+            statementCache = null;
+            System.out.println("SQL connection pool closed successfully.");
         }
     }
 }
\ No newline at end of file
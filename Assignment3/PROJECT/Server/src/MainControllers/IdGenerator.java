@@ -0,0 +1,118 @@
+package MainControllers;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out unique, increasing {@code long} IDs without locking.
+ * <p>
+ * An ID is laid out, from the high bits down, as
+ * {@code [ticks since 2025-01-01][node id][sequence]}. The node id comes from
+ * {@code -Dbistro.nodeId} (default 0), so two servers writing to the same database
+ * never issue the same ID as long as they are started with different node ids.
+ * </p>
+ * <p>
+ * <b>Lock-free:</b> the last issued {@code [tick][sequence]} pair is kept in one
+ * {@link AtomicLong}. Each call proposes {@code max(last + 1, now << sequenceBits)}
+ * and publishes it with a compare-and-set, retrying only when another thread won
+ * the race. When a tick's sequence is used up the sequence carries into the tick,
+ * i.e. the generator borrows from the next tick instead of waiting, and a clock
+ * that steps backwards never makes an ID repeat. Borrowing ahead is the one case
+ * a restart cannot protect against: a server that issued more than
+ * {@code 2^sequenceBits} IDs per tick for a while should not be restarted within
+ * that lead.
+ * </p>
+ * <p>
+ * {@link #confirmationCodes()} is shared by the waiting list and the terminal,
+ * {@link #subscriberIds()} by subscriber registration. Reservation codes still
+ * come from the {@code AUTO_INCREMENT} column; generated codes start around
+ * {@code 10^14}, far above anything the column will reach.
+ * </p>
+ */
+public class IdGenerator {
+
+    /** 2025-01-01T00:00:00Z. */
+    private static final long EPOCH_MILLIS = 1_735_689_600_000L;
+
+    /** Node ids take 4 bits: up to 16 servers per database. */
+    public static final int NODE_BITS = 4;
+
+    private static final int NODE_ID = nodeIdFromSystemProperty();
+
+    private static final IdGenerator CONFIRMATION_CODES = new IdGenerator(1, NODE_ID, NODE_BITS, 10);
+    private static final IdGenerator SUBSCRIBER_IDS = new IdGenerator(1000, NODE_ID, NODE_BITS, 4);
+
+    private final long tickMillis;
+    private final long nodePart;
+    private final int sequenceBits;
+    private final int nodeAndSequenceBits;
+    private final long sequenceMask;
+
+    /** The last issued {@code (tick << sequenceBits) | sequence}. */
+    private final AtomicLong last = new AtomicLong();
+
+    /**
+     * @param tickMillis   the length of one tick in milliseconds.
+     * @param nodeId       this server's node id, {@code 0 <= nodeId < 2^nodeBits}.
+     * @param nodeBits     the number of bits given to the node id.
+     * @param sequenceBits the number of bits given to the per-tick sequence.
+     */
+    public IdGenerator(long tickMillis, int nodeId, int nodeBits, int sequenceBits) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        if (nodeBits < 0 || sequenceBits < 0 || nodeBits + sequenceBits > 22) {
+            throw new IllegalArgumentException("nodeBits + sequenceBits must be between 0 and 22");
+        }
+        if (nodeId < 0 || nodeId >= (1 << nodeBits)) {
+            throw new IllegalArgumentException("nodeId must be between 0 and " + ((1 << nodeBits) - 1));
+        }
+        this.tickMillis = tickMillis;
+        this.nodePart = (long) nodeId << sequenceBits;
+        this.sequenceBits = sequenceBits;
+        this.nodeAndSequenceBits = nodeBits + sequenceBits;
+        this.sequenceMask = (1L << sequenceBits) - 1;
+    }
+
+    /**
+     * @return the generator for waiting-list and visit confirmation codes:
+     *         1 ms ticks and 1024 codes per tick, about 15 digits.
+     */
+    public static IdGenerator confirmationCodes() {
+        return CONFIRMATION_CODES;
+    }
+
+    /**
+     * @return the generator for subscriber IDs, which subscribers type in to log in:
+     *         1 s ticks and 16 IDs per tick, about 11 digits.
+     */
+    public static IdGenerator subscriberIds() {
+        return SUBSCRIBER_IDS;
+    }
+
+    /**
+     * @return a new ID, greater than every ID this generator returned before.
+     */
+    public long next() {
+        long floor = currentTick() << sequenceBits;
+        while (true) {
+            long previous = last.get();
+            long candidate = Math.max(previous + 1, floor);
+            if (last.compareAndSet(previous, candidate)) {
+                long tick = candidate >>> sequenceBits;
+                return (tick << nodeAndSequenceBits) | nodePart | (candidate & sequenceMask);
+            }
+        }
+    }
+
+    private long currentTick() {
+        return (System.currentTimeMillis() - EPOCH_MILLIS) / tickMillis;
+    }
+
+    private static int nodeIdFromSystemProperty() {
+        int nodeId = Integer.getInteger("bistro.nodeId", 0);
+        if (nodeId < 0 || nodeId >= (1 << NODE_BITS)) {
+            throw new IllegalArgumentException("bistro.nodeId must be between 0 and " + ((1 << NODE_BITS) - 1));
+        }
+        return nodeId;
+    }
+}
@@ -1,6 +1,7 @@
 package MainControllers; // Define the package for main system controllers
 
 import java.io.IOException; // Import for handling network input/output errors
+import java.net.UnixDomainSocketAddress; // Import for the socket of the kiosks on this host
 import java.sql.SQLException; // Import for handling database-related exceptions
 import java.time.LocalDate; // Import for modern date management
 
@@ -13,12 +14,18 @@ import serverLogic.managmentLogic.UpdateHoursHandler; // Import handler for regu
 import serverLogic.managmentLogic.UpdateSpecialHoursHandler; // Import handler for special hours updates
 import serverLogic.menuLogic.*; // Import all menu-related logic handlers
 import serverLogic.serverRestaurant.RestaurantManager; // Import the RAM-based restaurant manager
+import serverLogic.terminal.ArrivalStatusNotifier;
 import serverLogic.terminal.JoinWaitingListHandler;
 
 import java.util.ArrayList; // Import for dynamic list structures
+import java.util.Arrays; // Import for building constant command sets
+import java.util.HashSet; // Import for constant command sets
 import java.util.List; // Import for generic list interfaces
 import java.util.Map; // Import for key-value pair mapping
+import java.util.Set; // Import for constant command sets
+import java.util.concurrent.locks.ReentrantLock; // Import for serializing seating writers
 
+import common.BistroBinaryCodec; // Import the compact codec for hot commands
 import common.Bill; // Import the Bill entity
 import common.Restaurant; // Import the Restaurant entity
 import common.ServerIF; // Import the interface for server-side UI logging
@@ -26,8 +33,11 @@ import common.ServiceResponse; // Import the standard response wrapper
 import common.ServiceResponse.ServiceStatus;
 import common.TimeRange; // Import the time range domain object
 import common.Visit;
+import ocsf.common.PayloadCompressor; // Import OCSF reply compression and its statistics
+import ocsf.common.TransportOptions; // Import OCSF socket and stream tuning
 import ocsf.server.AbstractServer; // Import OCSF base server class
 import ocsf.server.ConnectionToClient; // Import OCSF client connection handle
+import ocsf.server.RequestDispatcher; // Import OCSF key-ordered request dispatcher
 import serverLogic.serverLogin.OccasionalLoginHandler; // Import guest login logic
 import serverLogic.serverLogin.OccasionalRegistrationHandler; // Import guest registration logic
 import serverLogic.serverLogin.OccasionalRestUsernameHandler; // Import guest username reset logic
@@ -35,6 +45,13 @@ import serverLogic.serverLogin.SubscriberLoginHandler; // Import member login lo
 import dbLogic.managmentDB.*;
 import dbLogic.restaurantDB.*;
 import dbLogic.systemLogin.*;
+import dbLogic.schema.HistoryArchiver; // Import the monthly archival of finished history
+import dbLogic.schema.QueryPlanCheck; // Import the EXPLAIN check of the hot queries
+import dbLogic.schema.SchemaMigrator; // Import the versioned schema migrations
+import dbLogic.repository.Repositories; // Import the storage backend holder
+import dbLogic.repository.Storage; // Import the storage backend interface
+import dbLogic.repository.jdbc.JdbcStorage; // Import the MySQL storage backend
+import dbLogic.repository.memory.MemoryStorage; // Import the in-memory storage backend
 
 import serverLogic.cardReader.CardReaderHandler;
 
@@ -42,16 +59,110 @@ import serverLogic.cardReader.CardReaderHandler;
  * The ServerController class is the central communication hub for the Bistro Server.
  * It manages network lifecycle, database connectivity, and command routing.
  */
-public class ServerController extends AbstractServer { 
+public final class ServerController extends AbstractServer { 
 
     private ServerIF serverUI; 
     
     private static ServerController serverInstance;
 
+    /**
+     * Maximum number of client requests executing at once.
+     * <p>
+     * Each request runs on its own virtual thread, so thousands of connected clients never
+     * need a platform thread each while their handler waits on MySQL; this limit keeps the
+     * handlers within the connection pool of {@code DBController}. With
+     * {@code -Dbistro.workers=platform}, or on a Java runtime older than 21, the requests run
+     * on a fixed pool of this many platform threads instead.
+     * </p>
+     */
+    private static final int WORKER_THREADS = 8;
+
+    /** Maximum number of requests waiting for a worker before client reads are paused. */
+    private static final int MAX_PENDING_REQUESTS = 256;
+
+    /**
+     * Maximum number of replies waiting to be written to one client.
+     * <p>
+     * Replies are queued and written by a per-connection writer, so a handler never waits for
+     * a slow terminal's socket. A client that falls this far behind is disconnected, or its
+     * extra replies are dropped when the server runs with {@code -Dbistro.slowClients=drop}.
+     * </p>
+     */
+    private static final int OUTBOUND_QUEUE_CAPACITY = 128;
+
+    /**
+     * Smallest reply, in encoded bytes, that is compressed for clients that accept compression.
+     * <p>
+     * Bulk lists such as the subscriber list, the reservation and visit histories and the
+     * reports shrink to about a quarter; below this size the time spent deflating exceeds what
+     * a 10 Mbit/s branch link saves (see {@code ocsf.bench.CompressionBenchmark}). Overridden
+     * with {@code -Dbistro.compressionThreshold}, where 0 disables compression.
+     * </p>
+     */
+    private static final int COMPRESSION_THRESHOLD = 1024;
+
+    /**
+     * Lock held by every command that writes seating state, across all clients.
+     * <p>
+     * Each request runs on its own pooled connection of {@code DBController}, so read-only
+     * commands run in parallel on separate MySQL sessions. Writers that touch seating are
+     * still kept strictly serial: they read the free tables or the waiting list and then write
+     * based on what they read, and two of them interleaving could hand out the same table twice.
+     * They are queued by client like any other request, so a client's reads never overtake its
+     * own writes, and take this lock inside {@link #handleMessageFromClient}. The lock is fair,
+     * so writers from different clients run in the order they reached it.
+     * Registrations and opening-hours updates are not listed here; they run in parallel inside
+     * {@code DBController.inTransaction}, whose locking reads make a duplicate phone number or
+     * username wait for the first transaction instead of slipping past its check. The cache
+     * reload that follows an hours update is serialized by {@code RestaurantManager.reInitialize}.
+     * </p>
+     */
+    private static final ReentrantLock SEATING_WRITE_LOCK = new ReentrantLock(true);
+
+    /** Commands whose handlers modify seating state and must not interleave. */
+    private static final Set<String> WRITE_COMMANDS = new HashSet<>(Arrays.asList(
+            "CARD_READER_VERIFY_CODE", "RESET_OCCASIONAL_USERNAME",
+            "UPDATE_TABLE_CAPACITY", "ADD_NEW_TABLE", "DELETE_TABLE", "PROCESS_PAYMENT",
+            "CANCEL_RESERVATION", "CANCEL_WAITING_LIST", "CANCEL_WAITING_LIST_BY_CODE",
+            "UPDATE_SUBSCRIBER_DETAILS", "JOIN_WAITING_LIST", "CREATE_RESERVATION",
+            "PROCESS_TERMINAL_ARRIVAL"));
+
+    /**
+     * Read-only commands whose answer does not depend on the client's other pending requests.
+     * Only these may leave the client's queue when pipelined with a request id.
+     */
+    private static final Set<String> REORDERABLE_COMMANDS = new HashSet<>(Arrays.asList(
+            "GET_VISITS_HISTORY", "GET_ALL_TABLES", "GET_ACTIVE_RESERVATIONS",
+            "GET_ALL_ACTIVE_RESERVATIONS_STAFF", "GET_ALL_SUBSCRIBERS", "GET_RESERVATIONS_HISTORY",
+            "GET_TIME_REPORTS", "GET_SUBSCRIBER_REPORTS", "GET_RESTAURANT_WORKTIMES",
+            "GET_AVAILABILITY_GRID", "GET_ACTIVE_DINERS_LIST", "GET_WAITING_LIST"));
+
     public ServerController(int port, ServerIF serverUI) { 
         super(port); 
         this.serverUI = serverUI;
         serverInstance = this;
+        setDispatcher("platform".equalsIgnoreCase(System.getProperty("bistro.workers"))
+                ? new RequestDispatcher(WORKER_THREADS, MAX_PENDING_REQUESTS)
+                : RequestDispatcher.ofVirtualThreads(WORKER_THREADS, MAX_PENDING_REQUESTS));
+        setMessageCodec(new BistroBinaryCodec()); // accepted from clients that offer it
+        setOutboundQueue(OUTBOUND_QUEUE_CAPACITY,
+                "drop".equalsIgnoreCase(System.getProperty("bistro.slowClients"))
+                        ? SlowClientPolicy.DROP_MESSAGE : SlowClientPolicy.DISCONNECT);
+
+        // Buffered streams reset after every reply: cached objects such as the Restaurant
+        // are modified and sent again, so replies must never refer back to earlier copies.
+        // Replies are small and flushed whole, so Nagle's delay only adds latency.
+        TransportOptions transport = new TransportOptions();
+        transport.setTcpNoDelay(true);
+        setTransportOptions(transport);
+        setCompression(Integer.getInteger("bistro.compressionThreshold", COMPRESSION_THRESHOLD),
+                PayloadCompressor.DEFAULT_LEVEL);
+
+        // The terminal and card reader run on this host: -Dbistro.localSocket=<path> lets them
+        // connect through a Unix-domain socket, alongside the TCP port used by remote clients.
+        String localSocket = System.getProperty("bistro.localSocket");
+        if (localSocket != null && !localSocket.isEmpty())
+            setLocalAddress(UnixDomainSocketAddress.of(localSocket));
     } 
 
     /**
@@ -60,6 +171,8 @@ public class ServerController extends AbstractServer {
      * This method handles the critical startup sequence of the backend system:
      * <ol>
      * <li><b>Database Connectivity:</b> Establishes the initial connection to the MySQL server via {@code DBController}.</li>
+     * <li><b>Schema Migrations:</b> Applies pending {@code SchemaMigrator} migrations, then checks with
+     * {@code QueryPlanCheck} that every hot query can use an index.</li>
      * <li><b>Data Hydration:</b> Loads essential restaurant metadata (Inventory and Hours) into RAM using {@code RestaurantManager}.</li>
      * <li><b>Automation Engine:</b> Launches the background automation thread to monitor business rules (e.g., late arrivals, stay duration).</li>
      * </ol>
@@ -70,17 +183,19 @@ public class ServerController extends AbstractServer {
  @Override 
      protected void serverStarted() { 
          serverUI.appendLog("Server started."); 
+         DBController dbController = DBController.getInstance(); 
          try { 
-             DBController dbController = DBController.getInstance(); 
              dbController.connectToDB(); 
              serverUI.appendLog("Connected to database successfully."); 
+             migrateSchema(dbController.getConnection());
+             selectStorage();
 
              if (RestaurantManager.initialize(1)) { 
                  serverUI.appendLog("Restaurant data initialized in RAM (Inventory & Hours)."); 
              } else { 
                  serverUI.appendLog("Warning: Restaurant data could not be loaded. Check if DB is empty."); 
              } 
-            
+
              // Automation Part
              startAutomationThread();
              serverUI.appendLog("Automation Engine: ACTIVE (Checking late arrivals & stay limits)");
@@ -89,9 +204,61 @@ public class ServerController extends AbstractServer {
          } catch (SQLException e) { 
              serverUI.appendLog("Failed to connect to database: " + e.getMessage()); 
              e.printStackTrace(); 
-         } 
+         } finally {
+             // The listening thread is done with the database, even when a startup step failed
+             dbController.releaseConnection();
+         }
      } 
 
+ /**
+  * Installs the storage backend of the reservation, seating and waiting list records, chosen
+  * with {@code -Dbistro.storage}.
+  * <p>
+  * The in-memory backend starts with a copy of the tables of the database and keeps the new
+  * records in RAM only. Hours, logins, subscribers, management and reports always use MySQL.
+  * </p>
+  *
+  * @throws SQLException If the tables cannot be copied from the database.
+  */
+    private void selectStorage() throws SQLException {
+        Storage storage = Repositories.fromSystemProperty();
+        if (storage instanceof MemoryStorage) {
+            MemoryStorage memory = (MemoryStorage) storage;
+            for (common.Table table : new JdbcStorage().tables().findAll()) {
+                memory.tables().put(table.getTableId(), table.getCapacity(), table.isAvailable());
+            }
+            serverUI.appendLog("Warning: in-memory storage - reservations, seating and the waiting list "
+                    + "are not saved to the database.");
+        }
+        Repositories.use(storage);
+        serverUI.appendLog("Storage backend: " + storage.getName());
+    }
+
+/**
+  * Applies the pending schema migrations and checks the plans of the hot queries.
+  * <p>
+  * A failure here is logged but does not stop the server: the indexes only speed the
+  * queries up, and the server works on the base schema of {@code ProjectDB.sql} as before,
+  * except for the history and reports, which also read the archive tables of migration 6.
+  * </p>
+  *
+  * @param conn The connection of the listening thread, in auto-commit mode.
+  */
+    private void migrateSchema(java.sql.Connection conn) {
+        try {
+            int applied = SchemaMigrator.migrate(conn);
+            serverUI.appendLog("Database schema at version " + SchemaMigrator.latestVersion()
+                    + (applied > 0 ? " (" + applied + " migrations applied)." : "."));
+            List<String> failures = QueryPlanCheck.run(conn);
+            for (String failure : failures) {
+                serverUI.appendLog("Query plan check FAILED - " + failure);
+            }
+        } catch (SQLException e) {
+            serverUI.appendLog("Schema migration failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
  /**
   * Initializes and starts a background daemon thread responsible for periodic system maintenance.
   * <p>
@@ -103,6 +270,10 @@ public class ServerController extends AbstractServer {
   * waiting list updates.</li>
   * <li><b>Stay Monitoring:</b> Updates status for tables that have exceeded the 
   * maximum stay duration (e.g., 120 minutes).</li>
+  * <li><b>History Archival:</b> Once a day, moves the finished rows of past months to the
+  * archive tables ({@code HistoryArchiver}).</li>
+  * <li><b>Booking Horizon:</b> After midnight, moves the in-memory occupancy index of the
+  * reservations on by a day ({@code ReservationOccupancyIndex}).</li>
   * </ol>
   * The thread is marked as a <b>daemon</b>, ensuring it terminates automatically 
   * when the main server process is shut down.
@@ -123,12 +294,20 @@ public class ServerController extends AbstractServer {
                     
                     // >120?
                     UpdateManagementDBController.checkStayDurationAlerts();
+
+                    HistoryArchiver.archiveIfDue();
+
+                    // At midnight, the booking horizon moves on by a day
+                    RestaurantManager.occupancy().advanceTo(LocalDate.now());
                     
                 } catch (InterruptedException e) {
                     serverUI.appendLog("Automation thread stopped.");
                     break; 
                 } catch (Exception e) {
                     serverUI.appendLog("Automation Error: " + e.getMessage());
+                } finally {
+                    // The pooled connection is not kept through the minute of sleep
+                    DBController.getInstance().releaseConnection();
                 }
             }
         });
@@ -151,6 +330,22 @@ public class ServerController extends AbstractServer {
     @Override 
     protected void serverStopped() { 
         serverUI.appendLog("Server has stopped."); 
+        for (RequestDispatcher.CommandStats stats : getDispatcher().getCommandStats().values()) {
+            serverUI.appendLog("Dispatcher " + stats);
+        }
+        if (getCompressor() != null) {
+            for (PayloadCompressor.CommandStats stats : getCompressor().getCommandStats().values()) {
+                serverUI.appendLog("Compression " + stats);
+            }
+        }
+        ConnectionPool.Stats poolStats = DBController.getInstance().getPoolStats();
+        if (poolStats != null) {
+            serverUI.appendLog("DB pool " + poolStats);
+        }
+        StatementCache.Stats cacheStats = DBController.getInstance().getStatementCacheStats();
+        if (cacheStats != null) {
+            serverUI.appendLog("Statement cache " + cacheStats);
+        }
         try { 
             DBController.getInstance().closeConnection(); 
             serverUI.appendLog("Database connection closed."); 
@@ -184,7 +379,9 @@ public class ServerController extends AbstractServer {
      * This method is triggered automatically by the server framework whenever a 
      * connection is closed, whether intentionally by the client or due to a 
      * network timeout. It logs the event to the {@code serverUI}, providing the 
-     * administrator with information about which client instance has left the session.
+     * administrator with information about which client instance has left the session
+     * and how far behind its outbound queue got, and drops the arrival status
+     * subscriptions of a terminal that went away.
      * </p>
      *
      * @param client The {@code ConnectionToClient} object representing the 
@@ -192,7 +389,27 @@ public class ServerController extends AbstractServer {
      */
     @Override 
     protected void clientDisconnected(ConnectionToClient client) { 
-        serverUI.appendLog("Client disconnected: " + client); 
+        ArrivalStatusNotifier.unsubscribeAll(client);
+        serverUI.appendLog("Client disconnected: " + client
+                + " (peak outbound queue " + client.getPeakOutboundQueueDepth()
+                + ", dropped replies " + client.getDroppedMessageCount() + ")"); 
+    }
+
+    /**
+     * Hook method called when the connection of a client fails, e.g. when a terminal
+     * loses its network link.
+     * <p>
+     * The framework closes such a connection without calling {@link #clientDisconnected},
+     * so the arrival status subscriptions of the terminal are dropped here.
+     * </p>
+     *
+     * @param client    The connection that failed.
+     * @param exception The exception that ended it.
+     */
+    @Override
+    protected void clientException(ConnectionToClient client, Throwable exception) {
+        ArrivalStatusNotifier.unsubscribeAll(client);
+        serverUI.appendLog("Client connection lost: " + client + " (" + exception + ")");
     }
     
     
@@ -214,6 +431,73 @@ public class ServerController extends AbstractServer {
         }
     }
 
+    /**
+     * Chooses the ordering key under which the dispatcher executes a request.
+     * <p>
+     * Requests with equal keys run one after the other in arrival order; requests with
+     * different keys run concurrently on the worker pool:
+     * <ul>
+     * <li><b>Pipelined reads:</b> a command of {@code REORDERABLE_COMMANDS} sent with a request
+     * id gets a key of its own, since the client matches the answer by id and does not depend
+     * on the order. Other pipelined commands, such as logins and code lookups, keep the
+     * client's order.</li>
+     * <li><b>Everything else:</b> ordered per logged-in user, or per connection before login.</li>
+     * </ul>
+     * Writers are keyed like any other request, so they stay in order with the client's reads;
+     * they are serialized against other clients' writers by {@code SEATING_WRITE_LOCK}.
+     * </p>
+     *
+     * @param msg    The message received from the client.
+     * @param client The connection that sent the message.
+     * @return The ordering key, never {@code null}.
+     */
+    @Override
+    protected Object getOrderingKey(Object msg, ConnectionToClient client) {
+        if (client.getRequestId() != 0 && REORDERABLE_COMMANDS.contains(getCommandName(msg))) {
+            return new Object(); // unique key: may run alongside the client's other requests
+        }
+        Object userId = client.getInfo("userId");
+        return userId != null ? "USER:" + userId : client;
+    }
+
+    /**
+     * Returns the protocol command of a message, used by the dispatcher to group its
+     * queue depth and wait time statistics.
+     *
+     * @param msg The message received from the client.
+     * @return The command string, or {@code "INVALID"} for malformed messages.
+     */
+    @Override
+    protected String getCommandName(Object msg) {
+        if (msg instanceof ArrayList && !((ArrayList<?>) msg).isEmpty()
+                && ((ArrayList<?>) msg).get(0) instanceof String) {
+            return (String) ((ArrayList<?>) msg).get(0);
+        }
+        return "INVALID";
+    }
+
+    /**
+     * Recognizes a {@code ["BATCH", List<ArrayList<Object>>]} message, sent by dashboards to
+     * load several screens' data in one round trip.
+     * <p>
+     * Each sub-command is keyed by {@link #getOrderingKey} under the batch's request id, so
+     * read-only sub-commands run concurrently while writers still take {@code SEATING_WRITE_LOCK}.
+     * The answers come back in one {@code BatchReply}, in the order of the sub-commands.
+     * Batches do not nest.
+     * </p>
+     *
+     * @param msg The message received from the client.
+     * @return The sub-commands, or {@code null} if the message is not a batch.
+     */
+    @Override
+    protected List<?> getBatchMessages(Object msg) {
+        if ("BATCH".equals(getCommandName(msg)) && ((ArrayList<?>) msg).size() > 1
+                && ((ArrayList<?>) msg).get(1) instanceof List) {
+            return (List<?>) ((ArrayList<?>) msg).get(1);
+        }
+        return null;
+    }
+
     
     
     /**
@@ -238,6 +522,28 @@ public class ServerController extends AbstractServer {
      */
     @Override 
     protected void handleMessageFromClient(Object msg, ConnectionToClient client) { 
+        boolean writer = WRITE_COMMANDS.contains(getCommandName(msg));
+        if (writer) {
+            SEATING_WRITE_LOCK.lock();
+        }
+        try {
+            routeMessage(msg, client);
+        } finally {
+            if (writer) {
+                SEATING_WRITE_LOCK.unlock();
+            }
+            // The request is over: its pooled connection goes back for the next one
+            DBController.getInstance().releaseConnection();
+        }
+    }
+
+    /**
+     * Routes one client message to its handler; see {@link #handleMessageFromClient}.
+     *
+     * @param msg    The message received from the client.
+     * @param client The connection of the client who sent the message.
+     */
+    private void routeMessage(Object msg, ConnectionToClient client) { 
                 
         serverUI.appendLog("Message received: " + msg + " from " + client); 
 
@@ -282,10 +588,12 @@ public class ServerController extends AbstractServer {
                     
                 case "GET_VISITS_HISTORY":
                     try {
+                        // [1] userId, then the optional page cursor and page size
                         int userId = (int) messageList.get(1);
+                        dbLogic.PageRequest page = dbLogic.PageRequest.from(messageList, 2);
                         
                         serverLogic.menuLogic.DBVisitHistoryController db = new serverLogic.menuLogic.DBVisitHistoryController();
-                        ArrayList<common.Visit> visits = (ArrayList<common.Visit>) db.getVisitsForUser(userId);
+                        common.Page<common.Visit> visits = db.getVisitsForUser(userId, page);
 
                         ArrayList<Object> response = new ArrayList<>();
                         response.add("VISIT_HISTORY");
@@ -410,7 +718,9 @@ public class ServerController extends AbstractServer {
                 
                  // --- תוספת עבור מסך נציג/מנהל ---
                 case "GET_ALL_ACTIVE_RESERVATIONS_STAFF": 
-                    ArrayList<Object[]> allActive = viewReservationController.getAllActiveReservations(); 
+                    // Optional [1] page cursor and [2] page size
+                    common.Page<Object[]> allActive = viewReservationController.getAllActiveReservations(
+                            dbLogic.PageRequest.from(messageList, 1)); 
 				try {
 					client.sendToClient(allActive);
 				} catch (IOException e) {
@@ -437,10 +747,12 @@ public class ServerController extends AbstractServer {
                     break; 
                     
                 case "GET_ALL_SUBSCRIBERS":
-                    ArrayList<common.Subscriber> subscribers = serverLogic.managmentLogic.SubscriberDBController.getAllSubscribers();
+                    // Optional [1] page cursor and [2] page size
+                    common.Page<common.Subscriber> subscribers = serverLogic.managmentLogic.SubscriberDBController
+                            .getAllSubscribers(dbLogic.PageRequest.from(messageList, 1));
                     try {
                         client.sendToClient(subscribers);
-                        serverUI.appendLog("Sent " + subscribers.size() + " subscribers to client.");
+                        serverUI.appendLog("Sent " + subscribers.getItems().size() + " subscribers to client.");
                     } catch (IOException e) {
                         e.printStackTrace();
                     }
@@ -517,6 +829,16 @@ public class ServerController extends AbstractServer {
                     new CreateOrderHandler().handle(messageList, client); 
                     break; 
                     
+                case "GET_AVAILABILITY_GRID": 
+                    // [1] party size; the grid is computed from RAM, so it runs beside the writers
+                    try { 
+                        int gridGuests = (int) messageList.get(1); 
+                        client.sendToClient(CreateOrderController.getAvailabilityGrid(gridGuests)); 
+                    } catch (IOException e) { 
+                        serverUI.appendLog("Failed to transmit availability grid: " + e.getMessage()); 
+                    } 
+                    break; 
+                    
                 case "UPDATE_REGULAR_HOURS": 
                     int restaurantId = (int) messageList.get(1); 
                     @SuppressWarnings("unchecked")
@@ -548,6 +870,9 @@ public class ServerController extends AbstractServer {
                         long code = (Long) messageList.get(1);
                         String result = VisitController.processTerminalArrival(code);
                         client.sendToClient(result);
+                        if ("TABLE_NOT_READY_WAIT".equals(result)) {
+                            ArrivalStatusNotifier.subscribe(code, client);
+                        }
                     } catch (Exception e) {
                         serverUI.appendLog("Critical error in PROCESS_TERMINAL_ARRIVAL: " + e.getMessage());
                         try { client.sendToClient("DATABASE_ERROR"); } catch (IOException io) { io.printStackTrace(); }
@@ -0,0 +1,300 @@
+package MainControllers;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the prepared statements of each pooled connection open for reuse.
+ * <p>
+ * {@link #wrap(Connection)} returns a connection whose {@code prepareStatement(sql)} and
+ * {@code prepareStatement(sql, autoGeneratedKeys)} look the SQL text up in a per-connection
+ * LRU cache of at most {@code maxPerConnection} statements. Closing a cached statement does not
+ * close it: its open result set is closed, its parameters are cleared and it waits in the cache
+ * for the next call with the same SQL. The DAO code therefore keeps its usual
+ * {@code try (PreparedStatement ps = conn.prepareStatement(sql))} blocks unchanged.
+ * </p>
+ * <p>
+ * <b>Lifecycle:</b> the least recently used statement is really closed when the cache is full,
+ * and all cached statements are closed with their connection. If the same SQL is prepared again
+ * while its cached statement is still open (a nested loop over the same query), the second
+ * statement is an ordinary, uncached one.
+ * </p>
+ * <p>
+ * Only the parameters are reset on reuse; callers must not change per-statement settings such
+ * as the fetch size or the maximum number of rows.
+ * </p>
+ * <p>
+ * A connection is only ever used by the thread it is lent to, so a per-connection cache is
+ * not synchronized; the hit, miss and eviction counters are shared by all connections.
+ * </p>
+ */
+public class StatementCache {
+
+    private final int maxPerConnection;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong bypasses = new AtomicLong();
+    private final AtomicLong cached = new AtomicLong();
+
+    /**
+     * @param maxPerConnection the maximum number of statements kept open per connection;
+     *                         0 disables caching.
+     */
+    public StatementCache(int maxPerConnection) {
+        if (maxPerConnection < 0) {
+            throw new IllegalArgumentException("maxPerConnection must not be negative");
+        }
+        this.maxPerConnection = maxPerConnection;
+    }
+
+    /**
+     * Wraps a physical connection so that its prepared statements are cached.
+     *
+     * @param physical the connection opened by the driver.
+     * @return the caching connection, or {@code physical} itself when caching is disabled.
+     */
+    public Connection wrap(Connection physical) {
+        if (maxPerConnection == 0) {
+            return physical;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new CachingConnection(physical));
+    }
+
+    /**
+     * @return a snapshot of the cache metrics, summed over all connections.
+     */
+    public Stats getStats() {
+        return new Stats(maxPerConnection, cached.get(), hits.get(), misses.get(),
+                evictions.get(), bypasses.get());
+    }
+
+    /** Cache key: the SQL text and whether generated keys were requested. */
+    private static String keyOf(String sql, int autoGeneratedKeys) {
+        return autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : sql;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** The handler behind a caching connection; owns that connection's LRU cache. */
+    private class CachingConnection implements InvocationHandler {
+        private final Connection physical;
+
+        /** Statements in least recently used order. */
+        private final LinkedHashMap<String, CachedStatement> statements =
+                new LinkedHashMap<>(16, 0.75f, true);
+
+        CachingConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "cached " + physical;
+                case "prepareStatement":
+                    if (args.length == 1) {
+                        return prepare((String) args[0], Statement.NO_GENERATED_KEYS);
+                    }
+                    if (args.length == 2 && method.getParameterTypes()[1] == int.class) {
+                        return prepare((String) args[0], (Integer) args[1]);
+                    }
+                    break;
+                case "close":
+                    closeAll();
+                    break;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(physical)) {
+                        return physical;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return StatementCache.invoke(physical, method, args);
+        }
+
+        private PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+            String key = keyOf(sql, autoGeneratedKeys);
+            CachedStatement entry = statements.get(key);
+            if (entry != null) {
+                if (!entry.inUse) {
+                    hits.incrementAndGet();
+                    entry.inUse = true;
+                    return entry.handle;
+                }
+                bypasses.incrementAndGet();
+                return physical.prepareStatement(sql, autoGeneratedKeys);
+            }
+
+            misses.incrementAndGet();
+            entry = new CachedStatement(physical.prepareStatement(sql, autoGeneratedKeys));
+            statements.put(key, entry);
+            cached.incrementAndGet();
+            evictIdle();
+            return entry.handle;
+        }
+
+        /** Closes least recently used statements that are not in use until the cache fits. */
+        private void evictIdle() {
+            Iterator<CachedStatement> it = statements.values().iterator();
+            while (statements.size() > maxPerConnection && it.hasNext()) {
+                CachedStatement oldest = it.next();
+                if (!oldest.inUse) {
+                    it.remove();
+                    cached.decrementAndGet();
+                    evictions.incrementAndGet();
+                    oldest.closeQuietly();
+                }
+            }
+        }
+
+        private void closeAll() {
+            List<CachedStatement> all = new ArrayList<>(statements.values());
+            statements.clear();
+            cached.addAndGet(-all.size());
+            for (CachedStatement entry : all) {
+                entry.closeQuietly();
+            }
+        }
+
+        /** A cached statement and the handle given to callers, whose close() returns it. */
+        private class CachedStatement implements InvocationHandler {
+            final PreparedStatement statement;
+            final PreparedStatement handle;
+            boolean inUse = true;
+
+            CachedStatement(PreparedStatement statement) {
+                this.statement = statement;
+                this.handle = (PreparedStatement) Proxy.newProxyInstance(
+                        PreparedStatement.class.getClassLoader(),
+                        new Class<?>[] { PreparedStatement.class }, this);
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        giveBack();
+                        return null;
+                    case "isClosed":
+                        return !inUse || statement.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return StatementCache.invoke(statement, method, args);
+                }
+            }
+
+            /** Makes the statement ready for the next caller, or closes it if that fails. */
+            private void giveBack() {
+                if (!inUse) {
+                    return;
+                }
+                inUse = false;
+                try {
+                    ResultSet open = statement.getResultSet();
+                    if (open != null) {
+                        open.close();
+                    }
+                    statement.clearParameters();
+                    evictIdle();
+                } catch (SQLException e) {
+                    if (statements.values().remove(this)) {
+                        cached.decrementAndGet();
+                    }
+                    closeQuietly();
+                }
+            }
+
+            void closeQuietly() {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    // The statement is discarded either way
+                }
+            }
+        }
+    }
+
+    /**
+     * A snapshot of the statement cache metrics.
+     */
+    public static class Stats {
+        private final int maxPerConnection;
+        private final long cached;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long bypasses;
+
+        Stats(int maxPerConnection, long cached, long hits, long misses, long evictions,
+                long bypasses) {
+            this.maxPerConnection = maxPerConnection;
+            this.cached = cached;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.bypasses = bypasses;
+        }
+
+        /** @return the maximum number of statements kept per connection. */
+        public int getMaxPerConnection() { return maxPerConnection; }
+
+        /** @return the number of statements currently cached, over all connections. */
+        public long getCached() { return cached; }
+
+        /** @return the number of prepares served from the cache. */
+        public long getHits() { return hits; }
+
+        /** @return the number of prepares that created a new cached statement. */
+        public long getMisses() { return misses; }
+
+        /** @return the number of statements closed to make room for others. */
+        public long getEvictions() { return evictions; }
+
+        /** @return the number of prepares not cached because the same SQL was already open. */
+        public long getBypasses() { return bypasses; }
+
+        /** @return the share of prepares served from the cache, between 0 and 1. */
+        public double getHitRate() {
+            long total = hits + misses + bypasses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("cached=%d (max %d/conn) hits=%d misses=%d evictions=%d "
+                    + "bypasses=%d hit-rate=%.1f%%", cached, maxPerConnection, hits, misses,
+                    evictions, bypasses, getHitRate() * 100);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package dbLogic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import common.Page;
+
+/**
+ * The page of a list a client asked for: the cursor to read on from and the page size.
+ * <p>
+ * List commands take two optional trailing arguments, {@code [..., cursor, pageSize]}. A
+ * missing or {@code null} cursor asks for the first page. The page size defaults to
+ * {@value #DEFAULT_SIZE} and is capped at {@value #MAX_SIZE}, whatever the client asks for,
+ * so no single answer grows with the table.
+ * </p>
+ * <p>
+ * A cursor is the sort key of the last row of the previous page, its parts joined with
+ * {@code '|'}. DAOs read one row more than the page size to learn whether another page
+ * follows, and {@link #toPage(List, Function)} turns those rows into the {@link Page}.
+ * </p>
+ */
+public final class PageRequest {
+
+    /** Page size when the client does not ask for one. */
+    public static final int DEFAULT_SIZE = 50;
+
+    /** Largest page the server sends. */
+    public static final int MAX_SIZE = 200;
+
+    private static final String SEPARATOR = "|";
+
+    private final String[] after;
+    private final int size;
+
+    private PageRequest(String[] after, int size) {
+        this.after = after;
+        this.size = size;
+    }
+
+    /**
+     * Reads the optional cursor and page size of a list command.
+     *
+     * @param message     The protocol message.
+     * @param cursorIndex The position of the cursor; the page size follows it.
+     * @return The requested page; the first one when the message has no cursor.
+     * @throws IllegalArgumentException If the cursor or page size has the wrong type.
+     */
+    public static PageRequest from(ArrayList<Object> message, int cursorIndex) {
+        Object cursor = message.size() > cursorIndex ? message.get(cursorIndex) : null;
+        Object requested = message.size() > cursorIndex + 1 ? message.get(cursorIndex + 1) : null;
+        if (cursor != null && !(cursor instanceof String)) {
+            throw new IllegalArgumentException("The page cursor must be a String");
+        }
+        if (requested != null && !(requested instanceof Integer)) {
+            throw new IllegalArgumentException("The page size must be an Integer");
+        }
+        int size = requested == null ? DEFAULT_SIZE : Math.max(1, Math.min(MAX_SIZE, (Integer) requested));
+        return new PageRequest(cursor == null ? null : ((String) cursor).split("\\" + SEPARATOR, -1), size);
+    }
+
+    /**
+     * @return {@code true} for the first page, which has no cursor.
+     */
+    public boolean isFirst() {
+        return after == null;
+    }
+
+    /**
+     * @param part  The position of the key part in the cursor.
+     * @param first The value to use on the first page.
+     * @return The key part of the cursor, or {@code first} on the first page.
+     * @throws IllegalArgumentException If the cursor has too few parts.
+     */
+    public String after(int part, String first) {
+        if (after == null) {
+            return first;
+        }
+        if (part >= after.length) {
+            throw new IllegalArgumentException("Malformed page cursor");
+        }
+        return after[part];
+    }
+
+    /**
+     * @return The page size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of rows a DAO reads: one more than the page size.
+     */
+    public int limit() {
+        return size + 1;
+    }
+
+    /**
+     * Builds the page from the rows read with {@link #limit()}.
+     *
+     * @param <T>    The type of the rows.
+     * @param rows   The rows, in list order; at most {@link #limit()} of them.
+     * @param keyOf  The sort key of a row, one element per cursor part.
+     * @return The first {@link #size()} rows, with the cursor of the next page if more were read.
+     */
+    public <T> Page<T> toPage(List<T> rows, Function<T, Object[]> keyOf) {
+        if (rows.size() <= size) {
+            return new Page<>(new ArrayList<>(rows), null);
+        }
+        ArrayList<T> items = new ArrayList<>(rows.subList(0, size));
+        Object[] key = keyOf.apply(items.get(size - 1));
+        StringBuilder cursor = new StringBuilder();
+        for (int i = 0; i < key.length; i++) {
+            if (i > 0) {
+                cursor.append(SEPARATOR);
+            }
+            cursor.append(key[i]);
+        }
+        return new Page<>(items, cursor.toString());
+    }
+}
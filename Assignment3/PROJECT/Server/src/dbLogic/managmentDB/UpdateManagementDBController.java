@@ -7,15 +7,21 @@ import java.sql.SQLException; // Importing SQLException for database error handl
 import java.sql.Statement; // Importing Statement to retrieve generated keys
 import java.time.LocalDate; // Importing LocalDate for modern date handling
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date; // Importing Date for legacy support if needed
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map; // Importing Map for storing day-to-range associations
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import MainControllers.DBController; // Importing the singleton DB controller
+import MainControllers.IdGenerator;
 import MainControllers.ServerController;
 import common.TimeRange; // Importing the TimeRange domain model
 import dbLogic.restaurantDB.WaitingListController;
+import serverLogic.serverRestaurant.ReservationOccupancyIndex;
+import serverLogic.serverRestaurant.RestaurantManager;
 
 /**
  * Controller for managing database updates for the restaurant management system.
@@ -50,9 +56,6 @@ public class UpdateManagementDBController { // Start of the UpdateManagementDBCo
 	 * {@code false} if a database error occurred and changes were rolled back.
 	 */
     public static boolean updateRegularHours(int restaurantId, Map<String, TimeRange> newHours) { // Start method
-        // Retrieve the active database connection from the singleton controller
-        Connection conn = DBController.getInstance().getConnection(); // Get connection
-        
         // SQL to insert a time range only if it does not already exist (ignoring duplicates)
         String insertRangeSql = "INSERT IGNORE INTO time_range (open_time, close_time) VALUES (?, ?)"; // SQL string
         
@@ -65,66 +68,52 @@ public class UpdateManagementDBController { // Start of the UpdateManagementDBCo
                              "ON DUPLICATE KEY UPDATE time_range_id = ?"; // SQL string
 
         try { // Start of the main database transaction block
-            // Disable auto-commit to manually manage the transaction boundaries
-            conn.setAutoCommit(false); // Set auto-commit to false
-
-            // Iterate through the map containing days of the week and their respective time ranges
-            for (Map.Entry<String, TimeRange> entry : newHours.entrySet()) { // Start of loop
-                String day = entry.getKey(); // Extract the day name (key)
-                TimeRange range = entry.getValue(); // Extract the TimeRange object (value)
-
-                // STEP A: Ensure the time range exists in the time_range table
-                try (PreparedStatement pstmt = conn.prepareStatement(insertRangeSql)) { // Prepare statement
-                    pstmt.setString(1, range.getOpenTime()); // Bind opening time
-                    pstmt.setString(2, range.getCloseTime()); // Bind closing time
-                    pstmt.executeUpdate(); // Execute the insert (ignored if exists)
-                } // End of inner try
-
-                // STEP B: Retrieve the ID of the time range (either the existing one or the one just inserted)
-                int timeRangeId = -1; // Initialize the ID variable
-                try (PreparedStatement pstmt = conn.prepareStatement(findIdSql)) { // Prepare statement
-                    pstmt.setString(1, range.getOpenTime()); // Bind opening time
-                    pstmt.setString(2, range.getCloseTime()); // Bind closing time
-                    try (ResultSet rs = pstmt.executeQuery()) { // Execute query
-                        if (rs.next()) { // If a result is found
-                            timeRangeId = rs.getInt("time_range_id"); // Capture the ID
-                        } // End if
-                    } // End result set try
-                } // End find ID try
-
-                // STEP C: Perform the Upsert into the regular hours table
-                if (timeRangeId != -1) { // If a valid time range ID was acquired
-                    try (PreparedStatement pstmt = conn.prepareStatement(updateDaySql)) { // Prepare statement
-                        pstmt.setInt(1, restaurantId); // Bind restaurant ID
-                        pstmt.setString(2, day); // Bind day of the week
-                        pstmt.setInt(3, timeRangeId); // Bind time range ID for insert
-                        pstmt.setInt(4, timeRangeId); // Bind time range ID for update (on duplicate)
-                        pstmt.executeUpdate(); // Execute the UPSERT
-                    } // End upsert try
-                } // End valid ID check
-            } // End of the days iteration loop
-
-            // Commit all changes to the database as a single atomic unit
-            conn.commit(); // Execute commit
+            // Run every day's update as one transaction on this request's own connection
+            DBController.getInstance().inTransaction(conn -> { // Begin transaction
+                // Iterate through the map containing days of the week and their respective time ranges
+                for (Map.Entry<String, TimeRange> entry : newHours.entrySet()) { // Start of loop
+                    String day = entry.getKey(); // Extract the day name (key)
+                    TimeRange range = entry.getValue(); // Extract the TimeRange object (value)
+
+                    // STEP A: Ensure the time range exists in the time_range table
+                    try (PreparedStatement pstmt = conn.prepareStatement(insertRangeSql)) { // Prepare statement
+                        pstmt.setString(1, range.getOpenTime()); // Bind opening time
+                        pstmt.setString(2, range.getCloseTime()); // Bind closing time
+                        pstmt.executeUpdate(); // Execute the insert (ignored if exists)
+                    } // End of inner try
+
+                    // STEP B: Retrieve the ID of the time range (either the existing one or the one just inserted)
+                    int timeRangeId = -1; // Initialize the ID variable
+                    try (PreparedStatement pstmt = conn.prepareStatement(findIdSql)) { // Prepare statement
+                        pstmt.setString(1, range.getOpenTime()); // Bind opening time
+                        pstmt.setString(2, range.getCloseTime()); // Bind closing time
+                        try (ResultSet rs = pstmt.executeQuery()) { // Execute query
+                            if (rs.next()) { // If a result is found
+                                timeRangeId = rs.getInt("time_range_id"); // Capture the ID
+                            } // End if
+                        } // End result set try
+                    } // End find ID try
+
+                    // STEP C: Perform the Upsert into the regular hours table
+                    if (timeRangeId != -1) { // If a valid time range ID was acquired
+                        try (PreparedStatement pstmt = conn.prepareStatement(updateDaySql)) { // Prepare statement
+                            pstmt.setInt(1, restaurantId); // Bind restaurant ID
+                            pstmt.setString(2, day); // Bind day of the week
+                            pstmt.setInt(3, timeRangeId); // Bind time range ID for insert
+                            pstmt.setInt(4, timeRangeId); // Bind time range ID for update (on duplicate)
+                            pstmt.executeUpdate(); // Execute the UPSERT
+                        } // End upsert try
+                    } // End valid ID check
+                } // End of the days iteration loop
+                return null; // Committed as a single atomic unit by inTransaction
+            }); // End of transaction
             return true; // Return success
 
         } catch (SQLException e) { // Catch any database errors during the process
-            try { // Attempt to rollback in case of an error
-                if (conn != null) { // Check if connection is alive
-                    conn.rollback(); // Undo all changes in this transaction
-                } // End connection check
-            } catch (SQLException ex) { // Catch rollback failure
-                ex.printStackTrace(); // Log the rollback exception
-            } // End rollback try
+            // inTransaction has already undone all changes of this transaction
             e.printStackTrace(); // Log the original SQL exception
             return false; // Return failure
-        } finally { // Finalize block to restore connection state
-            try { // Attempt to reset auto-commit
-                conn.setAutoCommit(true); // Re-enable auto-commit for future operations
-            } catch (SQLException e) { // Catch reset failure
-                e.printStackTrace(); // Log the error
-            } // End reset try
-        } // End of finally block
+        } // End of main block
     } // End of updateRegularHours method
 
     /**
@@ -148,55 +137,40 @@ public class UpdateManagementDBController { // Start of the UpdateManagementDBCo
      * {@code false} if a database error occurred or the transaction was rolled back.
      */
     public static boolean updateSpecialHours(int restaurantId, LocalDate date, String open, String close) { // Start method
-        // Retrieve the database connection
-        Connection conn = DBController.getInstance().getConnection(); // Get connection
-        
         try { // Start transaction block
-            // Disable auto-commit to start a manual transaction
-            conn.setAutoCommit(false); // Begin transaction
+            // Both steps run as one transaction on this request's own connection
+            DBController.getInstance().inTransaction(conn -> { // Begin transaction
+                // STEP 1: Use helper method to get existing ID or create a new time range
+                int timeRangeId = getOrCreateTimeRange(open, close); // Call helper (joins the transaction)
+                
+                // Logic validation: Check if the ID retrieval was successful
+                if (timeRangeId == -1) { // If ID is invalid
+                    throw new SQLException("Failed to retrieve or create time_range_id"); // Trigger rollback
+                } // End ID check
 
-            // STEP 1: Use helper method to get existing ID or create a new time range
-            int timeRangeId = getOrCreateTimeRange(open, close); // Call helper
-            
-            // Logic validation: Check if the ID retrieval was successful
-            if (timeRangeId == -1) { // If ID is invalid
-                throw new SQLException("Failed to retrieve or create time_range_id"); // Trigger exception
-            } // End ID check
-
-            // STEP 2: Execute Upsert logic for the special hours table
-            String sql = "INSERT INTO restaurant_special_hours (restaurant_id, special_date, time_range_id) " +
-                         "VALUES (?, ?, ?) " +
-                         "ON DUPLICATE KEY UPDATE time_range_id = ?"; // SQL string
-
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) { // Prepare statement
-                pstmt.setInt(1, restaurantId); // Bind restaurant ID
-                pstmt.setDate(2, java.sql.Date.valueOf(date)); // Bind the specific date
-                pstmt.setInt(3, timeRangeId); // Bind time range ID for insert
-                pstmt.setInt(4, timeRangeId); // Bind time range ID for update
-                pstmt.executeUpdate(); // Execute the update
-            } // End statement try
-
-            // STEP 3: Finalize the transaction
-            conn.commit(); // Save all changes
+                // STEP 2: Execute Upsert logic for the special hours table
+                String sql = "INSERT INTO restaurant_special_hours (restaurant_id, special_date, time_range_id) " +
+                             "VALUES (?, ?, ?) " +
+                             "ON DUPLICATE KEY UPDATE time_range_id = ?"; // SQL string
+
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) { // Prepare statement
+                    pstmt.setInt(1, restaurantId); // Bind restaurant ID
+                    pstmt.setDate(2, java.sql.Date.valueOf(date)); // Bind the specific date
+                    pstmt.setInt(3, timeRangeId); // Bind time range ID for insert
+                    pstmt.setInt(4, timeRangeId); // Bind time range ID for update
+                    pstmt.executeUpdate(); // Execute the update
+                } // End statement try
+
+                // STEP 3: Finalize the transaction
+                return null; // Saved by inTransaction
+            }); // End of transaction
             return true; // Return success
 
         } catch (SQLException e) { // Handle errors
-            try { // Rollback logic
-                if (conn != null) { // If connection exists
-                    conn.rollback(); // Rollback changes
-                } // End check
-            } catch (SQLException ex) { // Rollback error
-                ex.printStackTrace(); // Print trace
-            } // End rollback catch
+            // inTransaction has already rolled the changes back
             e.printStackTrace(); // Print original trace
             return false; // Return failure
-        } finally { // Cleanup
-            try { // Restoration
-                conn.setAutoCommit(true); // Re-enable auto-commit
-            } catch (SQLException e) { // Restoration error
-                e.printStackTrace(); // Print trace
-            } // End restore try
-        } // End finally
+        } // End of main block
     } // End of updateSpecialHours method
 
     /**
@@ -263,45 +237,28 @@ public class UpdateManagementDBController { // Start of the UpdateManagementDBCo
      * committed; {@code false} if a database error occurred.
      */
     public static boolean deleteAllSpecialHours(int restaurantId) { // Start of the method
-        // Retrieve the active database connection from the singleton controller
-        Connection conn = DBController.getInstance().getConnection(); // Get connection
-
         // SQL command to remove all records matching the restaurant ID from the special hours table
         String sql = "DELETE FROM restaurant_special_hours WHERE restaurant_id = ?"; //
 
         try { // Start transaction block
-            // Disable auto-commit to manually control the transaction boundary
-            conn.setAutoCommit(false); //
-
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) { // Prepare statement
-                // Bind the restaurant ID to the placeholder
-                pstmt.setInt(1, restaurantId); 
-
-                // Execute the deletion query
-                pstmt.executeUpdate(); 
-            } // End statement try
-
-            // Commit the transaction to persist the changes in the database
-            conn.commit(); //
+            // Run the deletion in its own transaction boundary
+            DBController.getInstance().inTransaction(conn -> { //
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) { // Prepare statement
+                    // Bind the restaurant ID to the placeholder
+                    pstmt.setInt(1, restaurantId); 
+
+                    // Execute the deletion query
+                    pstmt.executeUpdate(); 
+                } // End statement try
+                return null; // Persisted by inTransaction
+            }); //
             return true; // Return success
 
         } catch (SQLException e) { // Handle potential database errors
-            try { // Rollback logic in case of failure to maintain data integrity
-                if (conn != null) { 
-                    conn.rollback(); //
-                } 
-            } catch (SQLException ex) { 
-                ex.printStackTrace(); 
-            } 
+            // inTransaction has already rolled back to maintain data integrity
             e.printStackTrace(); // Log the original exception details
             return false; // Return failure
-        } finally { // Cleanup block
-            try { // Restore the connection state for future operations
-                conn.setAutoCommit(true); //
-            } catch (SQLException e) { 
-                e.printStackTrace(); 
-            } 
-        } // End finally
+        } // End of main block
     } // End of deleteAllSpecialHours method
 
     /**
@@ -310,13 +267,17 @@ public class UpdateManagementDBController { // Start of the UpdateManagementDBCo
     * <p>
     * The method queries the {@code visit} table for records with
     * status {@code 'ACTIVE'} whose start time occurred {@code 120}
-    * minutes or more in the past. For each eligible visit, an alert
-    * message is logged to the server.
+    * minutes or more in the past. The cutoff is compared with the
+    * {@code start_time} column itself, so the sweep reads only the
+    * active range of {@code idx_visit_status_start} instead of every
+    * visit ever recorded.
+    * For each eligible visit, an alert message is logged to the server.
     * </p>
     * <p>
     * To prevent repeated alerts, an in-memory tracking mechanism
     * ({@code notifiedVisits}) is used to ensure that each visit
-    * triggers the alert only once during the server runtime.
+    * triggers the alert only once while it stays active; visits that
+    * ended are dropped from it, so it never grows beyond the open tables.
     * </p>
     *
     * <p><b>Threshold:</b> 120 minutes (2 hours after visit start).</p>
@@ -327,17 +288,19 @@ public class UpdateManagementDBController { // Start of the UpdateManagementDBCo
             "SELECT v.table_id, v.user_id, v.confirmation_code " +
             "FROM visit v " +
             "WHERE v.status = 'ACTIVE' " +
-            "AND TIMESTAMPDIFF(MINUTE, v.start_time, NOW()) >= 120";
+            "AND v.start_time <= NOW() - INTERVAL 120 MINUTE";
 
 
         Connection conn = DBController.getInstance().getConnection();
 
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(selectSql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(selectSql);
+             ResultSet rs = stmt.executeQuery()) {
 
+            Set<Long> overdue = new HashSet<>();
             while (rs.next()) {
 
                 long confCode = rs.getLong("confirmation_code");
+                overdue.add(confCode);
 
                 // אם כבר שלחנו התראה – מדלגים
                 if (notifiedVisits.contains(confCode)) {
@@ -354,6 +317,8 @@ public class UpdateManagementDBController { // Start of the UpdateManagementDBCo
                 // סימון בזיכרון – לא נשלח שוב
                 notifiedVisits.add(confCode);
             }
+            // Visits that are no longer active will never be reported again
+            notifiedVisits.retainAll(overdue);
 
         } catch (SQLException e) {
             ServerController.log("Error in stay duration automation: " + e.getMessage());
@@ -362,6 +327,7 @@ public class UpdateManagementDBController { // Start of the UpdateManagementDBCo
 
 
 
+
     /**
      * Updates the status of an active visit in the database.
      * <p>
@@ -397,16 +363,21 @@ public class UpdateManagementDBController { // Start of the UpdateManagementDBCo
     
     /**
      * Checks for active reservations that are scheduled to occur
-     * at least two hours from the current time and logs a reminder
-     * for each eligible reservation.
+     * within the next two hours and logs a reminder for each
+     * eligible reservation.
      *
      * <p>
      * The method queries the {@code reservation} table for records
-     * with status {@code 'ACTIVE'} whose reservation time is
-     * {@code 120} minutes or more in the future. To prevent duplicate
-     * reminders, an in-memory tracking mechanism
+     * with status {@code 'ACTIVE'} whose reservation time lies between
+     * the end of the 15-minute arrival grace period and {@code 120}
+     * minutes from now. Both bounds are compared with the column
+     * itself, so the sweep reads one bounded range of
+     * {@code idx_reservation_status_datetime}; older active
+     * reservations are left to {@link #cancelLateReservations()}.
+     * To prevent duplicate reminders, an in-memory tracking mechanism
      * ({@code notifiedReservations}) is used to ensure that each
-     * reservation is logged only once during the server runtime.
+     * reservation is logged only once; reservations that left the
+     * window are dropped from it.
      * </p>
      *
      * <p>
@@ -416,23 +387,23 @@ public class UpdateManagementDBController { // Start of the UpdateManagementDBCo
      * </p>
      */
     public static void checkReservationReminders() {
-        // השאילתה המעודכנת:
-        // 1. משתמשת ב-reservation_datetime המאוחד
-        // 2. בודקת הפרש דקות בין עכשיו לבין זמן ההזמנה
         String selectSql =
                 "SELECT r.confirmation_code, r.user_id, r.reservation_datetime " +
                 "FROM reservation r " +
                 "WHERE r.status = 'ACTIVE' " +
-                "AND TIMESTAMPDIFF(MINUTE, NOW(), r.reservation_datetime) <= 120";
+                "AND r.reservation_datetime >= NOW() - INTERVAL 15 MINUTE " +
+                "AND r.reservation_datetime <= NOW() + INTERVAL 120 MINUTE";
 
             Connection conn = DBController.getInstance().getConnection();
 
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(selectSql)) {
+            try (PreparedStatement stmt = conn.prepareStatement(selectSql);
+                 ResultSet rs = stmt.executeQuery()) {
 
+                Set<String> upcoming = new HashSet<>();
                 while (rs.next()) {
 
                     String confCode = rs.getString("confirmation_code");
+                    upcoming.add(confCode);
 
                     // אם כבר שלחנו התראה – מדלגים
                     if (notifiedReservations.contains(confCode)) {
@@ -449,6 +420,8 @@ public class UpdateManagementDBController { // Start of the UpdateManagementDBCo
                     // סימון בזיכרון – לא נשלח שוב
                     notifiedReservations.add(confCode);
                 }
+                // Reservations outside the window were already reminded, or are gone
+                notifiedReservations.retainAll(upcoming);
 
             } catch (SQLException e) {
                 ServerController.log("Error in reservation reminder: " + e.getMessage());
@@ -486,35 +459,57 @@ public class UpdateManagementDBController { // Start of the UpdateManagementDBCo
      * {@code visit} table (meaning the customer never checked in). Such reservations 
      * are updated to a 'NOSHOW' status.
      * </p>
+     * <p>
+     * The late reservations are locked and listed for the log, then exactly those are marked
+     * with one {@code UPDATE} by confirmation code in the same transaction. A reservation that
+     * passes the grace cutoff between the two statements is left for the next sweep rather
+     * than marked without being listed. The lookup reads only the active range of
+     * {@code idx_reservation_status_datetime} up to the cutoff, so the sweep's cost follows
+     * the number of open reservations, not the history.
+     * The tables of the no-shows are then released in the occupancy index.
+     * </p>
      * <p><b>Grace Period:</b> 15 minutes.</p>
      */
     public static void cancelLateReservations() {
-        // שאילתה שמוצאת הזמנות שזמנן עבר ואין להן ביקור תואם בטבלת visit
-        String findLateSql = "SELECT r.confirmation_code FROM reservation r " +
-                             "LEFT JOIN visit v ON r.confirmation_code = v.confirmation_code " +
-                             "WHERE r.status = 'ACTIVE' " +
-                             "AND v.confirmation_code IS NULL " + 
-                             "AND TIMESTAMPDIFF(MINUTE, r.reservation_datetime, NOW()) > 15";
-
-        String cancelSql = "UPDATE reservation SET status = 'NOSHOW' WHERE confirmation_code = ?";
-
-        Connection conn = DBController.getInstance().getConnection();
-
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(findLateSql)) {
-
-            while (rs.next()) {
-                String confCode = rs.getString("confirmation_code");
-
-                // עדכון הסטטוס ל-NOSHOW
-                try (PreparedStatement pstmt = conn.prepareStatement(cancelSql)) {
-                    pstmt.setString(1, confCode);
-                    int affected = pstmt.executeUpdate();
-
-                    if (affected > 0) {
-                    	ServerController.log("[AUTO-CANCEL] Reservation " + confCode + " marked as NOSHOW (15+ min late).");
+        // Active reservations whose grace period is over and that never got a visit
+        String lateFilter = "WHERE r.status = 'ACTIVE' " +
+                            "AND r.reservation_datetime < NOW() - INTERVAL 15 MINUTE " +
+                            "AND NOT EXISTS (SELECT 1 FROM visit v WHERE v.confirmation_code = r.confirmation_code)";
+
+        String findLateSql = "SELECT r.confirmation_code FROM reservation r " + lateFilter + " FOR UPDATE";
+
+        ReservationOccupancyIndex occupancy = RestaurantManager.occupancy();
+        try {
+            List<String> cancelled = occupancy.update(() -> {
+                List<String> marked = DBController.getInstance().inTransaction(conn -> {
+                    List<String> codes = new ArrayList<>();
+                    try (PreparedStatement find = conn.prepareStatement(findLateSql);
+                         ResultSet rs = find.executeQuery()) {
+                        while (rs.next()) {
+                            codes.add(rs.getString("confirmation_code"));
+                        }
                     }
+                    if (!codes.isEmpty()) {
+                        // Marks the listed reservations only: the cutoff moves on between statements
+                        String cancelSql = "UPDATE reservation SET status = 'NOSHOW' WHERE confirmation_code IN ("
+                                + String.join(", ", Collections.nCopies(codes.size(), "?")) + ")";
+                        try (PreparedStatement cancel = conn.prepareStatement(cancelSql)) {
+                            for (int i = 0; i < codes.size(); i++) {
+                                cancel.setLong(i + 1, Long.parseLong(codes.get(i)));
+                            }
+                            cancel.executeUpdate();
+                        }
+                    }
+                    return codes;
+                });
+                for (String confCode : marked) {
+                    occupancy.release(Long.parseLong(confCode));
                 }
+                return marked;
+            });
+
+            for (String confCode : cancelled) {
+                ServerController.log("[AUTO-CANCEL] Reservation " + confCode + " marked as NOSHOW (15+ min late).");
             }
         } catch (SQLException e) {
             System.err.println("Error during auto-cancel process: " + e.getMessage());
@@ -543,11 +538,8 @@ public class UpdateManagementDBController { // Start of the UpdateManagementDBCo
      * </ul>
      */
     public static Object createNewSubscriber(String phone, String email) { // Method start
-        // Get connection from the singleton controller
-        Connection conn = DBController.getInstance().getConnection(); 
-        
-        // SQL 1: Check if phone already exists
-        String checkSql = "SELECT user_id FROM user WHERE phone_number = ?";
+        // SQL 1: Check if phone already exists (locked, so a parallel registration of the same phone waits)
+        String checkSql = "SELECT user_id FROM user WHERE phone_number = ? FOR UPDATE";
         
         // SQL 2: Insert into user table and get back the user_id
         String insertUserSql = "INSERT INTO user (phone_number, email) VALUES (?, ?)";
@@ -557,59 +549,53 @@ public class UpdateManagementDBController { // Start of the UpdateManagementDBCo
         String insertSubSql = "INSERT INTO subscriber (user_id, subscriber_id, status) VALUES (?, ?, 'subscriber')";
 
         try { // Start transaction block
-            conn.setAutoCommit(false); // Disable auto-commit for atomicity
-
-            // --- STEP 1: Check for existing phone number ---
-            try (PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-                checkStmt.setString(1, phone);
-                try (ResultSet rs = checkStmt.executeQuery()) {
-                    if (rs.next()) { // If a record is found
-                        return "Phone number already exists in the system."; // Return error message
+            return DBController.getInstance().inTransaction(conn -> { // Atomic unit of work
+
+                // --- STEP 1: Check for existing phone number ---
+                try (PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
+                    checkStmt.setString(1, phone);
+                    try (ResultSet rs = checkStmt.executeQuery()) {
+                        if (rs.next()) { // If a record is found
+                            return "Phone number already exists in the system."; // Return error message
+                        }
                     }
                 }
-            }
 
-            // --- STEP 2: Insert into 'user' table ---
-            int newUserId = -1;
-            try (PreparedStatement userStmt = conn.prepareStatement(insertUserSql, Statement.RETURN_GENERATED_KEYS)) {
-                userStmt.setString(1, phone);
-                userStmt.setString(2, email);
-                userStmt.executeUpdate();
-                
-                try (ResultSet keys = userStmt.getGeneratedKeys()) {
-                    if (keys.next()) {
-                        newUserId = keys.getInt(1); // Capture the auto-generated user_id
+                // --- STEP 2: Insert into 'user' table ---
+                int newUserId = -1;
+                try (PreparedStatement userStmt = conn.prepareStatement(insertUserSql, Statement.RETURN_GENERATED_KEYS)) {
+                    userStmt.setString(1, phone);
+                    userStmt.setString(2, email);
+                    userStmt.executeUpdate();
+                    
+                    try (ResultSet keys = userStmt.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            newUserId = keys.getInt(1); // Capture the auto-generated user_id
+                        }
                     }
                 }
-            }
 
-            if (newUserId == -1) throw new SQLException("Failed to generate User ID.");
+                if (newUserId == -1) throw new SQLException("Failed to generate User ID.");
 
-            // --- STEP 3: Insert into 'subscriber' table ---
-            // We will generate the subscriber_id based on a simple timestamp/random logic or DB sequence
-            long generatedSubId = (long)(Math.random() * 900000) + 100000; // Example 6-digit subscriber ID
+                // --- STEP 3: Insert into 'subscriber' table ---
+                // Unique across threads and server nodes, so no lookup for an unused ID is needed
+                long generatedSubId = IdGenerator.subscriberIds().next();
 
-            try (PreparedStatement subStmt = conn.prepareStatement(insertSubSql)) {
-                subStmt.setInt(1, newUserId); // Foreign key to user table
-                subStmt.setLong(2, generatedSubId); // The unique subscriber_id
-                subStmt.executeUpdate();
-            }
+                try (PreparedStatement subStmt = conn.prepareStatement(insertSubSql)) {
+                    subStmt.setInt(1, newUserId); // Foreign key to user table
+                    subStmt.setLong(2, generatedSubId); // The unique subscriber_id
+                    subStmt.executeUpdate();
+                }
 
-            // --- STEP 4: Finalize Transaction ---
-            conn.commit(); // Save changes
-            return generatedSubId; // Return the ID to the handler
+                // --- STEP 4: Finalize Transaction ---
+                return (Object) generatedSubId; // Committed by inTransaction; the ID goes to the handler
+            });
 
         } catch (SQLException e) { // Catch any SQL errors
-            try {
-                if (conn != null) conn.rollback(); // Undo changes on failure
-            } catch (SQLException ex) { ex.printStackTrace(); }
+            // inTransaction has already undone the changes
             e.printStackTrace();
             return "Critical database error occurred.";
-        } finally { // Restore connection state
-            try {
-                conn.setAutoCommit(true); //
-            } catch (SQLException e) { e.printStackTrace(); }
-        } // End finally
+        } // End of main block
     } // End method
     
     /**
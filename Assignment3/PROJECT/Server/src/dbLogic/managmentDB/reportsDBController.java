@@ -18,7 +18,8 @@ public class reportsDBController {
 	 * <p>
 	 * This method retrieves data regarding visit delays (difference between reservation and start time)
 	 * and visit durations (difference between start time and payment). The results are grouped by 
-	 * date and hour of arrival/departure.
+	 * date and hour of arrival/departure. Visits and reservations already moved to the archive
+	 * tables are included.
 	 * </p>
 	 * * @param monthStr A string representing the month, either as a numeric value ("1"-"12") 
 	 * or a full month name (e.g., "January").
@@ -43,21 +44,33 @@ public class reportsDBController {
 
 	    String sql =
 	    	    "SELECT DATE(v.start_time) AS date, " +
-	    	    "AVG(TIMESTAMPDIFF(MINUTE, r.reservation_datetime, v.start_time)) AS avg_delay, " +
+	    	    "AVG(TIMESTAMPDIFF(MINUTE, COALESCE(r.reservation_datetime, ra.reservation_datetime), v.start_time)) AS avg_delay, " +
 	    	    "AVG(TIMESTAMPDIFF(MINUTE, v.start_time, b.payment_time)) AS avg_duration, " +
 	    	    "HOUR(v.start_time) AS arrival_hour, " +
 	    	    "HOUR(b.payment_time) AS departure_hour " +
-	    	    "FROM visit v " +
-	    	    "JOIN reservation r ON v.confirmation_code = r.confirmation_code " +
+	    	    "FROM (" +
+	    	    "  SELECT confirmation_code, bill_id, start_time FROM visit " +
+	    	    "  WHERE start_time >= ? AND start_time < ? " +
+	    	    "  UNION ALL " +
+	    	    "  SELECT confirmation_code, bill_id, start_time FROM visit_archive " +
+	    	    "  WHERE start_time >= ? AND start_time < ? " +
+	    	    ") v " +
+	    	    "LEFT JOIN reservation r ON v.confirmation_code = r.confirmation_code " +
+	    	    "LEFT JOIN reservation_archive ra ON v.confirmation_code = ra.confirmation_code " +
 	    	    "JOIN bill b ON v.bill_id = b.bill_id " +
-	    	    "WHERE MONTH(v.start_time) = ? AND YEAR(v.start_time) = ? " +
+	    	    "WHERE r.confirmation_code IS NOT NULL OR ra.confirmation_code IS NOT NULL " +
 	    	    "GROUP BY date, arrival_hour, departure_hour";
 
 
 	    Connection conn = MainControllers.DBController.getInstance().getConnection();
+	    LocalDate monthStart = LocalDate.of(reportYear, selectedMonth, 1);
 	    try (PreparedStatement ps = conn.prepareStatement(sql)) {
-	    	ps.setInt(1, selectedMonth);
-	    	ps.setInt(2, reportYear);
+	    	// A range on the column itself, unlike MONTH()/YEAR(), can use idx_visit_start_time
+	    	// and reads a single partition of visit_archive
+	    	ps.setDate(1, java.sql.Date.valueOf(monthStart));
+	    	ps.setDate(2, java.sql.Date.valueOf(monthStart.plusMonths(1)));
+	    	ps.setDate(3, java.sql.Date.valueOf(monthStart));
+	    	ps.setDate(4, java.sql.Date.valueOf(monthStart.plusMonths(1)));
 	        try (ResultSet rs = ps.executeQuery()) {
 	            while (rs.next()) {
 	                Map<String, Object> row = new HashMap<>();
@@ -82,7 +95,7 @@ public class reportsDBController {
 	 * Retrieves daily statistics for reservations and waiting list entries for a given month.
 	 * <p>
 	 * This method aggregates data by combining (UNION ALL) records from both the 'reservation' 
-	 * and 'waiting_list_entry' tables. It provides a daily count of how many reservations 
+	 * and 'waiting_list_entry' tables and their archives. It provides a daily count of how many reservations 
 	 * were made versus how many customers were placed on the waiting list.
 	 * </p>
 	 *
@@ -114,18 +127,29 @@ public class reportsDBController {
 	    // שאילתה שסופרת הזמנות והמתנות לכל יום בחודש שבו היו נתונים
 	    String sql = "SELECT report_date, SUM(is_res) as res_count, SUM(is_wait) as wait_count FROM (" +
 	                 "  SELECT DATE(reservation_datetime) as report_date, 1 as is_res, 0 as is_wait FROM reservation " +
-	                 "  WHERE MONTH(reservation_datetime) = ? AND YEAR(reservation_datetime) = ? " +
+	                 "  WHERE reservation_datetime >= ? AND reservation_datetime < ? " +
+	                 "  UNION ALL " +
+	                 "  SELECT DATE(reservation_datetime) as report_date, 1 as is_res, 0 as is_wait FROM reservation_archive " +
+	                 "  WHERE reservation_datetime >= ? AND reservation_datetime < ? " +
 	                 "  UNION ALL " +
 	                 "  SELECT DATE(entry_time) as report_date, 0 as is_res, 1 as is_wait FROM waiting_list_entry " +
-	                 "  WHERE MONTH(entry_time) = ? AND YEAR(entry_time) = ? " +
+	                 "  WHERE entry_time >= ? AND entry_time < ? " +
+	                 "  UNION ALL " +
+	                 "  SELECT DATE(entry_time) as report_date, 0 as is_res, 1 as is_wait FROM waiting_list_entry_archive " +
+	                 "  WHERE entry_time >= ? AND entry_time < ? " +
 	                 ") AS combined GROUP BY report_date ORDER BY report_date ASC";
 
 	    Connection conn = MainControllers.DBController.getInstance().getConnection();
+	    LocalDate monthStart = LocalDate.of(reportYear, selectedMonth, 1);
+	    java.sql.Date from = java.sql.Date.valueOf(monthStart);
+	    java.sql.Date to = java.sql.Date.valueOf(monthStart.plusMonths(1));
 	    try (PreparedStatement ps = conn.prepareStatement(sql)) {
-	    	ps.setInt(1, selectedMonth);
-	    	ps.setInt(2, reportYear);
-	    	ps.setInt(3, selectedMonth);
-	    	ps.setInt(4, reportYear);
+	    	// Month bounds as ranges, so every part of the union can use its time index
+	    	// (or, in the archives, read a single partition)
+	    	for (int i = 1; i <= 8; i += 2) {
+	    		ps.setDate(i, from);
+	    		ps.setDate(i + 1, to);
+	    	}
 	        
 	        try (ResultSet rs = ps.executeQuery()) {
 	            while (rs.next()) {
@@ -0,0 +1,27 @@
+package dbLogic.repository;
+
+import java.sql.SQLException;
+
+import common.Bill;
+
+/**
+ * Access to the {@code bill} records.
+ */
+public interface BillRepository {
+
+    /**
+     * Opens an unpaid bill with zero amounts.
+     *
+     * @return The generated bill id.
+     * @throws SQLException If the bill could not be stored.
+     */
+    int createEmpty() throws SQLException;
+
+    /**
+     * Stores the amounts of a bill and marks it paid now.
+     *
+     * @param bill The bill, identified by its id.
+     * @throws SQLException If the storage cannot be updated.
+     */
+    void markPaid(Bill bill) throws SQLException;
+}
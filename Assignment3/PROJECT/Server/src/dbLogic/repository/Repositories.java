@@ -0,0 +1,47 @@
+package dbLogic.repository;
+
+import dbLogic.repository.jdbc.JdbcStorage;
+import dbLogic.repository.memory.MemoryStorage;
+
+/**
+ * Holds the storage backend used by the reservation, seating and waiting list logic.
+ * <p>
+ * The backend is chosen once, when the server starts: MySQL through JDBC by default, or a
+ * concurrent in-memory store with {@code -Dbistro.storage=memory}. Benchmarks and simulations
+ * install their own pre-filled {@link MemoryStorage} with {@link #use(Storage)}.
+ * </p>
+ */
+public final class Repositories {
+
+    private static volatile Storage storage = new JdbcStorage();
+
+    private Repositories() {
+    }
+
+    /** @return The storage backend in use. */
+    public static Storage get() {
+        return storage;
+    }
+
+    /**
+     * Replaces the storage backend. Call it before any request is served.
+     *
+     * @param backend The backend to use from now on.
+     */
+    public static void use(Storage backend) {
+        storage = backend;
+    }
+
+    /**
+     * Creates the backend named by the {@code bistro.storage} system property.
+     *
+     * @return A new, empty in-memory backend for {@code memory}, otherwise the JDBC backend.
+     *         The in-memory backend still reads the subscribers from the database, which keeps
+     *         serving the logins and registrations.
+     */
+    public static Storage fromSystemProperty() {
+        JdbcStorage jdbc = new JdbcStorage();
+        return "memory".equalsIgnoreCase(System.getProperty("bistro.storage"))
+                ? new MemoryStorage(jdbc.users()) : jdbc;
+    }
+}
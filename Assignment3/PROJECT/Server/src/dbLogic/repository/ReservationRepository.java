@@ -0,0 +1,109 @@
+package dbLogic.repository;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import common.Reservation;
+
+/**
+ * Access to the {@code reservation} records.
+ * <p>
+ * Statuses are the names of {@link Reservation.ReservationStatus}. A reservation "holds" a
+ * table while it is {@code ACTIVE}, {@code WAITING_AT_RESTAURANT}, {@code NOTIFIED} or
+ * {@code ARRIVED}; {@code CANCELLED}, {@code FINISHED} and {@code NOSHOW} release it.
+ * </p>
+ */
+public interface ReservationRepository {
+
+    /**
+     * Stores a new reservation.
+     *
+     * @param res       The reservation; its date-time, user and status are stored.
+     * @param tableSize The table capacity allocated to it, stored as its number of guests.
+     * @return The generated confirmation code.
+     * @throws SQLException If the reservation could not be stored.
+     */
+    long insert(Reservation res, int tableSize) throws SQLException;
+
+    /**
+     * @param code The confirmation code.
+     * @return The reservation with its code and status set, or {@code null} if there is none.
+     * @throws SQLException If the storage cannot be read.
+     */
+    Reservation findByCode(long code) throws SQLException;
+
+    /**
+     * @param code The confirmation code.
+     * @return The status of the reservation, or {@code null} if there is none.
+     * @throws SQLException If the storage cannot be read.
+     */
+    String getStatus(long code) throws SQLException;
+
+    /**
+     * @param code      The confirmation code.
+     * @param newStatus The new status.
+     * @return {@code true} if the reservation exists.
+     * @throws SQLException If the storage cannot be updated.
+     */
+    boolean updateStatus(long code, String newStatus) throws SQLException;
+
+    /**
+     * Changes the status only if the reservation is currently in {@code expectedStatus}.
+     *
+     * @param code           The confirmation code.
+     * @param expectedStatus The status the reservation must have.
+     * @param newStatus      The new status.
+     * @return {@code true} if the status was changed.
+     * @throws SQLException If the storage cannot be updated.
+     */
+    boolean updateStatusIf(long code, String expectedStatus, String newStatus) throws SQLException;
+
+    /**
+     * Counts the reservations of one table size that still hold a table within two hours,
+     * before or after, of the given time.
+     *
+     * @param tableSize The table size (stored number of guests).
+     * @param at        The requested time.
+     * @return The number of overlapping reservations.
+     * @throws SQLException If the storage cannot be read.
+     */
+    int countOverlapping(int tableSize, LocalDateTime at) throws SQLException;
+
+    /**
+     * Lists the reservations that hold a table and start in {@code [from, to)}.
+     *
+     * @param from The start of the window, inclusive.
+     * @param to   The end of the window, exclusive.
+     * @return The reservations with their code set; the number of guests is the table size.
+     * @throws SQLException If the storage cannot be read.
+     */
+    List<Reservation> findHolding(LocalDateTime from, LocalDateTime to) throws SQLException;
+
+    /**
+     * Sums the guests of the reservations expected to be seated in {@code [from, to)}:
+     * those that are {@code ACTIVE}, {@code WAITING_AT_RESTAURANT} or {@code NOTIFIED}.
+     *
+     * @param from The start of the window, inclusive.
+     * @param to   The end of the window, exclusive.
+     * @return The number of guests.
+     * @throws SQLException If the storage cannot be read.
+     */
+    int sumExpectedGuests(LocalDateTime from, LocalDateTime to) throws SQLException;
+
+    /**
+     * Finds the earliest reservation waiting at the restaurant that fits a table.
+     *
+     * @param maxGuests The capacity of the free table.
+     * @return The confirmation code, or {@code null} if nobody fits.
+     * @throws SQLException If the storage cannot be read.
+     */
+    Long findFirstWaitingAtRestaurant(int maxGuests) throws SQLException;
+
+    /**
+     * @param status A status.
+     * @return The number of guests of every reservation in that status.
+     * @throws SQLException If the storage cannot be read.
+     */
+    List<Integer> partySizesWithStatus(String status) throws SQLException;
+}
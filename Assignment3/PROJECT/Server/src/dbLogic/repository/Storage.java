@@ -0,0 +1,53 @@
+package dbLogic.repository;
+
+import java.sql.SQLException;
+
+/**
+ * A storage backend: the repositories of one kind of store and its transactions.
+ * <p>
+ * Flows that read and then write several records run their steps inside
+ * {@link #inTransaction(UnitOfWork)}, and call the repositories from there as usual.
+ * </p>
+ */
+public interface Storage {
+
+    /**
+     * A unit of work run by {@link Storage#inTransaction(UnitOfWork)}.
+     *
+     * @param <T> The type of the work's result.
+     */
+    @FunctionalInterface
+    interface UnitOfWork<T> {
+        /**
+         * @return The result handed back to the caller of {@code inTransaction}.
+         * @throws SQLException To abandon the unit of work.
+         */
+        T run() throws SQLException;
+    }
+
+    /** @return A short name for logs, such as {@code jdbc} or {@code memory}. */
+    String getName();
+
+    ReservationRepository reservations();
+
+    WaitingListRepository waitingList();
+
+    TableRepository tables();
+
+    VisitRepository visits();
+
+    BillRepository bills();
+
+    UserRepository users();
+
+    /**
+     * Runs a unit of work atomically with respect to the other units of work. A call made
+     * from inside a unit of work joins it.
+     *
+     * @param <T>  The type of the work's result.
+     * @param work The repository calls to run together.
+     * @return The work's result.
+     * @throws SQLException If the work failed.
+     */
+    <T> T inTransaction(UnitOfWork<T> work) throws SQLException;
+}
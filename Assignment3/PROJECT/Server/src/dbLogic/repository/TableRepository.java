@@ -0,0 +1,92 @@
+package dbLogic.repository;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import common.Table;
+
+/**
+ * Access to the restaurant's {@code table} records and their availability.
+ */
+public interface TableRepository {
+
+    /**
+     * @param tableId The table.
+     * @return Its capacity, or 0 if there is no such table.
+     * @throws SQLException If the storage cannot be read.
+     */
+    int getCapacity(int tableId) throws SQLException;
+
+    /**
+     * @param guests The party size.
+     * @return The smallest free table that seats the party, or -1 if there is none.
+     * @throws SQLException If the storage cannot be read.
+     */
+    int findBestFreeTable(int guests) throws SQLException;
+
+    /**
+     * @param guests The party size.
+     * @return The free tables that seat the party, smallest first.
+     * @throws SQLException If the storage cannot be read.
+     */
+    List<Integer> findFreeTables(int guests) throws SQLException;
+
+    /**
+     * @return The capacities of the free tables, smallest first.
+     * @throws SQLException If the storage cannot be read.
+     */
+    List<Integer> freeCapacities() throws SQLException;
+
+    /**
+     * @param tableId   The table.
+     * @param available {@code true} to free it, {@code false} to occupy it.
+     * @throws SQLException If the storage cannot be updated.
+     */
+    void setAvailable(int tableId, boolean available) throws SQLException;
+
+    /**
+     * @return The sum of the capacities of all tables.
+     * @throws SQLException If the storage cannot be read.
+     */
+    int totalCapacity() throws SQLException;
+
+    /**
+     * @return The sum of the capacities of the occupied tables.
+     * @throws SQLException If the storage cannot be read.
+     */
+    int occupiedCapacity() throws SQLException;
+
+    /**
+     * @return All tables, by id.
+     * @throws SQLException If the storage cannot be read.
+     */
+    List<Table> findAll() throws SQLException;
+
+    /**
+     * @param tableId     The table.
+     * @param newCapacity Its new capacity.
+     * @return {@code true} if the table exists.
+     * @throws SQLException If the storage cannot be updated.
+     */
+    boolean updateCapacity(int tableId, int newCapacity) throws SQLException;
+
+    /**
+     * Adds a free table with the next unused id. Run it inside a transaction, so that two
+     * tables added at the same time get different ids.
+     *
+     * @param capacity     The capacity of the new table.
+     * @param restaurantId The restaurant that owns it.
+     * @return The id of the new table.
+     * @throws SQLException If the table could not be stored.
+     */
+    int add(int capacity, int restaurantId) throws SQLException;
+
+    /**
+     * Removes a table. Past visits at it are kept and moved to the archive table id -1.
+     *
+     * @param tableId The table.
+     * @return {@code true} if the table existed.
+     * @throws SQLException If the storage cannot be updated.
+     */
+    boolean delete(int tableId) throws SQLException;
+}
@@ -0,0 +1,16 @@
+package dbLogic.repository;
+
+import java.sql.SQLException;
+
+/**
+ * Access to the {@code user} and {@code subscriber} records needed by the seating flows.
+ */
+public interface UserRepository {
+
+    /**
+     * @param userId The user.
+     * @return {@code true} if the user is a subscriber, and so gets the subscriber discount.
+     * @throws SQLException If the storage cannot be read.
+     */
+    boolean isSubscriber(int userId) throws SQLException;
+}
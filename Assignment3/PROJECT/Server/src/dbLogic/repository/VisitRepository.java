@@ -0,0 +1,53 @@
+package dbLogic.repository;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import common.Visit;
+
+/**
+ * Access to the {@code visit} records of seated guests.
+ */
+public interface VisitRepository {
+
+    /**
+     * Records an {@code ACTIVE} visit starting now.
+     *
+     * @param code    The confirmation code of the reservation or waiting list entry.
+     * @param tableId The table the guests sit at.
+     * @param userId  The guest.
+     * @param billId  The bill opened for the visit.
+     * @throws SQLException If the visit could not be stored.
+     */
+    void insert(long code, int tableId, int userId, int billId) throws SQLException;
+
+    /**
+     * @param code The confirmation code.
+     * @return The visit if it is {@code ACTIVE}, otherwise {@code null}.
+     * @throws SQLException If the storage cannot be read.
+     */
+    Visit findActive(long code) throws SQLException;
+
+    /**
+     * Returns the table of an {@code ACTIVE} visit, locking the visit until the running
+     * transaction ends.
+     *
+     * @param code The confirmation code.
+     * @return The table id, or -1 if there is no active visit with that code.
+     * @throws SQLException If the storage cannot be read.
+     */
+    int lockTableOf(long code) throws SQLException;
+
+    /**
+     * @param code The confirmation code of the visit to mark {@code FINISHED}.
+     * @throws SQLException If the storage cannot be updated.
+     */
+    void finish(long code) throws SQLException;
+
+    /**
+     * @return The {@code ACTIVE} visits, each with the party size of its reservation or
+     *         waiting list entry.
+     * @throws SQLException If the storage cannot be read.
+     */
+    List<Visit> findActiveWithGuests() throws SQLException;
+}
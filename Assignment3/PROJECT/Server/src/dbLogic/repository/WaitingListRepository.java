@@ -0,0 +1,89 @@
+package dbLogic.repository;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import common.WaitingListEntry;
+
+/**
+ * Access to the {@code waiting_list_entry} records.
+ */
+public interface WaitingListRepository {
+
+    /**
+     * Adds an entry, with the current time as its entry time.
+     *
+     * @param code           The confirmation code of the entry.
+     * @param userId         The guest.
+     * @param numberOfGuests The party size.
+     * @param status         The initial status.
+     * @throws SQLException If the entry could not be stored.
+     */
+    void insert(long code, int userId, int numberOfGuests, String status) throws SQLException;
+
+    /**
+     * @param code The confirmation code.
+     * @return The entry, or {@code null} if there is none.
+     * @throws SQLException If the storage cannot be read.
+     */
+    WaitingListEntry findByCode(long code) throws SQLException;
+
+    /**
+     * @param code The confirmation code.
+     * @return The status of the entry, or {@code null} if there is none.
+     * @throws SQLException If the storage cannot be read.
+     */
+    String getStatus(long code) throws SQLException;
+
+    /**
+     * Changes the status of an entry and records the current time as its notification time.
+     *
+     * @param code      The confirmation code.
+     * @param newStatus The new status.
+     * @throws SQLException If the storage cannot be updated.
+     */
+    void updateStatus(long code, String newStatus) throws SQLException;
+
+    /**
+     * Marks an entry {@code ARRIVED} when its guests are seated; its notification time is kept.
+     *
+     * @param code The confirmation code.
+     * @throws SQLException If the storage cannot be updated.
+     */
+    void markArrived(long code) throws SQLException;
+
+    /**
+     * @return The entries in {@code WAITING} status, oldest first.
+     * @throws SQLException If the storage cannot be read.
+     */
+    List<WaitingListEntry> findWaitingOrderedByEntryTime() throws SQLException;
+
+    /**
+     * @return {@code true} if at least one entry is {@code WAITING}.
+     * @throws SQLException If the storage cannot be read.
+     */
+    boolean hasWaiting() throws SQLException;
+
+    /**
+     * @param userId The guest.
+     * @return {@code true} if the guest has an entry that is {@code WAITING} or {@code ARRIVED}.
+     * @throws SQLException If the storage cannot be read.
+     */
+    boolean isUserActive(int userId) throws SQLException;
+
+    /**
+     * @param status A status.
+     * @return The party size of every entry in that status.
+     * @throws SQLException If the storage cannot be read.
+     */
+    List<Integer> partySizesWithStatus(String status) throws SQLException;
+
+    /**
+     * Cancels an entry if it is still {@code WAITING}.
+     *
+     * @param code The confirmation code.
+     * @return The number of entries cancelled, 0 or 1.
+     * @throws SQLException If the storage cannot be updated.
+     */
+    int cancelWaitingByCode(long code) throws SQLException;
+}
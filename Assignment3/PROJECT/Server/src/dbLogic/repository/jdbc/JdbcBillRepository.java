@@ -0,0 +1,42 @@
+package dbLogic.repository.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import common.Bill;
+import dbLogic.repository.BillRepository;
+
+/**
+ * {@link BillRepository} over the {@code bill} table.
+ */
+class JdbcBillRepository implements BillRepository {
+
+    @Override
+    public int createEmpty() throws SQLException {
+        String sql = "INSERT INTO bill (base_amount, discount_percent, final_amount, is_paid) VALUES (0, 0, 0, 0)";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) {
+                    return keys.getInt(1);
+                }
+            }
+        }
+        throw new SQLException("Failed to create bill record.");
+    }
+
+    @Override
+    public void markPaid(Bill bill) throws SQLException {
+        String sql = "UPDATE bill SET base_amount = ?, discount_percent = ?, final_amount = ?, is_paid = 1, "
+                + "payment_time = NOW() WHERE bill_id = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setDouble(1, bill.getBaseAmount());
+            ps.setDouble(2, bill.getDiscountPercent());
+            ps.setDouble(3, bill.getFinalAmount());
+            ps.setLong(4, bill.getBillId());
+            ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package dbLogic.repository.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import common.Reservation;
+import dbLogic.repository.ReservationRepository;
+
+/**
+ * {@link ReservationRepository} over the {@code reservation} table.
+ */
+class JdbcReservationRepository implements ReservationRepository {
+
+    private static final DateTimeFormatter SQL_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:00");
+
+    @Override
+    public long insert(Reservation res, int tableSize) throws SQLException {
+        String sql = "INSERT INTO reservation (reservation_datetime, number_of_guests, user_id, status) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, res.getReservationDateTime());
+            ps.setInt(2, tableSize); // the capacity allocated, which may exceed the party size
+            ps.setInt(3, res.getUserId());
+            ps.setString(4, res.getStatusString());
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) {
+                    return keys.getLong(1);
+                }
+            }
+        }
+        throw new SQLException("No confirmation code was generated for the reservation");
+    }
+
+    @Override
+    public Reservation findByCode(long code) throws SQLException {
+        String sql = "SELECT * FROM reservation WHERE confirmation_code = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setLong(1, code);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                Reservation res = new Reservation(rs.getInt("user_id"), rs.getString("reservation_datetime"),
+                        rs.getInt("number_of_guests"));
+                res.setConfirmationCode(code);
+                res.setStatus(Reservation.ReservationStatus.valueOf(rs.getString("status")));
+                return res;
+            }
+        }
+    }
+
+    @Override
+    public String getStatus(long code) throws SQLException {
+        String sql = "SELECT status FROM reservation WHERE confirmation_code = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setLong(1, code);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString("status") : null;
+            }
+        }
+    }
+
+    @Override
+    public boolean updateStatus(long code, String newStatus) throws SQLException {
+        String sql = "UPDATE reservation SET status = ? WHERE confirmation_code = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setString(1, newStatus);
+            ps.setLong(2, code);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public boolean updateStatusIf(long code, String expectedStatus, String newStatus) throws SQLException {
+        String sql = "UPDATE reservation SET status = ? WHERE confirmation_code = ? AND status = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setString(1, newStatus);
+            ps.setLong(2, code);
+            ps.setString(3, expectedStatus);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public int countOverlapping(int tableSize, LocalDateTime at) throws SQLException {
+        // A table is occupied if a reservation exists within a 4-hour window (+/- 2 hours)
+        String sql = "SELECT COUNT(*) FROM reservation " + "WHERE number_of_guests = ? "
+                + "AND status NOT IN ('CANCELLED', 'FINISHED', 'NOSHOW') "
+                + "AND reservation_datetime > DATE_SUB(?, INTERVAL 2 HOUR) "
+                + "AND reservation_datetime < DATE_ADD(?, INTERVAL 2 HOUR)";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setInt(1, tableSize);
+            ps.setString(2, at.format(SQL_FORMATTER));
+            ps.setString(3, at.format(SQL_FORMATTER));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    @Override
+    public List<Reservation> findHolding(LocalDateTime from, LocalDateTime to) throws SQLException {
+        List<Reservation> holding = new ArrayList<>();
+        String sql = "SELECT confirmation_code, reservation_datetime, number_of_guests, user_id, status "
+                + "FROM reservation WHERE reservation_datetime >= ? AND reservation_datetime < ? "
+                + "AND status NOT IN ('CANCELLED', 'FINISHED', 'NOSHOW')";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setObject(1, from);
+            ps.setObject(2, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Reservation res = new Reservation(rs.getInt("user_id"), rs.getString("reservation_datetime"),
+                            rs.getInt("number_of_guests"));
+                    res.setConfirmationCode(rs.getLong("confirmation_code"));
+                    res.setStatus(Reservation.ReservationStatus.valueOf(rs.getString("status")));
+                    holding.add(res);
+                }
+            }
+        }
+        return holding;
+    }
+
+    @Override
+    public int sumExpectedGuests(LocalDateTime from, LocalDateTime to) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(number_of_guests), 0) FROM reservation "
+                + "WHERE reservation_datetime >= ? AND reservation_datetime < ? "
+                + "AND status IN ('ACTIVE', 'WAITING_AT_RESTAURANT', 'NOTIFIED')";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setObject(1, from);
+            ps.setObject(2, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    @Override
+    public Long findFirstWaitingAtRestaurant(int maxGuests) throws SQLException {
+        String sql = "SELECT confirmation_code FROM reservation "
+                + "WHERE status = 'WAITING_AT_RESTAURANT' AND number_of_guests <= ? "
+                + "ORDER BY reservation_datetime ASC LIMIT 1";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setInt(1, maxGuests);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong("confirmation_code") : null;
+            }
+        }
+    }
+
+    @Override
+    public List<Integer> partySizesWithStatus(String status) throws SQLException {
+        List<Integer> sizes = new ArrayList<>();
+        String sql = "SELECT number_of_guests FROM reservation WHERE status = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setString(1, status);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    sizes.add(rs.getInt(1));
+                }
+            }
+        }
+        return sizes;
+    }
+}
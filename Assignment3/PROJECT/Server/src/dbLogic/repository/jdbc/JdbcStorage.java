@@ -0,0 +1,69 @@
+package dbLogic.repository.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import MainControllers.DBController;
+import dbLogic.repository.BillRepository;
+import dbLogic.repository.ReservationRepository;
+import dbLogic.repository.Storage;
+import dbLogic.repository.TableRepository;
+import dbLogic.repository.UserRepository;
+import dbLogic.repository.VisitRepository;
+import dbLogic.repository.WaitingListRepository;
+
+/**
+ * The MySQL backend.
+ * <p>
+ * Every repository runs its SQL on the calling thread's pooled connection from
+ * {@link DBController#getConnection()}, so calls made inside {@link #inTransaction(UnitOfWork)}
+ * take part in the same database transaction, with its deadlock retry.
+ * </p>
+ */
+public class JdbcStorage implements Storage {
+
+    private final ReservationRepository reservations = new JdbcReservationRepository();
+    private final WaitingListRepository waitingList = new JdbcWaitingListRepository();
+    private final TableRepository tables = new JdbcTableRepository();
+    private final VisitRepository visits = new JdbcVisitRepository();
+    private final BillRepository bills = new JdbcBillRepository();
+    private final UserRepository users = new JdbcUserRepository();
+
+    @Override
+    public String getName() { return "jdbc"; }
+
+    @Override
+    public ReservationRepository reservations() { return reservations; }
+
+    @Override
+    public WaitingListRepository waitingList() { return waitingList; }
+
+    @Override
+    public TableRepository tables() { return tables; }
+
+    @Override
+    public VisitRepository visits() { return visits; }
+
+    @Override
+    public BillRepository bills() { return bills; }
+
+    @Override
+    public UserRepository users() { return users; }
+
+    @Override
+    public <T> T inTransaction(UnitOfWork<T> work) throws SQLException {
+        return DBController.getInstance().inTransaction(conn -> work.run());
+    }
+
+    /**
+     * @return The calling thread's connection.
+     * @throws SQLException If no connection is available.
+     */
+    static Connection connection() throws SQLException {
+        Connection conn = DBController.getInstance().getConnection();
+        if (conn == null) {
+            throw new SQLException("No database connection available");
+        }
+        return conn;
+    }
+}
@@ -0,0 +1,166 @@
+package dbLogic.repository.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import common.Table;
+import dbLogic.repository.TableRepository;
+
+/**
+ * {@link TableRepository} over the {@code table} and {@code restaurant_table} tables.
+ */
+class JdbcTableRepository implements TableRepository {
+
+    @Override
+    public int getCapacity(int tableId) throws SQLException {
+        String sql = "SELECT capacity FROM `table` WHERE table_id = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setInt(1, tableId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt("capacity") : 0;
+            }
+        }
+    }
+
+    @Override
+    public int findBestFreeTable(int guests) throws SQLException {
+        String sql = "SELECT table_id FROM `table` WHERE is_available = 1 AND capacity >= ? "
+                + "ORDER BY capacity ASC LIMIT 1";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setInt(1, guests);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt("table_id") : -1;
+            }
+        }
+    }
+
+    @Override
+    public List<Integer> findFreeTables(int guests) throws SQLException {
+        List<Integer> tableIds = new ArrayList<>();
+        String sql = "SELECT table_id FROM `table` WHERE capacity >= ? AND is_available = 1 "
+                + "ORDER BY capacity ASC";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setInt(1, guests);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    tableIds.add(rs.getInt("table_id"));
+                }
+            }
+        }
+        return tableIds;
+    }
+
+    @Override
+    public List<Integer> freeCapacities() throws SQLException {
+        List<Integer> capacities = new ArrayList<>();
+        String sql = "SELECT capacity FROM `table` WHERE is_available = 1 ORDER BY capacity ASC";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                capacities.add(rs.getInt("capacity"));
+            }
+        }
+        return capacities;
+    }
+
+    @Override
+    public void setAvailable(int tableId, boolean available) throws SQLException {
+        String sql = "UPDATE `table` SET is_available = ? WHERE table_id = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setBoolean(1, available);
+            ps.setInt(2, tableId);
+            ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public int totalCapacity() throws SQLException {
+        return sumCapacity("SELECT COALESCE(SUM(capacity), 0) FROM `table`");
+    }
+
+    @Override
+    public int occupiedCapacity() throws SQLException {
+        return sumCapacity("SELECT COALESCE(SUM(capacity), 0) FROM `table` WHERE is_available = 0");
+    }
+
+    @Override
+    public List<Table> findAll() throws SQLException {
+        List<Table> tables = new ArrayList<>();
+        String sql = "SELECT * FROM `table` ORDER BY table_id ASC";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                tables.add(new Table(rs.getInt("table_id"), rs.getInt("capacity"), rs.getBoolean("is_available")));
+            }
+        }
+        return tables;
+    }
+
+    @Override
+    public boolean updateCapacity(int tableId, int newCapacity) throws SQLException {
+        String sql = "UPDATE `table` SET capacity = ? WHERE table_id = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setInt(1, newCapacity);
+            ps.setInt(2, tableId);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public int add(int capacity, int restaurantId) throws SQLException {
+        Connection conn = JdbcStorage.connection();
+        int newId = 1;
+        // The highest id stays locked until the transaction ends
+        try (PreparedStatement ps = conn.prepareStatement("SELECT MAX(table_id) FROM `table` FOR UPDATE");
+             ResultSet rs = ps.executeQuery()) {
+            if (rs.next()) {
+                newId = Math.max(1, rs.getInt(1) + 1);
+            }
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO `table` (table_id, capacity, is_available) VALUES (?, ?, 1)")) {
+            ps.setInt(1, newId);
+            ps.setInt(2, capacity);
+            ps.executeUpdate();
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO `restaurant_table` (restaurant_id, table_id) VALUES (?, ?)")) {
+            ps.setInt(1, restaurantId);
+            ps.setInt(2, newId);
+            ps.executeUpdate();
+        }
+        return newId;
+    }
+
+    @Override
+    public boolean delete(int tableId) throws SQLException {
+        Connection conn = JdbcStorage.connection();
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE `visit` SET table_id = -1 WHERE table_id = ?")) {
+            ps.setInt(1, tableId);
+            ps.executeUpdate();
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM `restaurant_table` WHERE table_id = ?")) {
+            ps.setInt(1, tableId);
+            ps.executeUpdate();
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM `table` WHERE table_id = ?")) {
+            ps.setInt(1, tableId);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    private static int sumCapacity(String sql) throws SQLException {
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
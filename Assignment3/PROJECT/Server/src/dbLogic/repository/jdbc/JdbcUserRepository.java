@@ -0,0 +1,24 @@
+package dbLogic.repository.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import dbLogic.repository.UserRepository;
+
+/**
+ * {@link UserRepository} over the {@code subscriber} table.
+ */
+class JdbcUserRepository implements UserRepository {
+
+    @Override
+    public boolean isSubscriber(int userId) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM subscriber WHERE user_id = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package dbLogic.repository.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import common.Visit;
+import dbLogic.repository.VisitRepository;
+
+/**
+ * {@link VisitRepository} over the {@code visit} table.
+ */
+class JdbcVisitRepository implements VisitRepository {
+
+    @Override
+    public void insert(long code, int tableId, int userId, int billId) throws SQLException {
+        String sql = "INSERT INTO visit (confirmation_code, table_id, user_id, bill_id, start_time, status) "
+                + "VALUES (?, ?, ?, ?, NOW(), 'ACTIVE')";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setLong(1, code);
+            ps.setInt(2, tableId);
+            ps.setInt(3, userId);
+            ps.setInt(4, billId);
+            ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public Visit findActive(long code) throws SQLException {
+        String sql = "SELECT * FROM visit WHERE confirmation_code = ? AND status = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setLong(1, code);
+            ps.setString(2, Visit.VisitStatus.ACTIVE.name());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new Visit(rs.getLong("confirmation_code"), rs.getInt("table_id"), rs.getInt("user_id"),
+                            rs.getLong("bill_id"), rs.getString("start_time"), Visit.VisitStatus.ACTIVE);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int lockTableOf(long code) throws SQLException {
+        String sql = "SELECT table_id FROM visit WHERE confirmation_code = ? AND status = ? FOR UPDATE";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setLong(1, code);
+            ps.setString(2, Visit.VisitStatus.ACTIVE.name());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt("table_id") : -1;
+            }
+        }
+    }
+
+    @Override
+    public void finish(long code) throws SQLException {
+        String sql = "UPDATE visit SET status = 'FINISHED' WHERE confirmation_code = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setLong(1, code);
+            ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public List<Visit> findActiveWithGuests() throws SQLException {
+        List<Visit> activeDiners = new ArrayList<>();
+        String sql = "SELECT v.*, COALESCE(r.number_of_guests, w.number_of_guests) as guests FROM visit v "
+                + "LEFT JOIN reservation r ON v.confirmation_code = r.confirmation_code "
+                + "LEFT JOIN waiting_list_entry w ON v.confirmation_code = w.confirmation_code "
+                + "WHERE v.status = 'ACTIVE'";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Visit v = new Visit(rs.getLong("confirmation_code"), rs.getInt("table_id"), rs.getInt("user_id"),
+                        rs.getLong("bill_id"), rs.getString("start_time"), Visit.VisitStatus.ACTIVE);
+                v.setNumberOfGuests(rs.getInt("guests"));
+                activeDiners.add(v);
+            }
+        }
+        return activeDiners;
+    }
+}
@@ -0,0 +1,139 @@
+package dbLogic.repository.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import common.WaitingListEntry;
+import dbLogic.repository.WaitingListRepository;
+
+/**
+ * {@link WaitingListRepository} over the {@code waiting_list_entry} table.
+ */
+class JdbcWaitingListRepository implements WaitingListRepository {
+
+    @Override
+    public void insert(long code, int userId, int numberOfGuests, String status) throws SQLException {
+        String sql = "INSERT INTO waiting_list_entry "
+                + "(confirmation_code, entry_time, number_of_guests, user_id, status, notification_time) "
+                + "VALUES (?, NOW(), ?, ?, ?, NULL)";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setLong(1, code);
+            ps.setInt(2, numberOfGuests);
+            ps.setInt(3, userId);
+            ps.setString(4, status);
+            ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public WaitingListEntry findByCode(long code) throws SQLException {
+        String sql = "SELECT confirmation_code, entry_time, number_of_guests, user_id, status, notification_time "
+                + "FROM waiting_list_entry WHERE confirmation_code = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setLong(1, code);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? toEntry(rs) : null;
+            }
+        }
+    }
+
+    @Override
+    public String getStatus(long code) throws SQLException {
+        String sql = "SELECT status FROM waiting_list_entry WHERE confirmation_code = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setLong(1, code);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString("status") : null;
+            }
+        }
+    }
+
+    @Override
+    public void updateStatus(long code, String newStatus) throws SQLException {
+        String sql = "UPDATE waiting_list_entry SET status = ?, notification_time = NOW() "
+                + "WHERE confirmation_code = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setString(1, newStatus);
+            ps.setLong(2, code);
+            ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public void markArrived(long code) throws SQLException {
+        String sql = "UPDATE waiting_list_entry SET status = 'ARRIVED' WHERE confirmation_code = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setLong(1, code);
+            ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public List<WaitingListEntry> findWaitingOrderedByEntryTime() throws SQLException {
+        List<WaitingListEntry> waitingList = new ArrayList<>();
+        String sql = "SELECT confirmation_code, entry_time, number_of_guests, user_id, status, notification_time "
+                + "FROM waiting_list_entry WHERE status = 'WAITING' ORDER BY entry_time ASC";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                waitingList.add(toEntry(rs));
+            }
+        }
+        return waitingList;
+    }
+
+    @Override
+    public boolean hasWaiting() throws SQLException {
+        String sql = "SELECT COUNT(*) FROM waiting_list_entry WHERE status = 'WAITING'";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() && rs.getInt(1) > 0;
+        }
+    }
+
+    @Override
+    public boolean isUserActive(int userId) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM waiting_list_entry "
+                + "WHERE user_id = ? AND (status = 'WAITING' OR status = 'ARRIVED')";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    @Override
+    public List<Integer> partySizesWithStatus(String status) throws SQLException {
+        List<Integer> sizes = new ArrayList<>();
+        String sql = "SELECT number_of_guests FROM waiting_list_entry WHERE status = ?";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setString(1, status);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    sizes.add(rs.getInt(1));
+                }
+            }
+        }
+        return sizes;
+    }
+
+    @Override
+    public int cancelWaitingByCode(long code) throws SQLException {
+        String sql = "UPDATE waiting_list_entry SET status = 'CANCELLED' "
+                + "WHERE confirmation_code = ? AND status = 'WAITING'";
+        try (PreparedStatement ps = JdbcStorage.connection().prepareStatement(sql)) {
+            ps.setLong(1, code);
+            return ps.executeUpdate();
+        }
+    }
+
+    private static WaitingListEntry toEntry(ResultSet rs) throws SQLException {
+        return new WaitingListEntry(rs.getLong("confirmation_code"), rs.getString("entry_time"),
+                rs.getInt("number_of_guests"), rs.getInt("user_id"), rs.getString("status"),
+                rs.getString("notification_time"));
+    }
+}
@@ -0,0 +1,56 @@
+package dbLogic.repository.memory;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import common.Bill;
+import dbLogic.repository.BillRepository;
+
+/**
+ * {@link BillRepository} in memory.
+ */
+public class MemoryBillRepository implements BillRepository {
+
+    /** One bill; replaced as a whole when it is paid. */
+    private static final class Row {
+        final double baseAmount;
+        final double discountPercent;
+        final double finalAmount;
+        final LocalDateTime paymentTime;
+
+        Row(double baseAmount, double discountPercent, double finalAmount, LocalDateTime paymentTime) {
+            this.baseAmount = baseAmount;
+            this.discountPercent = discountPercent;
+            this.finalAmount = finalAmount;
+            this.paymentTime = paymentTime;
+        }
+    }
+
+    private static final Row UNPAID = new Row(0, 0, 0, null);
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final ConcurrentHashMap<Integer, Row> bills = new ConcurrentHashMap<>();
+
+    @Override
+    public int createEmpty() {
+        int billId = nextId.getAndIncrement();
+        bills.put(billId, UNPAID);
+        return billId;
+    }
+
+    @Override
+    public void markPaid(Bill bill) {
+        bills.replace((int) bill.getBillId(), new Row(bill.getBaseAmount(), bill.getDiscountPercent(),
+                bill.getFinalAmount(), LocalDateTime.now()));
+    }
+
+    /**
+     * @param billId The bill.
+     * @return {@code true} if the bill exists and has been paid.
+     */
+    public boolean isPaid(int billId) {
+        Row row = bills.get(billId);
+        return row != null && row.paymentTime != null;
+    }
+}
@@ -0,0 +1,201 @@
+package dbLogic.repository.memory;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import common.Reservation;
+import dbLogic.repository.ReservationRepository;
+
+/**
+ * {@link ReservationRepository} in memory.
+ * <p>
+ * Reservations are indexed twice: by confirmation code in a hash map, and by date-time in a
+ * skip list, so that the availability queries read only the reservations of their time window.
+ * </p>
+ */
+public class MemoryReservationRepository implements ReservationRepository {
+
+    private static final DateTimeFormatter TEXT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /** One stored reservation; only its status changes. */
+    private static final class Row {
+        final long code;
+        final int userId;
+        final LocalDateTime at;
+        final int guests;
+        final AtomicReference<String> status;
+
+        Row(long code, int userId, LocalDateTime at, int guests, String status) {
+            this.code = code;
+            this.userId = userId;
+            this.at = at;
+            this.guests = guests;
+            this.status = new AtomicReference<>(status);
+        }
+
+        /** Changes the status from {@code expected}, compared with equals, to {@code next}. */
+        boolean transition(String expected, String next) {
+            String current;
+            do {
+                current = status.get();
+                if (!current.equals(expected)) {
+                    return false;
+                }
+            } while (!status.compareAndSet(current, next));
+            return true;
+        }
+
+        /** A search key that sorts before every reservation at {@code at}. */
+        static Row before(LocalDateTime at) {
+            return new Row(Long.MIN_VALUE, 0, at, 0, null);
+        }
+
+        /** A search key that sorts after every reservation at {@code at}. */
+        static Row after(LocalDateTime at) {
+            return new Row(Long.MAX_VALUE, 0, at, 0, null);
+        }
+    }
+
+    private final AtomicLong nextCode = new AtomicLong(1);
+    private final ConcurrentHashMap<Long, Row> byCode = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Row> byTime = new ConcurrentSkipListSet<>(
+            Comparator.<Row, LocalDateTime>comparing(r -> r.at).thenComparingLong(r -> r.code));
+
+    @Override
+    public long insert(Reservation res, int tableSize) throws SQLException {
+        Row row = new Row(nextCode.getAndIncrement(), res.getUserId(), parse(res.getReservationDateTime()),
+                tableSize, res.getStatusString());
+        byCode.put(row.code, row);
+        byTime.add(row);
+        return row.code;
+    }
+
+    @Override
+    public Reservation findByCode(long code) {
+        Row row = byCode.get(code);
+        if (row == null) {
+            return null;
+        }
+        Reservation res = new Reservation(row.userId, row.at.format(TEXT_FORMATTER), row.guests);
+        res.setConfirmationCode(code);
+        res.setStatus(Reservation.ReservationStatus.valueOf(row.status.get()));
+        return res;
+    }
+
+    @Override
+    public String getStatus(long code) {
+        Row row = byCode.get(code);
+        return row == null ? null : row.status.get();
+    }
+
+    @Override
+    public boolean updateStatus(long code, String newStatus) {
+        Row row = byCode.get(code);
+        if (row == null) {
+            return false;
+        }
+        row.status.set(newStatus);
+        return true;
+    }
+
+    @Override
+    public boolean updateStatusIf(long code, String expectedStatus, String newStatus) {
+        Row row = byCode.get(code);
+        if (row == null) {
+            return false;
+        }
+        return row.transition(expectedStatus, newStatus);
+    }
+
+    @Override
+    public int countOverlapping(int tableSize, LocalDateTime at) {
+        LocalDateTime minute = at.truncatedTo(ChronoUnit.MINUTES);
+        NavigableSet<Row> window = byTime.subSet(Row.after(minute.minusHours(2)), false,
+                Row.before(minute.plusHours(2)), false);
+        int count = 0;
+        for (Row row : window) {
+            if (row.guests == tableSize && holdsTable(row.status.get())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public List<Reservation> findHolding(LocalDateTime from, LocalDateTime to) {
+        List<Reservation> holding = new ArrayList<>();
+        for (Row row : byTime.subSet(Row.before(from), true, Row.before(to), false)) {
+            if (holdsTable(row.status.get())) {
+                holding.add(findByCode(row.code));
+            }
+        }
+        return holding;
+    }
+
+    @Override
+    public int sumExpectedGuests(LocalDateTime from, LocalDateTime to) {
+        int sum = 0;
+        for (Row row : byTime.subSet(Row.before(from), true, Row.before(to), false)) {
+            if (isExpected(row.status.get())) {
+                sum += row.guests;
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public Long findFirstWaitingAtRestaurant(int maxGuests) {
+        for (Row row : byTime) {
+            if (row.guests <= maxGuests && "WAITING_AT_RESTAURANT".equals(row.status.get())) {
+                return row.code;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<Integer> partySizesWithStatus(String status) {
+        List<Integer> sizes = new ArrayList<>();
+        for (Row row : byCode.values()) {
+            if (status.equals(row.status.get())) {
+                sizes.add(row.guests);
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * @param code The confirmation code.
+     * @return The number of guests of the reservation, or {@code null} if there is none.
+     */
+    Integer guestsOf(long code) {
+        Row row = byCode.get(code);
+        return row == null ? null : row.guests;
+    }
+
+    private static boolean holdsTable(String status) {
+        return !status.equals("CANCELLED") && !status.equals("FINISHED") && !status.equals("NOSHOW");
+    }
+
+    private static boolean isExpected(String status) {
+        return status.equals("ACTIVE") || status.equals("WAITING_AT_RESTAURANT") || status.equals("NOTIFIED");
+    }
+
+    private static LocalDateTime parse(String dateTime) throws SQLException {
+        try {
+            return LocalDateTime.parse(dateTime.trim().replace(' ', 'T'));
+        } catch (RuntimeException e) {
+            throw new SQLException("Invalid reservation date-time: " + dateTime, e);
+        }
+    }
+}
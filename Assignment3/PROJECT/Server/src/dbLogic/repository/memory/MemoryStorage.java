@@ -0,0 +1,80 @@
+package dbLogic.repository.memory;
+
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import dbLogic.repository.Storage;
+import dbLogic.repository.UserRepository;
+
+/**
+ * A storage backend that keeps the reservation, seating and waiting list records in memory.
+ * <p>
+ * Every repository is safe to call from many threads at once: records live in concurrent maps,
+ * status changes are atomic per record, and reads never block. It is meant for load tests,
+ * simulations and demos without MySQL; nothing survives a restart.
+ * </p>
+ * <p>
+ * <b>Transactions:</b> {@link #inTransaction(UnitOfWork)} runs units of work one at a time under
+ * a single reentrant lock, so a read-then-write flow (find a free table, then occupy it) cannot
+ * interleave with another one. There is no rollback: if a unit of work fails half-way, the
+ * writes it already made stay. The seating flows validate before they write, so this only
+ * matters for a failure that the JDBC backend would have rolled back.
+ * </p>
+ */
+public class MemoryStorage implements Storage {
+
+    private final ReentrantLock transactionLock = new ReentrantLock();
+
+    private final MemoryReservationRepository reservations = new MemoryReservationRepository();
+    private final MemoryWaitingListRepository waitingList = new MemoryWaitingListRepository();
+    private final MemoryVisitRepository visits = new MemoryVisitRepository(reservations, waitingList);
+    private final MemoryTableRepository tables = new MemoryTableRepository(visits);
+    private final MemoryBillRepository bills = new MemoryBillRepository();
+    private final UserRepository users;
+
+    /** Creates an empty storage that also keeps its subscribers in memory. */
+    public MemoryStorage() {
+        this(new MemoryUserRepository());
+    }
+
+    /**
+     * Creates an empty storage that reads the subscribers from another store, such as the
+     * database that also serves the logins.
+     *
+     * @param users The subscriber lookups.
+     */
+    public MemoryStorage(UserRepository users) {
+        this.users = users;
+    }
+
+    @Override
+    public String getName() { return "memory"; }
+
+    @Override
+    public MemoryReservationRepository reservations() { return reservations; }
+
+    @Override
+    public MemoryWaitingListRepository waitingList() { return waitingList; }
+
+    @Override
+    public MemoryTableRepository tables() { return tables; }
+
+    @Override
+    public MemoryVisitRepository visits() { return visits; }
+
+    @Override
+    public MemoryBillRepository bills() { return bills; }
+
+    @Override
+    public UserRepository users() { return users; }
+
+    @Override
+    public <T> T inTransaction(UnitOfWork<T> work) throws SQLException {
+        transactionLock.lock();
+        try {
+            return work.run();
+        } finally {
+            transactionLock.unlock();
+        }
+    }
+}
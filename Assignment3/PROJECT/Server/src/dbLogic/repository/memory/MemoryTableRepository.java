@@ -0,0 +1,162 @@
+package dbLogic.repository.memory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import common.Table;
+import dbLogic.repository.TableRepository;
+
+/**
+ * {@link TableRepository} in memory, with the tables kept in id order.
+ * <p>
+ * A new storage has no tables; the server copies them from the database at start-up with
+ * {@link #put(int, int, boolean)}, and benchmarks create their own.
+ * </p>
+ */
+public class MemoryTableRepository implements TableRepository {
+
+    /** One table; its capacity and availability change. */
+    private static final class Row {
+        final int id;
+        volatile int capacity;
+        final AtomicBoolean available;
+
+        Row(int id, int capacity, boolean available) {
+            this.id = id;
+            this.capacity = capacity;
+            this.available = new AtomicBoolean(available);
+        }
+    }
+
+    private final ConcurrentSkipListMap<Integer, Row> tables = new ConcurrentSkipListMap<>();
+    private final MemoryVisitRepository visits;
+
+    MemoryTableRepository(MemoryVisitRepository visits) {
+        this.visits = visits;
+    }
+
+    /**
+     * Stores a table with a given id, replacing any table with that id.
+     *
+     * @param tableId   The table id.
+     * @param capacity  Its capacity.
+     * @param available {@code true} if it is free.
+     */
+    public void put(int tableId, int capacity, boolean available) {
+        tables.put(tableId, new Row(tableId, capacity, available));
+    }
+
+    @Override
+    public int getCapacity(int tableId) {
+        Row row = tables.get(tableId);
+        return row == null ? 0 : row.capacity;
+    }
+
+    @Override
+    public int findBestFreeTable(int guests) {
+        Row best = null;
+        for (Row row : tables.values()) {
+            if (row.available.get() && row.capacity >= guests && (best == null || row.capacity < best.capacity)) {
+                best = row;
+            }
+        }
+        return best == null ? -1 : best.id;
+    }
+
+    @Override
+    public List<Integer> findFreeTables(int guests) {
+        List<Row> free = new ArrayList<>();
+        for (Row row : tables.values()) {
+            if (row.available.get() && row.capacity >= guests) {
+                free.add(row);
+            }
+        }
+        free.sort(Comparator.comparingInt(r -> r.capacity));
+        List<Integer> tableIds = new ArrayList<>(free.size());
+        for (Row row : free) {
+            tableIds.add(row.id);
+        }
+        return tableIds;
+    }
+
+    @Override
+    public List<Integer> freeCapacities() {
+        List<Integer> capacities = new ArrayList<>();
+        for (Row row : tables.values()) {
+            if (row.available.get()) {
+                capacities.add(row.capacity);
+            }
+        }
+        capacities.sort(null);
+        return capacities;
+    }
+
+    @Override
+    public void setAvailable(int tableId, boolean available) {
+        Row row = tables.get(tableId);
+        if (row != null) {
+            row.available.set(available);
+        }
+    }
+
+    @Override
+    public int totalCapacity() {
+        int sum = 0;
+        for (Row row : tables.values()) {
+            sum += row.capacity;
+        }
+        return sum;
+    }
+
+    @Override
+    public int occupiedCapacity() {
+        int sum = 0;
+        for (Row row : tables.values()) {
+            if (!row.available.get()) {
+                sum += row.capacity;
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public List<Table> findAll() {
+        List<Table> all = new ArrayList<>();
+        for (Row row : tables.values()) {
+            all.add(new Table(row.id, row.capacity, row.available.get()));
+        }
+        return all;
+    }
+
+    @Override
+    public boolean updateCapacity(int tableId, int newCapacity) {
+        Row row = tables.get(tableId);
+        if (row == null) {
+            return false;
+        }
+        row.capacity = newCapacity;
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The restaurant id is not stored: the memory storage holds a single restaurant.
+     * </p>
+     */
+    @Override
+    public synchronized int add(int capacity, int restaurantId) {
+        int newId = tables.isEmpty() ? 1 : Math.max(1, tables.lastKey() + 1);
+        tables.put(newId, new Row(newId, capacity, true));
+        return newId;
+    }
+
+    @Override
+    public boolean delete(int tableId) {
+        visits.moveToTable(tableId, -1);
+        return tables.remove(tableId) != null;
+    }
+}
@@ -0,0 +1,26 @@
+package dbLogic.repository.memory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import dbLogic.repository.UserRepository;
+
+/**
+ * {@link UserRepository} in memory: only which users are subscribers is kept.
+ */
+public class MemoryUserRepository implements UserRepository {
+
+    private final Set<Integer> subscribers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param userId A user to record as a subscriber.
+     */
+    public void addSubscriber(int userId) {
+        subscribers.add(userId);
+    }
+
+    @Override
+    public boolean isSubscriber(int userId) {
+        return subscribers.contains(userId);
+    }
+}
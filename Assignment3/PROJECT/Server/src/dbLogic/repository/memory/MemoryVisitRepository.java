@@ -0,0 +1,118 @@
+package dbLogic.repository.memory;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import common.Visit;
+import dbLogic.repository.VisitRepository;
+
+/**
+ * {@link VisitRepository} in memory.
+ * <p>
+ * The party size of a visit is read from the reservation or waiting list entry with the same
+ * confirmation code, as the JDBC backend joins it.
+ * </p>
+ */
+public class MemoryVisitRepository implements VisitRepository {
+
+    private static final DateTimeFormatter TEXT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /** One visit; its table and status change. */
+    private static final class Row {
+        final long code;
+        volatile int tableId;
+        final int userId;
+        final int billId;
+        final String startTime;
+        volatile boolean active = true;
+
+        Row(long code, int tableId, int userId, int billId) {
+            this.code = code;
+            this.tableId = tableId;
+            this.userId = userId;
+            this.billId = billId;
+            this.startTime = LocalDateTime.now().format(TEXT_FORMATTER);
+        }
+    }
+
+    private final ConcurrentHashMap<Long, Row> visits = new ConcurrentHashMap<>();
+    private final MemoryReservationRepository reservations;
+    private final MemoryWaitingListRepository waitingList;
+
+    MemoryVisitRepository(MemoryReservationRepository reservations, MemoryWaitingListRepository waitingList) {
+        this.reservations = reservations;
+        this.waitingList = waitingList;
+    }
+
+    @Override
+    public void insert(long code, int tableId, int userId, int billId) {
+        visits.put(code, new Row(code, tableId, userId, billId));
+    }
+
+    @Override
+    public Visit findActive(long code) {
+        Row row = visits.get(code);
+        return row == null || !row.active ? null : toVisit(row);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The memory storage has no row locks; run this inside
+     * {@link MemoryStorage#inTransaction(dbLogic.repository.Storage.UnitOfWork)}, whose lock
+     * serializes the payment flows instead.
+     * </p>
+     */
+    @Override
+    public int lockTableOf(long code) {
+        Row row = visits.get(code);
+        return row == null || !row.active ? -1 : row.tableId;
+    }
+
+    @Override
+    public void finish(long code) {
+        Row row = visits.get(code);
+        if (row != null) {
+            row.active = false;
+        }
+    }
+
+    @Override
+    public List<Visit> findActiveWithGuests() {
+        List<Visit> active = new ArrayList<>();
+        for (Row row : visits.values()) {
+            if (row.active) {
+                Visit v = toVisit(row);
+                Integer guests = reservations.guestsOf(row.code);
+                if (guests == null) {
+                    guests = waitingList.guestsOf(row.code);
+                }
+                v.setNumberOfGuests(guests == null ? 0 : guests);
+                active.add(v);
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Moves the visits at one table to another, as when a table is deleted.
+     *
+     * @param fromTableId The table the visits are at.
+     * @param toTableId   The table to record instead.
+     */
+    void moveToTable(int fromTableId, int toTableId) {
+        for (Row row : visits.values()) {
+            if (row.tableId == fromTableId) {
+                row.tableId = toTableId;
+            }
+        }
+    }
+
+    private static Visit toVisit(Row row) {
+        return new Visit(row.code, row.tableId, row.userId, row.billId, row.startTime,
+                row.active ? Visit.VisitStatus.ACTIVE : Visit.VisitStatus.FINISHED);
+    }
+}
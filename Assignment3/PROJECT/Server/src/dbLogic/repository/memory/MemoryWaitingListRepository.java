@@ -0,0 +1,164 @@
+package dbLogic.repository.memory;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import common.WaitingListEntry;
+import dbLogic.repository.WaitingListRepository;
+
+/**
+ * {@link WaitingListRepository} in memory.
+ * <p>
+ * Entries are kept by confirmation code and, for the queue order, by arrival sequence number.
+ * </p>
+ */
+public class MemoryWaitingListRepository implements WaitingListRepository {
+
+    private static final DateTimeFormatter TEXT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /** MySQL error code of a duplicate primary key, reported for a code that is already used. */
+    private static final int DUPLICATE_ENTRY = 1062;
+
+    /** One stored entry; its status and notification time change. */
+    private static final class Row {
+        final long code;
+        final int userId;
+        final int guests;
+        final LocalDateTime entryTime;
+        final AtomicReference<String> status;
+        volatile LocalDateTime notificationTime;
+
+        Row(long code, int userId, int guests, String status) {
+            this.code = code;
+            this.userId = userId;
+            this.guests = guests;
+            this.entryTime = LocalDateTime.now();
+            this.status = new AtomicReference<>(status);
+        }
+
+        /** Changes the status from {@code expected}, compared with equals, to {@code next}. */
+        boolean transition(String expected, String next) {
+            String current;
+            do {
+                current = status.get();
+                if (!current.equals(expected)) {
+                    return false;
+                }
+            } while (!status.compareAndSet(current, next));
+            return true;
+        }
+    }
+
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final ConcurrentHashMap<Long, Row> byCode = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Row> queue = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void insert(long code, int userId, int numberOfGuests, String status) throws SQLException {
+        Row row = new Row(code, userId, numberOfGuests, status);
+        if (byCode.putIfAbsent(code, row) != null) {
+            throw new SQLException("Duplicate entry '" + code + "' for key 'PRIMARY'", "23000", DUPLICATE_ENTRY);
+        }
+        queue.put(nextSequence.getAndIncrement(), row);
+    }
+
+    @Override
+    public WaitingListEntry findByCode(long code) {
+        Row row = byCode.get(code);
+        return row == null ? null : toEntry(row);
+    }
+
+    @Override
+    public String getStatus(long code) {
+        Row row = byCode.get(code);
+        return row == null ? null : row.status.get();
+    }
+
+    @Override
+    public void updateStatus(long code, String newStatus) {
+        Row row = byCode.get(code);
+        if (row != null) {
+            row.status.set(newStatus);
+            row.notificationTime = LocalDateTime.now();
+        }
+    }
+
+    @Override
+    public void markArrived(long code) {
+        Row row = byCode.get(code);
+        if (row != null) {
+            row.status.set("ARRIVED");
+        }
+    }
+
+    @Override
+    public List<WaitingListEntry> findWaitingOrderedByEntryTime() {
+        List<WaitingListEntry> waiting = new ArrayList<>();
+        for (Row row : queue.values()) {
+            if ("WAITING".equals(row.status.get())) {
+                waiting.add(toEntry(row));
+            }
+        }
+        return waiting;
+    }
+
+    @Override
+    public boolean hasWaiting() {
+        for (Row row : queue.values()) {
+            if ("WAITING".equals(row.status.get())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isUserActive(int userId) {
+        for (Row row : byCode.values()) {
+            String status = row.status.get();
+            if (row.userId == userId && (status.equals("WAITING") || status.equals("ARRIVED"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<Integer> partySizesWithStatus(String status) {
+        List<Integer> sizes = new ArrayList<>();
+        for (Row row : byCode.values()) {
+            if (status.equals(row.status.get())) {
+                sizes.add(row.guests);
+            }
+        }
+        return sizes;
+    }
+
+    @Override
+    public int cancelWaitingByCode(long code) {
+        Row row = byCode.get(code);
+        return row != null && row.transition("WAITING", "CANCELLED") ? 1 : 0;
+    }
+
+    /**
+     * @param code The confirmation code.
+     * @return The party size of the entry, or {@code null} if there is none.
+     */
+    Integer guestsOf(long code) {
+        Row row = byCode.get(code);
+        return row == null ? null : row.guests;
+    }
+
+    private static WaitingListEntry toEntry(Row row) {
+        LocalDateTime notified = row.notificationTime;
+        return new WaitingListEntry(row.code, row.entryTime.format(TEXT_FORMATTER), row.guests, row.userId,
+                row.status.get(), notified == null ? null : notified.format(TEXT_FORMATTER));
+    }
+}
@@ -1,9 +1,11 @@
 package dbLogic.restaurantDB;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import MainControllers.DBController;
+
+import common.WaitingListEntry;
+import dbLogic.repository.Repositories;
+import dbLogic.repository.WaitingListRepository;
+import serverLogic.terminal.ArrivalStatusNotifier;
 
 /**
  * Controller class responsible for handling the cancellation of waiting list
@@ -13,7 +15,8 @@ public class CancelWaitingListController {
 
 	/**
 	 * Cancels a waiting list entry based on the user's ID. Updates the status to
-	 * 'CANCELLED' only if the current status is 'WAITING'.
+	 * 'CANCELLED' only if the current status is 'WAITING'. Each entry is cancelled
+	 * by its code so that a terminal waiting on it can be told.
 	 *
 	 * @param userId The unique identifier of the user whose entry should be
 	 *               cancelled.
@@ -23,14 +26,15 @@ public class CancelWaitingListController {
 	 *                      access errors.
 	 */
 	public static int cancelWaitingEntry(int userId) {
-		String query = "UPDATE waiting_list_entry SET status = 'CANCELLED' "
-				+ "WHERE user_id = ? AND status = 'WAITING'";
-
-		Connection conn = DBController.getInstance().getConnection();
-
-		try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-			pstmt.setInt(1, userId);
-			int rowsAffected = pstmt.executeUpdate();
+		try {
+			WaitingListRepository waitingList = Repositories.get().waitingList();
+			int rowsAffected = 0;
+			for (WaitingListEntry entry : waitingList.findWaitingOrderedByEntryTime()) {
+				if (entry.getUserId() == userId && waitingList.cancelWaitingByCode(entry.getConfirmationCode()) > 0) {
+					ArrivalStatusNotifier.publish(entry.getConfirmationCode(), "CANCELLED");
+					rowsAffected++;
+				}
+			}
 
 			// If rowsAffected > 0, it means an entry was found and updated
 			return rowsAffected > 0 ? 1 : 0;
@@ -52,15 +56,11 @@ public class CancelWaitingListController {
 	 *                      access errors.
 	 */
 	public static int cancelWaitingEntry(long confirmationCode) { // Changed parameter to long
-		// Updated query to filter by confirmation_code instead of user_id
-		String query = "UPDATE waiting_list_entry SET status = 'CANCELLED' "
-				+ "WHERE confirmation_code = ? AND status = 'WAITING'";
-
-		Connection conn = DBController.getInstance().getConnection();
-
-		try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-			pstmt.setLong(1, confirmationCode); // Use setLong for the code
-			int rowsAffected = pstmt.executeUpdate();
+		try {
+			int rowsAffected = Repositories.get().waitingList().cancelWaitingByCode(confirmationCode);
+			if (rowsAffected > 0) {
+				ArrivalStatusNotifier.publish(confirmationCode, "CANCELLED");
+			}
 
 			return rowsAffected > 0 ? 1 : 0;
 
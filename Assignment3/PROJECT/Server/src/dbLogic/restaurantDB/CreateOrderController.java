@@ -1,17 +1,20 @@
 package dbLogic.restaurantDB; // Define the package for restaurant database logic
 
-import java.sql.*; // Import SQL classes for database interactions
+import java.sql.SQLException; // Import SQLException for database error handling
 import java.time.LocalDate; // Import LocalDate for date manipulation
 import java.time.LocalDateTime; // Import LocalDateTime for date and time manipulation
-import java.time.LocalTime; // Import LocalTime for time manipulation
 import java.time.format.DateTimeFormatter; // Import DateTimeFormatter for formatting date-time strings
+import java.time.temporal.ChronoUnit; // Import ChronoUnit for counting days between dates
 import java.util.*; // Import utility classes like List, Map, and Collections
 
-import MainControllers.DBController; // Import the database singleton controller
+import common.AvailabilityGrid; // Import the bookable slots DTO of the reservation screen
 import common.Reservation; // Import the Reservation DTO
 import common.Restaurant; // Import the Restaurant domain entity
 import common.ServiceResponse; // Import the service response wrapper
 import common.ServiceResponse.ServiceStatus; // Import the status enum for service responses
+import dbLogic.repository.Repositories; // Import the storage backend holder
+import serverLogic.serverRestaurant.OpeningHours; // Import the compiled opening hours
+import serverLogic.serverRestaurant.ReservationOccupancyIndex; // Import the in-memory booked-slots index
 import serverLogic.serverRestaurant.RestaurantManager; // Import the manager to access restaurant data
 
 /**
@@ -25,6 +28,15 @@ public class CreateOrderController { // Start of CreateOrderController class def
 	private static final DateTimeFormatter sqlFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:00"); // Formatter
 																												// definition
 
+	// Formatter for the suggested slots sent back to the client ('YYYY-MM-DD HH:mm')
+	private static final DateTimeFormatter suggestionFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"); // Formatter
+
+	// The most alternative slots offered when the requested slot is full
+	private static final int SUGGESTION_COUNT = 3; // Top-K size
+
+	// The days covered by the availability grid of the reservation screen
+	private static final int GRID_DAYS = 30; // Grid length
+
 	/**
 	 * Entry point for processing a new reservation request from the Client.
 	 * Validates operating hours, checks availability, and provides suggestions if
@@ -33,7 +45,7 @@ public class CreateOrderController { // Start of CreateOrderController class def
 	 * @param res The Reservation object containing requested date, time, and guest
 	 *            count.
 	 * @return A ServiceResponse indicating SUCCESS (with confirmation code),
-	 *         SUGGESTION, FULL, or ERROR.
+	 *         SUGGESTION (with a list of alternative slots), FULL, or ERROR.
 	 * @throws Exception if parsing or internal logic fails (caught internally).
 	 */
 	public static ServiceResponse processNewReservation(Reservation res) { // Start of processNewReservation method
@@ -57,25 +69,9 @@ public class CreateOrderController { // Start of CreateOrderController class def
 
 			// --- PHASE 0: Operating Hours Validation (2-Hour Dining Window) ---
 
-			// Extract the date from the requested timestamp
-			LocalDate date = requestedDT.toLocalDate(); // Get date part
-
-			// Extract the starting time of the reservation
-			LocalTime startTime = requestedDT.toLocalTime(); // Get time part
-
-			// Calculate the expected end time (standard 2-hour meal duration)
-			LocalTime endTime = startTime.plusHours(2); // Add 2 hours to start time
-
-			// Format times to "HH:mm" for comparison with restaurant operating hours
-			String startTimeStr = startTime.format(DateTimeFormatter.ofPattern("HH:mm")); // Format start time
-			String endTimeStr = endTime.format(DateTimeFormatter.ofPattern("HH:mm")); // Format end time
-
 			// Logic: The restaurant must be open at the start AND at the end of the 2-hour
 			// window
-			boolean isStartOpen = restaurant.isOpen(date, startTimeStr); // Check opening at start
-			boolean isEndOpen = restaurant.isOpen(date, endTimeStr); // Check opening at end
-
-			if (!isStartOpen || !isEndOpen) { // If closed during any part of the window
+			if (!isOpenForMeal(requestedDT)) { // If closed during any part of the window
 				// Return a specific status informing the client that the time is outside
 				// operational hours
 				return new ServiceResponse(ServiceStatus.RESERVATION_OUT_OF_HOURS,
@@ -94,7 +90,7 @@ public class CreateOrderController { // Start of CreateOrderController class def
 
 				// Persist the reservation in the database and get the generated confirmation
 				// code
-				Long confCode = saveNewReservation(res, allocatedTableSize); // Attempting to save to DB
+				Long confCode = saveNewReservation(res, requestedDT, allocatedTableSize); // Attempting to save to DB
 
 				if (confCode != null) { // If the database successfully returned a primary key
 					// Return success with the unique confirmation code as the payload
@@ -107,54 +103,23 @@ public class CreateOrderController { // Start of CreateOrderController class def
 																														// return
 			} // End of Phase 1 success check
 
-			// --- PHASE 2: 3-Day Lookahead (Intelligent Suggestions) ---
-
-			// If the requested slot is full, iterate through the next 3 days to find a
-			// match
-			for (int i = 1; i <= 3; i++) { // Start of lookahead loop
-
-				// Calculate the timestamp for the current iteration (Day + i)
-				LocalDateTime nextDT = requestedDT.plusDays(i); // Adding i days
-				LocalDate nextDate = nextDT.toLocalDate(); // Extracting date
+			// --- PHASE 2: Nearest Alternatives (Intelligent Suggestions) ---
 
-				// Define the 2-hour meal window for the suggested day
-				LocalTime nextStart = nextDT.toLocalTime(); // Getting suggested start time
-				LocalTime nextEnd = nextStart.plusHours(2); // Calculating suggested end time
+			// If the requested slot is full, search outward from the requested time for
+			// the closest free slots
+			List<String> suggestions = findNearestSlots(restaurant, requestedDT, res.getNumberOfGuests()); // Searching
 
-				// Format suggested times for operational checks
-				String nextStartTimeStr = nextStart.format(DateTimeFormatter.ofPattern("HH:mm")); // Formatting start
-				String nextEndTimeStr = nextEnd.format(DateTimeFormatter.ofPattern("HH:mm")); // Formatting end
-
-				// Check 1: Is the restaurant open for the full duration on this alternative
-				// day?
-				boolean isNextDayOpen = (restaurant.isOpen(nextDate, nextStartTimeStr)
-						&& restaurant.isOpen(nextDate, nextEndTimeStr)); // Boolean check
-
-				if (isNextDayOpen) { // If open on the alternative day
-
-					// Check 2: Is there an available table of the required size at this suggested
-					// time?
-					int suggestedTableSize = findAvailableTableSize(restaurant, nextDT, res.getNumberOfGuests()); // Checking
-																													// availability
-
-					if (suggestedTableSize != -1) { // If capacity is found on this alternative day
-
-						// Format the suggested date-time into a string for the client to display
-						String suggestion = nextDT.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")); // Formatting
-																											// suggestion
-
-						// Return a suggestion response containing the alternative slot
-						return new ServiceResponse(ServiceStatus.RESERVATION_SUGGESTION, suggestion); // Suggestion
+			if (!suggestions.isEmpty()) { // If at least one alternative slot was found
+				// Return a suggestion response containing the alternatives, closest first
+				return new ServiceResponse(ServiceStatus.RESERVATION_SUGGESTION, suggestions); // Suggestion
 																										// return
-					} // End of capacity check
-				} // End of open check
-			} // End of 3-day lookahead loop
+			} // End of suggestions check
 
 			// --- PHASE 3: Capacity Reached ---
 
-			// If no slots were found in the requested time or the 3-day window, inform the
-			// client
-			return new ServiceResponse(ServiceStatus.RESERVATION_FULL, "No tables available for the next 3 days."); // Full
+			// If no slots were found in the requested time or the booking window, inform
+			// the client
+			return new ServiceResponse(ServiceStatus.RESERVATION_FULL, "No tables available within the booking window."); // Full
 																													// return
 
 		} catch (Exception e) { // Catch block for any unexpected runtime exceptions
@@ -166,9 +131,163 @@ public class CreateOrderController { // Start of CreateOrderController class def
 		} // End of try-catch block
 	} // End of processNewReservation method
 
+	/**
+	 * Computes which half-hour slots of the next {@value #GRID_DAYS} days a party
+	 * can book, for the reservation screen to grey out the full ones. Availability
+	 * is read from the occupancy index in one pass; a slot is marked if a table
+	 * that fits the party is free for the whole meal, the restaurant is open at its
+	 * start and end, and it is between one hour and one month from now. If the
+	 * index cannot answer, every slot within hours and the window is marked, and
+	 * CREATE_RESERVATION makes the check as before.
+	 *
+	 * @param guests The number of guests in the party.
+	 * @return The grid of bookable slots, starting today.
+	 */
+	public static AvailabilityGrid getAvailabilityGrid(int guests) { // Start of getAvailabilityGrid method
+		LocalDateTime now = LocalDateTime.now(); // Current time
+		LocalDateTime earliest = now.plusHours(1); // Earliest bookable start
+		LocalDateTime latest = now.plusMonths(1); // Latest bookable start
+		LocalDate today = now.toLocalDate(); // The grid starts today
+
+		BitSet bookable = new BitSet(GRID_DAYS * AvailabilityGrid.SLOTS_PER_DAY); // The bookable slots
+		Restaurant restaurant = RestaurantManager.getInstance(); // Retrieving singleton instance
+		if (restaurant == null || guests <= 0) { // If nothing can be booked
+			return new AvailabilityGrid(today, GRID_DAYS, guests, bookable); // Return an empty grid
+		} // End of input check
+
+		// One bitmap of the 15-minute slots at which the party can start a meal, read from RAM
+		BitSet free = RestaurantManager.occupancy().freeStarts(restaurant.getFullInventory(), guests, today,
+				GRID_DAYS); // Index scan
+		int step = AvailabilityGrid.SLOT_MINUTES / ReservationOccupancyIndex.SLOT_MINUTES; // Index slots per grid slot
+
+		for (int slot = 0; slot < GRID_DAYS * AvailabilityGrid.SLOTS_PER_DAY; slot++) { // Start of slots loop
+			if (free != null && !free.get(slot * step)) { // If no table fits the party for the whole meal
+				continue; // Leave the slot greyed out
+			} // End of free check
+			LocalDateTime start = today.atStartOfDay().plusMinutes((long) slot * AvailabilityGrid.SLOT_MINUTES);
+			if (!start.isBefore(earliest) && !start.isAfter(latest) && isOpenForMeal(start)) {
+				bookable.set(slot); // Within the window and opening hours
+			} // End of window and hours check
+		} // End of slots loop
+
+		return new AvailabilityGrid(today, GRID_DAYS, guests, bookable); // Return the computed grid
+	} // End of getAvailabilityGrid method
+
+	/**
+	 * Finds the free slots closest to a full requested time, in one pass over the
+	 * occupancy index. Candidates are the 15-minute slots of the booking window,
+	 * scanned outward from the requested time: earlier and later on the same day
+	 * first, then the same way on each following day. A candidate is kept if a
+	 * table that fits the party is free for the whole meal, the restaurant is open
+	 * at its start and end, and it is between one hour and one month from now.
+	 *
+	 * @param restaurant  The restaurant instance containing the table inventory.
+	 * @param requestedDT The requested date and time, which is full.
+	 * @param guests      The number of guests in the party.
+	 * @return Up to {@value #SUGGESTION_COUNT} slots as 'YYYY-MM-DD HH:mm', closest
+	 *         first; empty if none is free.
+	 */
+	private static List<String> findNearestSlots(Restaurant restaurant, LocalDateTime requestedDT, int guests) { // Start
+																											// method
+		// The booking window enforced by the client: one hour to one month ahead
+		LocalDateTime now = LocalDateTime.now(); // Current time
+		LocalDateTime earliest = now.plusHours(1); // Earliest bookable start
+		LocalDateTime latest = now.plusMonths(1); // Latest bookable start
+
+		List<String> suggestions = new ArrayList<>(); // The collected alternatives
+		LocalDate firstDay = requestedDT.toLocalDate(); // The search starts on the requested day
+		int days = (int) ChronoUnit.DAYS.between(firstDay, latest.toLocalDate()) + 1; // Days left to search
+		if (days <= 0) { // If the requested day is already beyond the window
+			return suggestions; // Nothing to suggest
+		} // End of window check
+
+		// One bitmap of the slots at which the party can start a meal, read from RAM
+		BitSet free = RestaurantManager.occupancy().freeStarts(restaurant.getFullInventory(), guests, firstDay,
+				days); // Index scan
+		if (free == null) { // If the index cannot answer (not loaded, or outside the horizon)
+			return findNextDaysSlots(restaurant, requestedDT, guests); // Fall back to the database lookahead
+		} // End of index check
+
+		int slotMinutes = ReservationOccupancyIndex.SLOT_MINUTES; // Length of one candidate slot
+		int slotsPerDay = 24 * 60 / slotMinutes; // Candidate slots in a day
+		int requestedSlot = (requestedDT.getHour() * 60 + requestedDT.getMinute()) / slotMinutes; // Requested slot
+
+		for (int day = 0; day < days && suggestions.size() < SUGGESTION_COUNT; day++) { // Start of days loop
+			// Walk outward from the requested time of day, earlier slot before later slot
+			for (int distance = 0; distance < slotsPerDay && suggestions.size() < SUGGESTION_COUNT; distance++) {
+				for (int side = -1; side <= 1 && suggestions.size() < SUGGESTION_COUNT; side += 2) { // Earlier, then later
+					int slot = requestedSlot + side * distance; // The candidate slot of this day
+					if ((distance == 0 && (side > 0 || day == 0)) || slot < 0 || slot >= slotsPerDay) {
+						continue; // Skip the requested slot itself, duplicates and other days' slots
+					} // End of range check
+					if (!free.get(day * slotsPerDay + slot)) { // If no table fits the party for the whole meal
+						continue; // Skip full slots
+					} // End of free check
+
+					LocalDateTime candidate = firstDay.plusDays(day).atStartOfDay().plusMinutes((long) slot * slotMinutes);
+					if (candidate.isBefore(earliest) || candidate.isAfter(latest)) { // Outside the booking window
+						continue; // Skip it
+					} // End of booking window check
+					if (isOpenForMeal(candidate)) { // If the restaurant is open for the whole meal
+						suggestions.add(candidate.format(suggestionFormatter)); // Keep the alternative
+					} // End of hours check
+				} // End of sides loop
+			} // End of distance loop
+		} // End of days loop
+
+		return suggestions; // Return the closest alternatives found
+	} // End of findNearestSlots method
+
+	/**
+	 * Fallback when the occupancy index cannot answer: retries the requested time
+	 * on each of the next 3 days, checking availability one day at a time.
+	 *
+	 * @param restaurant  The restaurant instance containing the table inventory.
+	 * @param requestedDT The requested date and time, which is full.
+	 * @param guests      The number of guests in the party.
+	 * @return The free slots found as 'YYYY-MM-DD HH:mm', earliest first.
+	 */
+	private static List<String> findNextDaysSlots(Restaurant restaurant, LocalDateTime requestedDT, int guests) { // Start
+																											// method
+		List<String> suggestions = new ArrayList<>(); // The collected alternatives
+
+		for (int i = 1; i <= 3 && suggestions.size() < SUGGESTION_COUNT; i++) { // Start of lookahead loop
+			// Calculate the timestamp for the current iteration (Day + i)
+			LocalDateTime nextDT = requestedDT.plusDays(i); // Adding i days
+
+			// Is the restaurant open for the full duration, and is a table of the required
+			// size free at this suggested time?
+			if (isOpenForMeal(nextDT) && findAvailableTableSize(restaurant, nextDT, guests) != -1) {
+				suggestions.add(nextDT.format(suggestionFormatter)); // Keep the alternative
+			} // End of availability check
+		} // End of 3-day lookahead loop
+
+		return suggestions; // Return the alternatives found
+	} // End of findNextDaysSlots method
+
+	/**
+	 * Checks that the restaurant is open at the start and at the end of a 2-hour
+	 * meal, both on the day of the meal. Each check is a bit test in the compiled
+	 * {@link OpeningHours}.
+	 *
+	 * @param start The start of the meal.
+	 * @return true if the restaurant is open at both ends of the meal.
+	 */
+	private static boolean isOpenForMeal(LocalDateTime start) { // Start method
+		OpeningHours hours = RestaurantManager.hours(); // The compiled opening hours
+		if (hours == null) { // If no restaurant is loaded
+			return false; // Treat it as closed
+		} // End of null check
+		LocalDate date = start.toLocalDate(); // The day of the meal
+		int startMinute = start.getHour() * 60 + start.getMinute(); // Minute of the day at the start
+		int endMinute = (startMinute + 120) % (24 * 60); // Minute of the day 2 hours later, same day
+		return hours.isOpen(date, startMinute) && hours.isOpen(date, endMinute); // Both ends open
+	} // End of isOpenForMeal method
+
 	/**
 	 * Finds the smallest available table size that can accommodate the party size.
-	 * Uses a "Best Fit" logic by sorting available capacities.
+	 * Uses a "Best Fit" logic by sorting available capacities. Bookings are read
+	 * from the in-memory {@link ReservationOccupancyIndex}, without SQL.
 	 *
 	 * @param restaurant    The restaurant instance containing the physical
 	 *                      inventory.
@@ -209,9 +328,11 @@ public class CreateOrderController { // Start of CreateOrderController class def
 	} // End of findAvailableTableSize method
 
 	/**
-	 * Queries the database to count existing reservations that overlap with the
-	 * requested slot. A slot is considered occupied if another reservation exists
-	 * within a +/- 2-hour window.
+	 * Counts the tables of one size that are booked during the 2-hour meal starting
+	 * at the requested time: the most bookings in any 15-minute slot of the meal,
+	 * read from the occupancy index. Times beyond the indexed horizon fall back to
+	 * the database, where a slot is considered occupied if another reservation
+	 * exists within a +/- 2-hour window.
 	 *
 	 * @param dt       The requested date and time.
 	 * @param capacity The table capacity being checked.
@@ -220,29 +341,15 @@ public class CreateOrderController { // Start of CreateOrderController class def
 	 */
 	private static int getReservedTablesCount(LocalDateTime dt, int capacity) { // Start method
 
-		// Query Logic: A table is occupied if a reservation exists within a 4-hour
-		// window (+/- 2 hours)
-		String query = "SELECT COUNT(*) FROM reservation " + "WHERE number_of_guests = ? "
-				+ "AND status NOT IN ('CANCELLED', 'FINISHED', 'NOSHOW') "
-				+ "AND reservation_datetime > DATE_SUB(?, INTERVAL 2 HOUR) "
-				+ "AND reservation_datetime < DATE_ADD(?, INTERVAL 2 HOUR)";
-
-		try (PreparedStatement pstmt = DBController.getInstance().getConnection().prepareStatement(query)) { // Prepare
-																												// statement
-			// Bind the table capacity being checked to the first parameter
-			pstmt.setInt(1, capacity); // Setting capacity
-
-			// Bind the requested time to the window boundaries (using DATE_SUB and DATE_ADD
-			// in SQL)
-			pstmt.setString(2, dt.format(sqlFormatter)); // Setting lower boundary
-			pstmt.setString(3, dt.format(sqlFormatter)); // Setting upper boundary
-
-			try (ResultSet rs = pstmt.executeQuery()) { // Execute count query
-				// If a result is found, return the count from the first column
-				if (rs.next()) { // If row exists
-					return rs.getInt(1); // Return the count
-				} // End if
-			} // End result set try
+		// Answer from RAM when the time is within the booking horizon
+		int booked = RestaurantManager.occupancy().maxBooked(capacity, dt); // Index lookup
+		if (booked != -1) { // If the time is indexed
+			return booked; // Return the booked tables
+		} // End of index check
+
+		try { // Start of storage access
+			// Logic: A table is occupied if a reservation exists within a 4-hour window (+/- 2 hours)
+			return Repositories.get().reservations().countOverlapping(capacity, dt); // Return the count
 		} catch (SQLException e) { // Catch block for SQL errors
 			// Log technical details
 			e.printStackTrace(); // Printing stack trace
@@ -255,43 +362,28 @@ public class CreateOrderController { // Start of CreateOrderController class def
 
 	/**
 	 * Persists a new reservation record in the database and retrieves the
-	 * confirmation code.
+	 * confirmation code. The booking is added to the occupancy index together
+	 * with the insert.
 	 *
 	 * @param res            The Reservation DTO containing customer and booking
 	 *                       details.
+	 * @param dt             The date and time of the reservation.
 	 * @param finalTableSize The actual table capacity allocated for this booking.
 	 * @return The generated confirmation code (Long), or null if the operation
 	 *         fails.
 	 * @throws SQLException If a database access error occurs (caught internally).
 	 */
-	private static Long saveNewReservation(Reservation res, int finalTableSize) { // Start method
-
-		// Insert query for the reservation table
-		String query = "INSERT INTO reservation (reservation_datetime, number_of_guests, user_id, status) VALUES (?, ?, ?, ?)"; // SQL
-																																// string
-
-		// Obtain connection from the DB singleton
-		Connection conn = DBController.getInstance().getConnection(); // Getting connection
-
-		try (PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) { // Prepare with
-																										// key retrieval
-
-			// Bind parameters from the DTO and the calculated table size
-			pstmt.setString(1, res.getReservationDateTime()); // Bind date-time string
-			pstmt.setInt(2, finalTableSize); // Bind the capacity allocated (might be larger than guest count)
-			pstmt.setInt(3, res.getUserId()); // Bind the customer ID
-			pstmt.setString(4, res.getStatusString()); // Bind the initial status (ACTIVE)
-
-			// Execute the insert and check if it affected any rows
-			if (pstmt.executeUpdate() > 0) { // If insertion was successful
-
-				// Retrieve the auto-incremented primary key (Confirmation Code)
-				try (ResultSet gk = pstmt.getGeneratedKeys()) { // Getting generated keys
-					if (gk.next()) { // If key exists
-						return gk.getLong(1); // Return the unique long ID
-					} // End if
-				} // End result set try
-			} // End of update check
+	private static Long saveNewReservation(Reservation res, LocalDateTime dt, int finalTableSize) { // Start method
+
+		ReservationOccupancyIndex occupancy = RestaurantManager.occupancy(); // The booked slots index
+		try { // Start of storage access
+			return occupancy.update(() -> { // Insert and index together
+				// Store the DTO with the capacity allocated (might be larger than guest count)
+				// and return the generated primary key (Confirmation Code)
+				long code = Repositories.get().reservations().insert(res, finalTableSize); // The unique long ID
+				occupancy.add(code, finalTableSize, dt); // Hold the table size in the meal's slots
+				return code; // Return the unique long ID
+			}); // End of update
 		} catch (SQLException e) { // Catch database exceptions
 			// Print technical error details
 			e.printStackTrace(); // Logging error
@@ -7,8 +7,10 @@ import java.util.ArrayList; // Importing ArrayList for result aggregation
 import java.util.List; // Importing List interface
 
 import MainControllers.DBController; // Importing the central DB connection manager
+import common.Page; // Importing the page of a long list
 import common.Reservation; // Importing the Reservation domain entity
 import common.Reservation.ReservationStatus; // Importing reservation status enum
+import dbLogic.PageRequest; // Importing the requested page of a list
 
 /**
  * Database controller responsible for retrieving reservation history data.
@@ -17,32 +19,48 @@ import common.Reservation.ReservationStatus; // Importing reservation status enu
 public class DBReservationsHistoryController {
 
 	/**
-	 * Retrieves all reservations associated with a given user ID from the database.
-	 * The results are sorted by the reservation date and time in descending order
-	 * (most recent first).
+	 * Retrieves one page of the reservations associated with a given user ID from the
+	 * database, including those already moved to {@code reservation_archive}. The
+	 * results are sorted by the reservation date and time in descending order (most
+	 * recent first), then by confirmation code; the cursor is that pair.
 	 *
 	 * @param userId The unique identifier of the subscriber whose history is being
 	 *               fetched.
-	 * @return A List of {@link Reservation} objects representing the user's
-	 *         complete history. Returns an empty list if no records are found or if
-	 *         an error occurs.
+	 * @param page   The requested page.
+	 * @return A {@link Page} of {@link Reservation} objects from the user's history.
+	 *         Returns an empty page if no records are found or if an error occurs.
 	 * @throws Exception Although exceptions are caught internally, this method
 	 *                   interacts with the database and handles SQL-related issues.
 	 */
-	public List<Reservation> getReservationsForUser(int userId) {
+	public Page<Reservation> getReservationsForUser(int userId, PageRequest page) {
 
 		// Container for the retrieved reservation records
 		List<Reservation> reservations = new ArrayList<>();
 
-		// SQL query for fetching reservation history for a specific user
+		// SQL query for fetching one page of reservation history for a specific user, live
+		// and archived. Each half reads on from the cursor along (user_id, reservation_datetime).
 		String sql = """
-				    SELECT confirmation_code,
-				           reservation_datetime,
-				           number_of_guests,
-				           status
-				    FROM reservation
-				    WHERE user_id = ?
-				    ORDER BY reservation_datetime DESC
+				    (SELECT confirmation_code,
+				            reservation_datetime,
+				            number_of_guests,
+				            status
+				     FROM reservation
+				     WHERE user_id = ?
+				       AND (reservation_datetime < ? OR (reservation_datetime = ? AND confirmation_code < ?))
+				     ORDER BY reservation_datetime DESC, confirmation_code DESC
+				     LIMIT ?)
+				    UNION ALL
+				    (SELECT confirmation_code,
+				            reservation_datetime,
+				            number_of_guests,
+				            status
+				     FROM reservation_archive
+				     WHERE user_id = ?
+				       AND (reservation_datetime < ? OR (reservation_datetime = ? AND confirmation_code < ?))
+				     ORDER BY reservation_datetime DESC, confirmation_code DESC
+				     LIMIT ?)
+				    ORDER BY reservation_datetime DESC, confirmation_code DESC
+				    LIMIT ?
 				""";
 
 		try {
@@ -51,7 +69,17 @@ public class DBReservationsHistoryController {
 			// Prepare a parameterized SQL statement to prevent SQL injection
 			try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-				pstmt.setInt(1, userId); // Bind the user ID to the query parameter
+				String afterTime = page.after(0, "9999-12-31 23:59:59");
+				long afterCode = Long.parseLong(page.after(1, String.valueOf(Long.MAX_VALUE)));
+				for (int half = 0; half < 2; half++) { // Bind the user ID and cursor to both halves
+					int base = half * 5;
+					pstmt.setInt(base + 1, userId);
+					pstmt.setString(base + 2, afterTime);
+					pstmt.setString(base + 3, afterTime);
+					pstmt.setLong(base + 4, afterCode);
+					pstmt.setInt(base + 5, page.limit());
+				}
+				pstmt.setInt(11, page.limit());
 				ResultSet rs = pstmt.executeQuery(); // Execute the query and retrieve the result set
 
 				// Iterate over all matching reservation records
@@ -80,7 +108,8 @@ public class DBReservationsHistoryController {
 			e.printStackTrace();
 		}
 
-		// Return the complete reservation history list
-		return reservations;
+		// Return the requested page, with the cursor of the next one
+		return page.toPage(reservations,
+				r -> new Object[] { r.getReservationDateTime(), r.getConfirmationCode() });
 	}
 }
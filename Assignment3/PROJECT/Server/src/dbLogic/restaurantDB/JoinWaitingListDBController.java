@@ -1,15 +1,11 @@
 package dbLogic.restaurantDB;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.LocalDate;
-import java.time.LocalTime;
-import java.time.format.TextStyle;
-import java.util.Locale;
+import java.time.LocalDateTime;
 
-import MainControllers.DBController;
+import dbLogic.repository.Repositories;
+import serverLogic.serverRestaurant.OpeningHours;
+import serverLogic.serverRestaurant.RestaurantManager;
 
 /**
  * Handles database operations related to the waiting_list_entry table. Provides
@@ -32,20 +28,7 @@ public class JoinWaitingListDBController {
 	public static void insertWaitingListEntry(long confirmationCode, int userId, int numberOfGuests, String status)
 			throws SQLException {
 
-		String sql = "INSERT INTO waiting_list_entry "
-				+ "(confirmation_code, entry_time, number_of_guests, user_id, status, notification_time) "
-				+ "VALUES (?, NOW(), ?, ?, ?, NULL)";
-
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement ps = conn.prepareStatement(sql)) {
-
-			ps.setLong(1, confirmationCode);
-			ps.setInt(2, numberOfGuests);
-			ps.setInt(3, userId);
-			ps.setString(4, status);
-
-			ps.executeUpdate();
-		}
+		Repositories.get().waitingList().insert(confirmationCode, userId, numberOfGuests, status);
 	}
 
 	/**
@@ -59,15 +42,7 @@ public class JoinWaitingListDBController {
 	 */
 	public static void updateStatus(long confirmationCode, String newStatus) throws Exception {
 
-		String sql = "UPDATE waiting_list_entry " + "SET status = ?, notification_time = NOW() "
-				+ "WHERE confirmation_code = ?";
-
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setString(1, newStatus);
-			ps.setLong(2, confirmationCode);
-			ps.executeUpdate();
-		}
+		Repositories.get().waitingList().updateStatus(confirmationCode, newStatus);
 	}
 
 	/**
@@ -79,18 +54,7 @@ public class JoinWaitingListDBController {
 	 * @throws Exception If a database access error occurs.
 	 */
 	public static String getStatusByCode(long confirmationCode) throws Exception {
-		String sql = "SELECT status FROM waiting_list_entry WHERE confirmation_code = ?";
-
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setLong(1, confirmationCode);
-			try (ResultSet rs = ps.executeQuery()) {
-				if (rs.next()) {
-					return rs.getString("status");
-				}
-			}
-		}
-		return null;
+		return Repositories.get().waitingList().getStatus(confirmationCode);
 	}
 
 	/**
@@ -102,76 +66,20 @@ public class JoinWaitingListDBController {
 	 * @throws Exception If a database access error occurs.
 	 */
 	public static boolean isUserAlreadyActive(int userId) throws SQLException {
-		String sql = "SELECT COUNT(*) FROM waiting_list_entry "
-				+ "WHERE user_id = ? AND (status = 'WAITING' OR status = 'ARRIVED')";
-
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, userId);
-			try (ResultSet rs = ps.executeQuery()) {
-				if (rs.next()) {
-					return rs.getInt(1) > 0;
-				}
-			}
-		}
-		return false;
+		return Repositories.get().waitingList().isUserActive(userId);
 	}
 
 	/**
 	 * Determines if the restaurant is currently open based on special or regular
-	 * hours. Special hours take precedence over regular weekly hours.
+	 * hours. Special hours take precedence over regular weekly hours. The hours
+	 * are read from the compiled {@link OpeningHours} in RAM, without SQL.
 	 *
 	 * @return true if the current time falls within the restaurant's operating
-	 *         hours, false otherwise.
-	 * @throws Exception If a database error occurs during the check.
+	 *         hours, false otherwise or if no restaurant is loaded.
 	 */
-	public static boolean isRestaurantOpenNow() throws Exception {
-
-		Connection conn = DBController.getInstance().getConnection();
-		LocalTime now = LocalTime.now();
-
-		// --- Check special opening hours (override regular hours) ---
-		String specialSql = "SELECT tr.open_time, tr.close_time " + "FROM restaurant_special_hours sh "
-				+ "JOIN time_range tr ON sh.time_range_id = tr.time_range_id " + "WHERE sh.special_date = CURDATE()";
-
-		try (PreparedStatement ps = conn.prepareStatement(specialSql); ResultSet rs = ps.executeQuery()) {
-
-			if (rs.next()) {
-				LocalTime open = rs.getTime("open_time").toLocalTime();
-				LocalTime close = rs.getTime("close_time").toLocalTime();
-
-				return !now.isBefore(open) && !now.isAfter(close);
-			}
-		}
-
-		// --- Fallback to regular weekly opening hours ---
-		String dayName = LocalDate.now().getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH);
-
-		String regularSql = "SELECT tr.open_time, tr.close_time " + "FROM restaurant_regular_hours rrh "
-				+ "JOIN time_range tr ON rrh.time_range_id = tr.time_range_id " + "WHERE rrh.day_of_week = ?";
-
-		try (PreparedStatement ps = conn.prepareStatement(regularSql)) {
-
-			ps.setString(1, dayName);
-
-			try (ResultSet rs = ps.executeQuery()) {
-
-				if (!rs.next()) {
-					return false;
-				}
-
-				LocalTime open = rs.getTime("open_time").toLocalTime();
-				LocalTime close = rs.getTime("close_time").toLocalTime();
-
-				// Closed day
-				if (open.equals(close)) {
-					return false;
-				}
-
-				return !now.isBefore(open) && !now.isAfter(close);
-			}
-		}
-
+	public static boolean isRestaurantOpenNow() {
+		OpeningHours hours = RestaurantManager.hours();
+		return hours != null && hours.isOpen(LocalDateTime.now());
 	}
 
 	/**
@@ -183,15 +91,6 @@ public class JoinWaitingListDBController {
 	 */
 	public static boolean hasWaitingGuests() throws SQLException {
 
-		String sql = "SELECT COUNT(*) " + "FROM waiting_list_entry " + "WHERE status = 'WAITING'";
-
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement ps = conn.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
-
-			if (rs.next()) {
-				return rs.getInt(1) > 0;
-			}
-		}
-		return false;
+		return Repositories.get().waitingList().hasWaiting();
 	}
 }
@@ -1,14 +1,14 @@
 package dbLogic.restaurantDB;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 
-import MainControllers.DBController;
 import common.Bill;
 import common.Visit;
+import dbLogic.repository.Repositories;
+import dbLogic.repository.Storage;
+import serverLogic.serverRestaurant.ReservationOccupancyIndex;
+import serverLogic.serverRestaurant.RestaurantManager;
 
 /**
  * Controller class responsible for handling payment-related database
@@ -25,20 +25,9 @@ public class PaymentController {
 	 * @throws SQLException caught internally, logs error to stderr.
 	 */
 	public static Visit getVisitDetails(long code) {
-		// Query to find an active visit by its confirmation code
-		String query = "SELECT * FROM visit WHERE confirmation_code = ? AND status = ?";
-		Connection conn = DBController.getInstance().getConnection();
-
-		try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-			pstmt.setLong(1, code);
-			pstmt.setString(2, Visit.VisitStatus.ACTIVE.name());
-
-			try (ResultSet rs = pstmt.executeQuery()) {
-				if (rs.next()) {
-					return new Visit(rs.getLong("confirmation_code"), rs.getInt("table_id"), rs.getInt("user_id"),
-							rs.getLong("bill_id"), rs.getString("start_time"), Visit.VisitStatus.ACTIVE);
-				}
-			}
+		// Find an active visit by its confirmation code
+		try {
+			return Repositories.get().visits().findActive(code);
 		} catch (SQLException e) {
 			System.err.println("Database error in getVisitDetails: " + e.getMessage());
 			e.printStackTrace();
@@ -50,104 +39,68 @@ public class PaymentController {
 	 * Finalizes the payment process by updating the bill, closing the visit, and
 	 * releasing the table back to available status.
 	 * <p>
-	 * This method uses a SQL Transaction (commit/rollback) to ensure that all
-	 * database updates succeed together or none at all.
+	 * This method runs in {@code Storage.inTransaction} to ensure that all
+	 * database updates succeed together or none at all. The table is freed in
+	 * the in-memory table registry only once the transaction is committed, and
+	 * the reservation's booking is then released in the occupancy index.
+	 * A bill whose visit is no longer {@code ACTIVE}, such as one already paid,
+	 * is refused without changing anything.
 	 * </p>
 	 *
 	 * @param bill The {@link Bill} object containing final amounts, IDs, and
 	 *             confirmation code.
-	 * @return true if the transaction was successfully committed, false if it
-	 *         failed or was rolled back.
+	 * @return true if the transaction was successfully committed, false if the
+	 *         visit is not active, or the transaction failed or was rolled back.
 	 * @throws SQLException caught internally, handles transaction rollback on
 	 *                      failure.
 	 */
 	public static boolean finalizePayment(Bill bill) {
-		Connection conn = DBController.getInstance().getConnection();
-
+		Storage storage = Repositories.get();
+		ReservationOccupancyIndex occupancy = RestaurantManager.occupancy();
+		int tableId;
 		try {
-			if (conn == null || conn.isClosed()) {
-				System.err.println("Database connection is closed. Payment failed.");
-				return false;
-			}
+			// All updates are committed together, or rolled back together
+			tableId = occupancy.update(() -> {
+				int freed = storage.inTransaction(() -> {
+					// Locks the active visit: a second payment of the same bill waits for this
+					// one, then finds the visit FINISHED and is refused
+					int freedTableId = storage.visits().lockTableOf(bill.getConfirmationCode());
+					if (freedTableId == -1) {
+						return -1;
+					}
+
+					// 1. Update bill details and set as paid
+					storage.bills().markPaid(bill);
+
+					// 2. Set visit status to FINISHED
+					storage.visits().finish(bill.getConfirmationCode());
+
+					// 3. Reset table availability
+					storage.tables().setAvailable(freedTableId, true);
+
+					// 4. Update Reservation to FINISHED (if exists)
+					storage.reservations().updateStatus(bill.getConfirmationCode(), "FINISHED");
+					return freedTableId;
+				});
+				if (freed != -1) {
+					occupancy.release(bill.getConfirmationCode());
+				}
+				return freed;
+			});
 		} catch (SQLException e) {
 			e.printStackTrace();
 			return false;
 		}
 
-		// 1. Update bill details and set as paid
-		String updateBill = "UPDATE bill SET base_amount = ?, discount_percent = ?, final_amount = ?, is_paid = 1, payment_time = NOW() WHERE bill_id = ?";
-		// 2. Set visit status to FINISHED
-		String updateVisit = "UPDATE visit SET status = 'FINISHED' WHERE confirmation_code = ?";
-		// 3. Reset table availability. Note: `table` is a reserved keyword in SQL,
-		// requiring backticks
-		String updateTable = "UPDATE `table` SET is_available = ? WHERE table_id = ?";
-
-		String updateRes = "UPDATE reservation SET status = 'FINISHED' WHERE confirmation_code = ?";
-
-		String getTableIdSql = "SELECT table_id FROM visit WHERE confirmation_code = ?";
-		try {
-			// Disable auto-commit to manage the transaction manually
-			conn.setAutoCommit(false);
-			int tableId = -1;
-
-			try (PreparedStatement psCap = conn.prepareStatement(getTableIdSql)) {
-				psCap.setLong(1, bill.getConfirmationCode());
-				ResultSet rs = psCap.executeQuery();
-				if (rs.next())
-					tableId = rs.getInt("table_id");
-			}
-
-			try (PreparedStatement psBill = conn.prepareStatement(updateBill);
-					PreparedStatement psVisit = conn.prepareStatement(updateVisit);
-					PreparedStatement psTable = conn.prepareStatement(updateTable);
-					PreparedStatement psRes = conn.prepareStatement(updateRes)) {
-
-				// Execute Bill Update
-				psBill.setDouble(1, bill.getBaseAmount());
-				psBill.setDouble(2, bill.getDiscountPercent());
-				psBill.setDouble(3, bill.getFinalAmount());
-				psBill.setLong(4, bill.getBillId());
-				psBill.executeUpdate();
-
-				// Execute Visit Update
-				psVisit.setLong(1, bill.getConfirmationCode());
-				psVisit.executeUpdate();
-
-				// Execute Table Release
-				if (tableId != -1) {
-					psTable.setBoolean(1, true);
-					psTable.setInt(2, tableId);
-					psTable.executeUpdate();
-				}
-
-				// 4. Update Reservation to FINISHED (if exists)
-				psRes.setLong(1, bill.getConfirmationCode());
-				psRes.executeUpdate();
-
-				// Commit all changes if no exceptions occurred
-				conn.commit();
+		if (tableId == -1) {
+			return false; // No active visit: already paid, or never seated
+		}
 
-				// TRIGGER: Notify the seating engine that resources are free
-				if (tableId != -1) {
-					VisitController.handleTableFreed(tableId);
-				}
+		// TRIGGER: Notify the seating engine that resources are free
+		RestaurantManager.tables().release(tableId);
+		VisitController.handleTableFreed(tableId);
 
-				return true;
-			} catch (SQLException e) {
-				if (conn != null)
-					conn.rollback();
-				e.printStackTrace();
-				return false;
-			} finally {
-				// Restore default auto-commit behavior
-				if (conn != null && !conn.isClosed()) {
-					conn.setAutoCommit(true);
-				}
-			}
-		} catch (SQLException e) {
-			e.printStackTrace();
-			return false;
-		}
+		return true;
 	}
 
 	/**
@@ -166,14 +119,8 @@ public class PaymentController {
 			return null;
 
 		boolean isSub = false;
-		String subQuery = "SELECT COUNT(*) FROM subscriber WHERE user_id = ?";
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement ps = conn.prepareStatement(subQuery)) {
-			ps.setInt(1, v.getUserId());
-			try (ResultSet rs = ps.executeQuery()) {
-				if (rs.next() && rs.getInt(1) > 0)
-					isSub = true;
-			}
+		try {
+			isSub = Repositories.get().users().isSubscriber(v.getUserId());
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
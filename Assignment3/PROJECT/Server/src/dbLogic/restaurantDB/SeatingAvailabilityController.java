@@ -1,11 +1,10 @@
 package dbLogic.restaurantDB;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 
-import MainControllers.DBController;
+import dbLogic.repository.Repositories;
+import dbLogic.repository.Storage;
 import dbLogic.restaurantDB.TableDBController;
 
 /**
@@ -56,29 +55,16 @@ public class SeatingAvailabilityController {
 	 */
 	public static int getFutureReservedGuests(LocalDateTime start, LocalDateTime end) {
 
-		String sql = "SELECT COALESCE(SUM(total_guests), 0) FROM (" + "  SELECT number_of_guests AS total_guests "
-				+ "  FROM reservation " + "  WHERE reservation_datetime >= ? " + "  AND reservation_datetime < ? "
-				+ "  AND status IN ('ACTIVE', 'WAITING_AT_RESTAURANT', 'NOTIFIED') " + "  UNION ALL "
-				+ "  SELECT number_of_guests AS total_guests " + "  FROM waiting_list_entry "
-				+ "  WHERE status = 'NOTIFIED'" + ") AS combined_data";
-
-		// Acquire database connection
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement ps = conn.prepareStatement(sql)) {
-
-			// Bind time window parameters
-			ps.setObject(1, start);
-			ps.setObject(2, end);
-
-			// Execute query and extract aggregated result
-			try (ResultSet rs = ps.executeQuery()) {
-				if (rs.next()) {
-					return rs.getInt(1);
-				}
-				return 0;
+		Storage storage = Repositories.get();
+		try {
+			// Reservations expected within the window, plus every waiting list guest already notified
+			int guests = storage.reservations().sumExpectedGuests(start, end);
+			for (int notified : storage.waitingList().partySizesWithStatus("NOTIFIED")) {
+				guests += notified;
 			}
+			return guests;
 
-		} catch (Exception e) {
+		} catch (SQLException e) {
 			// Escalate DB failures as runtime exceptions for upper-layer handling
 			throw new RuntimeException("Failed to check future reservations", e);
 		}
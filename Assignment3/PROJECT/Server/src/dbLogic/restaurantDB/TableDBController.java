@@ -1,19 +1,23 @@
 package dbLogic.restaurantDB;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
-import MainControllers.DBController;
+import dbLogic.repository.Repositories;
+import dbLogic.repository.Storage;
+import serverLogic.serverRestaurant.RestaurantManager;
+import serverLogic.serverRestaurant.TableStateRegistry;
 
 /**
  * Database access controller for restaurant table management. * This class
  * centralizes all database operations related to tables, including availability
  * queries, capacity calculations, and table state updates.
+ * <p>
+ * Availability and capacity queries are answered by the in-memory
+ * {@link TableStateRegistry} of {@link RestaurantManager}, without SQL. Updates
+ * are written to the database and then to the registry.
+ * </p>
  */
 public class TableDBController {
 
@@ -24,31 +28,10 @@ public class TableDBController {
 	 *
 	 * @param numberOfGuests The minimum required seating capacity.
 	 * @return A List of candidate table IDs that are currently available.
-	 * @throws SQLException If a database error occurs.
 	 */
 	public static List<Integer> getCandidateTables(int numberOfGuests) {
 
-		List<Integer> tableIds = new ArrayList<>();
-
-		String sql = "SELECT table_id " + "FROM `table` " + "WHERE capacity >= ? AND is_available = 1 "
-				+ "ORDER BY capacity ASC";
-
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-			pstmt.setInt(1, numberOfGuests);
-
-			try (ResultSet rs = pstmt.executeQuery()) {
-				while (rs.next()) {
-					tableIds.add(rs.getInt("table_id"));
-				}
-			}
-
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
-
-		return tableIds;
+		return RestaurantManager.tables().freeTables(numberOfGuests);
 	}
 
 	/**
@@ -59,20 +42,7 @@ public class TableDBController {
 	 */
 	public static int getRestaurantMaxCapacity() {
 
-		String sql = "SELECT COALESCE(SUM(capacity), 0) FROM `table`";
-
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement ps = conn.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
-
-			if (rs.next()) {
-				return rs.getInt(1);
-			}
-
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
-
-		return 0;
+		return RestaurantManager.tables().totalCapacity();
 	}
 
 	/**
@@ -80,40 +50,35 @@ public class TableDBController {
 	 * tables. This represents capacity taken by active diner visits.
 	 *
 	 * @return Total occupied seating capacity.
-	 * @throws SQLException If a database error occurs.
 	 */
-	public static int getUnavailableCapacity() throws SQLException {
-
-		String sql = "SELECT COALESCE(SUM(capacity), 0) " + "FROM `table` " + "WHERE is_available = 0";
-
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement ps = conn.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
-
-			if (rs.next()) {
-				return rs.getInt(1);
-			}
-		}
+	public static int getUnavailableCapacity() {
 
-		return 0;
+		return RestaurantManager.tables().occupiedCapacity();
 	}
 
 	/**
-	 * Marks a specific table as unavailable in the database. Used when a table is
-	 * assigned to an active visit.
+	 * Marks a specific table as unavailable. Used when a table is assigned to an
+	 * active visit. The table is taken in the registry first, so two guests can
+	 * never be given the same table; if the database update fails, it is freed
+	 * again.
 	 *
 	 * @param tableId The ID of the table to update.
-	 * @throws Exception If a database error occurs.
+	 * @return true if the table was taken, false if it is no longer free.
+	 * @throws SQLException If a database error occurs.
 	 */
-	public static void setTableUnavailable(int tableId) throws Exception {
-
-		String sql = "UPDATE `table` " + "SET is_available = 0 " + "WHERE table_id = ?";
-
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+	public static boolean setTableUnavailable(int tableId) throws SQLException {
 
-			ps.setInt(1, tableId);
-			ps.executeUpdate();
+		TableStateRegistry tables = RestaurantManager.tables();
+		if (!tables.claim(tableId)) {
+			return false;
+		}
+		try {
+			Repositories.get().tables().setAvailable(tableId, false);
+		} catch (SQLException e) {
+			tables.release(tableId);
+			throw e;
 		}
+		return true;
 	}
 
 	/**
@@ -121,22 +86,13 @@ public class TableDBController {
 	 *
 	 * @param tableId The unique identifier of the table.
 	 * @return The seating capacity.
-	 * @throws SQLException If the table does not exist or a DB error occurs.
+	 * @throws SQLException If the table does not exist.
 	 */
 	public static int getTableCapacity(int tableId) throws SQLException {
 
-		String sql = "SELECT capacity FROM `table` WHERE table_id = ?";
-
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement ps = conn.prepareStatement(sql)) {
-
-			ps.setInt(1, tableId);
-
-			try (ResultSet rs = ps.executeQuery()) {
-				if (rs.next()) {
-					return rs.getInt("capacity");
-				}
-			}
+		int capacity = RestaurantManager.tables().capacityOf(tableId);
+		if (capacity > 0) {
+			return capacity;
 		}
 
 		throw new SQLException("Table not found: table_id=" + tableId);
@@ -150,47 +106,13 @@ public class TableDBController {
 	 */
 	public static List<common.Table> getAllTables() {
 
-		List<common.Table> tables = new ArrayList<>();
-		String sql = "SELECT * FROM `table` ORDER BY table_id ASC";
-
-		Connection conn = DBController.getInstance().getConnection();
-		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-
-			while (rs.next()) {
-				common.Table t = new common.Table(rs.getInt("table_id"), rs.getInt("capacity"),
-						rs.getBoolean("is_available"));
-				tables.add(t);
-			}
-
-		} catch (SQLException e) {
-			e.printStackTrace();
-		}
-
-		return tables;
-	}
-
-	/**
-	 * Determines the next available positive table ID to ensure uniqueness.
-	 *
-	 * @return The next available table ID.
-	 */
-	private static int getNextTableId() {
-
-		String sql = "SELECT MAX(table_id) FROM `table`";
-		Connection conn = DBController.getInstance().getConnection();
-
-		try (PreparedStatement ps = conn.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
-
-			if (rs.next()) {
-				int maxId = rs.getInt(1);
-				return Math.max(1, maxId + 1);
-			}
-
+		try {
+			return Repositories.get().tables().findAll();
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
 
-		return 1;
+		return new ArrayList<>();
 	}
 
 	/**
@@ -203,53 +125,25 @@ public class TableDBController {
 	 */
 	public static boolean addNewTable(int capacity) {
 
-		int restaurantId = serverLogic.serverRestaurant.RestaurantManager.getInstance().getRestaurantId();
-
-		int nextId = getNextTableId();
-		String sqlTable = "INSERT INTO `table` (table_id, capacity, is_available) VALUES (?, ?, 1)";
-		String sqlRestaurantTable = "INSERT INTO `restaurant_table` (restaurant_id, table_id) VALUES (?, ?)";
-
-		Connection conn = DBController.getInstance().getConnection();
+		int restaurantId = RestaurantManager.getInstance().getRestaurantId();
 
+		Storage storage = Repositories.get();
+		int nextId;
 		try {
-			conn.setAutoCommit(false);
-
-			try (PreparedStatement pstmt1 = conn.prepareStatement(sqlTable)) {
-				pstmt1.setInt(1, nextId);
-				pstmt1.setInt(2, capacity);
-				pstmt1.executeUpdate();
-			}
-
-			try (PreparedStatement pstmt2 = conn.prepareStatement(sqlRestaurantTable)) {
-				pstmt2.setInt(1, restaurantId);
-				pstmt2.setInt(2, nextId);
-				pstmt2.executeUpdate();
-			}
-
-			conn.commit();
-			serverLogic.serverRestaurant.RestaurantManager.reInitialize(restaurantId);
-
-			// VisitController.handleTableFreed(nextId);
-
-			System.out.println("Table " + nextId + " added successfully.");
-			return true;
-
+			// The next free ID stays locked until the new table is stored
+			nextId = storage.inTransaction(() -> storage.tables().add(capacity, restaurantId));
 		} catch (SQLException e) {
-			try {
-				if (conn != null)
-					conn.rollback();
-			} catch (SQLException rollbackEx) {
-				rollbackEx.printStackTrace();
-			}
 			e.printStackTrace();
 			return false;
-		} finally {
-			try {
-				if (conn != null)
-					conn.setAutoCommit(true);
-			} catch (SQLException ignored) {
-			}
 		}
+
+		RestaurantManager.tables().add(nextId, capacity);
+		RestaurantManager.reInitialize(restaurantId);
+
+		// VisitController.handleTableFreed(nextId);
+
+		System.out.println("Table " + nextId + " added successfully.");
+		return true;
 	}
 
 	/**
@@ -262,54 +156,28 @@ public class TableDBController {
 	 */
 	public static boolean deleteTable(int tableId) {
 
-		int resId = serverLogic.serverRestaurant.RestaurantManager.getInstance().getRestaurantId();
-		Connection conn = DBController.getInstance().getConnection();
+		int resId = RestaurantManager.getInstance().getRestaurantId();
 
+		Storage storage = Repositories.get();
+		boolean deleted;
 		try {
-			conn.setAutoCommit(false);
-
-			String updateVisitsSql = "UPDATE `visit` SET table_id = -1 WHERE table_id = ?";
-			try (PreparedStatement ps1 = conn.prepareStatement(updateVisitsSql)) {
-				ps1.setInt(1, tableId);
-				ps1.executeUpdate();
-			}
-
-			String deleteFromRestaurantTableSql = "DELETE FROM `restaurant_table` WHERE table_id = ?";
-			try (PreparedStatement ps2 = conn.prepareStatement(deleteFromRestaurantTableSql)) {
-				ps2.setInt(1, tableId);
-				ps2.executeUpdate();
-			}
-
-			String deleteTableSql = "DELETE FROM `table` WHERE table_id = ?";
-			try (PreparedStatement ps3 = conn.prepareStatement(deleteTableSql)) {
-				ps3.setInt(1, tableId);
-				int affected = ps3.executeUpdate();
-				conn.commit();
-				if (affected > 0) {
-					// REFRESH THE RAM CACHE!
-					// This forces the RestaurantManager to recount tables from the DB
-					serverLogic.serverRestaurant.RestaurantManager.reInitialize(resId);
-
-					System.out.println("[Tables] Table #" + tableId + " deleted and cache synchronized.");
-					return true;
-				}
-				return false;
-			}
-
+			deleted = storage.inTransaction(() -> storage.tables().delete(tableId));
 		} catch (SQLException e) {
-			try {
-				conn.rollback();
-			} catch (SQLException ignored) {
-			}
 			e.printStackTrace();
 			return false;
+		}
 
-		} finally {
-			try {
-				conn.setAutoCommit(true);
-			} catch (SQLException ignored) {
-			}
+		if (deleted) {
+			RestaurantManager.tables().remove(tableId);
+
+			// REFRESH THE RAM CACHE!
+			// This forces the RestaurantManager to recount tables from the DB
+			RestaurantManager.reInitialize(resId);
+
+			System.out.println("[Tables] Table #" + tableId + " deleted and cache synchronized.");
+			return true;
 		}
+		return false;
 	}
 
 	/**
@@ -321,15 +189,12 @@ public class TableDBController {
 	 */
 	public static boolean updateTableCapacity(int tableId, int newCapacity) {
 
-		String sql = "UPDATE `table` SET capacity = ? WHERE table_id = ?";
-
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-			pstmt.setInt(1, newCapacity);
-			pstmt.setInt(2, tableId);
-			return pstmt.executeUpdate() > 0;
-
+		try {
+			if (!Repositories.get().tables().updateCapacity(tableId, newCapacity)) {
+				return false;
+			}
+			RestaurantManager.tables().updateCapacity(tableId, newCapacity);
+			return true;
 		} catch (SQLException e) {
 			e.printStackTrace();
 			return false;
@@ -1,13 +1,20 @@
 package dbLogic.restaurantDB;
 
-import java.sql.*;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.Duration;
-import MainControllers.DBController;
+import common.Reservation;
 import common.Visit;
+import common.WaitingListEntry;
+import dbLogic.repository.Repositories;
+import dbLogic.repository.Storage;
+import serverLogic.serverRestaurant.ReservationOccupancyIndex;
+import serverLogic.serverRestaurant.RestaurantManager;
+import serverLogic.terminal.ArrivalStatusNotifier;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * VisitController handles the arrival logic and seating transactions at the
@@ -16,6 +23,13 @@ import java.util.List;
  */
 public class VisitController {
 
+	/**
+	 * Lets one terminal arrival run at a time. A lock rather than a synchronized
+	 * method, so that a request thread waiting on the database does not pin its
+	 * carrier thread.
+	 */
+	private static final ReentrantLock ARRIVAL_LOCK = new ReentrantLock();
+
 	/**
 	 * Entry point for Terminal arrival. Validates codes from both reservations and
 	 * waiting lists. * @param code The confirmation code entered by the customer at
@@ -24,56 +38,49 @@ public class VisitController {
 	 * @return String status code (e.g., "SUCCESS_TABLE_X", "INVALID_CODE",
 	 *         "TOO_EARLY").
 	 */
-	public synchronized static String processTerminalArrival(long code) {
-		Connection conn = DBController.getInstance().getConnection();
+	public static String processTerminalArrival(long code) {
+		Storage storage = Repositories.get();
+		ARRIVAL_LOCK.lock();
 		try {
 			// 1. Search in confirmed reservations (Including Waiting and Notified statuses)
-			String resQuery = "SELECT * FROM reservation WHERE confirmation_code = ? "
-					+ "AND status IN ('ACTIVE', 'WAITING_AT_RESTAURANT', 'NOTIFIED')";
-			try (PreparedStatement ps = conn.prepareStatement(resQuery)) {
-				ps.setLong(1, code);
-				ResultSet rs = ps.executeQuery();
-				if (rs.next()) {
-					return handleReservationFlow(conn, rs, code);
-				}
+			Reservation res = storage.reservations().findByCode(code);
+			if (res != null && isOneOf(res.getStatusString(), "ACTIVE", "WAITING_AT_RESTAURANT", "NOTIFIED")) {
+				return handleReservationFlow(res, code);
 			}
 
 			// 2. Search in notified/waiting list entries
-			String waitQuery = "SELECT * FROM waiting_list_entry WHERE confirmation_code = ? "
-					+ "AND status IN ('WAITING', 'NOTIFIED')";
-			try (PreparedStatement ps = conn.prepareStatement(waitQuery)) {
-				ps.setLong(1, code);
-				ResultSet rs = ps.executeQuery();
-				if (rs.next()) {
-					return handleWaitingListArrival(conn, rs, code);
-				}
+			WaitingListEntry entry = storage.waitingList().findByCode(code);
+			if (entry != null && isOneOf(entry.getStatus(), "WAITING", "NOTIFIED")) {
+				return handleWaitingListArrival(entry, code);
 			}
 			return "INVALID_CODE";
 		} catch (SQLException e) {
 			e.printStackTrace();
 			return "DATABASE_ERROR";
+		} finally {
+			ARRIVAL_LOCK.unlock();
 		}
 	}
 
 	/**
 	 * Logic for pre-booked reservations. Handles early arrivals and notified
-	 * priorities. * @param conn Connection to the database.
+	 * priorities.
 	 * 
-	 * @param rs   ResultSet containing reservation details.
+	 * @param res  The stored reservation.
 	 * @param code The confirmation code.
 	 * @return Status message for the UI.
 	 * @throws SQLException If database access fails.
 	 */
-	private static String handleReservationFlow(Connection conn, ResultSet rs, long code) throws SQLException {
-		String status = rs.getString("status");
-		int guests = rs.getInt("number_of_guests");
-		int userId = rs.getInt("user_id");
+	private static String handleReservationFlow(Reservation res, long code) throws SQLException {
+		String status = res.getStatusString();
+		int guests = res.getNumberOfGuests();
+		int userId = res.getUserId();
 
 		// PRIORITY 1: Guest was already NOTIFIED. Seat them immediately.
 		if (status.equals("NOTIFIED")) {
-			int tableId = findSuitableTable(guests);
+			int tableId = claimSuitableTable(guests);
 			if (tableId != -1) {
-				return proceedToSeating(conn, code, tableId, userId, "reservation");
+				return proceedToSeating(code, tableId, userId, "reservation");
 			}
 			return "TABLE_NOT_READY_WAIT"; // Should not happen
 		}
@@ -85,8 +92,8 @@ public class VisitController {
 		}
 
 		// PRIORITY 3: First arrival (Status: ACTIVE).
-		Timestamp scheduledTs = rs.getTimestamp("reservation_datetime");
-		long diffMinutes = Duration.between(scheduledTs.toLocalDateTime(), LocalDateTime.now()).toMinutes();
+		LocalDateTime scheduled = LocalDateTime.parse(res.getReservationDateTime().trim().replace(' ', 'T'));
+		long diffMinutes = Duration.between(scheduled, LocalDateTime.now()).toMinutes();
 
 		// Enforce the 15-minute early arrival window
 		if (diffMinutes < -15) {
@@ -94,33 +101,32 @@ public class VisitController {
 		}
 
 		// Check if a table is available and NOT "promised" to a NOTIFIED guest
-		if (isSeatingSafe(conn, guests)) {
-			int tableId = findSuitableTable(guests);
+		if (isSeatingSafe(guests)) {
+			int tableId = claimSuitableTable(guests);
 			if (tableId != -1) {
-				return proceedToSeating(conn, code, tableId, userId, "reservation");
+				return proceedToSeating(code, tableId, userId, "reservation");
 			}
 		}
 
 		// No table or not safe? Move to waiting status and notify to wait for SMS.
-		updateStatus(conn, "reservation", "WAITING_AT_RESTAURANT", code);
+		Repositories.get().reservations().updateStatus(code, "WAITING_AT_RESTAURANT");
 		return "TABLE_NOT_READY_WAIT";
 	}
 
 	/**
-	 * Logic for walk-in arrivals from the waiting list. * @param conn Database
-	 * connection.
+	 * Logic for walk-in arrivals from the waiting list.
 	 * 
-	 * @param rs   ResultSet from waiting_list_entry.
-	 * @param code Confirmation code.
+	 * @param entry The stored waiting list entry.
+	 * @param code  Confirmation code.
 	 * @return Status message.
 	 * @throws SQLException If database access fails.
 	 */
-	private static String handleWaitingListArrival(Connection conn, ResultSet rs, long code) throws SQLException {
-		String status = rs.getString("status");
+	private static String handleWaitingListArrival(WaitingListEntry entry, long code) throws SQLException {
+		String status = entry.getStatus();
 		if (status.equals("NOTIFIED")) {
-			int tableId = findSuitableTable(rs.getInt("number_of_guests"));
+			int tableId = claimSuitableTable(entry.getNumberOfGuests());
 			if (tableId != -1) {
-				return proceedToSeating(conn, code, tableId, rs.getInt("user_id"), "waiting_list_entry");
+				return proceedToSeating(code, tableId, entry.getUserId(), "waiting_list_entry");
 			}
 		}
 		// Customers in 'WAITING' status must wait for the notification trigger.
@@ -129,30 +135,20 @@ public class VisitController {
 
 	/**
 	 * Ensures seating a guest won't "steal" a table promised to someone already
-	 * notified. * @param conn Database connection.
+	 * notified.
 	 * 
 	 * @param guests Party size of the guest to be seated.
 	 * @return true if seating is safe, false if it conflicts with notified guests.
 	 * @throws SQLException If database access fails.
 	 */
-	private static boolean isSeatingSafe(Connection conn, int guests) throws SQLException {
-		List<Integer> tables = new ArrayList<>();
-		String sqlTables = "SELECT capacity FROM `table` WHERE is_available = 1 ORDER BY capacity ASC";
-		try (PreparedStatement ps = conn.prepareStatement(sqlTables); ResultSet rs = ps.executeQuery()) {
-			while (rs.next())
-				tables.add(rs.getInt("capacity"));
-		}
+	private static boolean isSeatingSafe(int guests) throws SQLException {
+		Storage storage = Repositories.get();
+		List<Integer> tables = new ArrayList<>(RestaurantManager.tables().freeCapacities());
 
 		List<Integer> groups = new ArrayList<>();
 		groups.add(guests);
-
-		String sqlGroups = "SELECT number_of_guests FROM reservation WHERE status = 'NOTIFIED' " + "UNION ALL "
-				+ "SELECT number_of_guests FROM waiting_list_entry WHERE status = 'NOTIFIED'";
-
-		try (PreparedStatement ps = conn.prepareStatement(sqlGroups); ResultSet rs = ps.executeQuery()) {
-			while (rs.next())
-				groups.add(rs.getInt("number_of_guests"));
-		}
+		groups.addAll(storage.reservations().partySizesWithStatus("NOTIFIED"));
+		groups.addAll(storage.waitingList().partySizesWithStatus("NOTIFIED"));
 
 		groups.sort((a, b) -> b - a);
 
@@ -174,42 +170,47 @@ public class VisitController {
 
 	/**
 	 * Executes the seating transaction: Bill creation, status update, table
-	 * occupation, and visit logging. * @param conn Database connection.
+	 * occupation, and visit logging. The terminal waiting on the code is told
+	 * once the transaction is committed. If the transaction fails, the table,
+	 * already taken in the table registry, is freed again.
 	 * 
 	 * @param code        Confirmation code.
-	 * @param tableId     Allocated table ID.
+	 * @param tableId     Allocated table ID, already taken in the table registry.
 	 * @param userId      ID of the guest.
-	 * @param sourceTable The DB table name to update ('reservation' or
+	 * @param sourceTable The record to update ('reservation' or
 	 *                    'waiting_list_entry').
 	 * @return Success message with table ID.
 	 * @throws SQLException If any part of the transaction fails.
 	 */
-	private static String proceedToSeating(Connection conn, long code, int tableId, int userId, String sourceTable)
+	private static String proceedToSeating(long code, int tableId, int userId, String sourceTable)
 			throws SQLException {
+		Storage storage = Repositories.get();
 		try {
-			conn.setAutoCommit(false); // Start transaction
-
-			// 1. Create a new Bill
-			int billId = createNewBill(conn);
-
-			// 2. Update status to 'ARRIVED'
-			updateStatus(conn, sourceTable, "ARRIVED", code);
-
-			// 3. Occupy the table
-			updateTableAvailability(conn, tableId, false);
-
-			// 4. Create Visit record
-			insertVisitRecord(conn, code, tableId, userId, billId);
+			storage.inTransaction(() -> {
+				// 1. Create a new Bill
+				int billId = storage.bills().createEmpty();
+
+				// 2. Update status to 'ARRIVED'
+				if (sourceTable.equals("reservation")) {
+					storage.reservations().updateStatus(code, "ARRIVED");
+				} else {
+					storage.waitingList().markArrived(code);
+				}
 
-			conn.commit();
-			return "SUCCESS_TABLE_" + tableId;
+				// 3. Occupy the table
+				storage.tables().setAvailable(tableId, false);
 
+				// 4. Create Visit record
+				storage.visits().insert(code, tableId, userId, billId);
+				return null;
+			});
 		} catch (SQLException e) {
-			conn.rollback();
+			RestaurantManager.tables().release(tableId);
 			throw e;
-		} finally {
-			conn.setAutoCommit(true);
 		}
+
+		ArrivalStatusNotifier.publish(code, "ARRIVED");
+		return "SUCCESS_TABLE_" + tableId;
 	}
 
 	/**
@@ -217,37 +218,24 @@ public class VisitController {
 	 * reservations first. * @param tableId The ID of the vacated table.
 	 */
 	public static void handleTableFreed(int tableId) {
-		Connection conn = DBController.getInstance().getConnection();
+		Storage storage = Repositories.get();
 		try {
 			// 1. Get the capacity of the freed table
-			int capacity = 0;
-			String capQuery = "SELECT capacity FROM `table` WHERE table_id = ?";
-			try (PreparedStatement ps = conn.prepareStatement(capQuery)) {
-				ps.setInt(1, tableId);
-				ResultSet rs = ps.executeQuery();
-				if (rs.next())
-					capacity = rs.getInt("capacity");
-			}
+			int capacity = RestaurantManager.tables().capacityOf(tableId);
 
 			if (capacity <= 0)
 				return;
 
 			// 2. Search for Priority Guests (WAITING_AT_RESTAURANT) ordered by original
 			// reservation time
-			String resQuery = "SELECT confirmation_code FROM reservation "
-					+ "WHERE status = 'WAITING_AT_RESTAURANT' AND number_of_guests <= ? "
-					+ "ORDER BY reservation_datetime ASC LIMIT 1";
-
-			try (PreparedStatement psRes = conn.prepareStatement(resQuery)) {
-				psRes.setInt(1, capacity);
-				ResultSet rsRes = psRes.executeQuery();
-				if (rsRes.next()) {
-					// Priority match found: Update to NOTIFIED
-					updateStatus(conn, "reservation", "NOTIFIED", rsRes.getLong("confirmation_code"));
-					serverLogic.scheduling.VisitScheduler.startNoShowTimer(rsRes.getLong("confirmation_code"), tableId);
-					System.out.println("[VisitController] Priority reservation notified.");
-					return;
-				}
+			Long priorityCode = storage.reservations().findFirstWaitingAtRestaurant(capacity);
+			if (priorityCode != null) {
+				// Priority match found: Update to NOTIFIED and tell the waiting terminal
+				storage.reservations().updateStatus(priorityCode, "NOTIFIED");
+				ArrivalStatusNotifier.publish(priorityCode, "NOTIFIED");
+				serverLogic.scheduling.VisitScheduler.startNoShowTimer(priorityCode, tableId);
+				System.out.println("[VisitController] Priority reservation notified.");
+				return;
 			}
 
 			// 3. No priority match: Delegate to WaitingListController for general walk-ins
@@ -265,18 +253,15 @@ public class VisitController {
 	 * @return Status string or "NOT_FOUND".
 	 */
 	public static String checkCurrentStatus(long code) {
-		Connection conn = DBController.getInstance().getConnection();
-		// Query both tables to find the current status of the code
-		String query = "SELECT status FROM reservation WHERE confirmation_code = ? " + "UNION "
-				+ "SELECT status FROM waiting_list_entry WHERE confirmation_code = ?";
-
-		try (PreparedStatement ps = conn.prepareStatement(query)) {
-			ps.setLong(1, code);
-			ps.setLong(2, code);
-			ResultSet rs = ps.executeQuery();
-
-			if (rs.next()) {
-				return rs.getString("status"); // Return status like 'NOTIFIED'
+		Storage storage = Repositories.get();
+		// Look in both reservations and the waiting list to find the current status of the code
+		try {
+			String status = storage.reservations().getStatus(code);
+			if (status == null) {
+				status = storage.waitingList().getStatus(code);
+			}
+			if (status != null) {
+				return status; // Return status like 'NOTIFIED'
 			}
 		} catch (SQLException e) {
 			e.printStackTrace();
@@ -291,29 +276,8 @@ public class VisitController {
 	public static java.util.ArrayList<Visit> getAllActiveDiners() {
 		java.util.ArrayList<Visit> activeDiners = new java.util.ArrayList<>();
 
-		String sql = "SELECT v.*, COALESCE(r.number_of_guests, w.number_of_guests) as guests " + "FROM visit v "
-				+ "LEFT JOIN reservation r ON v.confirmation_code = r.confirmation_code "
-				+ "LEFT JOIN waiting_list_entry w ON v.confirmation_code = w.confirmation_code "
-				+ "WHERE v.status = 'ACTIVE'";
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement pstmt = conn.prepareStatement(sql); ResultSet rs = pstmt.executeQuery()) {
-
-			while (rs.next()) {
-				try {
-					String statusStr = rs.getString("status");
-					Visit.VisitStatus vStatus = Visit.VisitStatus.valueOf(statusStr);
-
-					Visit v = new Visit(rs.getLong("confirmation_code"), rs.getInt("table_id"), rs.getInt("user_id"),
-							rs.getLong("bill_id"), rs.getString("start_time"), vStatus);
-
-					v.setNumberOfGuests(rs.getInt("guests"));
-					activeDiners.add(v);
-
-					// הדפסה ל-Console של השרת לצורך בדיקה
-				} catch (IllegalArgumentException e) {
-					System.err.println("Enum Mapping Error: " + rs.getString("status") + " is not valid.");
-				}
-			}
+		try {
+			activeDiners.addAll(Repositories.get().visits().findActiveWithGuests());
 		} catch (SQLException e) {
 			System.err.println("Database Execution Error: " + e.getMessage());
 		}
@@ -328,130 +292,55 @@ public class VisitController {
 	 * @throws Exception If database access fails.
 	 */
 	public static String getStatusByCode(long confirmationCode) throws Exception {
-		String sql = "SELECT status FROM reservation WHERE confirmation_code = ?";
-
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setLong(1, confirmationCode);
-			try (ResultSet rs = ps.executeQuery()) {
-				if (rs.next()) {
-					return rs.getString("status");
-				}
-			}
-		}
-		return null;
+		return Repositories.get().reservations().getStatus(confirmationCode);
 	}
 
 	/**
-	 * General status update method. * @param confirmationCode Unique code.
+	 * General status update method. A status that ends the reservation, such as
+	 * 'NOSHOW', also releases its table in the occupancy index.
 	 * 
-	 * @param newStatus New status value.
+	 * @param confirmationCode Unique code.
+	 * @param newStatus        New status value.
 	 * @throws Exception If database access fails.
 	 */
 	public static void updateStatus(long confirmationCode, String newStatus) throws Exception {
 
-		String sql = "UPDATE reservation " + "SET status = ?" + "WHERE confirmation_code = ?";
-
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setString(1, newStatus);
-			ps.setLong(2, confirmationCode);
-			ps.executeUpdate();
-		}
+		ReservationOccupancyIndex occupancy = RestaurantManager.occupancy();
+		occupancy.update(() -> {
+			Repositories.get().reservations().updateStatus(confirmationCode, newStatus);
+			if (ReservationOccupancyIndex.releasesTable(newStatus)) {
+				occupancy.release(confirmationCode);
+			}
+			return null;
+		});
 	}
 
 	// --- Database Helper Methods ---
 
 	/**
-     * Finds the smallest available table that can accommodate the party size.
-     * Searches for tables marked as 'is_available = 1' and sorts them by capacity.
+     * Takes the smallest available table that can accommodate the party size.
+     * The table is found in the in-memory table registry and marked occupied there;
+     * {@link #proceedToSeating} then writes the seating to the database.
      *
      * @param guests The number of guests that need to be seated.
      * @return The table_id of the most suitable table, or -1 if no suitable table is found.
-     * @throws SQLException If a database access error occurs.
      */
-	private static int findSuitableTable(int guests) throws SQLException {
-		String query = "SELECT table_id FROM `table` WHERE is_available = 1 AND capacity >= ? ORDER BY capacity ASC LIMIT 1";
-		try (PreparedStatement ps = DBController.getInstance().getConnection().prepareStatement(query)) {
-			ps.setInt(1, guests);
-			ResultSet rs = ps.executeQuery();
-			return rs.next() ? rs.getInt("table_id") : -1;
-		}
+	private static int claimSuitableTable(int guests) {
+		return RestaurantManager.tables().claimBestFit(guests);
 	}
 
 	/**
-     * Updates the status of a record in a specified database table.
-     * * @param conn   The active database connection to use for the update.
-     * @param table  The name of the database table to update (e.g., 'reservation' or 'waiting_list_entry').
-     * @param status The new status string to set.
-     * @param code   The unique confirmation code of the record to update.
-     * @throws SQLException If a database access error occurs.
-     */
-	private static void updateStatus(Connection conn, String table, String status, long code) throws SQLException {
-		String sql = "UPDATE " + table + " SET status = ? WHERE confirmation_code = ?";
-		try (PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setString(1, status);
-			ps.setLong(2, code);
-			ps.executeUpdate();
-		}
-	}
-
-	/**
-     * Updates the availability flag of a specific table in the database.
-     *
-     * @param conn        The active database connection.
-     * @param id          The unique identifier (table_id) of the table.
-     * @param isAvailable The new availability state (true for free, false for occupied).
-     * @throws SQLException If a database access error occurs.
-     */
-	private static void updateTableAvailability(Connection conn, int id, boolean isAvailable) throws SQLException {
-		String sql = "UPDATE `table` SET is_available = ? WHERE table_id = ?";
-		try (PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setBoolean(1, isAvailable);
-			ps.setInt(2, id);
-			ps.executeUpdate();
-		}
-	}
-
-	/**
-     * Creates a new blank bill record in the database to be associated with a new visit.
-     *
-     * @param conn The active database connection.
-     * @return The auto-generated bill_id (primary key) of the new bill.
-     * @throws SQLException If the bill record cannot be created or keys cannot be retrieved.
-     */
-	private static int createNewBill(Connection conn) throws SQLException {
-		String sql = "INSERT INTO bill (base_amount, discount_percent, final_amount, is_paid) VALUES (0, 0, 0, 0)";
-		try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-			ps.executeUpdate();
-			ResultSet rs = ps.getGeneratedKeys();
-			if (rs.next())
-				return rs.getInt(1);
-		}
-		throw new SQLException("Failed to create bill record.");
-	}
-
-	/**
-     * Inserts a new visit record into the database to track an active dining session.
-     *
-     * @param conn    The active database connection.
-     * @param code    The confirmation code associated with the visit.
-     * @param tableId The ID of the table where the guests are seated.
-     * @param userId  The ID of the user (customer).
-     * @param billId  The ID of the bill created for this visit.
-     * @throws SQLException If a database access error occurs.
-     */
-	private static void insertVisitRecord(Connection conn, long code, int tableId, int userId, int billId)
-			throws SQLException {
-		String sql = "INSERT INTO visit (confirmation_code, table_id, user_id, bill_id, start_time, status) "
-				+ "VALUES (?, ?, ?, ?, NOW(), 'ACTIVE')";
-		try (PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setLong(1, code);
-			ps.setInt(2, tableId);
-			ps.setInt(3, userId);
-			ps.setInt(4, billId);
-			ps.executeUpdate();
+	 * @param status     A status.
+	 * @param candidates The statuses to look for.
+	 * @return true if {@code status} is one of the candidates.
+	 */
+	private static boolean isOneOf(String status, String... candidates) {
+		for (String candidate : candidates) {
+			if (candidate.equals(status)) {
+				return true;
+			}
 		}
+		return false;
 	}
 
 }
\ No newline at end of file
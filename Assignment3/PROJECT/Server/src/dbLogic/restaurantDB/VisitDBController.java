@@ -1,16 +1,11 @@
 package dbLogic.restaurantDB;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
-import MainControllers.DBController;
 import common.WaitingListEntry;
+import dbLogic.repository.Repositories;
+import dbLogic.repository.Storage;
 
 /**
  * Controller class for handling visit-related database operations. This
@@ -21,7 +16,7 @@ public class VisitDBController {
 
 	/**
      * Executes an atomic transaction to create a new bill and link it to a new visit record.
-     * Uses manual transaction management (commit/rollback) to ensure data integrity.
+     * Runs in {@code Storage.inTransaction} to ensure data integrity.
      *
      * @param confirmationCode The unique identifier for the reservation or waiting entry.
      * @param tableId          The ID of the table assigned to this visit.
@@ -31,47 +26,16 @@ public class VisitDBController {
      */
 	public static int insertVisitAndCreateBill(long confirmationCode, int tableId, int userId) throws SQLException {
 
-		Connection conn = DBController.getInstance().getConnection();
-
-		try {
-			conn.setAutoCommit(false);
-
+		Storage storage = Repositories.get();
+		return storage.inTransaction(() -> {
 			// 1️⃣ יצירת bill
-			int billId;
-			String billSql = "INSERT INTO bill (base_amount, discount_percent, final_amount, is_paid) "
-					+ "VALUES (0, 0, 0, 0)";
-
-			try (PreparedStatement ps = conn.prepareStatement(billSql, Statement.RETURN_GENERATED_KEYS)) {
-
-				ps.executeUpdate();
-				ResultSet rs = ps.getGeneratedKeys();
-				if (!rs.next()) {
-					throw new SQLException("Failed to create bill");
-				}
-				billId = rs.getInt(1);
-			}
+			int billId = storage.bills().createEmpty();
 
 			// 2️⃣ יצירת visit עם bill_id
-			String visitSql = "INSERT INTO visit (confirmation_code, table_id, user_id, bill_id, start_time, status) "
-					+ "VALUES (?, ?, ?, ?, NOW(), 'ACTIVE')";
+			storage.visits().insert(confirmationCode, tableId, userId, billId);
 
-			try (PreparedStatement ps = conn.prepareStatement(visitSql)) {
-				ps.setLong(1, confirmationCode);
-				ps.setInt(2, tableId);
-				ps.setInt(3, userId);
-				ps.setInt(4, billId);
-				ps.executeUpdate();
-			}
-
-			conn.commit(); // ✅ הצלחה
-			return billId;
-
-		} catch (SQLException e) {
-			conn.rollback(); // ❌ rollback מלא
-			throw e;
-		} finally {
-			conn.setAutoCommit(true);
-		}
+			return billId; // ✅ committed by inTransaction, rolled back on failure
+		});
 	}
 
 	/**
@@ -82,20 +46,7 @@ public class VisitDBController {
      * @throws SQLException If a database access error occurs.
      */
 	public static List<WaitingListEntry> getWaitingEntriesOrderedByEntryTime() throws SQLException {
-		List<WaitingListEntry> waitingList = new ArrayList<>();
-		String sql = "SELECT confirmation_code, entry_time, number_of_guests, user_id, status, notification_time "
-				+ "FROM waiting_list_entry WHERE status = 'WAITING' ORDER BY entry_time ASC";
-
-		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement ps = conn.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
-			while (rs.next()) {
-				WaitingListEntry entry = new WaitingListEntry(rs.getLong("confirmation_code"),
-						rs.getString("entry_time"), rs.getInt("number_of_guests"), rs.getInt("user_id"),
-						rs.getString("status"), rs.getString("notification_time"));
-				waitingList.add(entry);
-			}
-		}
-		return waitingList;
+		return Repositories.get().waitingList().findWaitingOrderedByEntryTime();
 	}
 
 }
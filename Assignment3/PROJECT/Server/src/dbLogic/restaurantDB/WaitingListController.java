@@ -6,6 +6,7 @@ import java.util.List;
 import MainControllers.ServerController;
 import common.WaitingListEntry;
 import serverLogic.scheduling.WaitingListScheduler;
+import serverLogic.terminal.ArrivalStatusNotifier;
 
 /**
  * WaitingListController handles the logic for managing the restaurant's waiting list queue.
@@ -51,6 +52,8 @@ public class WaitingListController {
                         "NOTIFIED"
                     );
 
+                    ArrivalStatusNotifier.publish(entry.getConfirmationCode(), "NOTIFIED");
+
                     ServerController.log(
                     	    "[WAITING LIST] Notification sent to customer. " +
                     	    "confirmationCode=" + entry.getConfirmationCode() +
@@ -8,7 +8,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 import MainControllers.DBController;
+import common.Page;
 import common.Reservation;
+import dbLogic.PageRequest;
+import dbLogic.repository.Repositories;
+import serverLogic.serverRestaurant.ReservationOccupancyIndex;
+import serverLogic.serverRestaurant.RestaurantManager;
+import serverLogic.terminal.ArrivalStatusNotifier;
 
 /**
  * Controller class responsible for handling database operations related to
@@ -68,7 +74,9 @@ public class viewReservationController {
 
 	/**
 	 * Updates the status of a specific reservation to 'CANCELLED' in the database.
-	 * Only reservations currently in 'ACTIVE' status can be cancelled.
+	 * Only reservations currently in 'ACTIVE' status can be cancelled. The
+	 * reservation's table is released in the occupancy index, and a terminal
+	 * waiting on the code is told it was cancelled.
 	 *
 	 * @param confirmationCode The unique long code of the reservation to cancel.
 	 * @return true if the reservation was found and updated successfully, false
@@ -76,16 +84,20 @@ public class viewReservationController {
 	 * @throws SQLException caught internally, logs error message to console.
 	 */
 	public static boolean cancelReservationByCode(long confirmationCode) {
-		String query = "UPDATE reservation SET status = 'CANCELLED'"
-				+ "WHERE confirmation_code = ? AND status = 'ACTIVE'";
-
-		Connection conn = DBController.getInstance().getConnection();
-
-		try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-			pstmt.setLong(1, confirmationCode);
-
-			int rowsAffected = pstmt.executeUpdate();
-			return rowsAffected > 0;
+		ReservationOccupancyIndex occupancy = RestaurantManager.occupancy();
+		try {
+			boolean cancelled = occupancy.update(() -> {
+				boolean updated = Repositories.get().reservations().updateStatusIf(confirmationCode, "ACTIVE",
+						"CANCELLED");
+				if (updated) {
+					occupancy.release(confirmationCode);
+				}
+				return updated;
+			});
+			if (cancelled) {
+				ArrivalStatusNotifier.publish(confirmationCode, "CANCELLED");
+			}
+			return cancelled;
 
 		} catch (SQLException e) {
 			System.out.println("DB Error during cancellation: " + e.getMessage());
@@ -95,38 +107,51 @@ public class viewReservationController {
 	}
 
 	/**
-	 * Fetches all ACTIVE reservations from the database for staff/management view.
-	 * Performs a LEFT JOIN with the user table to include customer phone numbers.
+	 * Fetches one page of the ACTIVE reservations from the database for
+	 * staff/management view, ordered by date and time, then by confirmation code;
+	 * the cursor is that pair. Performs a LEFT JOIN with the user table to include
+	 * customer phone numbers.
 	 *
-	 * @return An {@link ArrayList} of {@link Object} arrays, where each array
-	 *         represents a row containing [confirmation_code, datetime,
-	 *         guest_count, phone_number, status].
+	 * @param page The requested page.
+	 * @return A {@link Page} of {@link Object} arrays, where each array represents
+	 *         a row containing [confirmation_code, datetime, guest_count,
+	 *         phone_number, status].
 	 * @throws SQLException caught internally, prints error message to standard
 	 *                      error.
 	 */
-	public static ArrayList<Object[]> getAllActiveReservations() {
+	public static Page<Object[]> getAllActiveReservations(PageRequest page) {
 		ArrayList<Object[]> activeList = new ArrayList<>();
 
 		// שימוש ב-LEFT JOIN כדי למשוך את מספר הטלפון מטבלת המשתמשים
 		String query = "SELECT r.confirmation_code, r.reservation_datetime, r.number_of_guests, u.phone_number, r.status "
 				+ "FROM prototypedb.reservation r " + "LEFT JOIN prototypedb.user u ON r.user_id = u.user_id "
-				+ "WHERE r.status = 'ACTIVE' " + "ORDER BY r.reservation_datetime ASC";
+				+ "WHERE r.status = 'ACTIVE' "
+				+ "AND (r.reservation_datetime > ? OR (r.reservation_datetime = ? AND r.confirmation_code > ?)) "
+				+ "ORDER BY r.reservation_datetime ASC, r.confirmation_code ASC LIMIT ?";
 
 		Connection conn = DBController.getInstance().getConnection();
-		try (PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
-
-			while (rs.next()) {
-				Object[] row = new Object[] { rs.getLong("confirmation_code"), rs.getString("reservation_datetime"),
-						rs.getInt("number_of_guests"),
-						// אם הטלפון הוא NULL ב-DB, נציג הודעה מתאימה בטבלה
-						rs.getString("phone_number") != null ? rs.getString("phone_number") : "No Phone",
-						rs.getString("status") };
-				activeList.add(row);
+		try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+			// Reads on from the cursor along idx_reservation_status_datetime
+			String afterTime = page.after(0, "1000-01-01 00:00:00");
+			pstmt.setString(1, afterTime);
+			pstmt.setString(2, afterTime);
+			pstmt.setLong(3, Long.parseLong(page.after(1, String.valueOf(Long.MIN_VALUE))));
+			pstmt.setInt(4, page.limit());
+
+			try (ResultSet rs = pstmt.executeQuery()) {
+				while (rs.next()) {
+					Object[] row = new Object[] { rs.getLong("confirmation_code"), rs.getString("reservation_datetime"),
+							rs.getInt("number_of_guests"),
+							// אם הטלפון הוא NULL ב-DB, נציג הודעה מתאימה בטבלה
+							rs.getString("phone_number") != null ? rs.getString("phone_number") : "No Phone",
+							rs.getString("status") };
+					activeList.add(row);
+				}
 			}
-		} catch (SQLException e) {
+		} catch (SQLException | NumberFormatException e) {
 			System.err.println("Database Error: " + e.getMessage());
 		}
-		return activeList;
+		return page.toPage(activeList, row -> new Object[] { row[1], row[0] });
 	}
 
 	/**
@@ -0,0 +1,248 @@
+package dbLogic.schema;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import MainControllers.DBController;
+import MainControllers.ServerController;
+
+/**
+ * Moves finished reservations, visits and waiting list entries out of the operational tables.
+ * <p>
+ * The operational tables only need the rows the restaurant still acts on, but every cancelled,
+ * no-show and finished row used to stay in them for good. Once a month has ended and the next
+ * one has passed too, its finished rows are moved to {@code reservation_archive},
+ * {@code visit_archive} and {@code waiting_list_entry_archive} (migration 6). The archive tables
+ * are partitioned by month on their time column, so a report for one month only reads that
+ * month's partition. The operational tables themselves cannot be partitioned: InnoDB does not
+ * allow foreign keys on partitioned tables.
+ * </p>
+ * <p>
+ * Each month of each table is moved in its own transaction: the rows are copied, and only the
+ * rows found in the archive are then deleted, so an interrupted run never loses a row and the
+ * next run simply continues. A MySQL named lock lets only one server archive at a time.
+ * </p>
+ * <p>
+ * The history and report queries read the operational table and its archive together with
+ * {@code UNION ALL}.
+ * </p>
+ */
+public class HistoryArchiver {
+
+    /** Name of the MySQL lock held while archiving. */
+    private static final String LOCK_NAME = "bistro_history_archive";
+
+    /** First monthly partition boundary; older rows share the {@code p_old} partition. */
+    private static final LocalDate FIRST_BOUNDARY = LocalDate.of(2025, 1, 1);
+
+    /**
+     * Months that stay in the operational tables besides the current one,
+     * {@code -Dbistro.archiveAfterMonths} (default 1).
+     */
+    private static final int KEEP_MONTHS = Integer.getInteger("bistro.archiveAfterMonths", 1);
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    /** An operational table, its archive, and the statuses after which a row is never updated. */
+    private static final class ArchivedTable {
+        final String table;
+        final String archive;
+        final String timeColumn;
+        final String columns;
+        final String finalStatuses;
+
+        ArchivedTable(String table, String timeColumn, String columns, String finalStatuses) {
+            this.table = table;
+            this.archive = table + "_archive";
+            this.timeColumn = timeColumn;
+            this.columns = columns;
+            this.finalStatuses = finalStatuses;
+        }
+    }
+
+    private static final List<ArchivedTable> TABLES = Collections.unmodifiableList(Arrays.asList(
+            new ArchivedTable("reservation", "reservation_datetime",
+                    "confirmation_code, reservation_datetime, number_of_guests, user_id, status",
+                    "'CANCELLED', 'NOSHOW', 'FINISHED', 'COMPLETED'"),
+            new ArchivedTable("visit", "start_time",
+                    "confirmation_code, table_id, user_id, bill_id, start_time, status",
+                    "'FINISHED'"),
+            new ArchivedTable("waiting_list_entry", "entry_time",
+                    "confirmation_code, entry_time, number_of_guests, user_id, status, notification_time",
+                    "'CANCELLED', 'NOSHOW', 'ARRIVED'")));
+
+    /** The day of the last run; the automation thread calls {@link #archiveIfDue()} every minute. */
+    private static volatile LocalDate lastRun;
+
+    /**
+     * Returns the partition clause an archive table is created with: everything before 2025 in
+     * {@code p_old}, and an empty {@code p_future} that {@link #archive(LocalDate)} splits into
+     * monthly partitions as months are archived.
+     *
+     * @param timeColumn The column the table is partitioned on.
+     * @return The {@code PARTITION BY} clause.
+     */
+    static String initialPartitions(String timeColumn) {
+        return "PARTITION BY RANGE COLUMNS (" + timeColumn + ") ("
+                + "PARTITION p_old VALUES LESS THAN ('" + FIRST_BOUNDARY + " 00:00:00'), "
+                + "PARTITION p_future VALUES LESS THAN (MAXVALUE))";
+    }
+
+    /**
+     * Archives the finished months once a day.
+     *
+     * @throws SQLException If archiving fails; the months already moved stay archived.
+     */
+    public static void archiveIfDue() throws SQLException {
+        LocalDate today = LocalDate.now();
+        if (today.equals(lastRun)) {
+            return;
+        }
+        int moved = archive(today);
+        lastRun = today;
+        if (moved > 0) {
+            ServerController.log("[ARCHIVE] Moved " + moved + " finished rows to the archive tables.");
+        }
+    }
+
+    /**
+     * Moves every finished row older than the kept months to the archive tables.
+     *
+     * @param today The current day; finished rows from before the kept months are archived.
+     * @return The number of rows moved, or 0 if another server is archiving.
+     * @throws SQLException If a month cannot be moved.
+     */
+    public static int archive(LocalDate today) throws SQLException {
+        DBController db = DBController.getInstance();
+        Connection conn = db.getConnection();
+        if (conn == null) {
+            throw new SQLException("No database connection available");
+        }
+        LocalDate cutoff = today.withDayOfMonth(1).minusMonths(KEEP_MONTHS);
+
+        if (!tryLock(conn)) {
+            return 0;
+        }
+        try {
+            int moved = 0;
+            for (ArchivedTable t : TABLES) {
+                addMonthlyPartitions(conn, t, cutoff);
+                LocalDate oldest = oldestMonth(conn, t, cutoff);
+                for (LocalDate month = oldest; month != null && month.isBefore(cutoff); month = month.plusMonths(1)) {
+                    LocalDate from = month;
+                    moved += db.inTransaction(tx -> moveMonth(tx, t, from, from.plusMonths(1)));
+                }
+            }
+            return moved;
+        } finally {
+            releaseLock(conn);
+        }
+    }
+
+    private static int moveMonth(Connection conn, ArchivedTable t, LocalDate from, LocalDate to)
+            throws SQLException {
+        String range = "o." + t.timeColumn + " >= ? AND o." + t.timeColumn + " < ? "
+                + "AND o.status IN (" + t.finalStatuses + ")";
+        try (PreparedStatement copy = conn.prepareStatement(
+                "INSERT IGNORE INTO " + t.archive + " (" + t.columns + ") "
+                        + "SELECT " + t.columns + " FROM " + t.table + " o WHERE " + range)) {
+            copy.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            copy.setTimestamp(2, Timestamp.valueOf(to.atStartOfDay()));
+            copy.executeUpdate();
+        }
+        // Only rows that really are in the archive are deleted
+        try (PreparedStatement delete = conn.prepareStatement(
+                "DELETE o FROM " + t.table + " o JOIN " + t.archive + " a "
+                        + "ON a.confirmation_code = o.confirmation_code AND a." + t.timeColumn + " = o." + t.timeColumn
+                        + " WHERE " + range)) {
+            delete.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            delete.setTimestamp(2, Timestamp.valueOf(to.atStartOfDay()));
+            return delete.executeUpdate();
+        }
+    }
+
+    /**
+     * @return The first day of the month of the oldest row before the cutoff, or {@code null}.
+     */
+    private static LocalDate oldestMonth(Connection conn, ArchivedTable t, LocalDate cutoff) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT MIN(" + t.timeColumn + ") FROM " + t.table + " WHERE " + t.timeColumn + " < ?")) {
+            ps.setTimestamp(1, Timestamp.valueOf(cutoff.atStartOfDay()));
+            try (ResultSet rs = ps.executeQuery()) {
+                Timestamp oldest = rs.next() ? rs.getTimestamp(1) : null;
+                return oldest == null ? null : oldest.toLocalDateTime().toLocalDate().withDayOfMonth(1);
+            }
+        }
+    }
+
+    /**
+     * Splits {@code p_future} so that every month before the cutoff has its own partition.
+     */
+    private static void addMonthlyPartitions(Connection conn, ArchivedTable t, LocalDate cutoff) throws SQLException {
+        LocalDate boundary = lastBoundary(conn, t);
+        if (!boundary.isBefore(cutoff)) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("ALTER TABLE " + t.archive + " REORGANIZE PARTITION p_future INTO (");
+        for (LocalDate month = boundary; month.isBefore(cutoff); month = month.plusMonths(1)) {
+            sql.append("PARTITION ").append(month.format(PARTITION_NAME))
+                    .append(" VALUES LESS THAN ('").append(month.plusMonths(1)).append(" 00:00:00'), ");
+        }
+        sql.append("PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql.toString());
+        }
+    }
+
+    /**
+     * @return The upper bound of the last monthly partition, i.e. the first month that still
+     *         falls into {@code p_future}.
+     */
+    private static LocalDate lastBoundary(Connection conn, ArchivedTable t) throws SQLException {
+        LocalDate boundary = FIRST_BOUNDARY;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME <> 'p_future'")) {
+            ps.setString(1, t.archive);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    // The description is the quoted bound, e.g. '2025-02-01 00:00:00'
+                    String bound = rs.getString(1).replace("'", "").trim().replace(' ', 'T');
+                    LocalDate date = LocalDateTime.parse(bound).toLocalDate();
+                    if (date.isAfter(boundary)) {
+                        boundary = date;
+                    }
+                }
+            }
+        }
+        return boundary;
+    }
+
+    private static boolean tryLock(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            ps.setString(1, LOCK_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        } catch (SQLException e) {
+            // The lock is released with the session in any case
+        }
+    }
+}
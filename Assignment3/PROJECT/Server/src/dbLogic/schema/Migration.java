@@ -0,0 +1,45 @@
+package dbLogic.schema;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One versioned step of the database schema.
+ * <p>
+ * A migration is applied once, in version order, by {@link SchemaMigrator}; its version is then
+ * recorded in the {@code schema_version} table. A migration that has shipped must never be
+ * edited: schema changes are always added as a new migration with the next version number.
+ * </p>
+ */
+public final class Migration {
+
+    private final int version;
+    private final String description;
+    private final List<String> statements;
+
+    /**
+     * @param version     The schema version this migration produces, starting at 1.
+     * @param description A short description recorded with the version.
+     * @param statements  The DDL statements, executed in order.
+     */
+    public Migration(int version, String description, String... statements) {
+        this.version = version;
+        this.description = description;
+        this.statements = Collections.unmodifiableList(Arrays.asList(statements));
+    }
+
+    /** @return The schema version this migration produces. */
+    public int getVersion() { return version; }
+
+    /** @return The description recorded with the version. */
+    public String getDescription() { return description; }
+
+    /** @return The DDL statements of the migration. */
+    public List<String> getStatements() { return statements; }
+
+    @Override
+    public String toString() {
+        return "V" + version + " " + description;
+    }
+}
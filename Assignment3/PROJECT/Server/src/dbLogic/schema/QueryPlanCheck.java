@@ -0,0 +1,224 @@
+package dbLogic.schema;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import MainControllers.DBController;
+
+/**
+ * Verifies with {@code EXPLAIN} that the hot queries of the server can use an index.
+ * <p>
+ * Each registered query is a copy of the SQL issued by the DAO method named with it, bound to
+ * representative parameter values. The check fails for a query when MySQL plans a full table
+ * scan ({@code type = ALL}) on a base table for which no index is even possible. A full scan
+ * chosen although an index exists is accepted: on the small development database the optimizer
+ * rightly prefers scanning a few pages, and it switches to the index as the table grows.
+ * </p>
+ * <p>
+ * When a hot query is changed, or a new one added, its copy here must be updated so that the
+ * indexes of {@link SchemaMigrator} keep matching it. The check runs after the migrations at
+ * every server start, and on its own with {@code java dbLogic.schema.QueryPlanCheck}, which
+ * exits with status 1 on failure.
+ * </p>
+ */
+public class QueryPlanCheck {
+
+    /** A query that must be served by an index, with sample parameters. */
+    private static final class HotQuery {
+        final String source;
+        final String sql;
+        final Object[] params;
+
+        HotQuery(String source, String sql, Object... params) {
+            this.source = source;
+            this.sql = sql;
+            this.params = params;
+        }
+    }
+
+    private static final String SAMPLE_TIME = "2026-03-15 19:00:00";
+    private static final String SAMPLE_END = "2026-03-15 21:00:00";
+
+    private static final List<HotQuery> HOT_QUERIES = Collections.unmodifiableList(Arrays.asList(
+            new HotQuery("JdbcReservationRepository.countOverlapping",
+                    "SELECT COUNT(*) FROM reservation WHERE number_of_guests = ? "
+                    + "AND status NOT IN ('CANCELLED', 'FINISHED', 'NOSHOW') "
+                    + "AND reservation_datetime > DATE_SUB(?, INTERVAL 2 HOUR) "
+                    + "AND reservation_datetime < DATE_ADD(?, INTERVAL 2 HOUR)",
+                    4, SAMPLE_TIME, SAMPLE_TIME),
+            new HotQuery("JdbcReservationRepository.sumExpectedGuests",
+                    "SELECT COALESCE(SUM(number_of_guests), 0) FROM reservation "
+                    + "WHERE reservation_datetime >= ? AND reservation_datetime < ? "
+                    + "AND status IN ('ACTIVE', 'WAITING_AT_RESTAURANT', 'NOTIFIED')",
+                    SAMPLE_TIME, SAMPLE_END),
+            new HotQuery("JdbcWaitingListRepository.partySizesWithStatus",
+                    "SELECT number_of_guests FROM waiting_list_entry WHERE status = ?",
+                    "NOTIFIED"),
+            new HotQuery("JdbcReservationRepository.findFirstWaitingAtRestaurant",
+                    "SELECT confirmation_code FROM reservation "
+                    + "WHERE status = 'WAITING_AT_RESTAURANT' AND number_of_guests <= ? "
+                    + "ORDER BY reservation_datetime ASC LIMIT 1",
+                    4),
+            new HotQuery("JdbcTableRepository.findBestFreeTable",
+                    "SELECT table_id FROM `table` WHERE is_available = 1 AND capacity >= ? "
+                    + "ORDER BY capacity ASC LIMIT 1",
+                    4),
+            new HotQuery("JdbcVisitRepository.findActiveWithGuests",
+                    "SELECT v.*, COALESCE(r.number_of_guests, w.number_of_guests) as guests FROM visit v "
+                    + "LEFT JOIN reservation r ON v.confirmation_code = r.confirmation_code "
+                    + "LEFT JOIN waiting_list_entry w ON v.confirmation_code = w.confirmation_code "
+                    + "WHERE v.status = 'ACTIVE'"),
+            new HotQuery("UpdateManagementDBController (visits over the time limit)",
+                    "SELECT v.table_id, v.user_id, v.confirmation_code FROM visit v "
+                    + "WHERE v.status = 'ACTIVE' "
+                    + "AND v.start_time <= NOW() - INTERVAL 120 MINUTE"),
+            new HotQuery("UpdateManagementDBController (reservation reminders)",
+                    "SELECT r.confirmation_code, r.user_id, r.reservation_datetime FROM reservation r "
+                    + "WHERE r.status = 'ACTIVE' "
+                    + "AND r.reservation_datetime >= NOW() - INTERVAL 15 MINUTE "
+                    + "AND r.reservation_datetime <= NOW() + INTERVAL 120 MINUTE"),
+            new HotQuery("UpdateManagementDBController (late arrivals)",
+                    "UPDATE reservation r SET r.status = 'NOSHOW' "
+                    + "WHERE r.status = 'ACTIVE' "
+                    + "AND r.reservation_datetime < NOW() - INTERVAL 15 MINUTE "
+                    + "AND NOT EXISTS (SELECT 1 FROM visit v WHERE v.confirmation_code = r.confirmation_code)"),
+            new HotQuery("UpdateManagementDBController (active waiting list)",
+                    "SELECT * FROM waiting_list_entry WHERE status = 'WAITING' OR status = 'NOTIFIED'"),
+            new HotQuery("UpdateManagementDBController.createNewSubscriber",
+                    "SELECT user_id FROM user WHERE phone_number = ?",
+                    "0501234567"),
+            new HotQuery("UpdateManagementDBController.getOrCreateTimeRange",
+                    "SELECT time_range_id FROM time_range WHERE open_time = ? AND close_time = ?",
+                    "12:00:00", "23:00:00"),
+            new HotQuery("DBOccasionalConnection (user by phone or email)",
+                    "SELECT user_id FROM user WHERE phone_number = ? OR email = ?",
+                    "0501234567", "guest@example.com"),
+            new HotQuery("DBSubscriberConnection.verifySubscriber",
+                    "SELECT user_id FROM subscriber WHERE subscriber_id = ? AND "
+                    + "(status = 'subscriber' OR status = 'manager' OR status = 'representative')",
+                    123456L),
+            new HotQuery("reportsDBController.getTimeReportData",
+                    "SELECT DATE(v.start_time) AS date, HOUR(v.start_time) AS arrival_hour FROM ("
+                    + "  SELECT confirmation_code, bill_id, start_time FROM visit "
+                    + "  WHERE start_time >= ? AND start_time < ? "
+                    + "  UNION ALL "
+                    + "  SELECT confirmation_code, bill_id, start_time FROM visit_archive "
+                    + "  WHERE start_time >= ? AND start_time < ? "
+                    + ") v "
+                    + "LEFT JOIN reservation r ON v.confirmation_code = r.confirmation_code "
+                    + "LEFT JOIN reservation_archive ra ON v.confirmation_code = ra.confirmation_code "
+                    + "JOIN bill b ON v.bill_id = b.bill_id "
+                    + "WHERE r.confirmation_code IS NOT NULL OR ra.confirmation_code IS NOT NULL "
+                    + "GROUP BY date, arrival_hour",
+                    "2026-03-01", "2026-04-01", "2026-03-01", "2026-04-01"),
+            new HotQuery("reportsDBController.getSubReportData",
+                    "SELECT report_date, SUM(is_res) FROM ("
+                    + "  SELECT DATE(reservation_datetime) as report_date, 1 as is_res FROM reservation "
+                    + "  WHERE reservation_datetime >= ? AND reservation_datetime < ? "
+                    + "  UNION ALL "
+                    + "  SELECT DATE(reservation_datetime) as report_date, 1 as is_res FROM reservation_archive "
+                    + "  WHERE reservation_datetime >= ? AND reservation_datetime < ? "
+                    + "  UNION ALL "
+                    + "  SELECT DATE(entry_time) as report_date, 0 as is_res FROM waiting_list_entry "
+                    + "  WHERE entry_time >= ? AND entry_time < ? "
+                    + "  UNION ALL "
+                    + "  SELECT DATE(entry_time) as report_date, 0 as is_res FROM waiting_list_entry_archive "
+                    + "  WHERE entry_time >= ? AND entry_time < ? "
+                    + ") AS combined GROUP BY report_date",
+                    "2026-03-01", "2026-04-01", "2026-03-01", "2026-04-01",
+                    "2026-03-01", "2026-04-01", "2026-03-01", "2026-04-01"),
+            new HotQuery("DBReservationsHistoryController.getReservationsForUser",
+                    "(SELECT confirmation_code, reservation_datetime FROM reservation WHERE user_id = ? "
+                    + "AND (reservation_datetime < ? OR (reservation_datetime = ? AND confirmation_code < ?)) "
+                    + "ORDER BY reservation_datetime DESC, confirmation_code DESC LIMIT 51) "
+                    + "UNION ALL "
+                    + "(SELECT confirmation_code, reservation_datetime FROM reservation_archive WHERE user_id = ? "
+                    + "AND (reservation_datetime < ? OR (reservation_datetime = ? AND confirmation_code < ?)) "
+                    + "ORDER BY reservation_datetime DESC, confirmation_code DESC LIMIT 51) "
+                    + "ORDER BY reservation_datetime DESC, confirmation_code DESC LIMIT 51",
+                    1, SAMPLE_TIME, SAMPLE_TIME, 1042L, 1, SAMPLE_TIME, SAMPLE_TIME, 1042L),
+            new HotQuery("DBVisitHistoryController.getVisitsForUser",
+                    "(SELECT confirmation_code, start_time FROM visit WHERE user_id = ? "
+                    + "AND (start_time < ? OR (start_time = ? AND confirmation_code < ?)) "
+                    + "ORDER BY start_time DESC, confirmation_code DESC LIMIT 51) "
+                    + "UNION ALL "
+                    + "(SELECT confirmation_code, start_time FROM visit_archive WHERE user_id = ? "
+                    + "AND (start_time < ? OR (start_time = ? AND confirmation_code < ?)) "
+                    + "ORDER BY start_time DESC, confirmation_code DESC LIMIT 51) "
+                    + "ORDER BY start_time DESC, confirmation_code DESC LIMIT 51",
+                    1, SAMPLE_TIME, SAMPLE_TIME, 1042L, 1, SAMPLE_TIME, SAMPLE_TIME, 1042L),
+            new HotQuery("viewReservationController.getAllActiveReservations",
+                    "SELECT r.confirmation_code, r.reservation_datetime FROM reservation r "
+                    + "LEFT JOIN user u ON r.user_id = u.user_id "
+                    + "WHERE r.status = 'ACTIVE' "
+                    + "AND (r.reservation_datetime > ? OR (r.reservation_datetime = ? AND r.confirmation_code > ?)) "
+                    + "ORDER BY r.reservation_datetime ASC, r.confirmation_code ASC LIMIT 51",
+                    SAMPLE_TIME, SAMPLE_TIME, 1042L),
+            new HotQuery("SubscriberDBController.getAllSubscribers",
+                    "SELECT user_id, subscriber_id FROM subscriber WHERE user_id > ? ORDER BY user_id LIMIT 51",
+                    0),
+            new HotQuery("HistoryArchiver (oldest row before the cutoff)",
+                    "SELECT MIN(reservation_datetime) FROM reservation WHERE reservation_datetime < ?",
+                    "2026-09-01")));
+
+    /**
+     * Explains every registered hot query.
+     *
+     * @param conn The connection to explain the queries on.
+     * @return One message per query that would scan a whole table without any usable index;
+     *         empty when all of them can use an index.
+     * @throws SQLException If a query cannot be explained, for example after a column rename.
+     */
+    public static List<String> run(Connection conn) throws SQLException {
+        List<String> failures = new ArrayList<>();
+        for (HotQuery query : HOT_QUERIES) {
+            try (PreparedStatement ps = conn.prepareStatement("EXPLAIN " + query.sql)) {
+                for (int i = 0; i < query.params.length; i++) {
+                    ps.setObject(i + 1, query.params[i]);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        String table = rs.getString("table");
+                        boolean baseTable = table != null && !table.startsWith("<");
+                        if (baseTable && "ALL".equals(rs.getString("type"))
+                                && rs.getString("possible_keys") == null) {
+                            failures.add(query.source + ": full scan of `" + table
+                                    + "` with no usable index");
+                        }
+                    }
+                }
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Runs the check against the configured database.
+     *
+     * @param args Not used.
+     * @throws SQLException If the database cannot be reached.
+     */
+    public static void main(String[] args) throws SQLException {
+        DBController db = DBController.getInstance();
+        db.connectToDB();
+        List<String> failures;
+        try {
+            failures = run(db.getConnection());
+        } finally {
+            db.closeConnection();
+        }
+        for (String failure : failures) {
+            System.out.println("FAIL " + failure);
+        }
+        System.out.println(HOT_QUERIES.size() + " hot queries checked, " + failures.size() + " failed");
+        if (!failures.isEmpty()) {
+            System.exit(1);
+        }
+    }
+}
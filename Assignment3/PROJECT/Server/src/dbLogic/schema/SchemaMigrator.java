@@ -0,0 +1,195 @@
+package dbLogic.schema;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import MainControllers.ServerController;
+
+/**
+ * Brings the database schema up to date when the server starts.
+ * <p>
+ * {@code ProjectDB.sql} creates the base schema (version 0). Every later change is a
+ * {@link Migration} in {@link #MIGRATIONS}; the versions already applied are recorded in the
+ * {@code schema_version} table, and {@link #migrate(Connection)} applies the missing ones in
+ * order. A MySQL named lock keeps two servers that start together from applying the same
+ * migration twice.
+ * </p>
+ * <p>
+ * MySQL commits DDL implicitly, so a migration interrupted half-way cannot be rolled back. Its
+ * version is not recorded in that case and the migration runs again at the next start; an index
+ * that already exists (error 1061) is then skipped rather than failing the migration.
+ * </p>
+ */
+public class SchemaMigrator {
+
+    /** Name of the MySQL lock held while migrating. */
+    private static final String LOCK_NAME = "bistro_schema_migration";
+
+    /** How long to wait for another server's migration to finish, in seconds. */
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    /** MySQL error code of {@code CREATE INDEX} with a name that is already used. */
+    private static final int MYSQL_DUPLICATE_KEY_NAME = 1061;
+
+    /**
+     * The migrations of the Bistro schema, in version order.
+     * <p>
+     * The indexes match the filters of the hot queries registered in {@link QueryPlanCheck}:
+     * status first where a query selects one status and then a time window, the time column
+     * alone for the monthly reports, and equality columns before the range column otherwise.
+     * </p>
+     */
+    static final List<Migration> MIGRATIONS = Collections.unmodifiableList(Arrays.asList(
+            new Migration(1, "reservation indexes for availability, automation and reports",
+                    "CREATE INDEX idx_reservation_status_datetime "
+                            + "ON reservation (status, reservation_datetime)",
+                    "CREATE INDEX idx_reservation_guests_datetime "
+                            + "ON reservation (number_of_guests, reservation_datetime, status)",
+                    "CREATE INDEX idx_reservation_datetime ON reservation (reservation_datetime)"),
+            new Migration(2, "waiting list indexes for the active list and reports",
+                    "CREATE INDEX idx_waiting_status_entry "
+                            + "ON waiting_list_entry (status, entry_time)",
+                    "CREATE INDEX idx_waiting_entry_time ON waiting_list_entry (entry_time)"),
+            new Migration(3, "visit indexes for active visits and reports",
+                    "CREATE INDEX idx_visit_status_start ON visit (status, start_time)",
+                    "CREATE INDEX idx_visit_start_time ON visit (start_time)"),
+            new Migration(4, "table index for finding a free table by size",
+                    "CREATE INDEX idx_table_available_capacity ON `table` (is_available, capacity)"),
+            new Migration(5, "lookup indexes for login, registration and opening hours",
+                    "CREATE INDEX idx_user_phone ON user (phone_number)",
+                    "CREATE INDEX idx_user_email ON user (email)",
+                    "CREATE INDEX idx_subscriber_subscriber_id ON subscriber (subscriber_id)",
+                    "CREATE INDEX idx_time_range_open_close ON time_range (open_time, close_time)"),
+            new Migration(6, "monthly partitioned archive tables for finished history",
+                    "CREATE TABLE IF NOT EXISTS reservation_archive ("
+                            + "confirmation_code BIGINT NOT NULL, "
+                            + "reservation_datetime DATETIME NOT NULL, "
+                            + "number_of_guests INT NOT NULL, "
+                            + "user_id INT NOT NULL, "
+                            + "status VARCHAR(50) NOT NULL, "
+                            + "PRIMARY KEY (confirmation_code, reservation_datetime), "
+                            + "KEY idx_reservation_archive_user (user_id, reservation_datetime)) "
+                            + HistoryArchiver.initialPartitions("reservation_datetime"),
+                    "CREATE TABLE IF NOT EXISTS visit_archive ("
+                            + "confirmation_code BIGINT NOT NULL, "
+                            + "table_id INT NOT NULL, "
+                            + "user_id INT NOT NULL, "
+                            + "bill_id INT DEFAULT NULL, "
+                            + "start_time DATETIME NOT NULL, "
+                            + "status VARCHAR(50) NOT NULL, "
+                            + "PRIMARY KEY (confirmation_code, start_time), "
+                            + "KEY idx_visit_archive_user (user_id, start_time)) "
+                            + HistoryArchiver.initialPartitions("start_time"),
+                    "CREATE TABLE IF NOT EXISTS waiting_list_entry_archive ("
+                            + "confirmation_code BIGINT NOT NULL, "
+                            + "entry_time DATETIME NOT NULL, "
+                            + "number_of_guests INT NOT NULL, "
+                            + "user_id INT NOT NULL, "
+                            + "status VARCHAR(50) NOT NULL, "
+                            + "notification_time DATETIME DEFAULT NULL, "
+                            + "PRIMARY KEY (confirmation_code, entry_time), "
+                            + "KEY idx_waiting_archive_user (user_id, entry_time)) "
+                            + HistoryArchiver.initialPartitions("entry_time")),
+            new Migration(7, "user history indexes for keyset pagination",
+                    "CREATE INDEX idx_reservation_user_datetime ON reservation (user_id, reservation_datetime)",
+                    "CREATE INDEX idx_visit_user_start ON visit (user_id, start_time)")));
+
+    /**
+     * Applies the migrations that the database does not have yet.
+     *
+     * @param conn A connection in auto-commit mode.
+     * @return The number of migrations applied.
+     * @throws SQLException If a migration fails; the versions before it stay applied.
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INT NOT NULL PRIMARY KEY, "
+                    + "description VARCHAR(255) NOT NULL, "
+                    + "applied_at DATETIME NOT NULL)");
+        }
+
+        acquireLock(conn);
+        try {
+            Set<Integer> applied = appliedVersions(conn);
+            int count = 0;
+            for (Migration migration : MIGRATIONS) {
+                if (!applied.contains(migration.getVersion())) {
+                    apply(conn, migration);
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            releaseLock(conn);
+        }
+    }
+
+    /**
+     * @return The latest schema version known to this server.
+     */
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).getVersion();
+    }
+
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        ServerController.log("[SCHEMA] Applying " + migration);
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : migration.getStatements()) {
+                try {
+                    stmt.executeUpdate(sql);
+                } catch (SQLException e) {
+                    if (e.getErrorCode() != MYSQL_DUPLICATE_KEY_NAME) {
+                        throw new SQLException("Migration " + migration + " failed on: " + sql, e);
+                    }
+                }
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, NOW())")) {
+            ps.setInt(1, migration.getVersion());
+            ps.setString(2, migration.getDescription());
+            ps.executeUpdate();
+        }
+    }
+
+    private static Set<Integer> appliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        return versions;
+    }
+
+    private static void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another server to migrate the schema");
+                }
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        } catch (SQLException e) {
+            // The lock is released with the session in any case
+        }
+    }
+}
@@ -158,83 +158,73 @@ public class DBOccasionalConnection implements ILoginDatabase { // Class start
      * or an {@code "ERROR: ..."} message explaining the failure (e.g., duplicate data or DB error).
      */
     public String registerNewOccasional(String username, String contact) { // Method start
-        // Retrieve the database connection
-        Connection conn = DBController.getInstance().getConnection(); // Get connection
-
         // SQL commands for validation and multi-table insertion
-        String checkUserSql = "SELECT * FROM occasional_customer WHERE username = ?"; // SQL string
-        String checkContactSql = "SELECT * FROM user WHERE phone_number = ? OR email = ?"; // SQL string
+        // The checks lock what they read, so a parallel registration of the same name or contact waits
+        String checkUserSql = "SELECT * FROM occasional_customer WHERE username = ? FOR UPDATE"; // SQL string
+        String checkContactSql = "SELECT * FROM user WHERE phone_number = ? OR email = ? FOR UPDATE"; // SQL string
         String insertUserSql = "INSERT INTO user (phone_number, email) VALUES (?, ?)"; // SQL string
         String insertOccSql = "INSERT INTO occasional_customer (user_id, username) VALUES (?, ?)"; // SQL string
 
         try { // Start of registration try block
             
-            // TRANSACTION START: Disable auto-commit to ensure atomicity
-            conn.setAutoCommit(false); // Begin manual transaction
+            // TRANSACTION: committed when the work returns, rolled back when it throws
+            return DBController.getInstance().inTransaction(conn -> { // Begin transaction
 
-            // --- Phase 1: Pre-validation of identity uniqueness ---
-            try (PreparedStatement pstmt = conn.prepareStatement(checkUserSql)) { // Check username
-                pstmt.setString(1, username); // Bind name
-                if (pstmt.executeQuery().next()) { // If exists
-                    conn.rollback(); // Undo potential changes
-                    return "ERROR: Username already exists."; // Return error
-                } // End if
-            } // End username check try
+                // --- Phase 1: Pre-validation of identity uniqueness ---
+                try (PreparedStatement pstmt = conn.prepareStatement(checkUserSql)) { // Check username
+                    pstmt.setString(1, username); // Bind name
+                    if (pstmt.executeQuery().next()) { // If exists
+                        return "ERROR: Username already exists."; // Nothing written yet
+                    } // End if
+                } // End username check try
 
-            try (PreparedStatement pstmt = conn.prepareStatement(checkContactSql)) { // Check contact info
-                pstmt.setString(1, contact); // Bind contact to param 1
-                pstmt.setString(2, contact); // Bind contact to param 2
-                if (pstmt.executeQuery().next()) { // If exists
-                    conn.rollback(); // Undo potential changes
-                    return "ERROR: Contact info already exists."; // Return error
-                } // End if
-            } // End contact check try
+                try (PreparedStatement pstmt = conn.prepareStatement(checkContactSql)) { // Check contact info
+                    pstmt.setString(1, contact); // Bind contact to param 1
+                    pstmt.setString(2, contact); // Bind contact to param 2
+                    if (pstmt.executeQuery().next()) { // If exists
+                        return "ERROR: Contact info already exists."; // Nothing written yet
+                    } // End if
+                } // End contact check try
 
-            // --- Phase 2: Metadata Creation (User Table) ---
-            int userId = -1; // Initialize generated ID holder
-            try (PreparedStatement pstmt = conn.prepareStatement(insertUserSql, Statement.RETURN_GENERATED_KEYS)) { // Insert with key retrieval
-                // Logic: Assign value to either phone or email based on content
-                if (contact.contains("@")) { // Check if input is an email
-                    pstmt.setNull(1, Types.VARCHAR); // Set phone to NULL
-                    pstmt.setString(2, contact); // Set email to value
-                } else { // Otherwise treat as phone
-                    pstmt.setString(1, contact); // Set phone to value
-                    pstmt.setNull(2, Types.VARCHAR); // Set email to NULL
-                } // End if-else
-                
-                pstmt.executeUpdate(); // Execute metadata creation
-                
-                // Retrieve the auto-generated primary key from MySQL
-                ResultSet rs = pstmt.getGeneratedKeys(); // Get keys
-                if (rs.next()) { // If key returned
-                    userId = rs.getInt(1); // Extract the numeric ID
-                } // End if
-            } // End metadata try
+                // --- Phase 2: Metadata Creation (User Table) ---
+                int userId = -1; // Initialize generated ID holder
+                try (PreparedStatement pstmt = conn.prepareStatement(insertUserSql, Statement.RETURN_GENERATED_KEYS)) { // Insert with key retrieval
+                    // Logic: Assign value to either phone or email based on content
+                    if (contact.contains("@")) { // Check if input is an email
+                        pstmt.setNull(1, Types.VARCHAR); // Set phone to NULL
+                        pstmt.setString(2, contact); // Set email to value
+                    } else { // Otherwise treat as phone
+                        pstmt.setString(1, contact); // Set phone to value
+                        pstmt.setNull(2, Types.VARCHAR); // Set email to NULL
+                    } // End if-else
+                    
+                    pstmt.executeUpdate(); // Execute metadata creation
+                    
+                    // Retrieve the auto-generated primary key from MySQL
+                    ResultSet rs = pstmt.getGeneratedKeys(); // Get keys
+                    if (rs.next()) { // If key returned
+                        userId = rs.getInt(1); // Extract the numeric ID
+                    } // End if
+                } // End metadata try
 
-            // --- Phase 3: Identity Linkage (Occasional Customer Table) ---
-            if (userId != -1) { // If metadata was created successfully
+                // --- Phase 3: Identity Linkage (Occasional Customer Table) ---
+                if (userId == -1) { // If user_id retrieval failed
+                    throw new SQLException("Failed to create user profile."); // Abort entire transaction
+                } // End if
                 try (PreparedStatement pstmt = conn.prepareStatement(insertOccSql)) { // Link ID to username
                     pstmt.setInt(1, userId); // Bind generated ID
                     pstmt.setString(2, username); // Bind desired name
                     pstmt.executeUpdate(); // Execute linkage
                 } // End linkage try
-            } else { // If user_id retrieval failed
-                conn.rollback(); // Abort entire transaction
-                return "ERROR: Failed to create user profile."; // Return failure
-            } // End if-else
 
-            // --- Phase 4: Finalization ---
-            conn.commit(); // Permanently save all changes in the transaction
-            return "REGISTRATION_SUCCESS"; // Return success signal
+                // --- Phase 4: Finalization ---
+                return "REGISTRATION_SUCCESS"; // Committed by inTransaction
+            }); // End of transaction
 
         } catch (SQLException e) { // Handle exceptions
-            // TRANSACTION FAILURE: Roll back all changes to prevent corrupted data
-            try { if (conn != null) conn.rollback(); } catch (SQLException ex) { ex.printStackTrace(); } // Perform rollback
+            // TRANSACTION FAILURE: inTransaction already rolled back all changes
             e.printStackTrace(); // Print technical error
             return "ERROR: " + e.getMessage(); // Return exception details
-        } finally { // Final cleanup
-            // Restoring default database behavior
-            try { conn.setAutoCommit(true); } catch (SQLException e) { e.printStackTrace(); } // Re-enable auto-commit
         } // End of main block
     } // End of registerNewOccasional method
 
@@ -1,11 +1,18 @@
 package serverGUI;
 
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
+import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
+import javafx.util.Duration;
 import javafx.application.Platform;
+import MainControllers.ConnectionPool;
+import MainControllers.DBController;
 import MainControllers.ServerController;
+import MainControllers.StatementCache;
 import common.ServerIF;
 
 public class ServerPortFrameController implements ServerIF {
@@ -19,8 +26,14 @@ public class ServerPortFrameController implements ServerIF {
     @FXML
     private TextArea txtLog;
 
+    @FXML
+    private Label lblDbStats;
+
     private ServerController server;
 
+    /** Refreshes {@code lblDbStats} while the server runs. */
+    private Timeline statsRefresh;
+
     
     /**
      * Event handler triggered when the "Start" button is clicked in the server GUI.
@@ -45,10 +58,13 @@ public class ServerPortFrameController implements ServerIF {
         appendLog("Attempting to start server...");
 
         server = new ServerController(5555, this);
+        // -Dbistro.transport=selector serves all clients from one NIO thread
+        server.setSelectorTransport("selector".equalsIgnoreCase(System.getProperty("bistro.transport")));
 
         try {
             server.listen();
             appendLog("Server started listening on port 5555");
+            startStatsRefresh();
 
         } catch (Exception e) {
             appendLog("Error starting server: " + e.getMessage());
@@ -93,6 +109,30 @@ public class ServerPortFrameController implements ServerIF {
         System.exit(0);
     }
 
+    /**
+     * Shows the database pool and prepared statement cache metrics under the log,
+     * refreshed every two seconds on the JavaFX Application Thread.
+     */
+    private void startStatsRefresh() {
+        statsRefresh = new Timeline(new KeyFrame(Duration.seconds(2), e -> refreshDbStats()));
+        statsRefresh.setCycleCount(Timeline.INDEFINITE);
+        statsRefresh.play();
+    }
+
+    private void refreshDbStats() {
+        ConnectionPool.Stats pool = DBController.getInstance().getPoolStats();
+        StatementCache.Stats cache = DBController.getInstance().getStatementCacheStats();
+        if (pool == null || cache == null) {
+            lblDbStats.setText("Database: not connected");
+            return;
+        }
+        lblDbStats.setText(String.format(
+                "DB connections: %d active, %d idle of %d, %d waits timed out%n"
+                + "Statement cache: %.1f%% hits, %d cached, %d evicted",
+                pool.getActive(), pool.getIdle(), pool.getMaxSize(), pool.getTimeouts(),
+                cache.getHitRate() * 100, cache.getCached(), cache.getEvictions()));
+    }
+
     
     /**
      * Appends a message to the server's visual log in the GUI.
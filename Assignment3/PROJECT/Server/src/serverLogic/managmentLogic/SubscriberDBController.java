@@ -2,7 +2,9 @@ package serverLogic.managmentLogic;
 
 import java.sql.*;
 import java.util.ArrayList;
+import common.Page;
 import common.Subscriber;
+import dbLogic.PageRequest;
 import MainControllers.DBController;
 
 /**
@@ -11,30 +13,36 @@ import MainControllers.DBController;
 public class SubscriberDBController {
     
     /**
-     * Retrieves all subscribers from the database.
+     * Retrieves one page of the subscribers from the database, in user ID order;
+     * the cursor is the last user ID sent.
      *
-     * @return A list containing all subscribers stored in the database.
+     * @param page The requested page.
+     * @return A page of the subscribers stored in the database.
      */
-    public static ArrayList<Subscriber> getAllSubscribers() {
+    public static Page<Subscriber> getAllSubscribers(PageRequest page) {
         ArrayList<Subscriber> list = new ArrayList<>();
-        String query = "SELECT user_id, subscriber_id, username, qr_code FROM subscriber";
+        String query = "SELECT user_id, subscriber_id, username, qr_code FROM subscriber "
+                + "WHERE user_id > ? ORDER BY user_id LIMIT ?";
         
         Connection conn = DBController.getInstance().getConnection();
         
-        try (PreparedStatement ps = conn.prepareStatement(query);
-             ResultSet rs = ps.executeQuery()) {
-            
-            while (rs.next()) {
-                list.add(new Subscriber(
-                    rs.getInt("user_id"),
-                    rs.getInt("subscriber_id"),
-                    rs.getString("username"),
-                    rs.getString("qr_code")
-                ));
+        try (PreparedStatement ps = conn.prepareStatement(query)) {
+            // Reads on from the cursor along the primary key
+            ps.setInt(1, Integer.parseInt(page.after(0, String.valueOf(Integer.MIN_VALUE))));
+            ps.setInt(2, page.limit());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new Subscriber(
+                        rs.getInt("user_id"),
+                        rs.getLong("subscriber_id"),
+                        rs.getString("username"),
+                        rs.getString("qr_code")
+                    ));
+                }
             }
-        } catch (SQLException e) {
+        } catch (SQLException | NumberFormatException e) {
             e.printStackTrace();
         }
-        return list; 
+        return page.toPage(list, s -> new Object[] { s.getUserId() });
     }
 }
\ No newline at end of file
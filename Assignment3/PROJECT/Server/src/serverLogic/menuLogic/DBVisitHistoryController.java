@@ -6,8 +6,10 @@ import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.List;
 import MainControllers.DBController;
+import common.Page;
 import common.Visit;
 import common.Visit.VisitStatus;
+import dbLogic.PageRequest;
 
 /**
  * The DBVisitHistoryController is a Data Access Object responsible for
@@ -17,23 +19,41 @@ import common.Visit.VisitStatus;
 public class DBVisitHistoryController {
 
 	/**
-     * Retrieves a complete history of visits for a specific user from the 'visit' table.
-     * The records are returned in descending order based on the start time (newest first).
+     * Retrieves one page of the history of visits for a specific user from the 'visit'
+     * table and its archive, 'visit_archive'.
+     * The records are returned in descending order based on the start time (newest first),
+     * then by confirmation code; the cursor is that pair.
      *
      * @param userId The unique identification number of the user/subscriber.
-     * @return A {@link List} of {@link Visit} objects containing the confirmation code, 
+     * @param page   The requested page.
+     * @return A {@link Page} of {@link Visit} objects containing the confirmation code, 
      * table ID, bill ID, start time, and status for each visit.
-     * Returns an empty list if no records are found or an error occurs.
+     * Returns an empty page if no records are found or an error occurs.
      */
-    public List<Visit> getVisitsForUser(int userId) {
+    public Page<Visit> getVisitsForUser(int userId, PageRequest page) {
         List<Visit> visits = new ArrayList<>();
-        String sql = "SELECT confirmation_code, table_id, bill_id, start_time, status " +
-                     "FROM visit WHERE user_id = ? ORDER BY start_time DESC";
+        String half = "SELECT confirmation_code, table_id, bill_id, start_time, status " +
+                      "FROM %s WHERE user_id = ? " +
+                      "AND (start_time < ? OR (start_time = ? AND confirmation_code < ?)) " +
+                      "ORDER BY start_time DESC, confirmation_code DESC LIMIT ?";
+        String sql = "(" + String.format(half, "visit") + ") " +
+                     "UNION ALL " +
+                     "(" + String.format(half, "visit_archive") + ") " +
+                     "ORDER BY start_time DESC, confirmation_code DESC LIMIT ?";
 
         try {
             Connection conn = DBController.getInstance().getConnection();
             try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setInt(1, userId);
+                String afterTime = page.after(0, "9999-12-31 23:59:59");
+                long afterCode = Long.parseLong(page.after(1, String.valueOf(Long.MAX_VALUE)));
+                for (int base = 0; base <= 5; base += 5) {
+                    pstmt.setInt(base + 1, userId);
+                    pstmt.setString(base + 2, afterTime);
+                    pstmt.setString(base + 3, afterTime);
+                    pstmt.setLong(base + 4, afterCode);
+                    pstmt.setInt(base + 5, page.limit());
+                }
+                pstmt.setInt(11, page.limit());
                 ResultSet rs = pstmt.executeQuery();
 
                 while (rs.next()) {
@@ -51,6 +71,6 @@ public class DBVisitHistoryController {
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return visits;
+        return page.toPage(visits, v -> new Object[] { v.getStartTime(), v.getConfirmationCode() });
     }
 }
\ No newline at end of file
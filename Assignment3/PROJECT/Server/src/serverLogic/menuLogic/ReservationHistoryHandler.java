@@ -2,9 +2,10 @@ package serverLogic.menuLogic; // Defining the package for menu-related logic ha
 
 import ocsf.server.ConnectionToClient; // Importing the OCSF class for managing client connections
 import java.util.ArrayList; // Importing ArrayList for dynamic list structures
-import java.util.List; // Importing List interface for generic list handling
 
+import dbLogic.PageRequest; // Importing the requested page of a list
 import dbLogic.restaurantDB.DBReservationsHistoryController; // Importing the DB controller for history retrieval
+import common.Page; // Importing the page of a long list
 import common.Reservation; // Importing the Reservation domain model
 
 /**
@@ -15,7 +16,8 @@ public class ReservationHistoryHandler { // Start of the ReservationHistoryHandl
 
     /**
      * Processes the "GET_RESERVATIONS_HISTORY" command.
-     * @param data   The incoming protocol list: [0] command string, [1] userId integer.
+     * @param data   The incoming protocol list: [0] command string, [1] userId integer,
+     *               optionally [2] page cursor and [3] page size.
      * @param client The active connection handle to the requesting client.
      */
     public void handle(ArrayList<Object> data, ConnectionToClient client) { // Start of the handle method
@@ -26,14 +28,17 @@ public class ReservationHistoryHandler { // Start of the ReservationHistoryHandl
             
             // Extract the user's primary key from index 1 of the incoming message list
             int userId = (int) data.get(1); // Casting the generic object to an integer
+            
+            // Read the optional cursor and page size; the server caps the page size
+            PageRequest page = PageRequest.from(data, 2);
 
             // --- STEP 2: Database Delegation ---
             
             // Initialize the database access object responsible for history queries
             DBReservationsHistoryController db = new DBReservationsHistoryController(); // Creating DB instance
             
-            // Query the database to retrieve all reservations associated with the given user ID
-            List<Reservation> reservations = db.getReservationsForUser(userId); // Executing the query
+            // Query the database to retrieve one page of the reservations of the given user ID
+            Page<Reservation> reservations = db.getReservationsForUser(userId, page); // Executing the query
 
             // --- STEP 3: Response Construction ---
             
@@ -43,8 +48,8 @@ public class ReservationHistoryHandler { // Start of the ReservationHistoryHandl
             // Add the standardized command header so the client knows how to parse the result
             response.add("RESERVATION_HISTORY"); // Setting the response identifier
             
-            // Add the list of retrieved reservation objects as the message payload
-            response.add(reservations); // Attaching the data list
+            // Add the page of retrieved reservation objects as the message payload
+            response.add(reservations); // Attaching the data page
 
             // --- STEP 4: Network Transmission ---
             
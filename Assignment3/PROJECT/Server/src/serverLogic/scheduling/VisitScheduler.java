@@ -4,7 +4,9 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import MainControllers.DBController;
 import MainControllers.ServerController;
+import serverLogic.terminal.ArrivalStatusNotifier;
 import dbLogic.restaurantDB.JoinWaitingListDBController;
 import dbLogic.restaurantDB.VisitController;
 import dbLogic.restaurantDB.WaitingListController;
@@ -42,6 +44,7 @@ public class VisitScheduler {
                 	VisitController.updateStatus(confirmationCode,"NOSHOW");
 
                     ServerController.log("[VISIT] Customer NOSHOW. Code: " + confirmationCode);
+                    ArrivalStatusNotifier.publish(confirmationCode, "NOSHOW");
 
                     // Table is still available – trigger waiting list handling
                     VisitController.handleTableFreed(tableId);
@@ -49,6 +52,8 @@ public class VisitScheduler {
 
             } catch (Exception e) {
                 ServerController.log("[VISIT] Error in no-show timer: " + e.getMessage());
+            } finally {
+                DBController.getInstance().releaseConnection();
             }
 
         }, 15, TimeUnit.MINUTES);
@@ -4,7 +4,9 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import MainControllers.DBController;
 import MainControllers.ServerController;
+import serverLogic.terminal.ArrivalStatusNotifier;
 import dbLogic.restaurantDB.JoinWaitingListDBController;
 import dbLogic.restaurantDB.WaitingListController;
 
@@ -42,6 +44,7 @@ public class WaitingListScheduler {
                 	JoinWaitingListDBController.updateStatus(confirmationCode,"NOSHOW");
 
                     ServerController.log("[WAITING LIST] Customer NOSHOW. Code: " + confirmationCode);
+                    ArrivalStatusNotifier.publish(confirmationCode, "NOSHOW");
 
                     // Table is still available – trigger waiting list handling
                     WaitingListController.handleTableFreed(tableId);
@@ -49,6 +52,8 @@ public class WaitingListScheduler {
 
             } catch (Exception e) {
                 ServerController.log("[WAITING LIST] Error in no-show timer: " + e.getMessage());
+            } finally {
+                DBController.getInstance().releaseConnection();
             }
 
         }, 15, TimeUnit.MINUTES);
@@ -0,0 +1,142 @@
+package serverLogic.serverRestaurant;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import common.Restaurant;
+import common.TimeRange;
+
+/**
+ * The restaurant's opening hours compiled into bitmaps, so that every open check is a bit test.
+ * <p>
+ * {@link Restaurant#isOpen(LocalDate, String)} builds the day name with {@code substring} and
+ * {@code toLowerCase}, looks it up in a map, and has {@link TimeRange#isWithinRange(String)} parse
+ * three times on every call. Reservations check it twice per candidate time, and the waiting list
+ * asked the database for the same answer. Here the regular hours become one bit per minute of the
+ * week, Monday 00:00 first. The special hours become one day of bits per overriding date, found by
+ * a binary search over the sorted dates.
+ * </p>
+ * <p>
+ * A minute is open exactly when {@code Restaurant.isOpen} says so: equal open and close times
+ * mean closed, the close time is excluded, and a range that crosses midnight is open before its
+ * close and from its open time on the same date. Times that cannot be parsed mean closed.
+ * {@link RestaurantManager} compiles the hours whenever it loads the restaurant; an instance never
+ * changes afterwards.
+ * </p>
+ */
+public final class OpeningHours {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int WORDS_PER_DAY = (MINUTES_PER_DAY + 63) / 64;
+    private static final int WORDS_PER_WEEK = (7 * MINUTES_PER_DAY + 63) / 64;
+
+    /** One bit per minute of the week, Monday 00:00 first. */
+    private final long[] week;
+
+    /** The epoch days of the special dates, ascending. */
+    private final long[] specialDays;
+
+    /** One bit per minute of each special date, in the order of {@link #specialDays}. */
+    private final long[][] specialMinutes;
+
+    private OpeningHours(long[] week, long[] specialDays, long[][] specialMinutes) {
+        this.week = week;
+        this.specialDays = specialDays;
+        this.specialMinutes = specialMinutes;
+    }
+
+    /**
+     * Compiles the regular and special hours of a restaurant.
+     *
+     * @param restaurant The restaurant, with its hours loaded.
+     * @return Its opening hours.
+     */
+    public static OpeningHours compile(Restaurant restaurant) {
+        long[] week = new long[WORDS_PER_WEEK];
+        for (DayOfWeek day : DayOfWeek.values()) {
+            String name = day.name().substring(0, 1) + day.name().substring(1).toLowerCase();
+            fill(week, (day.getValue() - 1) * MINUTES_PER_DAY, restaurant.getRegularHours().get(name));
+        }
+
+        TreeMap<LocalDate, TimeRange> special = new TreeMap<>(restaurant.getSpecialHours());
+        long[] specialDays = new long[special.size()];
+        long[][] specialMinutes = new long[special.size()][];
+        int i = 0;
+        for (Map.Entry<LocalDate, TimeRange> entry : special.entrySet()) {
+            specialDays[i] = entry.getKey().toEpochDay();
+            specialMinutes[i] = new long[WORDS_PER_DAY];
+            fill(specialMinutes[i], 0, entry.getValue());
+            i++;
+        }
+        return new OpeningHours(week, specialDays, specialMinutes);
+    }
+
+    /**
+     * @param date        The date.
+     * @param minuteOfDay The minute of the day, from 0 to 1439.
+     * @return {@code true} if the restaurant is open at that minute.
+     */
+    public boolean isOpen(LocalDate date, int minuteOfDay) {
+        int special = Arrays.binarySearch(specialDays, date.toEpochDay());
+        if (special >= 0) {
+            return isSet(specialMinutes[special], minuteOfDay);
+        }
+        return isSet(week, (date.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY + minuteOfDay);
+    }
+
+    /**
+     * @param at The date and time; seconds are ignored.
+     * @return {@code true} if the restaurant is open at that minute.
+     */
+    public boolean isOpen(LocalDateTime at) {
+        return isOpen(at.toLocalDate(), at.getHour() * 60 + at.getMinute());
+    }
+
+    /**
+     * Sets the open minutes of one day, starting at bit {@code offset}.
+     */
+    private static void fill(long[] bits, int offset, TimeRange hours) {
+        if (hours == null) {
+            return;
+        }
+        LocalTime start;
+        LocalTime end;
+        try {
+            start = LocalTime.parse(hours.getOpenTime());
+            end = LocalTime.parse(hours.getCloseTime());
+        } catch (DateTimeParseException | NullPointerException e) {
+            return;
+        }
+        if (start.equals(end)) {
+            return;
+        }
+        int open = minuteOf(start);
+        int close = minuteOf(end);
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            boolean isOpen = start.isBefore(end) ? minute >= open && minute < close
+                    : minute >= open || minute < close;
+            if (isOpen) {
+                bits[(offset + minute) >>> 6] |= 1L << (offset + minute);
+            }
+        }
+    }
+
+    /**
+     * The first whole minute at or after a time, as compared by {@link TimeRange}: a time with
+     * seconds counts from the next minute.
+     */
+    private static int minuteOf(LocalTime time) {
+        int minute = time.getHour() * 60 + time.getMinute();
+        return time.getSecond() > 0 || time.getNano() > 0 ? minute + 1 : minute;
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+}
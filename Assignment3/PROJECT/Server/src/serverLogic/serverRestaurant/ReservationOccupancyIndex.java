@@ -0,0 +1,332 @@
+package serverLogic.serverRestaurant;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import common.Reservation;
+import dbLogic.repository.Repositories;
+import dbLogic.repository.Storage.UnitOfWork;
+
+/**
+ * How many tables of each size are booked in every 15-minute slot of the booking horizon.
+ * <p>
+ * Checking a new reservation used to cost one {@code COUNT(*)} per table size, and up to three
+ * more rounds for the next days' suggestions. The index answers the same question from RAM: for
+ * every table size it keeps a counter per 15-minute slot, from midnight today until
+ * {@value #HORIZON_DAYS} days later, which covers the month that can be booked plus the
+ * suggestion days. A reservation holds its table size in every slot of its two-hour meal, and a
+ * table size is free at a given time if no slot of the meal is already booked up to the number of
+ * tables of that size.
+ * </p>
+ * <p>
+ * {@link RestaurantManager#initialize(int)} loads the index from the reservations that hold a
+ * table, and the automation thread moves it on every midnight with {@link #advanceTo(LocalDate)},
+ * loading the day that enters the horizon. In between, it is written through: creating a
+ * reservation adds its hold, and cancelling it, marking it a no-show or finishing its visit
+ * releases it. Holds are kept by confirmation code, so adding or releasing one twice changes
+ * nothing.
+ * </p>
+ * <p>
+ * Each database change and its index change run together in {@link #update(UnitOfWork)}, which
+ * shares a read-write lock with the loading: a reload of the horizon never sees a reservation in
+ * the database that the index is about to add, or the other way round. Times outside the horizon
+ * are not indexed; {@link #maxBooked(int, LocalDateTime)} returns -1 for them and the caller asks
+ * the database as before.
+ * </p>
+ * <p>
+ * {@link #freeStarts(Map, int, LocalDate, int)} answers the same question for every slot of a
+ * range at once, in one pass over the counters, for searches that look for free times.
+ * </p>
+ */
+public class ReservationOccupancyIndex {
+
+    /** The length of a slot. */
+    public static final int SLOT_MINUTES = 15;
+
+    /** The days indexed from today: the month that can be booked, the suggestion days and a spare. */
+    public static final int HORIZON_DAYS = 36;
+
+    private static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final int RING = HORIZON_DAYS * SLOTS_PER_DAY;
+    private static final int MEAL_MINUTES = 120;
+
+    /** The slots held by one reservation: {@code [first, end)}, in slots since the epoch. */
+    private static final class Hold {
+        final int tableSize;
+        final long first;
+        final long end;
+
+        Hold(int tableSize, LocalDateTime at) {
+            this.tableSize = tableSize;
+            this.first = firstSlot(at);
+            this.end = endSlot(at);
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Per table size, the number of holds in each slot; slot {@code s} is at {@code s % RING}. */
+    private final ConcurrentHashMap<Integer, AtomicIntegerArray> booked = new ConcurrentHashMap<>();
+
+    /** The holds by confirmation code. */
+    private final ConcurrentHashMap<Long, Hold> holds = new ConcurrentHashMap<>();
+
+    /** The first slot of the horizon, midnight of its first day; guarded by {@link #lock}. */
+    private long windowStart;
+
+    /** Whether the index has been loaded; until then every query goes to the database. */
+    private volatile boolean loaded;
+
+    /**
+     * Reads every reservation that holds a table within the horizon starting today.
+     *
+     * @param today The first day of the horizon.
+     * @throws SQLException If the reservations cannot be read; the index stays unused.
+     */
+    public void load(LocalDate today) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            booked.clear();
+            holds.clear();
+            windowStart = firstSlot(today.atStartOfDay());
+            loadSlots(windowStart, windowStart + RING);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the horizon to start today: the past days are dropped, and the days that enter the
+     * horizon are read from the database. Does nothing if the horizon already starts today.
+     * An index that could not be loaded is loaded again.
+     *
+     * @param today The current day.
+     * @throws SQLException If the new days cannot be read; the index is then loaded again next time.
+     */
+    public void advanceTo(LocalDate today) throws SQLException {
+        long newStart = firstSlot(today.atStartOfDay());
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                load(today);
+                return;
+            }
+            if (newStart <= windowStart) {
+                return;
+            }
+            if (newStart - windowStart >= RING) {
+                load(today);
+                return;
+            }
+            // The slots of the past days are reused for the days entering the horizon
+            for (AtomicIntegerArray counts : booked.values()) {
+                for (long slot = windowStart; slot < newStart; slot++) {
+                    counts.set(ring(slot), 0);
+                }
+            }
+            holds.values().removeIf(hold -> hold.end <= newStart);
+            long oldEnd = windowStart + RING;
+            windowStart = newStart;
+            loaded = false;
+            loadSlots(oldEnd, newStart + RING);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a change of the reservations together with its index change, so that no reload
+     * of the horizon falls between the two.
+     *
+     * @param <T>  The type of the work's result.
+     * @param work The database change, followed by {@link #add} or {@link #release}.
+     * @return The work's result.
+     * @throws SQLException If the work failed.
+     */
+    public <T> T update(UnitOfWork<T> work) throws SQLException {
+        lock.readLock().lock();
+        try {
+            return work.run();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records that a reservation holds a table.
+     *
+     * @param code      The confirmation code.
+     * @param tableSize The table size allocated to it.
+     * @param at        Its date and time.
+     */
+    public void add(long code, int tableSize, LocalDateTime at) {
+        Hold hold = new Hold(tableSize, at);
+        lock.readLock().lock();
+        try {
+            // A hold outside the horizon is read from the database when its day comes
+            if (!loaded || hold.end <= windowStart || hold.first >= windowStart + RING) {
+                return;
+            }
+            if (holds.putIfAbsent(code, hold) == null) {
+                count(hold, 1, windowStart, windowStart + RING);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records that a reservation no longer holds a table. Codes the index does not hold, such
+     * as waiting list codes, are ignored.
+     *
+     * @param code The confirmation code.
+     */
+    public void release(long code) {
+        lock.readLock().lock();
+        try {
+            Hold hold = holds.remove(code);
+            if (hold != null) {
+                count(hold, -1, windowStart, windowStart + RING);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param status A reservation status.
+     * @return {@code true} if a reservation in that status no longer holds a table.
+     */
+    public static boolean releasesTable(String status) {
+        return "CANCELLED".equals(status) || "FINISHED".equals(status) || "NOSHOW".equals(status);
+    }
+
+    /**
+     * Returns the most tables of one size booked at once during a two-hour meal.
+     *
+     * @param tableSize The table size.
+     * @param at        The start of the meal.
+     * @return The highest number of holds in any slot of the meal, or -1 if the meal is not
+     *         within the horizon.
+     */
+    public int maxBooked(int tableSize, LocalDateTime at) {
+        long first = firstSlot(at);
+        long end = endSlot(at);
+        lock.readLock().lock();
+        try {
+            if (!loaded || first < windowStart || end > windowStart + RING) {
+                return -1;
+            }
+            AtomicIntegerArray counts = booked.get(tableSize);
+            int max = 0;
+            for (long slot = first; counts != null && slot < end; slot++) {
+                max = Math.max(max, counts.get(ring(slot)));
+            }
+            return max;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the slots at which a party can start a two-hour meal: some table size that seats the
+     * party has fewer holds than tables in every slot of the meal. Each size is read in one
+     * backward pass that keeps the nearest full slot, so the whole range costs one read per slot
+     * and size.
+     *
+     * @param inventory The number of tables of each size.
+     * @param guests    The party size.
+     * @param from      The first day of the range.
+     * @param days      The number of days in the range.
+     * @return Bit {@code i} set if a meal can start in the {@code i}-th slot from midnight of
+     *         {@code from}, or {@code null} if the range is not within the horizon. A meal that
+     *         would end beyond the horizon is never marked.
+     */
+    public BitSet freeStarts(Map<Integer, Integer> inventory, int guests, LocalDate from, int days) {
+        long first = firstSlot(from.atStartOfDay());
+        int length = days * SLOTS_PER_DAY;
+        int mealSlots = MEAL_MINUTES / SLOT_MINUTES;
+        BitSet free = new BitSet(length);
+        lock.readLock().lock();
+        try {
+            long limit = windowStart + RING;
+            if (!loaded || first < windowStart || first + length > limit) {
+                return null;
+            }
+            for (Map.Entry<Integer, Integer> size : inventory.entrySet()) {
+                int tables = size.getValue();
+                if (size.getKey() < guests || tables <= 0) {
+                    continue;
+                }
+                AtomicIntegerArray counts = booked.get(size.getKey());
+                // The end of the horizon counts as full, so no meal reaches past it
+                long nextFull = limit;
+                for (long slot = Math.min(first + length + mealSlots - 1, limit) - 1; slot >= first; slot--) {
+                    if (counts != null && counts.get(ring(slot)) >= tables) {
+                        nextFull = slot;
+                    }
+                    if (slot < first + length && nextFull - slot >= mealSlots) {
+                        free.set((int) (slot - first));
+                    }
+                }
+            }
+            return free;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the holds of the reservations that reach into {@code [from, to)}, counting only
+     * those slots. Called with the write lock held.
+     */
+    private void loadSlots(long from, long to) throws SQLException {
+        LocalDateTime since = timeOf(from).minusMinutes(MEAL_MINUTES);
+        for (Reservation res : Repositories.get().reservations().findHolding(since, timeOf(to))) {
+            Hold hold = new Hold(res.getNumberOfGuests(),
+                    LocalDateTime.parse(res.getReservationDateTime().trim().replace(' ', 'T')));
+            // A hold reaching in from the old end of the horizon is already known
+            Hold known = holds.putIfAbsent(res.getConfirmationCode(), hold);
+            count(known == null ? hold : known, 1, from, to);
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the slots of a hold within {@code [from, to)}.
+     */
+    private void count(Hold hold, int delta, long from, long to) {
+        AtomicIntegerArray counts = booked.computeIfAbsent(hold.tableSize, size -> new AtomicIntegerArray(RING));
+        for (long slot = Math.max(hold.first, from); slot < Math.min(hold.end, to); slot++) {
+            counts.addAndGet(ring(slot), delta);
+        }
+    }
+
+    private static int ring(long slot) {
+        return (int) Math.floorMod(slot, (long) RING);
+    }
+
+    /** @return The slot that contains {@code at}. */
+    private static long firstSlot(LocalDateTime at) {
+        return Math.floorDiv(at.toEpochSecond(ZoneOffset.UTC) / 60, SLOT_MINUTES);
+    }
+
+    /** @return The first slot after a meal starting at {@code at}. */
+    private static long endSlot(LocalDateTime at) {
+        long endMinute = at.toEpochSecond(ZoneOffset.UTC) / 60 + MEAL_MINUTES;
+        return Math.floorDiv(endMinute + SLOT_MINUTES - 1, SLOT_MINUTES);
+    }
+
+    private static LocalDateTime timeOf(long slot) {
+        return LocalDateTime.ofEpochSecond(slot * SLOT_MINUTES * 60, 0, ZoneOffset.UTC);
+    }
+}
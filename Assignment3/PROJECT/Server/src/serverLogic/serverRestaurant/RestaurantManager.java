@@ -1,8 +1,10 @@
 package serverLogic.serverRestaurant;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
 
 import common.Restaurant;
+import dbLogic.repository.Repositories;
 import dbLogic.restaurantDB.RestaurantDBController;
 
 /**
@@ -13,6 +15,13 @@ import dbLogic.restaurantDB.RestaurantDBController;
  * static restaurant data (name, table inventory, and regular hours) into RAM 
  * during startup. This prevents the system from performing expensive SQL JOIN 
  * operations for every single availability check.</p>
+ * <p>It also owns the {@link TableStateRegistry}: which tables exist, their capacities
+ * and which of them are occupied right now. Seating reads it instead of the
+ * {@code table} table, and the seating, payment and table management paths write
+ * through to it. Likewise the {@link ReservationOccupancyIndex} holds how many
+ * tables of each size are booked in every 15-minute slot of the booking horizon.
+ * The opening hours are compiled into {@link OpeningHours} each time the restaurant is
+ * loaded, so open checks never parse time strings.</p>
  * * <p>This class follows the <b>Singleton-like</b> pattern, acting as the 
  * "Single Source of Truth" for the restaurant entity throughout the server's lifecycle.</p>
  * * @author Software Engineering Student
@@ -20,10 +29,18 @@ import dbLogic.restaurantDB.RestaurantDBController;
  */
 public class RestaurantManager {
 
-    /** * The cached restaurant instance stored in memory. 
+    /** * The cached restaurant instance stored in memory, with its compiled opening hours.
      * Declared static to ensure global accessibility across different logic handlers.
+     * Both are replaced together through this one reference, so a reader never sees the
+     * restaurant of one reload with the hours of another.
      */
-    private static Restaurant currentRestaurant;
+    private static volatile Snapshot current = new Snapshot(null);
+
+    /** The live state of the tables, loaded by {@link #initialize(int)}. */
+    private static final TableStateRegistry tables = new TableStateRegistry();
+
+    /** The booked tables per slot, loaded by {@link #initialize(int)}. */
+    private static final ReservationOccupancyIndex occupancy = new ReservationOccupancyIndex();
 
     /**
      * Bootstraps the restaurant data by fetching it from the persistence layer.
@@ -34,7 +51,7 @@ public class RestaurantManager {
      * @return <b>true</b> if the data was successfully loaded and mapped; 
      * <b>false</b> if the database returned null or an error occurred.
      */
-    public static boolean initialize(int restaurantId) {
+    public static synchronized boolean initialize(int restaurantId) {
         System.out.println("Initializing restaurant data in RAM for ID: " + restaurantId + "...");
         
         try {
@@ -42,9 +59,14 @@ public class RestaurantManager {
              * Delegation: Calling the DB logic. 
              * Since loadFullRestaurantData now throws SQLException, we must wrap it in try-catch.
              */
-            currentRestaurant = RestaurantDBController.loadFullRestaurantData(restaurantId);
+            setInstance(RestaurantDBController.loadFullRestaurantData(restaurantId));
             
+            Restaurant currentRestaurant = getInstance();
             if (currentRestaurant != null) {
+                tables.load(Repositories.get().tables().findAll());
+                System.out.println("Table state loaded: " + tables.totalCapacity() + " seats, "
+                        + tables.occupiedCapacity() + " occupied.");
+                occupancy.load(LocalDate.now());
                 System.out.println("Restaurant data loaded successfully: " + currentRestaurant.getRestaurantName());
                 return true;
             } else {
@@ -62,16 +84,22 @@ public class RestaurantManager {
     /**
      * Re-loads the restaurant data from the database into the memory cache.
      * Useful after management updates (like changing opening hours).
+     * The {@link TableStateRegistry} and the {@link ReservationOccupancyIndex} are not
+     * reloaded: they are kept up to date by the paths that change the tables and the
+     * reservations, and a reload could miss a change in progress.
+     * <p>Reloads run one at a time: each reads the database after the previous one was
+     * installed, so two management updates finishing together cannot leave the older
+     * snapshot (old hours, or an inventory missing a new table) in place.</p>
      * * @param restaurantId The ID of the restaurant to reload.
      * @return true if re-initialization succeeded, false otherwise.
      */
-    public static boolean reInitialize(int restaurantId) {
+    public static synchronized boolean reInitialize(int restaurantId) {
         try {
             // Load the full data using the existing DB controller
             Restaurant updatedRestaurant = RestaurantDBController.loadFullRestaurantData(restaurantId);
             
             if (updatedRestaurant != null) {
-                currentRestaurant = updatedRestaurant;
+                setInstance(updatedRestaurant);
                 System.out.println("Restaurant cache re-initialized successfully for ID: " + restaurantId);
                 return true;
             }
@@ -90,17 +118,55 @@ public class RestaurantManager {
      * * @return The currently cached {@link Restaurant} object.
      */
     public static Restaurant getInstance() {
-        return currentRestaurant;
+        return current.restaurant;
+    }
+
+    /**
+     * Provides the live table state used by the seating logic.
+     * 
+     * @return The {@link TableStateRegistry} of the restaurant.
+     */
+    public static TableStateRegistry tables() {
+        return tables;
+    }
+
+    /**
+     * Provides the booked tables per time slot used to accept new reservations.
+     * 
+     * @return The {@link ReservationOccupancyIndex} of the restaurant.
+     */
+    public static ReservationOccupancyIndex occupancy() {
+        return occupancy;
+    }
+
+    /**
+     * Provides the compiled opening hours of the cached restaurant.
+     * 
+     * @return The {@link OpeningHours}, or null if no restaurant is loaded.
+     */
+    public static OpeningHours hours() {
+        return current.hours;
     }
 
     /**
-     * Manually updates the in-memory restaurant instance.
+     * Manually updates the in-memory restaurant instance, and compiles its opening hours.
      * * <p>This can be used during runtime updates (e.g., if a manager changes hours) 
      * or during <b>Unit Testing</b> to inject a Mock or Stub restaurant object 
      * for verification purposes.</p>
      * * @param restaurant The new {@link Restaurant} instance to be cached.
      */
-    public static void setInstance(Restaurant restaurant) {
-        currentRestaurant = restaurant;
+    public static synchronized void setInstance(Restaurant restaurant) {
+        current = new Snapshot(restaurant);
+    }
+
+    /** A loaded restaurant and the opening hours compiled from it. */
+    private static final class Snapshot {
+        final Restaurant restaurant;
+        final OpeningHours hours;
+
+        Snapshot(Restaurant restaurant) {
+            this.restaurant = restaurant;
+            this.hours = restaurant == null ? null : OpeningHours.compile(restaurant);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,318 @@
+package serverLogic.serverRestaurant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import common.Table;
+
+/**
+ * The in-memory state of the restaurant's tables: their capacities and which of them are occupied.
+ * <p>
+ * Seating used to ask the {@code table} table for every decision: the best free table, the free
+ * capacities, the total and occupied capacity, and the capacity of each candidate table one query
+ * at a time. The registry answers all of these from RAM. It is loaded once at start-up by
+ * {@link RestaurantManager#initialize(int)}, and is then written through by the paths that change
+ * the tables: seating occupies a table, payment frees it, and table management adds, removes and
+ * resizes tables. Each of them updates the database and the registry.
+ * </p>
+ * <p><b>Concurrency:</b> every table has one atomic state word holding its capacity and an occupied
+ * bit. Occupying a table is a compare-and-set of that word, so two requests can never both get the
+ * same table; the loser simply moves on to the next candidate. The free tables are also kept in a
+ * skip list ordered by capacity, then id, so the best fit for a party is an O(log n) ceiling search.
+ * The skip list may briefly hold a table that was just occupied; every lookup checks the state word
+ * before it trusts an entry.</p>
+ * <p>
+ * Seating occupies the table here <i>before</i> it writes the database, and frees it here
+ * <i>after</i> the payment is committed, so the registry never offers a table the database still
+ * holds. If the database write fails, the caller frees the table again.
+ * </p>
+ */
+public class TableStateRegistry {
+
+    /** The state word of a removed table; no compare-and-set can match it. */
+    private static final long REMOVED = -1L;
+
+    /** One table. Its id never changes; its state word is {@code capacity << 1 | occupied}. */
+    private static final class TableState {
+        final int id;
+        final AtomicLong word;
+
+        TableState(int id, int capacity, boolean occupied) {
+            this.id = id;
+            this.word = new AtomicLong(word(capacity, occupied));
+        }
+    }
+
+    private final ConcurrentHashMap<Integer, TableState> tables = new ConcurrentHashMap<>();
+
+    /** The free tables, as {@link #key(int, int)}, smallest capacity first. */
+    private final ConcurrentSkipListSet<Long> free = new ConcurrentSkipListSet<>();
+
+    private final AtomicInteger totalCapacity = new AtomicInteger();
+    private final AtomicInteger occupiedCapacity = new AtomicInteger();
+
+    /**
+     * Replaces the whole state with the tables read from the database.
+     * Call it before any request is served.
+     *
+     * @param all Every table, with its capacity and availability.
+     */
+    public synchronized void load(List<Table> all) {
+        tables.clear();
+        free.clear();
+        totalCapacity.set(0);
+        occupiedCapacity.set(0);
+        for (Table table : all) {
+            add(table.getTableId(), table.getCapacity(), !table.isAvailable());
+        }
+    }
+
+    // --- Seating: lock-free reads and claims ---
+
+    /**
+     * @param guests The party size.
+     * @return The smallest free table that seats the party, or -1 if there is none.
+     */
+    public int bestFreeTable(int guests) {
+        for (long key : free.tailSet(key(guests, 0))) {
+            if (isFree(key)) {
+                return idOf(key);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Occupies the smallest free table that seats the party.
+     *
+     * @param guests The party size.
+     * @return The occupied table, or -1 if no free table seats the party.
+     */
+    public int claimBestFit(int guests) {
+        for (long key : free.tailSet(key(guests, 0))) {
+            if (claim(idOf(key), capacityOf(key))) {
+                return idOf(key);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Occupies a table if it is free.
+     *
+     * @param tableId The table.
+     * @return {@code true} if this call occupied it; {@code false} if it is occupied or unknown.
+     */
+    public boolean claim(int tableId) {
+        TableState state = tables.get(tableId);
+        if (state == null) {
+            return false;
+        }
+        long current = state.word.get();
+        return current != REMOVED && !isOccupied(current) && claim(tableId, (int) (current >>> 1));
+    }
+
+    /**
+     * Frees a table. Freeing a free or unknown table does nothing.
+     *
+     * @param tableId The table.
+     */
+    public void release(int tableId) {
+        TableState state = tables.get(tableId);
+        if (state == null) {
+            return;
+        }
+        long current;
+        do {
+            current = state.word.get();
+            if (current == REMOVED || !isOccupied(current)) {
+                return;
+            }
+        } while (!state.word.compareAndSet(current, current & ~1L));
+        occupiedCapacity.addAndGet(-(int) (current >>> 1));
+        syncFreeList(state);
+    }
+
+    /**
+     * @param guests The party size.
+     * @return The free tables that seat the party, smallest first.
+     */
+    public List<Integer> freeTables(int guests) {
+        List<Integer> tableIds = new ArrayList<>();
+        for (long key : free.tailSet(key(guests, 0))) {
+            if (isFree(key)) {
+                tableIds.add(idOf(key));
+            }
+        }
+        return tableIds;
+    }
+
+    /**
+     * @return The capacities of the free tables, smallest first.
+     */
+    public List<Integer> freeCapacities() {
+        List<Integer> capacities = new ArrayList<>();
+        for (long key : free) {
+            if (isFree(key)) {
+                capacities.add(capacityOf(key));
+            }
+        }
+        return capacities;
+    }
+
+    /**
+     * @param tableId The table.
+     * @return Its capacity, or 0 if there is no such table.
+     */
+    public int capacityOf(int tableId) {
+        TableState state = tables.get(tableId);
+        long current = state == null ? REMOVED : state.word.get();
+        return current == REMOVED ? 0 : (int) (current >>> 1);
+    }
+
+    /**
+     * @return The sum of the capacities of all tables.
+     */
+    public int totalCapacity() {
+        return totalCapacity.get();
+    }
+
+    /**
+     * @return The sum of the capacities of the occupied tables.
+     */
+    public int occupiedCapacity() {
+        return occupiedCapacity.get();
+    }
+
+    // --- Table management: rare, serialized changes ---
+
+    /**
+     * Adds a free table, or replaces the table with that id.
+     *
+     * @param tableId  The table id.
+     * @param capacity Its capacity.
+     */
+    public synchronized void add(int tableId, int capacity) {
+        remove(tableId);
+        add(tableId, capacity, false);
+    }
+
+    /**
+     * Removes a table.
+     *
+     * @param tableId The table.
+     */
+    public synchronized void remove(int tableId) {
+        TableState state = tables.remove(tableId);
+        if (state == null) {
+            return;
+        }
+        long last = state.word.getAndSet(REMOVED);
+        int capacity = (int) (last >>> 1);
+        free.remove(key(capacity, tableId));
+        totalCapacity.addAndGet(-capacity);
+        if (isOccupied(last)) {
+            occupiedCapacity.addAndGet(-capacity);
+        }
+    }
+
+    /**
+     * Changes the capacity of a table, keeping it free or occupied.
+     *
+     * @param tableId     The table.
+     * @param newCapacity Its new capacity.
+     */
+    public synchronized void updateCapacity(int tableId, int newCapacity) {
+        TableState state = tables.get(tableId);
+        if (state == null) {
+            return;
+        }
+        long current;
+        do {
+            current = state.word.get();
+        } while (!state.word.compareAndSet(current, word(newCapacity, isOccupied(current))));
+        int oldCapacity = (int) (current >>> 1);
+        totalCapacity.addAndGet(newCapacity - oldCapacity);
+        if (isOccupied(current)) {
+            occupiedCapacity.addAndGet(newCapacity - oldCapacity);
+        }
+        free.remove(key(oldCapacity, tableId));
+        syncFreeList(state);
+    }
+
+    private void add(int tableId, int capacity, boolean occupied) {
+        TableState state = new TableState(tableId, capacity, occupied);
+        tables.put(tableId, state);
+        totalCapacity.addAndGet(capacity);
+        if (occupied) {
+            occupiedCapacity.addAndGet(capacity);
+        }
+        syncFreeList(state);
+    }
+
+    /**
+     * Occupies a table if it is free with the given capacity.
+     */
+    private boolean claim(int tableId, int capacity) {
+        TableState state = tables.get(tableId);
+        if (state == null || !state.word.compareAndSet(word(capacity, false), word(capacity, true))) {
+            return false;
+        }
+        occupiedCapacity.addAndGet(capacity);
+        syncFreeList(state);
+        return true;
+    }
+
+    /**
+     * Makes the skip list agree with the state word of a table. The word is read again after the
+     * update, so a claim or release that raced with this one is never lost from the list.
+     */
+    private void syncFreeList(TableState state) {
+        long seen;
+        do {
+            seen = state.word.get();
+            if (seen == REMOVED) {
+                return;
+            }
+            long key = key((int) (seen >>> 1), state.id);
+            if (isOccupied(seen)) {
+                free.remove(key);
+            } else {
+                free.add(key);
+            }
+        } while (state.word.get() != seen);
+    }
+
+    /**
+     * @return {@code true} if the entry still describes a free table with that capacity.
+     */
+    private boolean isFree(long key) {
+        TableState state = tables.get(idOf(key));
+        return state != null && state.word.get() == word(capacityOf(key), false);
+    }
+
+    private static long word(int capacity, boolean occupied) {
+        return ((long) capacity << 1) | (occupied ? 1L : 0L);
+    }
+
+    private static boolean isOccupied(long word) {
+        return (word & 1L) != 0;
+    }
+
+    /** The skip list key: capacity in the high half, table id in the low half. */
+    private static long key(int capacity, int tableId) {
+        return ((long) capacity << 32) | (tableId & 0xFFFFFFFFL);
+    }
+
+    private static int capacityOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int idOf(long key) {
+        return (int) key;
+    }
+}
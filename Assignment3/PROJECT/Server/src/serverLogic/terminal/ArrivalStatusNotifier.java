@@ -0,0 +1,140 @@
+package serverLogic.terminal;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import MainControllers.ServerController;
+import common.ArrivalStatusUpdate;
+import dbLogic.restaurantDB.VisitController;
+import ocsf.server.ConnectionToClient;
+
+/**
+ * Keeps track of the terminals waiting for a table and pushes status changes to them.
+ * <p>
+ * A terminal used to poll CHECK_STATUS_UPDATE every 5 seconds for every waiting party,
+ * which ran a status query on each poll. Instead, a terminal is subscribed to the
+ * confirmation code of a party once PROCESS_TERMINAL_ARRIVAL answers that it has to wait,
+ * and the code that makes the transition (a freed table notifying the party, the party
+ * being seated, a no-show or a cancellation) publishes it here. This class is the only
+ * sender of {@link ArrivalStatusUpdate}s: each status reaches a subscription at most once,
+ * whether it comes from a publish or from the check made when subscribing.
+ * </p>
+ * <p>
+ * Subscriptions end when the party is seated or lost (ARRIVED, NOSHOW, CANCELLED)
+ * and when the terminal disconnects or its connection fails.
+ * </p>
+ */
+public class ArrivalStatusNotifier {
+
+    /** Subscriptions to each confirmation code, by terminal. */
+    private static final Map<Long, Map<ConnectionToClient, Subscription>> subscribers = new ConcurrentHashMap<>();
+
+    /** Statuses after which a party no longer waits for a table. */
+    private static final Set<String> FINAL_STATUSES = Set.of("ARRIVED", "NOSHOW", "CANCELLED");
+
+    /**
+     * Subscribes a terminal to the status changes of a confirmation code.
+     * The current status is checked once the subscription exists, so a party notified
+     * (or lost) before that is still reported, exactly once.
+     *
+     * @param confirmationCode The code of the waiting party.
+     * @param client The terminal connection to notify.
+     */
+    public static void subscribe(long confirmationCode, ConnectionToClient client) {
+        Subscription subscription = new Subscription(client);
+        subscribers.computeIfAbsent(confirmationCode, code -> new ConcurrentHashMap<>()).put(client, subscription);
+
+        String status = VisitController.checkCurrentStatus(confirmationCode);
+        if ("NOTIFIED".equals(status) || FINAL_STATUSES.contains(status)) {
+            if (FINAL_STATUSES.contains(status)) {
+                unsubscribe(confirmationCode, client);
+            }
+            subscription.deliver(confirmationCode, status);
+        }
+    }
+
+    /**
+     * Removes the subscription of a terminal to a confirmation code.
+     *
+     * @param confirmationCode The code of the party.
+     * @param client The terminal connection.
+     */
+    public static void unsubscribe(long confirmationCode, ConnectionToClient client) {
+        subscribers.computeIfPresent(confirmationCode, (code, clients) -> {
+            clients.remove(client);
+            return clients.isEmpty() ? null : clients;
+        });
+    }
+
+    /**
+     * Removes every subscription of a terminal, e.g. when it disconnects.
+     *
+     * @param client The terminal connection.
+     */
+    public static void unsubscribeAll(ConnectionToClient client) {
+        for (Long code : subscribers.keySet()) {
+            unsubscribe(code, client);
+        }
+    }
+
+    /**
+     * Pushes a status transition to the terminals subscribed to the code.
+     * Does nothing when no terminal waits for it.
+     *
+     * @param confirmationCode The code whose status changed.
+     * @param status The new status.
+     */
+    public static void publish(long confirmationCode, String status) {
+        Map<ConnectionToClient, Subscription> clients = FINAL_STATUSES.contains(status)
+                ? subscribers.remove(confirmationCode)
+                : subscribers.get(confirmationCode);
+        if (clients == null) {
+            return;
+        }
+
+        for (Subscription subscription : clients.values()) {
+            subscription.deliver(confirmationCode, status);
+        }
+    }
+
+    /**
+     * One terminal waiting on one confirmation code, with the statuses already sent to it.
+     */
+    private static final class Subscription {
+
+        private final ConnectionToClient client;
+
+        /** Statuses sent so far. */
+        private final Set<String> delivered = new HashSet<>();
+
+        /** Whether a final status was sent, after which nothing else is. */
+        private boolean finished;
+
+        Subscription(ConnectionToClient client) {
+            this.client = client;
+        }
+
+        /**
+         * Sends a status unless it, or a final status, was already sent.
+         *
+         * @param confirmationCode The code of the party.
+         * @param status The status to send.
+         */
+        synchronized void deliver(long confirmationCode, String status) {
+            if (finished || !delivered.add(status)) {
+                return;
+            }
+            finished = FINAL_STATUSES.contains(status);
+
+            ArrivalStatusUpdate update = new ArrivalStatusUpdate(confirmationCode, status);
+            try {
+                client.sendToClient(update);
+            } catch (IOException e) {
+                ServerController.log("[TERMINAL] Failed to push " + update + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import MainControllers.IdGenerator;
 import common.ServiceResponse;
 import common.ServiceResponse.ServiceStatus;
 import dbLogic.restaurantDB.JoinWaitingListDBController;
@@ -69,7 +70,7 @@ public class JoinWaitingListHandler {
                 if (JoinWaitingListDBController.hasWaitingGuests()) {
 
                     // Directly add the user to the waiting list (skip immediate seating logic)
-                    long confirmationCode = System.currentTimeMillis();
+                    long confirmationCode = IdGenerator.confirmationCodes().next();
 
                     JoinWaitingListDBController.insertWaitingListEntry(confirmationCode,userId,numberOfGuests,"WAITING");
 
@@ -84,7 +85,7 @@ public class JoinWaitingListHandler {
 
 
             // STEP 6: Generate confirmation code
-            long confirmationCode = System.currentTimeMillis();
+            long confirmationCode = IdGenerator.confirmationCodes().next();
 
             // STEP 7: Retrieve candidate tables based on party size 
             List<Integer> candidateTables = TableDBController.getCandidateTables(numberOfGuests);
@@ -113,9 +114,12 @@ public class JoinWaitingListHandler {
              *    c. Verify that the remaining capacity is sufficient to accommodate
              *       all guests from future reservations within the defined time window.
              *
-             * The first table that satisfies this condition is selected,
-             * ensuring a best-fit strategy that minimizes capacity waste
+             * The first table that satisfies this condition and can still be taken
+             * is selected, ensuring a best-fit strategy that minimizes capacity waste
              * and preserves larger tables for future use.
+             *
+             * All capacities come from the in-memory table registry; taking the
+             * table marks it unavailable there and in the database.
              */
 
             int totalCapacity = TableDBController.getRestaurantMaxCapacity();
@@ -128,7 +132,8 @@ public class JoinWaitingListHandler {
 
                 int freeCapacityAfterSeating = totalCapacity - unavailableCapacity - tableCapacity;
 
-                if (futureGuests <= freeCapacityAfterSeating) {
+                // Mark the selected table as unavailable, unless another guest just took it
+                if (futureGuests <= freeCapacityAfterSeating && TableDBController.setTableUnavailable(tableId)) {
                     chosenTableId = tableId;
                     break;
                 }
@@ -137,9 +142,6 @@ public class JoinWaitingListHandler {
             // STEP 9: Immediate seating scenario 
             if (chosenTableId != null) {
 
-                // Mark the selected table as unavailable
-                TableDBController.setTableUnavailable(chosenTableId);
-
                 // Create an ACTIVE visit entry and initialize a connected bill
                 int billId = VisitDBController.insertVisitAndCreateBill(confirmationCode,chosenTableId,userId);
 